@@ -139,6 +139,27 @@ public abstract class AST {
 
     }
 
+    /**
+     * Replaces one of the current node's children with another node.
+     * <p>
+     *     Unlike {@link #replaceWith(AST)}, the child is found by reference, so the correct node
+     *     will be replaced even if another node has the same location and text.
+     * </p>
+     * @param child The {@link AST} node we wish to replace.
+     * @param replacementNode The {@link AST} node we wish to replace the child with.
+     */
+    public void replaceChild(AST child, AST replacementNode) {
+        for(int i = 0; i < children.size(); i++) {
+            if(children.get(i) == child) {
+                removeChildNode(i);
+                addChildNode(i,replacementNode);
+                replacementNode.parent = this;
+                child.parent = null;
+                return;
+            }
+        }
+    }
+
     /**
      * Adds an {@link AST} node into a specified position in {@link #children}.
      * <p>
@@ -192,6 +213,40 @@ public abstract class AST {
      */
     private void removeChildNode(int pos) { children.remove(pos); }
 
+    /**
+     * Inserts an {@link AST} node into a specified position in {@link #children}.
+     * <p>
+     *     Unlike {@link #addChildNode(int, AST)}, no child is replaced. This should be called by any
+     *     node that allows a new child to be inserted, so {@link #children} stays consistent with
+     *     the fields of the node.
+     * </p>
+     * @param pos The position in {@link #children} the node will be inserted at.
+     * @param node The {@link AST} node we want to insert.
+     */
+    protected void insertChildNode(int pos, AST node) {
+        children.add(pos,node);
+        node.parent = this;
+    }
+
+    /**
+     * Removes an {@link AST} node from {@link #children}.
+     * <p>
+     *     The node is found by reference. This method should be called by any node that
+     *     allows one of its children to be removed, so {@link #children} stays consistent
+     *     with the fields of the node.
+     * </p>
+     * @param node The {@link AST} node we want to remove from {@link #children}.
+     */
+    protected void removeChildNode(AST node) {
+        for(int i = 0; i < children.size(); i++) {
+            if(children.get(i) == node) {
+                children.remove(i);
+                node.parent = null;
+                return;
+            }
+        }
+    }
+
     /**
      * Updates the {@link #children} vector to replace a child node at a given position with another node.
      * <p>
@@ -15,7 +15,7 @@ import cminor.utilities.Visitor;
  * A {@link ClassNode} that represents a method declared in a {@link ClassDecl}.
  * @author Daniel Levy
  */
-public class MethodDecl extends ClassNode implements NameDecl, ScopeDecl, ReturnDecl {
+public class MethodDecl extends ClassNode implements NameDecl, ScopeDecl, ReturnDecl, FrameDecl {
 
     /**
      * The scope that the method opens.
@@ -67,6 +67,16 @@ public class MethodDecl extends ClassNode implements NameDecl, ScopeDecl, Return
      */
     private boolean containsReturnStmt;
 
+    /**
+     * The number of slots needed to store every parameter and local variable when a call frame is created.
+     */
+    private int frameSize;
+
+    /**
+     * Position of the method inside the virtual method table of its class. This is set by the {@link cminor.micropasses.SlotResolver}.
+     */
+    private int vtableIndex = -1;
+
     /**
      * Default constructor for {@link MethodDecl}.
      */
@@ -207,6 +217,28 @@ public class MethodDecl extends ClassNode implements NameDecl, ScopeDecl, Return
      */
     public boolean containsReturnStmt() { return containsReturnStmt; }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void setFrameSize(int frameSize) { this.frameSize = frameSize; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getFrameSize() { return frameSize; }
+
+    /**
+     * Getter method for {@link #vtableIndex}.
+     * @return Int representing the position of the method in its class's virtual method table.
+     */
+    public int getVTableIndex() { return vtableIndex; }
+
+    /**
+     * Setter method for {@link #vtableIndex}.
+     * @param vtableIndex The position of the method in its class's virtual method table.
+     */
+    public void setVTableIndex(int vtableIndex) { this.vtableIndex = vtableIndex; }
+
     /**
      * {@inheritDoc}
      */
@@ -37,6 +37,12 @@ public class FieldExpr extends Expression {
      */
     private boolean isInvocation;
 
+    /**
+     * Slot of the accessed field inside the object's {@link cminor.utilities.FieldLayout}.
+     * This is set by the {@link cminor.micropasses.SlotResolver} if the access expression is a name.
+     */
+    private int fieldSlot = -1;
+
     /**
      * Default constructor for {@link FieldExpr}.
      */
@@ -96,6 +102,32 @@ public class FieldExpr extends Expression {
         return fe.toString();
     }
 
+    /**
+     * Returns the innermost {@link FieldExpr} of the current expression.
+     * <p>
+     *     The innermost field expression is the one that accesses the final field.
+     * </p>
+     * @return {@link FieldExpr}
+     */
+    public FieldExpr getLastFieldExpr() {
+        FieldExpr fe = this;
+        while(fe.getAccessExpr().isFieldExpr())
+            fe = fe.getAccessExpr().asFieldExpr();
+        return fe;
+    }
+
+    /**
+     * Getter method for {@link #fieldSlot}.
+     * @return Int representing the slot of the accessed field, or -1 if the slot is unknown.
+     */
+    public int getFieldSlot() { return fieldSlot; }
+
+    /**
+     * Setter method for {@link #fieldSlot}.
+     * @param fieldSlot The slot of the accessed field.
+     */
+    public void setFieldSlot(int fieldSlot) { this.fieldSlot = fieldSlot; }
+
     /**
      * Setter for {@link #target}.
      * @param target Expression
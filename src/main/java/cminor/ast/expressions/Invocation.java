@@ -5,6 +5,7 @@ import cminor.ast.topleveldecls.ClassDecl;
 import cminor.token.Token;
 import cminor.ast.topleveldecls.FuncDecl;
 import cminor.ast.types.Type;
+import cminor.utilities.InlineCache;
 import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
 
@@ -55,6 +56,19 @@ public class Invocation extends Expression {
      */
     private boolean isLengthInvocation;
 
+    /**
+     * Flag denoting if the current invocation is a self-recursive call in tail position.
+     * <p>
+     *     This will be set by the {@link cminor.micropasses.TailCallAnalyzer}.
+     * </p>
+     */
+    private boolean isTailCall;
+
+    /**
+     * {@link InlineCache} used by the {@link cminor.interpreter.Interpreter} to remember which declaration is called.
+     */
+    private final InlineCache cache;
+
     /**
      * Default constructor for {@link Invocation}.
      */
@@ -73,6 +87,7 @@ public class Invocation extends Expression {
         this.typeArgs = typeParams;
         this.args = args;
         this.signature = "";
+        this.cache = new InlineCache();
         if(name != null)
             this.isLengthInvocation = toString().equals("length");
 
@@ -86,6 +101,12 @@ public class Invocation extends Expression {
      */
     public boolean isLengthInvocation() { return this.isLengthInvocation; }
 
+    /**
+     * Checks if the current {@link Invocation} is a self-recursive call in tail position.
+     * @return Boolean
+     */
+    public boolean isTailCall() { return this.isTailCall; }
+
     public boolean isTemplate() { return !typeArgs.isEmpty(); }
 
     /**
@@ -136,6 +157,12 @@ public class Invocation extends Expression {
      */
     public String getSignature() { return this.signature; }
 
+    /**
+     * Getter method for {@link #cache}.
+     * @return {@link InlineCache}
+     */
+    public InlineCache getInlineCache() { return cache; }
+
     /**
      * Checks if the current {@link Invocation} is found inside a field expression.
      * <p>
@@ -174,6 +201,11 @@ public class Invocation extends Expression {
      */
     public void setLengthInvocation() { this.isLengthInvocation = true; }
 
+    /**
+     * Setter for {@link #isTailCall}
+     */
+    public void setTailCall() { this.isTailCall = true; }
+
     public boolean inClass() {
         AST node = this;
 
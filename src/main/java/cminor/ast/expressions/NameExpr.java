@@ -20,6 +20,16 @@ public class NameExpr extends Expression {
      */
     private Name name;
 
+    /**
+     * The depth of the call frame the name refers to. This is set by the {@link cminor.micropasses.SlotResolver}.
+     */
+    private int depth = -1;
+
+    /**
+     * The position inside the call frame the name refers to. This is set by the {@link cminor.micropasses.SlotResolver}.
+     */
+    private int slot = -1;
+
     /**
      * Default constructor for {@link NameExpr}
      */
@@ -104,6 +114,34 @@ public class NameExpr extends Expression {
      */
     public Name getName() { return name; }
 
+    /**
+     * Getter method for {@link #depth}.
+     * @return Int representing the depth of the call frame the name refers to.
+     */
+    public int getDepth() { return depth; }
+
+    /**
+     * Getter method for {@link #slot}.
+     * @return Int representing the position inside the call frame the name refers to.
+     */
+    public int getSlot() { return slot; }
+
+    /**
+     * Binds the name to a position inside a call frame.
+     * @param depth The depth of the call frame the name refers to.
+     * @param slot The position inside the call frame the name refers to.
+     */
+    public void setSlot(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    /**
+     * Checks if the {@link cminor.micropasses.SlotResolver} bound the name to a call frame position.
+     * @return {@code True} if the name was resolved to a slot, {@code False} otherwise.
+     */
+    public boolean isResolved() { return slot != -1; }
+
     /**
      * {@inheritDoc}
      */
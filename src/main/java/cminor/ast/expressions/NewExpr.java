@@ -35,6 +35,12 @@ public class NewExpr extends Expression {
      */
     private Vector<Var> initialFields;
 
+    /**
+     * Slot of each initialized field inside the object's {@link cminor.utilities.FieldLayout}.
+     * This is set by the {@link cminor.micropasses.SlotResolver}.
+     */
+    private int[] fieldSlots;
+
     /**
      * Default constructor for {@link NewExpr}.
      */
@@ -90,6 +96,18 @@ public class NewExpr extends Expression {
     public void setInstantiatedClass(ClassDecl instantiatedClass) { this.instantiatedClass = instantiatedClass; }
     public ClassDecl getInstantiatedClass() { return this.instantiatedClass; }
 
+    /**
+     * Getter method for {@link #fieldSlots}.
+     * @return Array containing the slot of each field in {@link #initialFields}, or {@code null} if the slots are unknown.
+     */
+    public int[] getFieldSlots() { return fieldSlots; }
+
+    /**
+     * Setter method for {@link #fieldSlots}.
+     * @param fieldSlots Array containing the slot of each field in {@link #initialFields}.
+     */
+    public void setFieldSlots(int[] fieldSlots) { this.fieldSlots = fieldSlots; }
+
     /**
      * Checks if the current AST node is a {@link NewExpr}.
      * @return Boolean
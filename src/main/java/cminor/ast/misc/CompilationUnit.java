@@ -3,7 +3,6 @@ package cminor.ast.misc;
 import cminor.ast.AST;
 import cminor.ast.topleveldecls.*;
 import cminor.ast.types.ClassType;
-import cminor.micropasses.ImportHandler;
 import cminor.token.Token;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.Vector;
@@ -200,7 +199,6 @@ public class CompilationUnit extends SubNode implements ScopeDecl {
         this.classes.clear();
         this.functions.clear();
         this.main = null;
-        ImportHandler.clear();
     }
 
     /**
@@ -0,0 +1,38 @@
+package cminor.ast.misc;
+
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.topleveldecls.MainDecl;
+
+/**
+ * An interface designed to keep track of {@link cminor.ast.AST} types that will generate a new call frame at runtime.
+ * <p>
+ *     Here is a list of {@link cminor.ast.AST} types that will create a call frame.
+ *     <ol>
+ *         <li>{@link FuncDecl}</li>
+ *         <li>{@link MethodDecl}</li>
+ *         <li>{@link MainDecl}</li>
+ *     </ol>
+ *     Every parameter and local variable declared inside one of these nodes will be assigned a
+ *     slot by the {@link cminor.micropasses.SlotResolver}. The interpreter will then use the
+ *     frame size to allocate a call frame that can store every variable at once.
+ * </p>
+ * @author Daniel Levy
+ */
+public interface FrameDecl {
+
+    /**
+     * Sets the number of slots needed to store every parameter and local variable.
+     * <p>
+     *     This will be set by the {@link cminor.micropasses.SlotResolver}.
+     * </p>
+     * @param frameSize Int representing the number of slots the call frame needs.
+     */
+    void setFrameSize(int frameSize);
+
+    /**
+     * Getter method that returns the number of slots needed by the call frame.
+     * @return Int representing the number of slots the call frame needs.
+     */
+    int getFrameSize();
+}
@@ -35,6 +35,16 @@ public class Var extends SubNode {
      */
     private boolean wasInitialized;
 
+    /**
+     * The depth of the call frame the variable is stored in. This is set by the {@link cminor.micropasses.SlotResolver}.
+     */
+    private int depth = -1;
+
+    /**
+     * The position of the variable inside its call frame. This is set by the {@link cminor.micropasses.SlotResolver}.
+     */
+    private int slot = -1;
+
     /**
      * Default constructor for {@link Var}.
      */
@@ -127,6 +137,28 @@ public class Var extends SubNode {
      */
     public void setDeclaredType(Type type) { this.declaredType = type; }
 
+    /**
+     * Getter method for {@link #depth}.
+     * @return Int representing the depth of the call frame the variable is stored in.
+     */
+    public int getDepth() { return depth; }
+
+    /**
+     * Getter method for {@link #slot}.
+     * @return Int representing the position of the variable inside its call frame.
+     */
+    public int getSlot() { return slot; }
+
+    /**
+     * Binds the variable to a position inside a call frame.
+     * @param depth The depth of the call frame the variable will be stored in.
+     * @param slot The position the variable will occupy inside the call frame.
+     */
+    public void setSlot(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+
     /**
      * {@inheritDoc}
      */
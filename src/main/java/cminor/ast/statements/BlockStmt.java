@@ -54,6 +54,34 @@ public class BlockStmt extends Statement {
      */
     public Vector<Statement> getStatements() { return stmts; }
 
+    /**
+     * Inserts a statement into the block.
+     * @param pos Position in {@link #stmts} the statement will be inserted at.
+     * @param s {@link Statement} we want to insert.
+     */
+    public void addStatement(int pos, Statement s) {
+        stmts.add(pos,s);
+        insertChildNode(locals.size()+pos,s);
+    }
+
+    /**
+     * Removes a local declaration from the block.
+     * @param ld {@link LocalDecl} we want to remove.
+     */
+    public void removeLocalDecl(LocalDecl ld) {
+        if(locals.remove(ld))
+            removeChildNode(ld);
+    }
+
+    /**
+     * Removes a statement from the block.
+     * @param s {@link Statement} we want to remove.
+     */
+    public void removeStatement(Statement s) {
+        if(stmts.remove(s))
+            removeChildNode(s);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -41,6 +41,12 @@ public class ExprStmt extends Statement {
         addChildNode(this.expr);
     }
 
+    /**
+     * Getter for {@link #expr}.
+     * @return {@link Expression}
+     */
+    public Expression getExpression() { return expr; }
+
     /**
      * {@inheritDoc}
      */
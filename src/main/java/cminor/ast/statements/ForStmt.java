@@ -6,6 +6,7 @@ import cminor.ast.misc.ScopeDecl;
 import cminor.ast.operators.LoopOp;
 import cminor.token.Token;
 import cminor.utilities.SymbolTable;
+import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
 
 /**
@@ -44,6 +45,15 @@ public class ForStmt extends Statement implements ScopeDecl {
      */
     private BlockStmt body;
 
+    /**
+     * {@link Vector} of assignments executed once before the first iteration of the loop.
+     * <p>
+     *     This is filled by the {@link cminor.micropasses.LoopOptimizer} with every loop-invariant
+     *     expression that was moved out of the loop.
+     * </p>
+     */
+    private final Vector<AssignStmt> preheader = new Vector<>();
+
     /**
      * Default constructor for {@link ForStmt}.
      */
@@ -104,6 +114,21 @@ public class ForStmt extends Statement implements ScopeDecl {
      */
     public BlockStmt getBody() { return body; }
 
+    /**
+     * Getter method for {@link #preheader}.
+     * @return {@link Vector} of assignments
+     */
+    public Vector<AssignStmt> getPreheader() { return preheader; }
+
+    /**
+     * Adds an assignment into the {@link #preheader} of the loop.
+     * @param as {@link AssignStmt} that will be executed before the loop starts.
+     */
+    public void addPreheaderStmt(AssignStmt as) {
+        preheader.add(as);
+        addChildNode(as);
+    }
+
     /**
      * {@inheritDoc}
      */
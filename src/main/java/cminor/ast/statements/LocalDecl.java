@@ -69,6 +69,28 @@ public class LocalDecl extends Statement implements NameDecl, VarDecl {
      */
     public void setType(Type type) { localVariable.setDeclaredType(type);}
 
+    /**
+     * Getter method that returns the depth of the call frame the variable is stored in.
+     * @return Int representing the call frame depth.
+     */
+    public int getDepth() { return localVariable.getDepth(); }
+
+    /**
+     * Getter method that returns the position of the variable inside its call frame.
+     * @return Int representing the slot of the variable.
+     */
+    public int getSlot() { return localVariable.getSlot(); }
+
+    /**
+     * Binds the variable to a position inside a call frame.
+     * <p>
+     *     This method should only be called by the {@link cminor.micropasses.SlotResolver}.
+     * </p>
+     * @param depth The depth of the call frame the variable will be stored in.
+     * @param slot The position the variable will occupy inside the call frame.
+     */
+    public void setSlot(int depth, int slot) { localVariable.setSlot(depth,slot); }
+
     /**
      * {@inheritDoc}
      */
@@ -9,6 +9,7 @@ import cminor.ast.misc.*;
 import cminor.ast.types.ClassType;
 import cminor.micropasses.ConstructorGenerator;
 import cminor.token.Token;
+import cminor.utilities.FieldLayout;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
@@ -49,6 +50,20 @@ public class ClassDecl extends TopLevelDecl implements NameDecl, ScopeDecl {
      */
     private InitDecl constructor;
 
+    /**
+     * The virtual method table of the current class. This will be set by the {@link cminor.micropasses.SlotResolver} pass.
+     * <p>
+     *     Every method inherited from the base class keeps the position it has in the base class's
+     *     table, and any overridden method replaces the base class method at that position.
+     * </p>
+     */
+    private Vector<MethodDecl> vtable;
+
+    /**
+     * The {@link FieldLayout} shared by every object of the current class. This will be set by the {@link cminor.micropasses.SlotResolver} pass.
+     */
+    private FieldLayout layout;
+
     private final Vector<Name> inheritedClasses;    // idk lol
 
     /**
@@ -126,6 +141,30 @@ public class ClassDecl extends TopLevelDecl implements NameDecl, ScopeDecl {
      */
     public void setConstructor(InitDecl init) { constructor = (constructor == null) ? init : constructor; }
 
+    /**
+     * Getter method for {@link #vtable}.
+     * @return {@link Vector} of methods, or {@code null} if the table was not built yet
+     */
+    public Vector<MethodDecl> getVTable() { return vtable; }
+
+    /**
+     * Sets the {@link #vtable} field during the {@link cminor.micropasses.SlotResolver} pass.
+     * @param vtable {@link Vector} of methods representing the virtual method table of the class.
+     */
+    public void setVTable(Vector<MethodDecl> vtable) { this.vtable = vtable; }
+
+    /**
+     * Getter method for {@link #layout}.
+     * @return {@link FieldLayout}, or {@code null} if the layout was not built yet
+     */
+    public FieldLayout getFieldLayout() { return layout; }
+
+    /**
+     * Sets the {@link #layout} field during the {@link cminor.micropasses.SlotResolver} pass.
+     * @param layout {@link FieldLayout} of the class.
+     */
+    public void setFieldLayout(FieldLayout layout) { this.layout = layout; }
+
     public void setName(Name name) { this.name = name; }
 
     public void removeTypeParams() {
@@ -13,7 +13,7 @@ import cminor.utilities.Visitor;
  * A {@link TopLevelDecl} node that represents a function.
  * @author Daniel Levy
  */
-public class FuncDecl extends TopLevelDecl implements NameDecl, ScopeDecl, ReturnDecl {
+public class FuncDecl extends TopLevelDecl implements NameDecl, ScopeDecl, ReturnDecl, FrameDecl {
 
     /**
      * The scope of the function.
@@ -65,6 +65,21 @@ public class FuncDecl extends TopLevelDecl implements NameDecl, ScopeDecl, Retur
      */
     private boolean containsReturnStmt;
 
+    /**
+     * The number of slots needed to store every parameter and local variable when a call frame is created.
+     */
+    private int frameSize;
+
+    /**
+     * Flag set by the {@link cminor.micropasses.PurityAnalyzer} if calls to the function can be memoized.
+     */
+    private boolean isMemoizable;
+
+    /**
+     * Flag set by the {@link cminor.micropasses.DeadCodeEliminator} if the function can never be called.
+     */
+    private boolean isUnused;
+
     /**
      * Default constructor for {@link FuncDecl}.
      */
@@ -106,6 +121,18 @@ public class FuncDecl extends TopLevelDecl implements NameDecl, ScopeDecl, Retur
      */
     public boolean isTemplate() { return !typeParams.isEmpty(); }
 
+    /**
+     * Checks if the result of calling the function only depends on its arguments.
+     * @return {@code True} if the function can be memoized, {@code False} otherwise.
+     */
+    public boolean isMemoizable() { return isMemoizable; }
+
+    /**
+     * Checks if the function can never be called by the program.
+     * @return {@code True} if the function does not need to be generated, {@code False} otherwise.
+     */
+    public boolean isUnused() { return isUnused; }
+
     /**
      * Getter method for {@link #name}.
      * @return {@link Name}
@@ -161,6 +188,16 @@ public class FuncDecl extends TopLevelDecl implements NameDecl, ScopeDecl, Retur
         return paramSignature;
     }
 
+    /**
+     * Marks the function as memoizable. This should only be called by the {@link cminor.micropasses.PurityAnalyzer}.
+     */
+    public void setMemoizable() { this.isMemoizable = true; }
+
+    /**
+     * Marks the function as unused. This should only be called by the {@link cminor.micropasses.DeadCodeEliminator}.
+     */
+    public void setUnused() { this.isUnused = true; }
+
     /**
      * Setter for {@link #returnType}. This should only be called by {@link cminor.micropasses.TypeValidator}.
      * @param returnType {@link Type} to save into {@link #returnType}.
@@ -245,6 +282,16 @@ public class FuncDecl extends TopLevelDecl implements NameDecl, ScopeDecl, Retur
      */
     public boolean containsReturnStmt() { return containsReturnStmt; }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void setFrameSize(int frameSize) { this.frameSize = frameSize; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getFrameSize() { return frameSize; }
+
     /**
      * {@inheritDoc}
      */
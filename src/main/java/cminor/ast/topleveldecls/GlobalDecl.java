@@ -30,6 +30,11 @@ public class GlobalDecl extends TopLevelDecl implements NameDecl, VarDecl {
      */
     private final boolean isConstant;
 
+    /**
+     * Flag set by the {@link cminor.micropasses.DeadCodeEliminator} if the global variable is never used.
+     */
+    private boolean isUnused;
+
     /**
      * Default constructor for {@link GlobalDecl}.
      */
@@ -62,6 +67,17 @@ public class GlobalDecl extends TopLevelDecl implements NameDecl, VarDecl {
      */
     public boolean isConstant() { return isConstant; }
 
+    /**
+     * Checks if the global variable is never used by {@code main} or any code it can reach.
+     * @return {@code True} if the declaration does not need to be executed, {@code False} otherwise.
+     */
+    public boolean isUnused() { return isUnused; }
+
+    /**
+     * Marks the global variable as unused. This should only be called by the {@link cminor.micropasses.DeadCodeEliminator}.
+     */
+    public void setUnused() { this.isUnused = true; }
+
     /**
      * {@inheritDoc}
      */
@@ -92,6 +108,28 @@ public class GlobalDecl extends TopLevelDecl implements NameDecl, VarDecl {
      */
     public void setType(Type type) { globalVariable.setDeclaredType(type);}
 
+    /**
+     * Getter method that returns the depth of the call frame the variable is stored in.
+     * @return Int representing the call frame depth.
+     */
+    public int getDepth() { return globalVariable.getDepth(); }
+
+    /**
+     * Getter method that returns the position of the variable inside its call frame.
+     * @return Int representing the slot of the variable.
+     */
+    public int getSlot() { return globalVariable.getSlot(); }
+
+    /**
+     * Binds the variable to a position inside a call frame.
+     * <p>
+     *     This method should only be called by the {@link cminor.micropasses.SlotResolver}.
+     * </p>
+     * @param depth The depth of the call frame the variable will be stored in.
+     * @param slot The position the variable will occupy inside the call frame.
+     */
+    public void setSlot(int depth, int slot) { globalVariable.setSlot(depth,slot); }
+
     /**
      * {@inheritDoc}
      */
@@ -1,6 +1,7 @@
 package cminor.ast.topleveldecls;
 
 import cminor.ast.AST;
+import cminor.ast.misc.FrameDecl;
 import cminor.ast.misc.ParamDecl;
 import cminor.ast.misc.ReturnDecl;
 import cminor.ast.misc.ScopeDecl;
@@ -20,7 +21,7 @@ import cminor.utilities.Visitor;
  * </p>
  * @author Daniel Levy
  */
-public class MainDecl extends TopLevelDecl implements ScopeDecl, ReturnDecl {
+public class MainDecl extends TopLevelDecl implements ScopeDecl, ReturnDecl, FrameDecl {
 
     /**
      * The scope of the main function.
@@ -47,6 +48,11 @@ public class MainDecl extends TopLevelDecl implements ScopeDecl, ReturnDecl {
      */
     private boolean containsReturnStmt;
 
+    /**
+     * The number of slots needed to store every parameter and local variable when a call frame is created.
+     */
+    private int frameSize;
+
     /**
      * Default constructor for {@link MainDecl}.
      */
@@ -108,6 +114,16 @@ public class MainDecl extends TopLevelDecl implements ScopeDecl, ReturnDecl {
      */
     public boolean containsReturnStmt() { return containsReturnStmt; }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void setFrameSize(int frameSize) { this.frameSize = frameSize; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getFrameSize() { return frameSize; }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,1297 @@
+package cminor.bytecode;
+
+import cminor.ast.AST;
+import cminor.ast.expressions.*;
+import cminor.ast.misc.ParamDecl;
+import cminor.ast.misc.Var;
+import cminor.ast.operators.AssignOp;
+import cminor.ast.operators.BinaryOp;
+import cminor.ast.statements.*;
+import cminor.ast.topleveldecls.EnumDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.topleveldecls.GlobalDecl;
+import cminor.ast.topleveldecls.ImportDecl;
+import cminor.ast.topleveldecls.MainDecl;
+import cminor.ast.types.Type;
+import cminor.interpreter.budget.ExecutionBudget;
+import cminor.interpreter.value.RealMode;
+import cminor.utilities.ConstantPool;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.SymbolTable;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+import java.util.IdentityHashMap;
+
+/**
+ * A {@link Visitor} class that lowers a checked C Minor program into register bytecode.
+ * <p>
+ *     This compiler runs once the {@link cminor.micropasses.SlotResolver} has assigned every
+ *     variable a slot, so every local variable can directly become a register of the {@link Chunk}
+ *     it belongs to. Each instruction is selected based on the types that were computed by the
+ *     {@link cminor.typechecker.TypeChecker}, which means the {@link BytecodeVM} will never have to
+ *     inspect a type or an operator during execution.
+ * </p>
+ * <p>
+ *     Not every construct is supported yet. Objects, imports, and templates are still only executed
+ *     by the {@link cminor.interpreter.Interpreter}, so this compiler will throw an
+ *     {@link UnsupportedConstructException} whenever it encounters one of them. The {@link BytecodeEngine}
+ *     will then execute the construct with the {@link cminor.interpreter.Interpreter} instead.
+ * </p>
+ * @author Daniel Levy
+ */
+public class BytecodeCompiler extends Visitor {
+
+    /**
+     * An exception thrown when a construct can not be lowered into bytecode.
+     */
+    public static class UnsupportedConstructException extends RuntimeException {
+
+        /**
+         * Creates an {@link UnsupportedConstructException}.
+         * @param node {@link AST} node that could not be compiled
+         */
+        public UnsupportedConstructException(AST node) {
+            super("The construct '" + node + "' can not be compiled into bytecode.");
+        }
+    }
+
+    /**
+     * A {@link Visitor} that checks if an expression contains an {@link Invocation}.
+     * <p>
+     *     An invocation is the only expression that is able to write into a register
+     *     (through an {@code out}, {@code inout}, or {@code ref} argument).
+     * </p>
+     */
+    private static class InvocationFinder extends Visitor {
+
+        /**
+         * Flag set when an {@link Invocation} is found.
+         */
+        private boolean found = false;
+
+        /**
+         * Marks that an {@link Invocation} was found.
+         * @param in {@link Invocation}
+         */
+        public void visitInvocation(Invocation in) { found = true; }
+    }
+
+    /**
+     * The global {@link SymbolTable} used to find the declaration of each invoked function.
+     */
+    private final SymbolTable globalScope;
+
+    /**
+     * Every function that was compiled so far. The chunks are reused between each {@link cminor.interpreter.VM} input.
+     */
+    private final IdentityHashMap<FuncDecl,Chunk> functions;
+
+    /**
+     * Functions that were compiled during the current call to {@link #compile(AST)}. If compilation fails,
+     * these functions will be removed from {@link #functions} since they may refer to an incomplete chunk.
+     */
+    private final Vector<FuncDecl> pending;
+
+    /**
+     * The {@link RealMode} used to create every {@code Real} constant.
+     */
+    private RealMode realMode;
+
+    /**
+     * {@link ConstantPool} that stores the value of every literal.
+     */
+    private ConstantPool constantPool;
+
+    /**
+     * The {@link Chunk} we are currently writing instructions into.
+     */
+    private Chunk chunk;
+
+    /**
+     * Number of registers reserved for parameters and local variables of the current {@link Chunk}.
+     */
+    private int frameSize;
+
+    /**
+     * The next register that can be used as a temporary.
+     */
+    private int nextRegister;
+
+    /**
+     * The highest number of registers the current {@link Chunk} needed at once.
+     */
+    private int maxRegister;
+
+    /**
+     * Flag set when the current {@link Chunk} represents a function or {@code main}.
+     */
+    private boolean insideFrame;
+
+    /**
+     * The function whose {@link Chunk} we are currently writing (if applicable).
+     */
+    private FuncDecl currentFunction;
+
+    /**
+     * Stack of jump positions that need to be patched for every loop we are currently compiling.
+     * Each entry stores the pending {@code break} jumps followed by the pending {@code continue} jumps.
+     */
+    private Vector<Vector<Integer>[]> loops;
+
+    /**
+     * Register an expression should write its result into, or -1 if any register can be used.
+     */
+    private int target;
+
+    /**
+     * Register that stores the result of the last compiled expression.
+     */
+    private int result;
+
+    /**
+     * Creates the {@link BytecodeCompiler}.
+     * @param globalScope The {@link SymbolTable} representing the global scope of the program.
+     */
+    public BytecodeCompiler(SymbolTable globalScope) {
+        this.globalScope = globalScope;
+        this.functions = new IdentityHashMap<>();
+        this.pending = new Vector<>();
+        this.realMode = RealMode.EXACT;
+        this.constantPool = new ConstantPool();
+        this.target = -1;
+        this.result = -1;
+    }
+
+    /**
+     * Sets the {@link RealMode} used for {@code Real} constants.
+     * <p>
+     *     Since every compiled function stores its constants, all previously compiled
+     *     functions will be discarded and recompiled the next time they are needed.
+     * </p>
+     * @param realMode {@link RealMode}
+     */
+    public void setRealMode(RealMode realMode) {
+        if(this.realMode != realMode)
+            functions.clear();
+        this.realMode = realMode;
+        constantPool.setRealMode(realMode);
+    }
+
+    /**
+     * Sets the {@link ConstantPool} every literal's value is retrieved from.
+     * @param constantPool {@link ConstantPool}
+     */
+    public void setConstantPool(ConstantPool constantPool) { this.constantPool = constantPool; }
+
+    /**
+     * Compiles a top level construct into a {@link Chunk}.
+     * <p>
+     *     A {@link MainDecl} will be compiled into a chunk that executes inside its own call frame while
+     *     any other construct (statements, local or global declarations, and enumerations) will be compiled
+     *     into a chunk that only uses the global frame. Any function that is invoked will also be compiled.
+     * </p>
+     * @param node The {@link AST} node we want to execute
+     * @return {@link Chunk}
+     * @throws UnsupportedConstructException If the node (or any function it invokes) can not be compiled.
+     */
+    public Chunk compile(AST node) {
+        pending.clear();
+        try {
+            if(node.isTopLevelDecl() && node.asTopLevelDecl().isMainDecl()) {
+                MainDecl md = node.asTopLevelDecl().asMainDecl();
+                return compileFrame("main",md.getFrameSize(),md.getBody());
+            }
+
+            Chunk top = new Chunk("<top level>");
+            beginChunk(top,0,false);
+            node.visit(this);
+            chunk.emit(Opcode.RETURN_VOID);
+            chunk.finish(maxRegister);
+            return top;
+        }
+        catch(UnsupportedConstructException e) {
+            for(FuncDecl fd : pending)
+                functions.remove(fd);
+            throw e;
+        }
+    }
+
+    /**
+     * Compiles a function into a {@link Chunk} if it was not compiled already.
+     * @param fd {@link FuncDecl}
+     * @return {@link Chunk} representing the function
+     */
+    private Chunk compileFunction(FuncDecl fd) {
+        Chunk existing = functions.get(fd);
+        if(existing != null)
+            return existing;
+
+        Chunk fn = new Chunk(fd.toString());
+        fn.setFunction(fd);
+        // The chunk is saved before compiling the body, so a recursive call is able to refer to it.
+        functions.put(fd,fn);
+        pending.add(fd);
+
+        Chunk oldChunk = chunk;
+        int oldFrameSize = frameSize, oldNext = nextRegister, oldMax = maxRegister;
+        boolean oldInsideFrame = insideFrame;
+        FuncDecl oldFunction = currentFunction;
+        Vector<Vector<Integer>[]> oldLoops = loops;
+
+        beginChunk(fn,fd.getFrameSize(),true);
+        currentFunction = fd;
+        // A tail call jumps back to the start of the chunk, so the budget is charged again for every call it replaces.
+        chunk.emit(Opcode.TICK,ExecutionBudget.statementCount(fd.getBody()));
+        fd.getBody().visit(this);
+        chunk.emit(Opcode.RETURN_VOID);
+        chunk.finish(maxRegister);
+
+        chunk = oldChunk;
+        frameSize = oldFrameSize;
+        nextRegister = oldNext;
+        maxRegister = oldMax;
+        insideFrame = oldInsideFrame;
+        currentFunction = oldFunction;
+        loops = oldLoops;
+        return fn;
+    }
+
+    /**
+     * Compiles the body of {@code main} into its own {@link Chunk}.
+     * @param name Name of the chunk
+     * @param size Number of slots needed by the call frame
+     * @param body {@link BlockStmt} to compile
+     * @return {@link Chunk}
+     */
+    private Chunk compileFrame(String name, int size, BlockStmt body) {
+        Chunk frame = new Chunk(name);
+        beginChunk(frame,size,true);
+        body.visit(this);
+        chunk.emit(Opcode.RETURN_VOID);
+        chunk.finish(maxRegister);
+        return frame;
+    }
+
+    /**
+     * Resets the compiler state before writing into a new {@link Chunk}.
+     * @param next {@link Chunk} we will write into
+     * @param size Number of registers reserved for parameters and local variables
+     * @param frame Flag denoting if the chunk represents a call frame
+     */
+    private void beginChunk(Chunk next, int size, boolean frame) {
+        chunk = next;
+        frameSize = size;
+        nextRegister = size;
+        maxRegister = size;
+        insideFrame = frame;
+        loops = new Vector<>();
+        target = -1;
+    }
+
+    /**
+     * Reserves a new temporary register.
+     * @return Int representing the register
+     */
+    private int temp() {
+        int reg = nextRegister++;
+        maxRegister = Math.max(maxRegister,nextRegister);
+        return reg;
+    }
+
+    /**
+     * Returns the register an expression should store its result into.
+     * <p>
+     *     If the parent of the expression did not request a specific register, then a new temporary
+     *     will be reserved. The request is cleared, so any subexpression will use its own registers.
+     * </p>
+     * @return Int representing the register
+     */
+    private int destination() {
+        int dest = target;
+        target = -1;
+        return dest == -1 ? temp() : dest;
+    }
+
+    /**
+     * Compiles an expression.
+     * @param e {@link Expression}
+     * @return Int representing the register that stores the value of the expression
+     */
+    private int compileExpr(Expression e) {
+        target = -1;
+        e.visit(this);
+        return result;
+    }
+
+    /**
+     * Compiles an expression and makes sure its value is stored in a specific register.
+     * @param e {@link Expression}
+     * @param dest The register that should store the value
+     */
+    private void compileExpr(Expression e, int dest) {
+        int mark = nextRegister;
+        target = dest;
+        e.visit(this);
+        target = -1;
+        nextRegister = mark;
+
+        if(result != dest)
+            chunk.emit(Opcode.MOVE,dest,result);
+        result = dest;
+    }
+
+    /**
+     * Compiles an expression into a fresh temporary register.
+     * <p>
+     *     This is used when the value of a variable needs to be saved before another
+     *     expression (such as an invocation with an {@code inout} parameter) can modify it.
+     * </p>
+     * @param e {@link Expression}
+     * @return Int representing the temporary register
+     */
+    private int compileIntoTemp(Expression e) {
+        int reg = temp();
+        compileExpr(e,reg);
+        return reg;
+    }
+
+    /**
+     * Checks if evaluating an expression is guaranteed to not modify any variable.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isSimple(Expression e) {
+        if(e.isLiteral() || e.isNameExpr())
+            return true;
+
+        InvocationFinder finder = new InvocationFinder();
+        e.visit(finder);
+        return !finder.found;
+    }
+
+    /**
+     * Writes a register into a variable.
+     * @param var {@link NameExpr} representing the variable
+     * @param src Register storing the value
+     */
+    private void store(NameExpr var, int src) {
+        if(!var.isResolved())
+            throw new UnsupportedConstructException(var);
+
+        if(var.getDepth() == RuntimeStack.GLOBAL_DEPTH)
+            chunk.emit(Opcode.STORE_GLOBAL,var.getSlot(),src);
+        else if(src != local(var,var.getSlot()))
+            chunk.emit(Opcode.MOVE,var.getSlot(),src);
+    }
+
+    /**
+     * Makes sure a slot with a local depth belongs to the current {@link Chunk}.
+     * @param node {@link AST} node that uses the slot
+     * @param slot Slot of the variable
+     * @return Int representing the register of the variable
+     */
+    private int local(AST node, int slot) {
+        if(!insideFrame || slot >= frameSize)
+            throw new UnsupportedConstructException(node);
+        return slot;
+    }
+
+    /**
+     * Emits a jump whose target will be patched later.
+     * @param op Jump opcode
+     * @param args Operands written before the jump target
+     * @return Int representing the position of the jump target
+     */
+    private int jump(int op, int... args) {
+        chunk.emit(op,args);
+        return chunk.emit(-1);
+    }
+
+    /**
+     * Patches a jump to point to the next instruction that will be written.
+     * @param pos Position of the jump target
+     */
+    private void patchHere(int pos) { chunk.patch(pos,chunk.position()); }
+
+    /**
+     * Begins the compilation of a loop.
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    private void beginLoop() { loops.add(new Vector[]{new Vector<Integer>(), new Vector<Integer>()}); }
+
+    /**
+     * Finishes the compilation of a loop by patching all of its {@code break} and {@code continue} jumps.
+     * @param continueTarget Position every {@code continue} jumps to
+     * @param breakTarget Position every {@code break} jumps to
+     */
+    private void endLoop(int continueTarget, int breakTarget) {
+        Vector<Integer>[] jumps = loops.removeLast();
+        for(int pos : jumps[0])
+            chunk.patch(pos,breakTarget);
+        for(int pos : jumps[1])
+            chunk.patch(pos,continueTarget);
+    }
+
+    /**
+     * Compiles an array expression.
+     * <p>
+     *     Each index is read with its own {@link Opcode#AGET} instruction, so we are able to check
+     *     the bounds of every dimension in the same way the {@link cminor.interpreter.Interpreter} does.
+     * </p>
+     * @param ae {@link ArrayExpr}
+     */
+    public void visitArrayExpr(ArrayExpr ae) {
+        int dest = destination();
+        int lst = compileExpr(ae.getArrayTarget());
+        int node = chunk.addReference(ae);
+
+        for(int i = 0; i < ae.getArrayIndex().size(); i++) {
+            int index = compileExpr(ae.getArrayIndex().get(i));
+            int reg = (i == ae.getArrayIndex().size()-1) ? dest : temp();
+            chunk.emit(Opcode.AGET,reg,lst,index,i,node);
+            lst = reg;
+        }
+        result = dest;
+    }
+
+    /**
+     * Compiles an array literal.
+     * <p>
+     *     Every element is evaluated into consecutive registers before the array is created.
+     * </p>
+     * @param al {@link ArrayLiteral}
+     */
+    public void visitArrayLiteral(ArrayLiteral al) {
+        int dest = destination();
+        int first = nextRegister;
+
+        for(Expression init : al.getArrayInits())
+            compileIntoTemp(init);
+
+        chunk.emit(Opcode.NEW_ARRAY,dest,chunk.addReference(al),first,al.getArrayInits().size());
+        result = dest;
+    }
+
+    /**
+     * Compiles an assignment statement.
+     * <p>
+     *     For compound assignments, the old value of the variable is read before the right-hand
+     *     side is evaluated. The operation is then chosen based on the type of the right-hand side.
+     * </p>
+     * @param as {@link AssignStmt}
+     */
+    public void visitAssignStmt(AssignStmt as) {
+        int mark = nextRegister;
+        AssignOp.AssignType op = as.getOperator().getAssignOp();
+        Expression LHS = as.getLHS();
+
+        if(LHS.isNameExpr()) {
+            NameExpr var = LHS.asNameExpr();
+            if(!var.isResolved())
+                throw new UnsupportedConstructException(var);
+
+            if(op == AssignOp.AssignType.EQ) {
+                if(var.getDepth() == RuntimeStack.GLOBAL_DEPTH)
+                    store(var,compileExpr(as.getRHS()));
+                else
+                    compileExpr(as.getRHS(),local(var,var.getSlot()));
+            }
+            else {
+                int old = (var.getDepth() == RuntimeStack.GLOBAL_DEPTH) ? compileExpr(var) : local(var,var.getSlot());
+                if(!isSimple(as.getRHS()) && old < frameSize) {
+                    int saved = temp();
+                    chunk.emit(Opcode.MOVE,saved,old);
+                    old = saved;
+                }
+                int val = compileExpr(as.getRHS());
+                int dest = (var.getDepth() == RuntimeStack.GLOBAL_DEPTH) ? temp() : var.getSlot();
+                compound(as,op,dest,old,val);
+                store(var,dest);
+            }
+        }
+        else if(LHS.isArrayExpr()) {
+            ArrayExpr ae = LHS.asArrayExpr();
+            int node = chunk.addReference(ae);
+            int lst = compileExpr(ae.getArrayTarget());
+            int last = ae.getArrayIndex().size()-1;
+
+            for(int i = 0; i < last; i++) {
+                int index = compileExpr(ae.getArrayIndex().get(i));
+                int reg = temp();
+                chunk.emit(Opcode.AGET,reg,lst,index,i,node);
+                lst = reg;
+            }
+
+            int index = compileExpr(ae.getArrayIndex().get(last));
+            if(!isSimple(as.getRHS()) && index < frameSize)
+                index = copy(index);
+
+            int val;
+            if(op == AssignOp.AssignType.EQ)
+                val = compileExpr(as.getRHS());
+            else {
+                int old = temp();
+                chunk.emit(Opcode.AGET,old,lst,index,last,node);
+                int rhs = compileExpr(as.getRHS());
+                val = temp();
+                compound(as,op,val,old,rhs);
+            }
+            chunk.emit(Opcode.ASET,lst,index,val,last,node);
+        }
+        else
+            throw new UnsupportedConstructException(as);
+
+        nextRegister = mark;
+    }
+
+    /**
+     * Copies a register into a new temporary register.
+     * @param reg Register to copy
+     * @return Int representing the temporary register
+     */
+    private int copy(int reg) {
+        int saved = temp();
+        chunk.emit(Opcode.MOVE,saved,reg);
+        return saved;
+    }
+
+    /**
+     * Emits the operation performed by a compound assignment.
+     * @param as {@link AssignStmt}
+     * @param op The assignment operator
+     * @param dest Register storing the new value
+     * @param old Register storing the old value
+     * @param val Register storing the value of the right-hand side
+     */
+    private void compound(AssignStmt as, AssignOp.AssignType op, int dest, int old, int val) {
+        if(as.getRHS().type.isInt()) {
+            switch(op) {
+                case PLUSEQ -> chunk.emit(Opcode.IADD,dest,old,val);
+                case MINUSEQ -> chunk.emit(Opcode.ISUB,dest,old,val);
+                case MULTEQ -> chunk.emit(Opcode.IMUL,dest,old,val);
+                case DIVEQ -> chunk.emit(Opcode.IDIV,dest,old,val);
+                case MODEQ -> chunk.emit(Opcode.IMOD,dest,old,val);
+                case EXPEQ -> chunk.emit(Opcode.IPOW,dest,old,val);
+            }
+        }
+        else if(as.getRHS().type.isReal()) {
+            switch(op) {
+                case PLUSEQ -> chunk.emit(Opcode.RADD,dest,old,val);
+                case MINUSEQ -> chunk.emit(Opcode.RSUB,dest,old,val);
+                case MULTEQ -> chunk.emit(Opcode.RMUL,dest,old,val);
+                case DIVEQ -> chunk.emit(Opcode.RDIV,dest,old,val);
+                case MODEQ -> chunk.emit(Opcode.RMOD,dest,old,val);
+                case EXPEQ -> chunk.emit(Opcode.RPOW,dest,old,val);
+            }
+        }
+        else if(as.getRHS().type.isString())
+            chunk.emit(Opcode.SCONCAT,dest,old,val);
+        else if(dest != val)
+            chunk.emit(Opcode.MOVE,dest,val);
+    }
+
+    /**
+     * Compiles a binary expression.
+     * <p>
+     *     Both sides of the expression are always evaluated (even for {@code and} and {@code or})
+     *     since this is how the {@link cminor.interpreter.Interpreter} executes a binary expression.
+     * </p>
+     * @param be {@link BinaryExpr}
+     */
+    public void visitBinaryExpr(BinaryExpr be) {
+        int dest = target;
+        target = -1;
+        int mark = nextRegister;
+        int op = binaryOpcode(be);
+
+        int lhs = compileExpr(be.getLHS());
+        if(lhs < frameSize && !isSimple(be.getRHS()))
+            lhs = copy(lhs);
+        int rhs = compileExpr(be.getRHS());
+
+        nextRegister = mark;
+        if(dest == -1)
+            dest = temp();
+        chunk.emit(op,dest,lhs,rhs);
+        result = dest;
+    }
+
+    /**
+     * Selects the opcode that represents a binary operation.
+     * @param be {@link BinaryExpr}
+     * @return Int representing the opcode
+     */
+    private int binaryOpcode(BinaryExpr be) {
+        BinaryOp.BinaryType op = be.getBinaryOp().getBinaryType();
+        switch(op) {
+            case PLUS, MINUS, MULT, DIV, MOD, EXP:
+                if(be.type.isInt()) {
+                    return switch(op) {
+                        case PLUS -> Opcode.IADD;
+                        case MINUS -> Opcode.ISUB;
+                        case MULT -> Opcode.IMUL;
+                        case DIV -> Opcode.IDIV;
+                        case MOD -> Opcode.IMOD;
+                        default -> Opcode.IPOW;
+                    };
+                }
+                else if(be.type.isReal()) {
+                    return switch(op) {
+                        case PLUS -> Opcode.RADD;
+                        case MINUS -> Opcode.RSUB;
+                        case MULT -> Opcode.RMUL;
+                        case DIV -> Opcode.RDIV;
+                        case MOD -> Opcode.RMOD;
+                        default -> Opcode.RPOW;
+                    };
+                }
+                else if(be.type.isString())
+                    return Opcode.SCONCAT;
+                break;
+            case EQEQ:
+                return Opcode.EQ;
+            case NEQ:
+                return Opcode.NE;
+            case LT, LTEQ, GT, GTEQ:
+                if(be.getRHS().type.isInt()) {
+                    return switch(op) {
+                        case LT -> Opcode.ILT;
+                        case LTEQ -> Opcode.ILE;
+                        case GT -> Opcode.IGT;
+                        default -> Opcode.IGE;
+                    };
+                }
+                else if(be.getRHS().type.isReal()) {
+                    return switch(op) {
+                        case LT -> Opcode.RLT;
+                        case LTEQ -> Opcode.RLE;
+                        case GT -> Opcode.RGT;
+                        default -> Opcode.RGE;
+                    };
+                }
+                break;
+            case AND:
+                return Opcode.LAND;
+            case OR:
+                return Opcode.LOR;
+            case SLEFT:
+                return Opcode.ISHL;
+            case SRIGHT:
+                return Opcode.ISHR;
+            case BAND, BOR, XOR:
+                if(be.getRHS().type.isInt() || be.getRHS().type.isChar()) {
+                    return switch(op) {
+                        case BAND -> Opcode.IAND;
+                        case BOR -> Opcode.IOR;
+                        default -> Opcode.IXOR;
+                    };
+                }
+                else if(be.getRHS().type.isBool()) {
+                    return switch(op) {
+                        case BAND -> Opcode.BAND;
+                        case BOR -> Opcode.BOR;
+                        default -> Opcode.BXOR;
+                    };
+                }
+                break;
+        }
+        throw new UnsupportedConstructException(be);
+    }
+
+    /**
+     * Compiles a block statement.
+     * @param bs {@link BlockStmt}
+     */
+    public void visitBlockStmt(BlockStmt bs) {
+        for(LocalDecl ld : bs.getLocalDecls())
+            ld.visit(this);
+
+        for(Statement s : bs.getStatements())
+            s.visit(this);
+    }
+
+    /**
+     * Compiles a break statement into a jump to the end of the current loop.
+     * @param bs {@link BreakStmt}
+     */
+    public void visitBreakStmt(BreakStmt bs) {
+        if(loops.isEmpty())
+            throw new UnsupportedConstructException(bs);
+        loops.getLast()[0].add(jump(Opcode.JMP));
+    }
+
+    /**
+     * Compiles a cast expression.
+     * @param ce {@link CastExpr}
+     */
+    public void visitCastExpr(CastExpr ce) {
+        int dest = target;
+        target = -1;
+        int mark = nextRegister;
+        int src = compileExpr(ce.getCastExpr());
+
+        int op = Opcode.MOVE;
+        if(ce.getCastType().isInt())
+            op = ce.getCastExpr().type.isReal() ? Opcode.R2I : Opcode.C2I;
+        else if(ce.getCastType().isReal() && ce.getCastExpr().type.isInt())
+            op = Opcode.I2R;
+
+        nextRegister = mark;
+        if(op == Opcode.MOVE && dest == -1) {
+            result = src;
+            return;
+        }
+        if(dest == -1)
+            dest = temp();
+        chunk.emit(op,dest,src);
+        result = dest;
+    }
+
+    /**
+     * Compiles a choice statement.
+     * <p>
+     *     Every label is tested in order, and we will jump to the body of the first case
+     *     whose label matches the choice value. If no label matches, the default body is executed.
+     * </p>
+     * @param cs {@link ChoiceStmt}
+     */
+    public void visitChoiceStmt(ChoiceStmt cs) {
+        int mark = nextRegister;
+        Type choiceType = cs.getChoiceValue().type;
+        boolean discrete = choiceType.isInt() || choiceType.isChar();
+        if(!discrete && !choiceType.isString())
+            throw new UnsupportedConstructException(cs);
+
+        int choice = compileExpr(cs.getChoiceValue());
+        Vector<Integer> caseJumps = new Vector<>();
+
+        for(CaseStmt currCase : cs.getCases()) {
+            Literal left = currCase.getLabel().getLeftConstant();
+            Literal right = currCase.getLabel().getRightConstant();
+            int low = chunk.addConstant(constantPool.get(left));
+
+            if(discrete) {
+                int high = (right != null) ? chunk.addConstant(constantPool.get(right)) : low;
+                caseJumps.add(jump(Opcode.CASE_INT,choice,low,high));
+            }
+            else if(right == null)
+                caseJumps.add(jump(Opcode.CASE_STR,choice,low));
+            else
+                throw new UnsupportedConstructException(cs);
+        }
+
+        Vector<Integer> endJumps = new Vector<>();
+        if(cs.getDefaultBody() != null)
+            cs.getDefaultBody().visit(this);
+        endJumps.add(jump(Opcode.JMP));
+
+        for(int i = 0; i < cs.getCases().size(); i++) {
+            patchHere(caseJumps.get(i));
+            cs.getCases().get(i).getBody().visit(this);
+            endJumps.add(jump(Opcode.JMP));
+        }
+
+        for(int pos : endJumps)
+            patchHere(pos);
+        nextRegister = mark;
+    }
+
+    /**
+     * Compiles a continue statement into a jump to the next iteration of the current loop.
+     * @param cs {@link ContinueStmt}
+     */
+    public void visitContinueStmt(ContinueStmt cs) {
+        if(loops.isEmpty())
+            throw new UnsupportedConstructException(cs);
+        loops.getLast()[1].add(jump(Opcode.JMP));
+    }
+
+    /**
+     * Compiles a do while loop.
+     * @param ds {@link DoStmt}
+     */
+    public void visitDoStmt(DoStmt ds) {
+        int mark = nextRegister;
+        for(AssignStmt as : ds.getPreheader())
+            as.visit(this);
+        int top = chunk.position();
+
+        beginLoop();
+        ds.getBody().visit(this);
+
+        int condition = chunk.position();
+        chunk.emit(Opcode.TICK,ExecutionBudget.statementCount(ds.getBody()));
+        chunk.emit(Opcode.JMP_TRUE,compileExpr(ds.getCondition()),top);
+        endLoop(condition,chunk.position());
+        nextRegister = mark;
+    }
+
+    /**
+     * Compiles an enumeration by storing each constant into the global frame.
+     * @param ed {@link EnumDecl}
+     */
+    public void visitEnumDecl(EnumDecl ed) {
+        for(Var constant : ed.getConstants()) {
+            int mark = nextRegister;
+            if(constant.getDepth() != RuntimeStack.GLOBAL_DEPTH || constant.getSlot() == -1)
+                throw new UnsupportedConstructException(ed);
+            chunk.emit(Opcode.STORE_GLOBAL,constant.getSlot(),compileExpr(constant.getInitialValue()));
+            nextRegister = mark;
+        }
+    }
+
+    /**
+     * Compiles an expression statement and discards its value.
+     * @param es {@link ExprStmt}
+     */
+    public void visitExprStmt(ExprStmt es) {
+        int mark = nextRegister;
+        compileExpr(es.getExpression());
+        nextRegister = mark;
+    }
+
+    /**
+     * A field expression can not be compiled yet.
+     * @param fe {@link FieldExpr}
+     */
+    public void visitFieldExpr(FieldExpr fe) { throw new UnsupportedConstructException(fe); }
+
+    /**
+     * Compiles a for loop.
+     * <p>
+     *     The loop bounds are evaluated once into a counter and a limit register. The counter
+     *     is then copied into the control variable at the start of every iteration, so the
+     *     loop keeps its static number of iterations even if the body changes the control variable.
+     * </p>
+     * @param fs {@link ForStmt}
+     */
+    public void visitForStmt(ForStmt fs) {
+        int mark = nextRegister;
+        LocalDecl control = fs.getControlVariable();
+        if(control.getSlot() == -1)
+            throw new UnsupportedConstructException(fs);
+
+        int start = compileExpr(fs.getStartValue());
+        int end = compileExpr(fs.getEndValue());
+        int counter = temp(), limit = temp();
+
+        int mode = switch(fs.getLoopOperator().getLoopOp()) {
+            case INCL -> 0;
+            case EXCL_L -> 1;
+            case EXCL_R -> 2;
+            case EXCL -> 3;
+        };
+        chunk.emit(Opcode.FOR_INIT,counter,limit,start,end,mode);
+        for(AssignStmt as : fs.getPreheader())
+            as.visit(this);
+        int exit = jump(Opcode.FOR_TEST,counter,limit);
+
+        int top = chunk.position();
+        int isChar = fs.getStartValue().type.isChar() ? 1 : 0;
+        if(control.getDepth() == RuntimeStack.GLOBAL_DEPTH) {
+            int reg = temp();
+            chunk.emit(Opcode.FOR_BIND,reg,counter,isChar);
+            chunk.emit(Opcode.STORE_GLOBAL,control.getSlot(),reg);
+        }
+        else
+            chunk.emit(Opcode.FOR_BIND,local(control,control.getSlot()),counter,isChar);
+
+        beginLoop();
+        fs.getBody().visit(this);
+
+        int step = chunk.position();
+        chunk.emit(Opcode.TICK,ExecutionBudget.statementCount(fs.getBody()));
+        chunk.emit(Opcode.FOR_STEP,counter,limit,top);
+        patchHere(exit);
+        endLoop(step,chunk.position());
+        nextRegister = mark;
+    }
+
+    /**
+     * Functions are compiled once they are invoked.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) { /* Do nothing. */ }
+
+    /**
+     * Compiles a global declaration.
+     * @param gd {@link GlobalDecl}
+     */
+    public void visitGlobalDecl(GlobalDecl gd) {
+        int mark = nextRegister;
+        if(gd.getSlot() == -1)
+            throw new UnsupportedConstructException(gd);
+
+        int src;
+        if(gd.getInitialValue() != null)
+            src = compileExpr(gd.getInitialValue());
+        else {
+            src = temp();
+            chunk.emit(Opcode.LOAD_NULL,src);
+        }
+        chunk.emit(Opcode.STORE_GLOBAL,gd.getSlot(),src);
+        nextRegister = mark;
+    }
+
+    /**
+     * Compiles an if statement alongside all of its else if and else statements.
+     * @param is {@link IfStmt}
+     */
+    public void visitIfStmt(IfStmt is) {
+        int mark = nextRegister;
+        Vector<Integer> endJumps = new Vector<>();
+
+        int next = jump(Opcode.JMP_FALSE,compileExpr(is.getCondition()));
+        nextRegister = mark;
+        is.getIfBody().visit(this);
+
+        for(IfStmt elif : is.getElifs()) {
+            endJumps.add(jump(Opcode.JMP));
+            patchHere(next);
+            next = jump(Opcode.JMP_FALSE,compileExpr(elif.getCondition()));
+            nextRegister = mark;
+            elif.getIfBody().visit(this);
+        }
+
+        if(is.getElseBody() != null) {
+            endJumps.add(jump(Opcode.JMP));
+            patchHere(next);
+            is.getElseBody().visit(this);
+        }
+        else
+            patchHere(next);
+
+        for(int pos : endJumps)
+            patchHere(pos);
+    }
+
+    /**
+     * Imports are only executed by the {@link cminor.interpreter.Interpreter}.
+     * @param im {@link ImportDecl}
+     */
+    public void visitImportDecl(ImportDecl im) { throw new UnsupportedConstructException(im); }
+
+    /**
+     * Compiles an input statement.
+     * <p>
+     *     Every input expression needs to be a variable, so we will store where each value
+     *     needs to be written to once the {@link BytecodeVM} reads the user's input.
+     * </p>
+     * @param in {@link InStmt}
+     */
+    public void visitInStmt(InStmt in) {
+        int[] operands = new int[2 + 2*in.getInExprs().size()];
+        operands[0] = chunk.addReference(in);
+        operands[1] = in.getInExprs().size();
+
+        for(int i = 0; i < in.getInExprs().size(); i++) {
+            Expression e = in.getInExprs().get(i);
+            if(!e.isNameExpr() || !e.asNameExpr().isResolved())
+                throw new UnsupportedConstructException(in);
+
+            NameExpr var = e.asNameExpr();
+            if(var.getDepth() == RuntimeStack.GLOBAL_DEPTH)
+                operands[2 + 2*i] = Opcode.TARGET_GLOBAL;
+            else {
+                operands[2 + 2*i] = Opcode.TARGET_LOCAL;
+                local(var,var.getSlot());
+            }
+            operands[3 + 2*i] = var.getSlot();
+        }
+        chunk.emit(Opcode.IN,operands);
+    }
+
+    /**
+     * Compiles a function invocation.
+     * <p>
+     *     The invoked function is compiled into its own {@link Chunk} (if it was not compiled yet).
+     *     For every argument passed to an {@code out}, {@code inout}, or {@code ref} parameter, we
+     *     will also store which variable needs to be updated once the function returns.
+     * </p>
+     * @param in {@link Invocation}
+     */
+    public void visitInvocation(Invocation in) {
+        int dest = target;
+        target = -1;
+        int mark = nextRegister;
+
+        if(in.isLengthInvocation()) {
+            int lst = compileExpr(in.getArgs().getLast());
+            nextRegister = mark;
+            if(dest == -1)
+                dest = temp();
+            chunk.emit(Opcode.LEN,dest,lst);
+            result = dest;
+            return;
+        }
+
+        if(in.isMethodInvocation() || in.containsTypeArgs() || in.templatedFunction != null)
+            throw new UnsupportedConstructException(in);
+
+        AST decl = globalScope.findMethod(in.getName().toString(),in.getSignature());
+        if(decl == null || !decl.isTopLevelDecl() || !decl.asTopLevelDecl().isFuncDecl())
+            throw new UnsupportedConstructException(in);
+
+        FuncDecl fd = decl.asTopLevelDecl().asFuncDecl();
+        Chunk callee = compileFunction(fd);
+
+        boolean saveArgs = false;
+        for(Expression arg : in.getArgs())
+            saveArgs |= !isSimple(arg);
+
+        int[] operands = new int[3 + 3*in.getArgs().size()];
+        for(int i = 0; i < in.getArgs().size(); i++) {
+            Expression arg = in.getArgs().get(i);
+            ParamDecl param = fd.getParams().get(i);
+
+            operands[3 + 3*i] = saveArgs ? compileIntoTemp(arg) : compileExpr(arg);
+            operands[4 + 3*i] = Opcode.TARGET_NONE;
+
+            if(arg.isNameExpr() && (param.mod.isOutMode() || param.mod.isInOutMode() || param.mod.isRefMode())) {
+                NameExpr var = arg.asNameExpr();
+                if(!var.isResolved())
+                    throw new UnsupportedConstructException(in);
+                operands[4 + 3*i] = (var.getDepth() == RuntimeStack.GLOBAL_DEPTH) ? Opcode.TARGET_GLOBAL : Opcode.TARGET_LOCAL;
+                operands[5 + 3*i] = var.getSlot();
+            }
+        }
+
+        // Arguments are copied into the new call frame before the result is written, so the result may reuse their registers.
+        nextRegister = mark;
+        if(dest == -1)
+            dest = temp();
+        operands[0] = dest;
+        operands[1] = chunk.addReference(callee);
+        operands[2] = in.getArgs().size();
+        chunk.emit(Opcode.CALL,operands);
+        result = dest;
+    }
+
+    /**
+     * Compiles a list literal.
+     * @param ll {@link ListLiteral}
+     */
+    public void visitListLiteral(ListLiteral ll) {
+        int dest = destination();
+        int first = nextRegister;
+
+        for(Expression init : ll.getInits())
+            compileIntoTemp(init);
+
+        chunk.emit(Opcode.NEW_LIST,dest,chunk.addReference(ll),first,ll.getInits().size());
+        result = dest;
+    }
+
+    /**
+     * Compiles a list statement command.
+     * @param ls {@link ListStmt}
+     */
+    public void visitListStmt(ListStmt ls) {
+        int mark = nextRegister;
+
+        if(ls.getInvocation() != null)
+            compileExpr(ls.getInvocation());
+        else {
+            int lst = compileExpr(ls.getList());
+            int node = chunk.addReference(ls);
+
+            switch(ls.getCommand()) {
+                case APPEND -> chunk.emit(Opcode.APPEND,lst,compileExpr(ls.getSecondArg()));
+                case INSERT -> {
+                    int index = compileExpr(ls.getSecondArg());
+                    chunk.emit(Opcode.INSERT,lst,index,compileExpr(ls.getThirdArg()),node);
+                }
+                case REMOVE -> chunk.emit(Opcode.REMOVE,lst,compileExpr(ls.getSecondArg()),node);
+            }
+        }
+        nextRegister = mark;
+    }
+
+    /**
+     * Compiles a literal by adding it into the constant pool.
+     * @param li {@link Literal}
+     */
+    public void visitLiteral(Literal li) {
+        int dest = destination();
+        chunk.emit(Opcode.LOAD_CONST,dest,chunk.addConstant(constantPool.get(li)));
+        result = dest;
+    }
+
+    /**
+     * Compiles a local declaration.
+     * @param ld {@link LocalDecl}
+     */
+    public void visitLocalDecl(LocalDecl ld) {
+        int mark = nextRegister;
+        if(ld.getSlot() == -1)
+            throw new UnsupportedConstructException(ld);
+
+        if(ld.getDepth() == RuntimeStack.GLOBAL_DEPTH) {
+            int src;
+            if(ld.getInitialValue() != null)
+                src = compileExpr(ld.getInitialValue());
+            else {
+                src = temp();
+                chunk.emit(Opcode.LOAD_NULL,src);
+            }
+            chunk.emit(Opcode.STORE_GLOBAL,ld.getSlot(),src);
+        }
+        else if(ld.getInitialValue() != null)
+            compileExpr(ld.getInitialValue(),local(ld,ld.getSlot()));
+        else
+            chunk.emit(Opcode.LOAD_NULL,local(ld,ld.getSlot()));
+
+        nextRegister = mark;
+    }
+
+    /**
+     * Compiles a name expression.
+     * <p>
+     *     A local variable already lives inside a register, so no instruction is needed.
+     *     A global variable will be loaded from the global frame instead.
+     * </p>
+     * @param ne {@link NameExpr}
+     */
+    public void visitNameExpr(NameExpr ne) {
+        if(!ne.isResolved())
+            throw new UnsupportedConstructException(ne);
+
+        if(ne.getDepth() == RuntimeStack.GLOBAL_DEPTH) {
+            int dest = destination();
+            chunk.emit(Opcode.LOAD_GLOBAL,dest,ne.getSlot(),chunk.addReference(ne));
+            result = dest;
+        }
+        else {
+            target = -1;
+            result = local(ne,ne.getSlot());
+        }
+    }
+
+    /**
+     * Objects can not be compiled yet.
+     * @param ne {@link NewExpr}
+     */
+    public void visitNewExpr(NewExpr ne) { throw new UnsupportedConstructException(ne); }
+
+    /**
+     * Compiles an output statement.
+     * @param os {@link OutStmt}
+     */
+    public void visitOutStmt(OutStmt os) {
+        int mark = nextRegister;
+        for(Expression e : os.getOutExprs()) {
+            if(e.isEndl())
+                chunk.emit(Opcode.OUT_ENDL);
+            else
+                chunk.emit(Opcode.OUT,compileExpr(e));
+            nextRegister = mark;
+        }
+    }
+
+    /**
+     * Objects can not be compiled yet.
+     * @param ps {@link ParentStmt}
+     */
+    public void visitParentStmt(ParentStmt ps) { throw new UnsupportedConstructException(ps); }
+
+    /**
+     * Compiles a tail call of the function we are currently compiling.
+     * <p>
+     *     Every argument is evaluated into a temporary register before any parameter is
+     *     overwritten, since an argument may read the old value of a parameter. The arguments
+     *     are then moved into the parameter registers, and we jump back to the start of the
+     *     {@link Chunk}, so the call reuses the current call frame.
+     * </p>
+     * @param in {@link Invocation} marked by the {@link cminor.micropasses.TailCallAnalyzer}
+     */
+    private void tailCall(Invocation in) {
+        int[] temps = new int[in.getArgs().size()];
+        for(int i = 0; i < temps.length; i++)
+            temps[i] = compileIntoTemp(in.getArgs().get(i));
+
+        for(int i = 0; i < temps.length; i++)
+            chunk.emit(Opcode.MOVE,local(in,i),temps[i]);
+        chunk.emit(Opcode.JMP,0);
+    }
+
+    /**
+     * Compiles a return statement.
+     * @param rs {@link ReturnStmt}
+     */
+    public void visitReturnStmt(ReturnStmt rs) {
+        if(!insideFrame)
+            throw new UnsupportedConstructException(rs);
+
+        int mark = nextRegister;
+        if(rs.getReturnValue() != null && rs.getReturnValue().isInvocation()
+                && rs.getReturnValue().asInvocation().isTailCall() && currentFunction != null)
+            tailCall(rs.getReturnValue().asInvocation());
+        else if(rs.getReturnValue() != null)
+            chunk.emit(Opcode.RETURN,compileExpr(rs.getReturnValue()));
+        else
+            chunk.emit(Opcode.RETURN_VOID);
+        nextRegister = mark;
+    }
+
+    /**
+     * Objects can not be compiled yet.
+     * @param rt {@link RetypeStmt}
+     */
+    public void visitRetypeStmt(RetypeStmt rt) { throw new UnsupportedConstructException(rt); }
+
+    /**
+     * Compiles a stop statement.
+     * @param ss {@link StopStmt}
+     */
+    public void visitStopStmt(StopStmt ss) { chunk.emit(Opcode.STOP); }
+
+    /**
+     * Objects can not be compiled yet.
+     * @param ts {@link ThisStmt}
+     */
+    public void visitThis(ThisStmt ts) { throw new UnsupportedConstructException(ts); }
+
+    /**
+     * Compiles a unary expression.
+     * @param ue {@link UnaryExpr}
+     */
+    public void visitUnaryExpr(UnaryExpr ue) {
+        int dest = target;
+        target = -1;
+        int mark = nextRegister;
+        int src = compileExpr(ue.getExpr());
+
+        nextRegister = mark;
+        if(dest == -1)
+            dest = temp();
+
+        switch(ue.getUnaryOp().getUnaryType()) {
+            case BNOT -> chunk.emit(Opcode.INOT,dest,src);
+            case NOT -> chunk.emit(Opcode.NOT,dest,src);
+        }
+        result = dest;
+    }
+
+    /**
+     * Compiles a while loop.
+     * @param ws {@link WhileStmt}
+     */
+    public void visitWhileStmt(WhileStmt ws) {
+        int mark = nextRegister;
+        for(AssignStmt as : ws.getPreheader())
+            as.visit(this);
+        int top = chunk.position();
+        int exit = jump(Opcode.JMP_FALSE,compileExpr(ws.getCondition()));
+        nextRegister = mark;
+
+        beginLoop();
+        ws.getBody().visit(this);
+        int next = chunk.position();
+        chunk.emit(Opcode.TICK,ExecutionBudget.statementCount(ws.getBody()));
+        chunk.emit(Opcode.JMP,top);
+
+        patchHere(exit);
+        endLoop(next,chunk.position());
+        nextRegister = mark;
+    }
+}
@@ -0,0 +1,305 @@
+package cminor.bytecode;
+
+import cminor.ast.AST;
+import cminor.ast.misc.CompilationUnit;
+import cminor.ast.statements.*;
+import cminor.ast.topleveldecls.*;
+import cminor.interpreter.Interpreter;
+import cminor.interpreter.budget.ExecutionBudget;
+import cminor.interpreter.input.InputScanner;
+import cminor.interpreter.profiler.SamplingProfiler;
+import cminor.interpreter.output.OutputSink;
+import cminor.interpreter.value.RealMode;
+import cminor.utilities.CompilationContext;
+import cminor.utilities.ConstantPool;
+import cminor.utilities.MemoTable;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.SymbolTable;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+
+/**
+ * A {@link Visitor} class that executes a C Minor program with the {@link BytecodeVM}.
+ * <p>
+ *     This phase can be used by the {@link cminor.utilities.PhaseHandler} in place of the
+ *     {@link Interpreter}. Every top level construct will first be compiled by the
+ *     {@link BytecodeCompiler}, and the generated {@link Chunk} is then executed by the
+ *     {@link BytecodeVM}. If the construct uses a feature the {@link BytecodeCompiler} does
+ *     not support yet, we will execute the construct with the {@link Interpreter} instead.
+ *     Both execution engines share the same global frame, so a user is able to freely mix
+ *     both kinds of constructs.
+ * </p>
+ * @author Daniel Levy
+ */
+public class BytecodeEngine extends Visitor {
+
+    /**
+     * {@link BytecodeCompiler} that lowers each construct into bytecode.
+     */
+    private final BytecodeCompiler compiler;
+
+    /**
+     * {@link BytecodeVM} that executes each compiled {@link Chunk}.
+     */
+    private final BytecodeVM vm;
+
+    /**
+     * {@link Interpreter} that executes any construct that can not be compiled.
+     */
+    private final Interpreter interpreter;
+
+    /**
+     * Creates the {@link BytecodeEngine}.
+     * @param globalScope The {@link SymbolTable} representing the VM's global scope.
+     * @param context The {@link CompilationContext} of the program.
+     */
+    public BytecodeEngine(SymbolTable globalScope, CompilationContext context) {
+        RuntimeStack globals = new RuntimeStack();
+        this.compiler = new BytecodeCompiler(globalScope);
+        this.vm = new BytecodeVM(globals,context);
+        this.interpreter = new Interpreter(globalScope,globals,context);
+    }
+
+    /**
+     * Sets the {@link RealMode} used by the compiler, the {@link BytecodeVM}, and the {@link Interpreter}.
+     * @param realMode {@link RealMode}
+     */
+    public void setRealMode(RealMode realMode) {
+        compiler.setRealMode(realMode);
+        vm.setRealMode(realMode);
+        interpreter.setRealMode(realMode);
+    }
+
+    /**
+     * Sets the {@link ConstantPool} used by the compiler and the {@link Interpreter}.
+     * @param constantPool {@link ConstantPool}
+     */
+    public void setConstantPool(ConstantPool constantPool) {
+        compiler.setConstantPool(constantPool);
+        interpreter.setConstantPool(constantPool);
+    }
+
+    /**
+     * Sets the {@link MemoTable} used by the {@link BytecodeVM} and the {@link Interpreter}.
+     * @param memoTable {@link MemoTable}
+     */
+    public void setMemoTable(MemoTable memoTable) {
+        vm.setMemoTable(memoTable);
+        interpreter.setMemoTable(memoTable);
+    }
+
+    /**
+     * Sets the {@link OutputSink} used by the {@link BytecodeVM} and the {@link Interpreter}.
+     * @param output {@link OutputSink}
+     */
+    public void setOutputSink(OutputSink output) {
+        vm.setOutputSink(output);
+        interpreter.setOutputSink(output);
+    }
+
+    /**
+     * Sets the {@link InputScanner} used by the {@link BytecodeVM} and the {@link Interpreter}.
+     * @param input {@link InputScanner}
+     */
+    public void setInputScanner(InputScanner input) {
+        vm.setInputScanner(input);
+        interpreter.setInputScanner(input);
+    }
+
+    /**
+     * Sets the {@link SamplingProfiler} used by the {@link BytecodeVM} and the {@link Interpreter}.
+     * @param sampler {@link SamplingProfiler}, or {@code null} to disable sampling
+     */
+    public void setSampler(SamplingProfiler sampler) {
+        vm.setSampler(sampler);
+        interpreter.setSampler(sampler);
+    }
+
+    /**
+     * Sets the {@link ExecutionBudget} used by the {@link BytecodeVM} and the {@link Interpreter}.
+     * @param budget {@link ExecutionBudget}, or {@code null} if the program is not limited
+     */
+    public void setBudget(ExecutionBudget budget) {
+        vm.setBudget(budget);
+        interpreter.setBudget(budget);
+    }
+
+    /**
+     * Executes a construct with the {@link BytecodeVM}.
+     * <p>
+     *     If the construct can not be compiled, then it will be executed by the {@link Interpreter}.
+     * </p>
+     * @param node {@link AST} node to execute
+     */
+    private void execute(AST node) {
+        Chunk chunk;
+        try { chunk = compiler.compile(node); }
+        catch(BytecodeCompiler.UnsupportedConstructException e) {
+            node.visit(interpreter);
+            return;
+        }
+        vm.run(chunk,node);
+    }
+
+    /**
+     * Executes an assignment statement.
+     * @param as {@link AssignStmt}
+     */
+    public void visitAssignStmt(AssignStmt as) { execute(as); }
+
+    /**
+     * Executes a block statement.
+     * @param bs {@link BlockStmt}
+     */
+    public void visitBlockStmt(BlockStmt bs) { execute(bs); }
+
+    /**
+     * Executes a choice statement.
+     * @param cs {@link ChoiceStmt}
+     */
+    public void visitChoiceStmt(ChoiceStmt cs) { execute(cs); }
+
+    /**
+     * Classes are only executed once an object is created.
+     * @param cd {@link ClassDecl}
+     */
+    public void visitClassDecl(ClassDecl cd) { /* Do Nothing. */ }
+
+    /**
+     * Begins the execution of a program in compilation mode.
+     * <p>
+     *     Enumerations and global variables are executed before {@code main}. If any of these
+     *     constructs can not be compiled, the entire program will be executed by the {@link Interpreter}.
+     * </p>
+     * @param cu {@link CompilationUnit}
+     */
+    public void visitCompilationUnit(CompilationUnit cu) {
+        Vector<Chunk> chunks = new Vector<>();
+        Vector<AST> nodes = new Vector<>();
+        try {
+            if(!cu.getImports().isEmpty())
+                throw new BytecodeCompiler.UnsupportedConstructException(cu.getImports().getFirst());
+
+            for(EnumDecl ed : cu.getEnums())
+                nodes.add(ed);
+            for(GlobalDecl gd : cu.getGlobals())
+                nodes.add(gd);
+            if(cu.getMain() != null)
+                nodes.add(cu.getMain());
+            for(AST node : nodes)
+                chunks.add(compiler.compile(node));
+        }
+        catch(BytecodeCompiler.UnsupportedConstructException e) {
+            cu.visit(interpreter);
+            return;
+        }
+
+        for(int i = 0; i < chunks.size(); i++)
+            vm.run(chunks.get(i),nodes.get(i));
+    }
+
+    /**
+     * Executes a do while loop.
+     * @param ds {@link DoStmt}
+     */
+    public void visitDoStmt(DoStmt ds) { execute(ds); }
+
+    /**
+     * Executes an enum declaration.
+     * @param ed {@link EnumDecl}
+     */
+    public void visitEnumDecl(EnumDecl ed) { execute(ed); }
+
+    /**
+     * Executes an expression statement.
+     * @param es {@link ExprStmt}
+     */
+    public void visitExprStmt(ExprStmt es) { execute(es); }
+
+    /**
+     * Executes a for loop.
+     * @param fs {@link ForStmt}
+     */
+    public void visitForStmt(ForStmt fs) { execute(fs); }
+
+    /**
+     * Functions are only executed once they are invoked.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) { /* Do nothing. */ }
+
+    /**
+     * Executes a global declaration unless it is never used by the program.
+     * @param gd {@link GlobalDecl}
+     */
+    public void visitGlobalDecl(GlobalDecl gd) {
+        if(!gd.isUnused())
+            execute(gd);
+    }
+
+    /**
+     * Executes an if statement.
+     * @param is {@link IfStmt}
+     */
+    public void visitIfStmt(IfStmt is) { execute(is); }
+
+    /**
+     * Executes an import declaration with the {@link Interpreter}.
+     * @param im {@link ImportDecl}
+     */
+    public void visitImportDecl(ImportDecl im) { im.visit(interpreter); }
+
+    /**
+     * Executes an input statement.
+     * @param in {@link InStmt}
+     */
+    public void visitInStmt(InStmt in) { execute(in); }
+
+    /**
+     * Executes a list statement.
+     * @param ls {@link ListStmt}
+     */
+    public void visitListStmt(ListStmt ls) { execute(ls); }
+
+    /**
+     * Executes a local declaration.
+     * @param ld {@link LocalDecl}
+     */
+    public void visitLocalDecl(LocalDecl ld) { execute(ld); }
+
+    /**
+     * Executes {@code main} inside its own call frame.
+     * @param md {@link MainDecl}
+     */
+    public void visitMainDecl(MainDecl md) { execute(md); }
+
+    /**
+     * Executes an output statement.
+     * @param os {@link OutStmt}
+     */
+    public void visitOutStmt(OutStmt os) { execute(os); }
+
+    /**
+     * Executes a return statement.
+     * @param rs {@link ReturnStmt}
+     */
+    public void visitReturnStmt(ReturnStmt rs) { execute(rs); }
+
+    /**
+     * Executes a retype statement.
+     * @param rt {@link RetypeStmt}
+     */
+    public void visitRetypeStmt(RetypeStmt rt) { execute(rt); }
+
+    /**
+     * Executes a stop statement.
+     * @param ss {@link StopStmt}
+     */
+    public void visitStopStmt(StopStmt ss) { execute(ss); }
+
+    /**
+     * Executes a while loop.
+     * @param ws {@link WhileStmt}
+     */
+    public void visitWhileStmt(WhileStmt ws) { execute(ws); }
+}
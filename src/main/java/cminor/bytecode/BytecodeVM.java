@@ -0,0 +1,707 @@
+package cminor.bytecode;
+
+import cminor.ast.AST;
+import cminor.ast.expressions.ArrayExpr;
+import cminor.ast.expressions.ArrayLiteral;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.Literal;
+import cminor.ast.statements.InStmt;
+import cminor.ast.statements.ListStmt;
+import cminor.ast.types.ScalarType;
+import cminor.interpreter.Interpreter;
+import cminor.interpreter.budget.ExecutionBudget;
+import cminor.interpreter.input.InputScanner;
+import cminor.interpreter.output.OutputSink;
+import cminor.interpreter.output.StandardOutput;
+import cminor.interpreter.profiler.SamplingProfiler;
+import cminor.interpreter.value.BoolValue;
+import cminor.interpreter.value.CharValue;
+import cminor.interpreter.value.FixedRealValue;
+import cminor.interpreter.value.IntValue;
+import cminor.interpreter.value.RealMode;
+import cminor.interpreter.value.RuntimeList;
+import cminor.interpreter.value.StringValue;
+import cminor.interpreter.value.Value;
+import cminor.messages.MessageHandler;
+import cminor.messages.MessageNumber;
+import cminor.messages.errors.runtime.RuntimeError;
+import cminor.utilities.CompilationContext;
+import cminor.utilities.MemoCache;
+import cminor.utilities.MemoTable;
+import cminor.utilities.RuntimeStack;
+
+/**
+ * A virtual machine that executes the bytecode generated by the {@link BytecodeCompiler}.
+ * <p>
+ *     Every {@link Chunk} is executed by a single dispatch loop that reads an opcode and
+ *     jumps to its implementation through a {@code switch} statement. Each call frame is
+ *     a flat array of registers, and an invocation will recursively execute the chunk of the
+ *     invoked function inside a new register array.
+ * </p>
+ * <p>
+ *     The global frame is shared with the {@link Interpreter}, so any construct that the
+ *     {@link BytecodeCompiler} is unable to compile can still be executed by the {@link Interpreter}
+ *     without losing the values of any global variable.
+ * </p>
+ * @author Daniel Levy
+ */
+public class BytecodeVM {
+
+    /**
+     * The {@link cminor.ast.types.Type} given to every {@code String} created at runtime.
+     */
+    private static final ScalarType STRING_TYPE = new ScalarType(ScalarType.Scalars.STR);
+
+    /**
+     * The global frame that stores every global variable, enum constant, and top level variable.
+     */
+    private final RuntimeStack globals;
+
+    /**
+     * {@link MessageHandler} used to generate runtime errors.
+     */
+    private final MessageHandler handler;
+
+    /**
+     * {@link CompilationContext} of the program, which is told whenever output is generated.
+     */
+    private final CompilationContext context;
+
+    /**
+     * The {@link RealMode} used to create {@code Real} values at runtime.
+     */
+    private RealMode realMode;
+
+    /**
+     * {@link MemoTable} that stores the results of calls to memoizable functions.
+     */
+    private MemoTable memoTable;
+
+    /**
+     * {@link OutputSink} that every {@link Opcode#OUT} instruction will print to.
+     */
+    private OutputSink output;
+
+    /**
+     * {@link InputScanner} that every {@link Opcode#IN} instruction will read from.
+     */
+    private InputScanner input;
+
+    /**
+     * {@link SamplingProfiler} that is told about every call, or {@code null} if sampling is disabled.
+     */
+    private SamplingProfiler sampler;
+
+    /**
+     * {@link ExecutionBudget} charged for every loop iteration, call, and allocation, or {@code null} if the program is not limited.
+     */
+    private ExecutionBudget budget;
+
+    /**
+     * Creates a {@link BytecodeVM}.
+     * @param globals The {@link RuntimeStack} representing the global frame.
+     * @param context The {@link CompilationContext} of the program.
+     */
+    public BytecodeVM(RuntimeStack globals, CompilationContext context) {
+        this.globals = globals;
+        this.context = context;
+        this.handler = new MessageHandler(context);
+        this.realMode = RealMode.EXACT;
+        this.memoTable = new MemoTable();
+        this.output = new StandardOutput();
+        this.input = new InputScanner();
+    }
+
+    /**
+     * Sets the {@link RealMode} used for any {@code Real} value created at runtime.
+     * @param realMode {@link RealMode}
+     */
+    public void setRealMode(RealMode realMode) { this.realMode = realMode; }
+
+    /**
+     * Sets the {@link MemoTable} used to memoize calls to {@code pure} functions.
+     * @param memoTable {@link MemoTable}
+     */
+    public void setMemoTable(MemoTable memoTable) { this.memoTable = memoTable; }
+
+    /**
+     * Sets the {@link OutputSink} that every output instruction will print to.
+     * @param output {@link OutputSink}
+     */
+    public void setOutputSink(OutputSink output) { this.output = output; }
+
+    /**
+     * Sets the {@link InputScanner} that every input instruction will read from.
+     * @param input {@link InputScanner}
+     */
+    public void setInputScanner(InputScanner input) { this.input = input; }
+
+    /**
+     * Sets the {@link SamplingProfiler} that will sample the call stack of the program.
+     * @param sampler {@link SamplingProfiler}, or {@code null} to disable sampling
+     */
+    public void setSampler(SamplingProfiler sampler) { this.sampler = sampler; }
+
+    /**
+     * Sets the {@link ExecutionBudget} the program has to stay within.
+     * @param budget {@link ExecutionBudget}, or {@code null} if the program is not limited
+     */
+    public void setBudget(ExecutionBudget budget) { this.budget = budget; }
+
+    /**
+     * Executes a top level {@link Chunk}.
+     * <p>
+     *     If a {@code Real} operation overflows in fixed mode, a runtime error is generated
+     *     for the construct the chunk was compiled from.
+     * </p>
+     * @param chunk {@link Chunk}
+     * @param node {@link AST} node the chunk was compiled from
+     */
+    public void run(Chunk chunk, AST node) {
+        try { execute(chunk,new Value[chunk.getRegisterCount()]); }
+        catch(FixedRealValue.OverflowException e) {
+            handler.createErrorBuilder(RuntimeError.class)
+                   .addLocation(node.getFullLocation())
+                   .addErrorNumber(MessageNumber.RUNTIME_ERROR_613)
+                   .generateError();
+        }
+    }
+
+    /**
+     * Executes the {@link Chunk} of a called function.
+     * <p>
+     *     The call is reported to the {@link #sampler} if sampling is enabled.
+     * </p>
+     * @param callee {@link Chunk} of the function
+     * @param frame Registers of the new call frame
+     * @return {@link Value} returned by the function
+     */
+    private Value call(Chunk callee, Value[] frame) {
+        if(sampler == null || callee.getFunction() == null)
+            return execute(callee,frame);
+
+        sampler.enter(callee.getFunction());
+        Value result = execute(callee,frame);
+        sampler.exit();
+        return result;
+    }
+
+    /**
+     * Executes a {@link Chunk} inside a register file.
+     * <p>
+     *     The {@link #budget} is charged by the {@link Opcode#TICK} instructions that the {@link BytecodeCompiler}
+     *     emits at the end of every loop iteration and at the start of every function. Each one is charged
+     *     for the statements of the loop or function body, the same way the {@link Interpreter} charges them.
+     * </p>
+     * @param chunk {@link Chunk} to execute
+     * @param regs Array of registers. The first registers will store the arguments of the call.
+     * @return {@link Value} returned by the chunk, or {@code null} if no value was returned.
+     */
+    public Value execute(Chunk chunk, Value[] regs) {
+        final int[] code = chunk.getCode();
+        final Value[] constants = chunk.getConstants();
+        final Object[] refs = chunk.getReferences();
+        int pc = 0;
+
+        while(true) {
+            switch(code[pc]) {
+                case Opcode.LOAD_CONST:
+                    regs[code[pc+1]] = constants[code[pc+2]];
+                    pc += 3;
+                    break;
+                case Opcode.LOAD_NULL:
+                    regs[code[pc+1]] = null;
+                    pc += 2;
+                    break;
+                case Opcode.MOVE:
+                    regs[code[pc+1]] = regs[code[pc+2]];
+                    pc += 3;
+                    break;
+                case Opcode.LOAD_GLOBAL: {
+                    Value val = globals.getValue(RuntimeStack.GLOBAL_DEPTH,code[pc+2]);
+                    // ERROR CHECK #1: This makes sure any uninitialized variables are not accessed by the user.
+                    if(val == null) {
+                        AST node = (AST) refs[code[pc+3]];
+                        handler.createErrorBuilder(RuntimeError.class)
+                               .addLocation(node.getFullLocation())
+                               .addErrorNumber(MessageNumber.RUNTIME_ERROR_607)
+                               .addErrorArgs(node)
+                               .generateError();
+                    }
+                    regs[code[pc+1]] = val;
+                    pc += 4;
+                    break;
+                }
+                case Opcode.STORE_GLOBAL:
+                    globals.setValue(RuntimeStack.GLOBAL_DEPTH,code[pc+1],regs[code[pc+2]]);
+                    pc += 3;
+                    break;
+                case Opcode.IADD:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() + regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.ISUB:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() - regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IMUL:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() * regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IDIV:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() / regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IMOD:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() % regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IPOW:
+                    regs[code[pc+1]] = IntValue.of((int) Math.round(Math.pow(regs[code[pc+2]].asInt(),regs[code[pc+3]].asInt())));
+                    pc += 4;
+                    break;
+                case Opcode.RADD:
+                    regs[code[pc+1]] = regs[code[pc+2]].asReal().add(regs[code[pc+3]].asReal());
+                    pc += 4;
+                    break;
+                case Opcode.RSUB:
+                    regs[code[pc+1]] = regs[code[pc+2]].asReal().subtract(regs[code[pc+3]].asReal());
+                    pc += 4;
+                    break;
+                case Opcode.RMUL:
+                    regs[code[pc+1]] = regs[code[pc+2]].asReal().multiply(regs[code[pc+3]].asReal());
+                    pc += 4;
+                    break;
+                case Opcode.RDIV:
+                    regs[code[pc+1]] = regs[code[pc+2]].asReal().divide(regs[code[pc+3]].asReal());
+                    pc += 4;
+                    break;
+                case Opcode.RMOD:
+                    regs[code[pc+1]] = regs[code[pc+2]].asReal().remainder(regs[code[pc+3]].asReal());
+                    pc += 4;
+                    break;
+                case Opcode.RPOW:
+                    regs[code[pc+1]] = regs[code[pc+2]].asReal().pow(regs[code[pc+3]].asReal().intValue());
+                    pc += 4;
+                    break;
+                case Opcode.SCONCAT:
+                    regs[code[pc+1]] = StringValue.concat(regs[code[pc+2]],regs[code[pc+3]],STRING_TYPE);
+                    pc += 4;
+                    break;
+                case Opcode.ILT:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asInt() < regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.ILE:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asInt() <= regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IGT:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asInt() > regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IGE:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asInt() >= regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.RLT:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asReal().compareTo(regs[code[pc+3]].asReal()) < 0);
+                    pc += 4;
+                    break;
+                case Opcode.RLE:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asReal().compareTo(regs[code[pc+3]].asReal()) <= 0);
+                    pc += 4;
+                    break;
+                case Opcode.RGT:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asReal().compareTo(regs[code[pc+3]].asReal()) > 0);
+                    pc += 4;
+                    break;
+                case Opcode.RGE:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asReal().compareTo(regs[code[pc+3]].asReal()) >= 0);
+                    pc += 4;
+                    break;
+                case Opcode.EQ:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].equals(regs[code[pc+3]]));
+                    pc += 4;
+                    break;
+                case Opcode.NE:
+                    regs[code[pc+1]] = BoolValue.of(!regs[code[pc+2]].equals(regs[code[pc+3]]));
+                    pc += 4;
+                    break;
+                case Opcode.LAND:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asBool() && regs[code[pc+3]].asBool());
+                    pc += 4;
+                    break;
+                case Opcode.LOR:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asBool() || regs[code[pc+3]].asBool());
+                    pc += 4;
+                    break;
+                case Opcode.ISHL:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() << regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.ISHR:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() >> regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IAND:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() & regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IOR:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() | regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.IXOR:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asInt() ^ regs[code[pc+3]].asInt());
+                    pc += 4;
+                    break;
+                case Opcode.BAND:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asBool() & regs[code[pc+3]].asBool());
+                    pc += 4;
+                    break;
+                case Opcode.BOR:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asBool() | regs[code[pc+3]].asBool());
+                    pc += 4;
+                    break;
+                case Opcode.BXOR:
+                    regs[code[pc+1]] = BoolValue.of(regs[code[pc+2]].asBool() ^ regs[code[pc+3]].asBool());
+                    pc += 4;
+                    break;
+                case Opcode.INOT:
+                    regs[code[pc+1]] = IntValue.of(~regs[code[pc+2]].asInt());
+                    pc += 3;
+                    break;
+                case Opcode.NOT:
+                    regs[code[pc+1]] = BoolValue.of(!regs[code[pc+2]].asBool());
+                    pc += 3;
+                    break;
+                case Opcode.I2R:
+                    regs[code[pc+1]] = realMode.fromInt(regs[code[pc+2]].asInt());
+                    pc += 3;
+                    break;
+                case Opcode.R2I:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asReal().intValue());
+                    pc += 3;
+                    break;
+                case Opcode.C2I:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asChar());
+                    pc += 3;
+                    break;
+                case Opcode.JMP:
+                    pc = code[pc+1];
+                    break;
+                case Opcode.JMP_FALSE:
+                    pc = regs[code[pc+1]].asBool() ? pc+3 : code[pc+2];
+                    break;
+                case Opcode.JMP_TRUE:
+                    pc = regs[code[pc+1]].asBool() ? code[pc+2] : pc+3;
+                    break;
+                case Opcode.FOR_INIT: {
+                    int mode = code[pc+5];
+                    // Handles the "<..", "..<", and "<..<" loop operators
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+3]].asInt() + ((mode & 1) != 0 ? 1 : 0));
+                    regs[code[pc+2]] = IntValue.of(regs[code[pc+4]].asInt() - ((mode & 2) != 0 ? 1 : 0));
+                    pc += 6;
+                    break;
+                }
+                case Opcode.FOR_TEST:
+                    pc = (regs[code[pc+1]].asInt() > regs[code[pc+2]].asInt()) ? code[pc+3] : pc+4;
+                    break;
+                case Opcode.FOR_BIND: {
+                    Value counter = regs[code[pc+2]];
+                    regs[code[pc+1]] = (code[pc+3] == 1) ? CharValue.of((char) counter.asInt()) : counter;
+                    pc += 4;
+                    break;
+                }
+                case Opcode.FOR_STEP: {
+                    // The limit is checked before incrementing, so a loop ending at Integer.MAX_VALUE can not wrap around.
+                    int current = regs[code[pc+1]].asInt();
+                    if(current >= regs[code[pc+2]].asInt()) {
+                        pc += 4;
+                        break;
+                    }
+                    regs[code[pc+1]] = IntValue.of(current + 1);
+                    pc = code[pc+3];
+                    break;
+                }
+                case Opcode.CASE_INT: {
+                    int choice = regs[code[pc+1]].asInt();
+                    boolean matches = choice >= constants[code[pc+2]].asInt() && choice <= constants[code[pc+3]].asInt();
+                    pc = matches ? code[pc+4] : pc+5;
+                    break;
+                }
+                case Opcode.CASE_STR:
+                    pc = regs[code[pc+1]].asString().equals(constants[code[pc+2]].asString()) ? code[pc+3] : pc+4;
+                    break;
+                case Opcode.CALL: {
+                    Chunk callee = (Chunk) refs[code[pc+2]];
+                    int argc = code[pc+3];
+                    Value[] frame = new Value[callee.getRegisterCount()];
+
+                    for(int i = 0; i < argc; i++)
+                        frame[i] = regs[code[pc+4+3*i]];
+
+                    // A memoizable function only has in parameters, so nothing needs to be copied back.
+                    MemoCache memo = (callee.getFunction() != null) ? memoTable.getCache(callee.getFunction()) : null;
+                    if(memo != null) {
+                        Object key = MemoCache.keyOf(frame,argc);
+                        Value result = memo.get(key);
+                        if(result == null) {
+                            result = call(callee,frame);
+                            memo.put(key,result);
+                        }
+                        regs[code[pc+1]] = result;
+                        pc += 4 + 3*argc;
+                        break;
+                    }
+
+                    Value result = call(callee,frame);
+
+                    // Update any variables passed to an out, inout, or ref parameter
+                    for(int i = 0; i < argc; i++) {
+                        int kind = code[pc+5+3*i];
+                        if(kind == Opcode.TARGET_LOCAL)
+                            regs[code[pc+6+3*i]] = frame[i];
+                        else if(kind == Opcode.TARGET_GLOBAL)
+                            globals.setValue(RuntimeStack.GLOBAL_DEPTH,code[pc+6+3*i],frame[i]);
+                    }
+
+                    regs[code[pc+1]] = result;
+                    pc += 4 + 3*argc;
+                    break;
+                }
+                case Opcode.RETURN:
+                    return regs[code[pc+1]];
+                case Opcode.RETURN_VOID:
+                    return null;
+                case Opcode.LEN:
+                    regs[code[pc+1]] = IntValue.of(regs[code[pc+2]].asList().size());
+                    pc += 3;
+                    break;
+                case Opcode.NEW_ARRAY:
+                case Opcode.NEW_LIST: {
+                    RuntimeList lst = new RuntimeList((Literal) refs[code[pc+2]],realMode);
+                    int first = code[pc+3];
+                    for(int i = 0; i < code[pc+4]; i++)
+                        lst.addElement(regs[first+i]);
+                    if(budget != null && !budget.allocateList(lst.size()))
+                        budgetExceeded(chunk);
+                    lst.flatten(realMode);
+                    regs[code[pc+1]] = lst;
+                    pc += 5;
+                    break;
+                }
+                case Opcode.AGET: {
+                    RuntimeList lst = regs[code[pc+2]].asList();
+                    int offset = checkIndex(lst,regs[code[pc+3]].asInt(),code[pc+4],(AST) refs[code[pc+5]]);
+                    regs[code[pc+1]] = lst.get(offset);
+                    pc += 6;
+                    break;
+                }
+                case Opcode.ASET: {
+                    RuntimeList lst = regs[code[pc+1]].asList();
+                    int offset = checkIndex(lst,regs[code[pc+2]].asInt(),code[pc+4],(AST) refs[code[pc+5]]);
+                    lst.setOffset(offset);
+                    lst.addElement(regs[code[pc+3]]);
+                    pc += 6;
+                    break;
+                }
+                case Opcode.APPEND: {
+                    RuntimeList lst = regs[code[pc+1]].asList();
+                    int oldSize = lst.size();
+                    lst.add(regs[code[pc+2]]);
+                    if(budget != null && !budget.resizeList(lst.size() - oldSize))
+                        budgetExceeded(chunk);
+                    pc += 3;
+                    break;
+                }
+                case Opcode.INSERT:
+                    insert(regs[code[pc+1]].asList(),regs[code[pc+2]],regs[code[pc+3]],(ListStmt) refs[code[pc+4]]);
+                    pc += 5;
+                    break;
+                case Opcode.REMOVE:
+                    remove(regs[code[pc+1]].asList(),regs[code[pc+2]],(ListStmt) refs[code[pc+3]]);
+                    pc += 4;
+                    break;
+                case Opcode.OUT:
+                    output.print(regs[code[pc+1]]);
+                    context.setOutputFound(true);
+                    pc += 2;
+                    break;
+                case Opcode.OUT_ENDL:
+                    output.println();
+                    context.setOutputFound(true);
+                    pc += 1;
+                    break;
+                case Opcode.IN:
+                    input((InStmt) refs[code[pc+1]],regs,code,pc+3);
+                    pc += 3 + 2*code[pc+2];
+                    break;
+                case Opcode.STOP:
+                    output.flush();
+                    throw new Interpreter.StopException();
+                case Opcode.TICK:
+                    if(budget != null && !budget.charge(code[pc+1]))
+                        budgetExceeded(chunk);
+                    pc += 2;
+                    break;
+                default:
+                    throw new RuntimeException("Invalid opcode " + code[pc] + " found in " + chunk.getName() + ".");
+            }
+        }
+    }
+
+    /**
+     * Checks if an index is inside the bounds of an array or list.
+     * <p>
+     *     In C Minor, arrays and lists are indexed starting at 1. The size of an array
+     *     is found by using the dimensions written in its array literal (if they exist).
+     *     A flattened array already caches the size of each of its dimensions.
+     * </p>
+     * @param lst {@link RuntimeList} we are indexing into
+     * @param offset The index we want to access
+     * @param dim The dimension the index belongs to
+     * @param ae {@link ArrayExpr} used for the error message
+     * @return The index that was checked
+     */
+    private int checkIndex(RuntimeList lst, int offset, int dim, AST ae) {
+        int size = lst.size();
+        if(lst.isArray() && !lst.isFlat()) {
+            ArrayLiteral al = lst.getMetaData().asArrayLiteral();
+            if(!al.getArrayDims().isEmpty()) {
+                Expression dimension = al.getArrayDims().get(dim);
+                if(dimension.isLiteral())
+                    size = dimension.asLiteral().asInt();
+                else if(dimension.isNameExpr() && dimension.asNameExpr().getDepth() == RuntimeStack.GLOBAL_DEPTH
+                                               && dimension.asNameExpr().isResolved())
+                    size = globals.getValue(dimension).asInt();
+            }
+        }
+
+        // ERROR CHECK #1: The index has to be inside the bounds of the array or list.
+        if(offset <= 0 || offset > size) {
+            handler.createErrorBuilder(RuntimeError.class)
+                   .addLocation(ae.getFullLocation())
+                   .addErrorNumber(MessageNumber.RUNTIME_ERROR_603)
+                   .generateError();
+        }
+        return offset;
+    }
+
+    /**
+     * Inserts a value into a list.
+     * @param lst {@link RuntimeList}
+     * @param index Position the value will be inserted at
+     * @param val {@link Value} to insert
+     * @param ls {@link ListStmt} used for the error message
+     */
+    private void insert(RuntimeList lst, Value index, Value val, ListStmt ls) {
+        // ERROR CHECK #1: This makes sure the passed index is in the list's memory range.
+        if(index.asInt() < 1 || index.asInt() > lst.size()) {
+            handler.createErrorBuilder(RuntimeError.class)
+                   .addLocation(ls)
+                   .addErrorNumber(MessageNumber.RUNTIME_ERROR_605)
+                   .addErrorArgs(ls.getList(),lst.size(),index.asInt())
+                   .generateError();
+        }
+        lst.insertElement(index.asInt(),val);
+        if(budget != null && !budget.resizeList(1))
+            budgetExceeded(ls);
+    }
+
+    /**
+     * Removes a value from a list.
+     * <p>
+     *     If the value is an {@code Int}, we will remove the element at that position.
+     *     Otherwise, we will remove the first element that is equal to the value.
+     * </p>
+     * @param lst {@link RuntimeList}
+     * @param val {@link Value} representing a position or an element
+     * @param ls {@link ListStmt} used for the error message
+     */
+    private void remove(RuntimeList lst, Value val, ListStmt ls) {
+        boolean successfulRemoval = true;
+
+        if(val.getType().isInt()) {
+            // ERROR CHECK #1: This makes sure the passed index is in the list's memory range.
+            if(val.asInt() < 1 || val.asInt() > lst.size()) {
+                handler.createErrorBuilder(RuntimeError.class)
+                       .addLocation(ls)
+                       .addErrorNumber(MessageNumber.RUNTIME_ERROR_608)
+                       .generateError();
+            }
+            lst.remove(val.asInt());
+        }
+        else
+            successfulRemoval = lst.remove(val);
+
+        // ERROR CHECK #2: This will throw an exception to the user if an element couldn't be removed.
+        if(!successfulRemoval) {
+            handler.createErrorBuilder(RuntimeError.class)
+                   .addLocation(ls)
+                   .addErrorNumber(MessageNumber.RUNTIME_ERROR_609)
+                   .addErrorArgs(ls.getSecondArg(),ls.getList())
+                   .generateError();
+        }
+
+        if(budget != null)
+            budget.resizeList(-1);
+    }
+
+    /**
+     * Generates the runtime error for the limit of the {@link #budget} that was exceeded.
+     * @param chunk {@link Chunk} that was executing when the limit was exceeded
+     */
+    private void budgetExceeded(Chunk chunk) { budgetExceeded(chunk.getFunction()); }
+
+    /**
+     * Generates the runtime error for the limit of the {@link #budget} that was exceeded.
+     * @param node {@link AST} that was executing when the limit was exceeded, or {@code null} if it is not known
+     */
+    private void budgetExceeded(AST node) {
+        handler.createErrorBuilder(RuntimeError.class)
+               .addLocation(node)
+               .addErrorNumber(budget.getExceededError())
+               .addErrorArgs(budget.getExceededLimit())
+               .generateError();
+    }
+
+    /**
+     * Reads the next token of user input for each input variable and stores its value.
+     * @param in {@link InStmt}
+     * @param regs Registers of the current call frame
+     * @param code Instructions of the current {@link Chunk}
+     * @param targets Position of the first {@code (kind, slot)} operand pair
+     */
+    private void input(InStmt in, Value[] regs, int[] code, int targets) {
+        output.flush();
+
+        for(int i = 0; i < in.getInExprs().size(); i++) {
+            Expression currExpr = in.getInExprs().get(i);
+            Value val = null;
+            try { val = input.nextValue(currExpr.type,realMode); }
+            catch(NumberFormatException e) {
+                // ERROR CHECK #1: Make sure user input matches the type of the input variable
+                handler.createErrorBuilder(RuntimeError.class)
+                       .addLocation(in)
+                       .addErrorNumber(MessageNumber.RUNTIME_ERROR_601)
+                       .addErrorArgs(currExpr.type)
+                       .generateError();
+            }
+
+            // ERROR CHECK #2: This checks if the user inputted the expected number of input values.
+            if(val == null) {
+                handler.createErrorBuilder(RuntimeError.class)
+                       .addLocation(in)
+                       .addErrorNumber(MessageNumber.RUNTIME_ERROR_600)
+                       .generateError();
+            }
+
+            if(code[targets + 2*i] == Opcode.TARGET_LOCAL)
+                regs[code[targets + 2*i + 1]] = val;
+            else
+                globals.setValue(RuntimeStack.GLOBAL_DEPTH,code[targets + 2*i + 1],val);
+        }
+    }
+}
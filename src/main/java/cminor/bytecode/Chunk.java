@@ -0,0 +1,225 @@
+package cminor.bytecode;
+
+import cminor.ast.AST;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.interpreter.value.Value;
+import java.util.Arrays;
+
+/**
+ * A compiled unit of C Minor bytecode.
+ * <p>
+ *     The {@link BytecodeCompiler} will generate one chunk for every function that is executed
+ *     by the {@link BytecodeVM} alongside one chunk for every top level construct. A chunk stores
+ *     its instructions as a flat integer array, a constant pool, and a pool of references that
+ *     the instructions can point to (other chunks or {@link AST} nodes used for error messages).
+ * </p>
+ * <p>
+ *     Every chunk executes inside its own register file. The first registers will always be
+ *     the slots the {@link cminor.micropasses.SlotResolver} assigned to the parameters and
+ *     local variables, and any remaining registers are temporaries used by the compiler.
+ * </p>
+ * @author Daniel Levy
+ */
+public class Chunk {
+
+    /**
+     * Name of the chunk (used when the chunk is printed).
+     */
+    private final String name;
+
+    /**
+     * Array storing every instruction.
+     */
+    private int[] code;
+
+    /**
+     * Number of integers written into {@link #code}.
+     */
+    private int size;
+
+    /**
+     * Constant pool of the chunk.
+     */
+    private Value[] constants;
+
+    /**
+     * Number of constants written into {@link #constants}.
+     */
+    private int constantCount;
+
+    /**
+     * Reference pool of the chunk.
+     */
+    private Object[] references;
+
+    /**
+     * Number of references written into {@link #references}.
+     */
+    private int referenceCount;
+
+    /**
+     * Number of registers needed to execute the chunk.
+     */
+    private int registerCount;
+
+    /**
+     * The {@link FuncDecl} the chunk was compiled from. This is {@code null} for any top level construct.
+     */
+    private FuncDecl function;
+
+    /**
+     * Creates an empty {@link Chunk}.
+     * @param name Name of the chunk
+     */
+    public Chunk(String name) {
+        this.name = name;
+        this.code = new int[64];
+        this.size = 0;
+        this.constants = new Value[8];
+        this.constantCount = 0;
+        this.references = new Object[8];
+        this.referenceCount = 0;
+        this.registerCount = 0;
+    }
+
+    /**
+     * Writes a single integer into the chunk.
+     * @param word Opcode or operand
+     * @return Int representing the position the integer was written to
+     */
+    int emit(int word) {
+        if(size == code.length)
+            code = Arrays.copyOf(code,size*2);
+        code[size] = word;
+        return size++;
+    }
+
+    /**
+     * Writes an instruction into the chunk.
+     * @param op Opcode of the instruction
+     * @param args Operands of the instruction
+     * @return Int representing the position of the opcode
+     */
+    int emit(int op, int... args) {
+        int pc = emit(op);
+        for(int arg : args)
+            emit(arg);
+        return pc;
+    }
+
+    /**
+     * Overwrites an operand that was previously written (used to patch jump targets).
+     * @param pos Position of the operand
+     * @param word New value of the operand
+     */
+    void patch(int pos, int word) { code[pos] = word; }
+
+    /**
+     * Returns the position the next instruction will be written to.
+     * @return Int
+     */
+    int position() { return size; }
+
+    /**
+     * Adds a value into the constant pool.
+     * @param val {@link Value}
+     * @return Int representing the index of the constant
+     */
+    int addConstant(Value val) {
+        if(constantCount == constants.length)
+            constants = Arrays.copyOf(constants,constantCount*2);
+        constants[constantCount] = val;
+        return constantCount++;
+    }
+
+    /**
+     * Adds an object into the reference pool.
+     * <p>
+     *     If the object was already added, then we will reuse its index.
+     * </p>
+     * @param ref Another {@link Chunk} or an {@link AST} node
+     * @return Int representing the index of the reference
+     */
+    int addReference(Object ref) {
+        for(int i = 0; i < referenceCount; i++) {
+            if(references[i] == ref)
+                return i;
+        }
+
+        if(referenceCount == references.length)
+            references = Arrays.copyOf(references,referenceCount*2);
+        references[referenceCount] = ref;
+        return referenceCount++;
+    }
+
+    /**
+     * Finalizes the chunk once the {@link BytecodeCompiler} finishes writing it.
+     * @param registerCount Number of registers the chunk needs
+     */
+    void finish(int registerCount) {
+        this.code = Arrays.copyOf(code,size);
+        this.constants = Arrays.copyOf(constants,constantCount);
+        this.references = Arrays.copyOf(references,referenceCount);
+        this.registerCount = registerCount;
+    }
+
+    /**
+     * Getter for {@link #code}.
+     * @return Array of instructions
+     */
+    public int[] getCode() { return code; }
+
+    /**
+     * Getter for {@link #constants}.
+     * @return Array of {@link Value}
+     */
+    public Value[] getConstants() { return constants; }
+
+    /**
+     * Getter for {@link #references}.
+     * @return Array of references
+     */
+    public Object[] getReferences() { return references; }
+
+    /**
+     * Getter for {@link #registerCount}.
+     * @return Int
+     */
+    public int getRegisterCount() { return registerCount; }
+
+    /**
+     * Getter for {@link #name}.
+     * @return String
+     */
+    public String getName() { return name; }
+
+    /**
+     * Getter method for {@link #function}.
+     * @return {@link FuncDecl}, or {@code null} if the chunk does not represent a function
+     */
+    public FuncDecl getFunction() { return function; }
+
+    /**
+     * Setter method for {@link #function}.
+     * @param function {@link FuncDecl} the chunk was compiled from
+     */
+    public void setFunction(FuncDecl function) { this.function = function; }
+
+    /**
+     * Generates a readable listing of every instruction in the chunk.
+     * @return String representation of the chunk
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Chunk ").append(name).append(" (").append(registerCount).append(" registers)\n");
+
+        for(int pc = 0; pc < size; pc += Opcode.sizeOf(code,pc)) {
+            sb.append(String.format("%4d  %-12s",pc,Opcode.nameOf(code[pc])));
+            for(int i = 1; i < Opcode.sizeOf(code,pc); i++)
+                sb.append(" ").append(code[pc+i]);
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,290 @@
+package cminor.bytecode;
+
+/**
+ * A class that stores every instruction understood by the {@link BytecodeVM}.
+ * <p>
+ *     Every instruction is written into a {@link Chunk} as an opcode followed by a fixed
+ *     number of integer operands. Most operands refer to a register inside the current
+ *     call frame, though some instructions will also refer to a constant, a global slot,
+ *     a jump target, or an {@link cminor.ast.AST} node stored by the {@link Chunk}. The
+ *     opcodes are stored as plain integers (and not as an enum) so the {@link BytecodeVM}
+ *     is able to dispatch every instruction through a single {@code switch} statement.
+ * </p>
+ * <p>
+ *     Each instruction is typed, so the {@link BytecodeCompiler} will decide which operation
+ *     to perform based on the types computed by the {@link cminor.typechecker.TypeChecker}.
+ *     This means the {@link BytecodeVM} never needs to look at a type or an operator string
+ *     during execution.
+ * </p>
+ * @author Daniel Levy
+ */
+public final class Opcode {
+
+    /** {@code LOAD_CONST dst, const}: Loads a constant into a register. */
+    public static final int LOAD_CONST = 0;
+
+    /** {@code LOAD_NULL dst}: Clears a register. */
+    public static final int LOAD_NULL = 1;
+
+    /** {@code MOVE dst, src}: Copies a register into another register. */
+    public static final int MOVE = 2;
+
+    /** {@code LOAD_GLOBAL dst, slot, node}: Loads a value from the global frame. */
+    public static final int LOAD_GLOBAL = 3;
+
+    /** {@code STORE_GLOBAL slot, src}: Stores a register into the global frame. */
+    public static final int STORE_GLOBAL = 4;
+
+    /** {@code IADD dst, lhs, rhs}: Adds two {@code Int} values. */
+    public static final int IADD = 5;
+
+    /** {@code ISUB dst, lhs, rhs}: Subtracts two {@code Int} values. */
+    public static final int ISUB = 6;
+
+    /** {@code IMUL dst, lhs, rhs}: Multiplies two {@code Int} values. */
+    public static final int IMUL = 7;
+
+    /** {@code IDIV dst, lhs, rhs}: Divides two {@code Int} values. */
+    public static final int IDIV = 8;
+
+    /** {@code IMOD dst, lhs, rhs}: Finds the remainder of two {@code Int} values. */
+    public static final int IMOD = 9;
+
+    /** {@code IPOW dst, lhs, rhs}: Raises an {@code Int} value to a power. */
+    public static final int IPOW = 10;
+
+    /** {@code RADD dst, lhs, rhs}: Adds two {@code Real} values. */
+    public static final int RADD = 11;
+
+    /** {@code RSUB dst, lhs, rhs}: Subtracts two {@code Real} values. */
+    public static final int RSUB = 12;
+
+    /** {@code RMUL dst, lhs, rhs}: Multiplies two {@code Real} values. */
+    public static final int RMUL = 13;
+
+    /** {@code RDIV dst, lhs, rhs}: Divides two {@code Real} values. */
+    public static final int RDIV = 14;
+
+    /** {@code RMOD dst, lhs, rhs}: Finds the remainder of two {@code Real} values. */
+    public static final int RMOD = 15;
+
+    /** {@code RPOW dst, lhs, rhs}: Raises a {@code Real} value to a power. */
+    public static final int RPOW = 16;
+
+    /** {@code SCONCAT dst, lhs, rhs}: Concatenates two {@code String} values. */
+    public static final int SCONCAT = 17;
+
+    /** {@code ILT dst, lhs, rhs}: Checks if an {@code Int} is less than another. */
+    public static final int ILT = 18;
+
+    /** {@code ILE dst, lhs, rhs}: Checks if an {@code Int} is less than or equal to another. */
+    public static final int ILE = 19;
+
+    /** {@code IGT dst, lhs, rhs}: Checks if an {@code Int} is greater than another. */
+    public static final int IGT = 20;
+
+    /** {@code IGE dst, lhs, rhs}: Checks if an {@code Int} is greater than or equal to another. */
+    public static final int IGE = 21;
+
+    /** {@code RLT dst, lhs, rhs}: Checks if a {@code Real} is less than another. */
+    public static final int RLT = 22;
+
+    /** {@code RLE dst, lhs, rhs}: Checks if a {@code Real} is less than or equal to another. */
+    public static final int RLE = 23;
+
+    /** {@code RGT dst, lhs, rhs}: Checks if a {@code Real} is greater than another. */
+    public static final int RGT = 24;
+
+    /** {@code RGE dst, lhs, rhs}: Checks if a {@code Real} is greater than or equal to another. */
+    public static final int RGE = 25;
+
+    /** {@code EQ dst, lhs, rhs}: Checks if two values are equal. */
+    public static final int EQ = 26;
+
+    /** {@code NE dst, lhs, rhs}: Checks if two values are not equal. */
+    public static final int NE = 27;
+
+    /** {@code LAND dst, lhs, rhs}: Logical {@code and} of two evaluated {@code Bool} values. */
+    public static final int LAND = 28;
+
+    /** {@code LOR dst, lhs, rhs}: Logical {@code or} of two evaluated {@code Bool} values. */
+    public static final int LOR = 29;
+
+    /** {@code ISHL dst, lhs, rhs}: Shifts an {@code Int} to the left. */
+    public static final int ISHL = 30;
+
+    /** {@code ISHR dst, lhs, rhs}: Shifts an {@code Int} to the right. */
+    public static final int ISHR = 31;
+
+    /** {@code IAND dst, lhs, rhs}: Bitwise and of two {@code Int} or {@code Char} values. */
+    public static final int IAND = 32;
+
+    /** {@code IOR dst, lhs, rhs}: Bitwise or of two {@code Int} or {@code Char} values. */
+    public static final int IOR = 33;
+
+    /** {@code IXOR dst, lhs, rhs}: Bitwise xor of two {@code Int} or {@code Char} values. */
+    public static final int IXOR = 34;
+
+    /** {@code BAND dst, lhs, rhs}: Bitwise and of two {@code Bool} values. */
+    public static final int BAND = 35;
+
+    /** {@code BOR dst, lhs, rhs}: Bitwise or of two {@code Bool} values. */
+    public static final int BOR = 36;
+
+    /** {@code BXOR dst, lhs, rhs}: Bitwise xor of two {@code Bool} values. */
+    public static final int BXOR = 37;
+
+    /** {@code INOT dst, src}: Bitwise negation of an {@code Int} or {@code Char} value. */
+    public static final int INOT = 38;
+
+    /** {@code NOT dst, src}: Logical negation of a {@code Bool} value. */
+    public static final int NOT = 39;
+
+    /** {@code I2R dst, src}: Casts an {@code Int} into a {@code Real}. */
+    public static final int I2R = 40;
+
+    /** {@code R2I dst, src}: Casts a {@code Real} into an {@code Int}. */
+    public static final int R2I = 41;
+
+    /** {@code C2I dst, src}: Casts a {@code Char} into an {@code Int}. */
+    public static final int C2I = 42;
+
+    /** {@code JMP target}: Jumps to an instruction. */
+    public static final int JMP = 43;
+
+    /** {@code JMP_FALSE cond, target}: Jumps to an instruction if a {@code Bool} is false. */
+    public static final int JMP_FALSE = 44;
+
+    /** {@code JMP_TRUE cond, target}: Jumps to an instruction if a {@code Bool} is true. */
+    public static final int JMP_TRUE = 45;
+
+    /** {@code FOR_INIT counter, limit, start, end, mode}: Computes the bounds of a for loop. */
+    public static final int FOR_INIT = 46;
+
+    /** {@code FOR_TEST counter, limit, target}: Jumps out of a for loop once the counter passes the limit. */
+    public static final int FOR_TEST = 47;
+
+    /** {@code FOR_BIND dst, counter, isChar}: Stores the counter into the control variable. */
+    public static final int FOR_BIND = 48;
+
+    /** {@code FOR_STEP counter, limit, target}: Increments the counter and jumps back if the loop continues. */
+    public static final int FOR_STEP = 49;
+
+    /** {@code CASE_INT choice, low, high, target}: Jumps if an {@code Int} or {@code Char} is inside a label's range. */
+    public static final int CASE_INT = 50;
+
+    /** {@code CASE_STR choice, label, target}: Jumps if a {@code String} matches a label. */
+    public static final int CASE_STR = 51;
+
+    /** {@code CALL dst, function, argc, (arg, kind, slot)*}: Invokes a function. */
+    public static final int CALL = 52;
+
+    /** {@code RETURN src}: Returns a value from the current call frame. */
+    public static final int RETURN = 53;
+
+    /** {@code RETURN_VOID}: Returns from the current call frame without a value. */
+    public static final int RETURN_VOID = 54;
+
+    /** {@code LEN dst, src}: Finds the length of an array or list. */
+    public static final int LEN = 55;
+
+    /** {@code NEW_ARRAY dst, literal, first, count}: Creates an array from consecutive registers. */
+    public static final int NEW_ARRAY = 56;
+
+    /** {@code NEW_LIST dst, literal, first, count}: Creates a list from consecutive registers. */
+    public static final int NEW_LIST = 57;
+
+    /** {@code AGET dst, list, index, dim, node}: Reads an element of an array or list. */
+    public static final int AGET = 58;
+
+    /** {@code ASET list, index, src, dim, node}: Writes an element of an array or list. */
+    public static final int ASET = 59;
+
+    /** {@code APPEND list, src}: Appends a value to a list. */
+    public static final int APPEND = 60;
+
+    /** {@code INSERT list, index, src, node}: Inserts a value into a list. */
+    public static final int INSERT = 61;
+
+    /** {@code REMOVE list, src, node}: Removes a value from a list. */
+    public static final int REMOVE = 62;
+
+    /** {@code OUT src}: Prints a value. */
+    public static final int OUT = 63;
+
+    /** {@code OUT_ENDL}: Prints a new line. */
+    public static final int OUT_ENDL = 64;
+
+    /** {@code IN node, count, (kind, slot)*}: Reads user input into variables. */
+    public static final int IN = 65;
+
+    /** {@code STOP}: Terminates the program. */
+    public static final int STOP = 66;
+
+    /** {@code TICK count}: Charges the execution budget for a number of statements. */
+    public static final int TICK = 67;
+
+    /** Operand used by {@link #CALL} and {@link #IN} when a value is not written back to a variable. */
+    public static final int TARGET_NONE = 0;
+
+    /** Operand used by {@link #CALL} and {@link #IN} when a value is written back into a register. */
+    public static final int TARGET_LOCAL = 1;
+
+    /** Operand used by {@link #CALL} and {@link #IN} when a value is written back into the global frame. */
+    public static final int TARGET_GLOBAL = 2;
+
+    /**
+     * The name of each opcode that will be used when a {@link Chunk} is printed.
+     */
+    private static final String[] names = {
+        "LOAD_CONST", "LOAD_NULL", "MOVE", "LOAD_GLOBAL", "STORE_GLOBAL", "IADD", "ISUB", "IMUL", "IDIV", "IMOD",
+        "IPOW", "RADD", "RSUB", "RMUL", "RDIV", "RMOD", "RPOW", "SCONCAT", "ILT", "ILE", "IGT", "IGE", "RLT", "RLE",
+        "RGT", "RGE", "EQ", "NE", "LAND", "LOR", "ISHL", "ISHR", "IAND", "IOR", "IXOR", "BAND", "BOR", "BXOR", "INOT",
+        "NOT", "I2R", "R2I", "C2I", "JMP", "JMP_FALSE", "JMP_TRUE", "FOR_INIT", "FOR_TEST", "FOR_BIND", "FOR_STEP",
+        "CASE_INT", "CASE_STR", "CALL", "RETURN", "RETURN_VOID", "LEN", "NEW_ARRAY", "NEW_LIST", "AGET", "ASET",
+        "APPEND", "INSERT", "REMOVE", "OUT", "OUT_ENDL", "IN", "STOP", "TICK"
+    };
+
+    /**
+     * The number of operands each opcode has. Variable length instructions only store their fixed operands.
+     */
+    private static final int[] operands = {
+        2, 1, 2, 3, 2, 3, 3, 3, 3, 3,
+        3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3,
+        3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 2,
+        2, 2, 2, 2, 1, 2, 2, 5, 3, 3, 3,
+        4, 3, 3, 1, 0, 2, 4, 4, 5, 5,
+        2, 4, 3, 1, 0, 2, 0, 1
+    };
+
+    /**
+     * Prevents an {@link Opcode} from being instantiated.
+     */
+    private Opcode() {}
+
+    /**
+     * Returns the name of an opcode.
+     * @param op Opcode
+     * @return String
+     */
+    public static String nameOf(int op) { return names[op]; }
+
+    /**
+     * Returns the size of an instruction that begins at a specific position.
+     * <p>
+     *     {@link #CALL} and {@link #IN} store a variable number of operands, so we will
+     *     look at their count operand in order to compute the size of the instruction.
+     * </p>
+     * @param code Array of instructions
+     * @param pc Position of the opcode
+     * @return Int representing the number of integers the instruction occupies
+     */
+    public static int sizeOf(int[] code, int pc) {
+        int op = code[pc];
+        if(op == CALL)
+            return 4 + 3*code[pc+3];
+        else if(op == IN)
+            return 3 + 2*code[pc+2];
+        return 1 + operands[op];
+    }
+}
@@ -1,20 +1,32 @@
 package cminor.compiler;
 
+import cminor.ast.AST;
 import cminor.ast.misc.CompilationUnit;
 import cminor.interpreter.Interpreter;
 import cminor.interpreter.VM;
+import cminor.interpreter.budget.ExecutionBudget;
+import cminor.interpreter.input.InputScanner;
+import cminor.interpreter.output.ChannelOutput;
+import cminor.interpreter.value.RealMode;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import cminor.jvm.ClassGenerator;
+import cminor.jvm.ClassWriter;
 import cminor.lexer.Lexer;
-import cminor.micropasses.*;
-import cminor.modifierchecker.ModifierChecker;
-import cminor.namechecker.NameChecker;
+import cminor.messages.CompilationMessage;
+import cminor.parser.PEG;
 import cminor.parser.Parser;
-import cminor.typechecker.TypeChecker;
+import cminor.utilities.CompilationContext;
+import cminor.utilities.ExecutionMode;
 import cminor.utilities.PhaseHandler;
+import cminor.utilities.PhaseNumber;
 import cminor.utilities.PrettyPrint;
 import cminor.utilities.Printer;
+import cminor.utilities.Vector;
 
 /**
  * C Minor Compiler class
@@ -27,29 +39,81 @@ import cminor.utilities.Printer;
  */
 public class Compiler {
 
-    /** Flag that will print out a C Minor AST. */
-    private static Boolean printParseTree = false;
-
     /**
      * The file we are currently compiling.
      */
     private String fileName;
 
+    /**
+     * {@link CompilationContext} that stores the settings and the shared state of the program we are compiling.
+     * <p>
+     *     Every program is compiled with its own context, so multiple {@link Compiler} objects can
+     *     compile and execute programs at the same time. An imported file will be compiled with the
+     *     same context as the file that imported it.
+     * </p>
+     */
+    private final CompilationContext context;
+
+    /**
+     * {@link CompilationUnit} that stores the global scope of the program we are compiling.
+     */
+    private final CompilationUnit globalUnit;
+
     /**
      * A {@link PhaseHandler} to handle the execution of the compiler phases.
      */
-    private final PhaseHandler handler = new PhaseHandler();
+    private final PhaseHandler handler;
+
+    /**
+     * Flag set when a compiler flag only applies to the execution engine. The program will then
+     * be executed instead of translated into class files, so the flag is not ignored.
+     */
+    private boolean executionRequired;
+
+    /**
+     * Creates a {@link Compiler} with a new {@link CompilationContext}.
+     */
+    public Compiler() { this(new CompilationContext()); }
+
+    /**
+     * Creates a {@link Compiler} that uses an existing {@link CompilationContext}.
+     * @param context {@link CompilationContext} of the program we are compiling
+     */
+    public Compiler(CompilationContext context) {
+        this.context = context;
+        this.globalUnit = new CompilationUnit();
+        this.handler = new PhaseHandler(globalUnit.getScope(),context);
+    }
+
+    /**
+     * Getter for {@link #context}.
+     * @return {@link CompilationContext}
+     */
+    public CompilationContext getContext() { return context; }
 
     /** Begins the C Minor compilation process. */
     public void compile(String[] args) throws IOException {
         String input = readProgram(args);
-        CompilationUnit root = syntaxAnalysis(input);
-        semanticAnalysis(root);
+        Vector<? extends AST> program = analyze(input);
+        if(program == null)
+            System.exit(1);
+
+        // A profiled or limited program has to be executed, since the report and
+        // the budget are both handled by the execution engine.
+        if(executionRequired || handler.isProfiling() || handler.isSampling() || handler.getExecutionBudget() != null)
+            execute(program);
+        else
+            codeGeneration(program);
     }
 
+    /**
+     * Analyzes a C Minor program and executes it with the execution engine.
+     * @param input C Minor program as a string
+     */
     public void runAndCompile(String input) {
-        CompilationUnit root = syntaxAnalysis(input);
-        semanticAnalysis(root);
+        Vector<? extends AST> program = analyze(input);
+        if(program != null)
+            execute(program);
     }
 
     /**
@@ -65,39 +129,126 @@ public class Compiler {
      * @return An AST node representing the {@code Compilation} unit for the program.
      */
     public CompilationUnit syntaxAnalysis(String program) {
-        Parser parser = new Parser(new Lexer(program,fileName));
+        Parser parser = new Parser(new Lexer(program,fileName,context));
         CompilationUnit root = parser.compilation();
 
-        if(printParseTree)
+        if(context.isPrintingTree())
             root.visit(new Printer());
 
         return root;
     }
 
+    /**
+     * Parses and analyzes a C Minor program.
+     * <p>
+     *     Every error is reported as soon as it is found, so the compilation
+     *     process will be terminated if the program contains any errors.
+     * </p>
+     * @param input C Minor program as a string
+     * @return {@link Vector} of every top level construct in the program, or {@code null} if an error was found
+     */
+    private Vector<? extends AST> analyze(String input) {
+        context.setInterpretationMode();
+        try {
+            Vector<? extends AST> program = new PEG(new Lexer(input,fileName,context)).parse();
+            if(context.isPrintingTree())
+                for(AST node : program)
+                    node.visit(new Printer());
+
+            semanticAnalysis(program);
+            return program;
+        }
+        catch(CompilationMessage msg) {
+            msg.updateGlobalScope(globalUnit.getScope());
+            msg.printMessage();
+            return null;
+        }
+    }
+
     /**
      * Executes the semantic analysis phase of the C Minor compiler.
      * <p>
      *     ThisStmt method will execute all major and micro passes associated with
-     *     the C Minor compiler. If no errors were found, then the compiler
-     *     will currently execute the program by running it through the interpreter.
+     *     the C Minor compiler. Each construct is analyzed up until the
+     *     {@link cminor.micropasses.SubexpressionEliminator}, so it is ready to be
+     *     translated into class files.
      * </p>
-     * @param root Compilation unit representing the program we want to compile
-     */
-    private void semanticAnalysis(CompilationUnit root) {
-//        handler.addPhase(new PropertyGenerator());
-//        handler.addPhase(new NameChecker());
-//        handler.execute(root);
-//        root.visit(new VariableInitialization(fileName));
-//        root.visit(new FieldRewrite());
-//        root.visit(new OperatorOverloadCheck());
-//        root.visit(new LoopKeywordCheck());
-//        root.visit(new TypeValidityPass(fileName));
-//        root.visit(new TypeChecker(fileName));
-//        root.visit(new ConstructorGeneration());
-//        root.visit(new ModifierChecker(fileName));
-//        root.visit(new PureKeywordPass());
-//        if(execute)
-//            root.visit(new Interpreter(root.getScope()));
+     * @param program Every top level construct of the program we want to compile
+     */
+    private void semanticAnalysis(Vector<? extends AST> program) {
+        handler.setFinalPhase(PhaseNumber.SUBEXPRESSION_ELIMINATOR);
+        for(AST node : program)
+            handler.execute(node);
+        handler.markUnusedDecls(program);
+    }
+
+    /**
+     * Executes the code generation phase of the C Minor compiler.
+     * <p>
+     *     Every function and class of the program is translated into JVM class files that are
+     *     written next to the C Minor file. The main class is named after the file, so a user can
+     *     run the program with {@code java <name>}. If the program uses a construct the
+     *     {@link ClassGenerator} does not support yet, we will execute the program instead. This
+     *     includes any {@code Real} value unless {@code --real-mode double} was given.
+     * </p>
+     * @param program Every top level construct of the program we want to compile
+     * @throws IOException Exception when a class file could not be written
+     */
+    private void codeGeneration(Vector<? extends AST> program) throws IOException {
+        File source = new File(fileName).getAbsoluteFile();
+        ClassGenerator generator = new ClassGenerator(globalUnit.getScope(),className(source.getName()),source.getName(),handler.getRealMode());
+
+        Vector<ClassWriter> classes;
+        try { classes = generator.generate(program); }
+        catch(ClassGenerator.UnsupportedConstructException e) {
+            System.out.print(PrettyPrint.YELLOW + "Warning! " + e.getMessage()
+                             + " The program will be executed instead.\n" + PrettyPrint.RESET);
+            execute(program);
+            return;
+        }
+
+        for(ClassWriter cw : classes)
+            Files.write(new File(source.getParentFile(),cw.getName() + ".class").toPath(),cw.toByteArray());
+    }
+
+    /**
+     * Executes an analyzed program with the execution engine.
+     * @param program Every top level construct of the program
+     */
+    private void execute(Vector<? extends AST> program) {
+        handler.startExecution();
+        try {
+            // The output is always written out before any error is printed, even if the engine crashes.
+            try {
+                for(AST node : program)
+                    handler.executeEngine(node);
+            }
+            finally { handler.getOutputSink().close(); }
+        }
+        catch(Interpreter.StopException e) {
+            // A stop statement ends the program the same way as reaching the end of main.
+        }
+        catch(CompilationMessage msg) {
+            msg.updateGlobalScope(globalUnit.getScope());
+            msg.printMessage();
+        }
+        handler.printProfile();
+    }
+
+    /**
+     * Creates the name of the main class based on the name of the C Minor file.
+     * @param file Name of the C Minor file
+     * @return String representing a valid JVM class name
+     */
+    private static String className(String file) {
+        String base = file.endsWith(".cm") ? file.substring(0,file.length()-3) : file;
+        StringBuilder sb = new StringBuilder();
+
+        for(char c : base.toCharArray())
+            sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        if(sb.isEmpty() || !Character.isJavaIdentifierStart(sb.charAt(0)))
+            sb.insert(0,'_');
+        return sb.toString();
     }
 
     /**
@@ -157,17 +308,97 @@ public class Compiler {
         boolean inputFileFound = false;
         int fileArg = -1;
 
+        ExecutionBudget budget = null;
+
         for(int i = 0; i < args.length; i++) {
             String currArg = args[i];
 
             switch(currArg) {
                 case "--start-vm":
                     new VM().readUserInput();
+                    System.exit(0);
                 case "--print-tokens":
-                    Parser.setPrintTokens();
+                    context.setPrintTokens(true);
                     break;
                 case "--print-tree":
-                    printParseTree = true;
+                    context.setPrintTree(true);
+                    break;
+                case "--real-mode":
+                    RealMode mode = (i+1 < args.length) ? RealMode.fromName(args[i+1]) : null;
+                    // ERROR CHECK #1: The real mode flag needs to be followed by a valid mode.
+                    if(mode == null) {
+                        System.out.print(PrettyPrint.RED + "Error! --real-mode must be followed by exact, double, or fixed.\n" + PrettyPrint.RESET);
+                        System.exit(1);
+                    }
+                    handler.setRealMode(mode);
+                    i++;
+                    break;
+                case "--engine":
+                    ExecutionMode engine = (i+1 < args.length) ? ExecutionMode.fromName(args[i+1]) : null;
+                    // ERROR CHECK #2: The engine flag needs to be followed by a valid execution mode.
+                    if(engine == null) {
+                        System.out.print(PrettyPrint.RED + "Error! --engine must be followed by interpreter or bytecode.\n" + PrettyPrint.RESET);
+                        System.exit(1);
+                    }
+                    handler.setExecutionMode(engine);
+                    executionRequired = true;
+                    i++;
+                    break;
+                case "--memoize":
+                    handler.setMemoization(true);
+                    executionRequired = true;
+                    break;
+                case "--profile":
+                    handler.setProfiling(true);
+                    break;
+                case "--sample":
+                    // ERROR CHECK #3: The sample flag needs to be followed by the file the call stacks will be written to.
+                    if(i+1 >= args.length) {
+                        System.out.print(PrettyPrint.RED + "Error! --sample must be followed by a file name.\n" + PrettyPrint.RESET);
+                        System.exit(1);
+                    }
+                    handler.setSampling(true);
+                    handler.setSampleFile(Path.of(args[i+1]));
+                    i++;
+                    break;
+                case "--input":
+                    // ERROR CHECK #4: The input flag needs to be followed by the file the program will read from.
+                    if(i+1 >= args.length) {
+                        System.out.print(PrettyPrint.RED + "Error! --input must be followed by a file name.\n" + PrettyPrint.RESET);
+                        System.exit(1);
+                    }
+                    handler.setInputScanner(InputScanner.fromFile(Path.of(args[i+1])));
+                    executionRequired = true;
+                    i++;
+                    break;
+                case "--output":
+                    // ERROR CHECK #5: The output flag needs to be followed by the file the program will print to.
+                    if(i+1 >= args.length) {
+                        System.out.print(PrettyPrint.RED + "Error! --output must be followed by a file name.\n" + PrettyPrint.RESET);
+                        System.exit(1);
+                    }
+                    handler.setOutputSink(ChannelOutput.toFile(Path.of(args[i+1])));
+                    executionRequired = true;
+                    i++;
+                    break;
+                case "--max-statements":
+                case "--max-time":
+                case "--max-heap":
+                    long limit = (i+1 < args.length) ? parseLimit(args[i+1]) : -1;
+                    // ERROR CHECK #6: Each budget flag needs to be followed by a positive number.
+                    if(limit <= 0) {
+                        System.out.print(PrettyPrint.RED + "Error! " + currArg + " must be followed by a positive number.\n" + PrettyPrint.RESET);
+                        System.exit(1);
+                    }
+
+                    if(budget == null)
+                        budget = new ExecutionBudget();
+                    switch(currArg) {
+                        case "--max-statements" -> budget.setStatementLimit(limit);
+                        case "--max-time" -> budget.setTimeLimit(limit);
+                        default -> budget.setHeapLimit(limit);
+                    }
+                    i++;
                     break;
                 default:
                     if(currArg.endsWith(".cm")) {
@@ -175,18 +406,29 @@ public class Compiler {
                         fileArg = i;
                         break;
                     }
-                    // ERROR CHECK #1: If an invalid compiler flag was passed, generate an error
+                    // ERROR CHECK #7: If an invalid compiler flag was passed, generate an error
                     System.out.print(PrettyPrint.RED + currArg + " is an invalid compiler flag." + PrettyPrint.RESET);
                     System.exit(1);
             }
         }
 
-        // ERROR CHECK #2: Generate an error if we did not find a C Minor file and terminate the compilation process.
+        // ERROR CHECK #8: Generate an error if we did not find a C Minor file and terminate the compilation process.
         if(!inputFileFound) {
             System.out.print(PrettyPrint.RED + "Error! A .cm file could not be found.\n" + PrettyPrint.RESET);
             System.exit(1);
         }
 
+        handler.setExecutionBudget(budget);
         return fileArg;
     }
+
+    /**
+     * Parses the limit given to one of the budget flags.
+     * @param arg The argument following the flag
+     * @return Long representing the limit, or -1 if the argument is not a number
+     */
+    private static long parseLimit(String arg) {
+        try { return Long.parseLong(arg); }
+        catch(NumberFormatException e) { return -1; }
+    }
 }
@@ -1,33 +1,45 @@
 package cminor.interpreter;
 
+import cminor.ast.AST;
 import cminor.ast.classbody.InitDecl;
 import cminor.ast.classbody.MethodDecl;
 import cminor.ast.expressions.*;
 import cminor.ast.misc.CompilationUnit;
+import cminor.ast.misc.FrameDecl;
 import cminor.ast.misc.ParamDecl;
 import cminor.ast.misc.Var;
 import cminor.ast.statements.*;
 import cminor.ast.topleveldecls.*;
 import cminor.ast.types.ClassType;
-import cminor.ast.types.DiscreteType;
-import cminor.ast.types.ScalarType;
 import cminor.ast.types.Type;
+import cminor.interpreter.budget.ExecutionBudget;
+import cminor.interpreter.closure.ClosureCompiler;
+import cminor.interpreter.closure.ExecNode;
+import cminor.interpreter.input.InputScanner;
+import cminor.interpreter.output.OutputSink;
+import cminor.interpreter.output.StandardOutput;
+import cminor.interpreter.profiler.SamplingProfiler;
+import cminor.interpreter.value.BoolValue;
+import cminor.interpreter.value.CharValue;
+import cminor.interpreter.value.FixedRealValue;
+import cminor.interpreter.value.IntValue;
+import cminor.interpreter.value.RealMode;
 import cminor.interpreter.value.RuntimeList;
 import cminor.interpreter.value.RuntimeObject;
+import cminor.interpreter.value.StringValue;
 import cminor.interpreter.value.Value;
 import cminor.messages.MessageHandler;
 import cminor.messages.MessageNumber;
 import cminor.messages.errors.runtime.RuntimeError;
+import cminor.utilities.CompilationContext;
+import cminor.utilities.ConstantPool;
+import cminor.utilities.MemoCache;
+import cminor.utilities.MemoTable;
 import cminor.utilities.RuntimeStack;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.math.MathContext;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 
 /**
  * A {@link Visitor} class that executes a C Minor program.
@@ -41,6 +53,22 @@ import java.util.HashMap;
  */
 public class Interpreter extends Visitor {
 
+    /**
+     * An exception thrown when a {@link StopStmt} is executed.
+     * <p>
+     *     The program has to stop without terminating the JVM, since other programs
+     *     may still be executing. The {@link VM} or {@link cminor.compiler.Compiler}
+     *     that started the program will catch this exception.
+     * </p>
+     */
+    public static class StopException extends RuntimeException {
+
+        /**
+         * Creates a {@link StopException}.
+         */
+        public StopException() { super("The program was stopped.",null,false,false); }
+    }
+
     /**
      * An imitation of a {@link RuntimeStack}
      */
@@ -56,6 +84,11 @@ public class Interpreter extends Visitor {
      */
     private Value currentValue;
 
+    /**
+     * Stores the object that owns the last field accessed by a {@link FieldExpr}.
+     */
+    private RuntimeObject fieldOwner;
+
     /**
      * Flag set when a {@code break} statement is found.
      */
@@ -72,37 +105,188 @@ public class Interpreter extends Visitor {
     private boolean returnFound;
 
     /**
-     * Flag set when a {@link OutStmt} is executed.
+     * The function or method whose body is currently executing.
+     */
+    private FrameDecl currentCallee;
+
+    /**
+     * Arguments of a tail call that was found. When this is set, the {@link Invocation} that
+     * is currently executing will rerun its body in the same call frame with these arguments.
+     */
+    private Vector<Value> tailCallArgs;
+
+    /**
+     * The {@link RealMode} used to represent every {@code Real} value created during execution.
+     */
+    private RealMode realMode;
+
+    /**
+     * {@link MemoTable} that stores the results of calls to memoizable functions.
+     */
+    private MemoTable memoTable;
+
+    /**
+     * {@link ClosureCompiler} that builds the closure tree of every expression we evaluate.
+     */
+    private final ClosureCompiler closureCompiler;
+
+    /**
+     * Map that stores the closure tree built for each expression.
+     * <p>
+     *     Only the root of each tree is stored, since every subexpression
+     *     is already a part of its parent's tree.
+     * </p>
+     */
+    private final IdentityHashMap<Expression,ExecNode> closures;
+
+    /**
+     * {@link OutputSink} that every output statement will print to.
+     */
+    private OutputSink output;
+
+    /**
+     * {@link InputScanner} that every input statement will read from.
+     */
+    private InputScanner input;
+
+    /**
+     * {@link SamplingProfiler} that is told about every call, or {@code null} if sampling is disabled.
+     */
+    private SamplingProfiler sampler;
+
+    /**
+     * {@link ExecutionBudget} charged for every loop iteration, call, and allocation, or {@code null} if the program is not limited.
+     */
+    private ExecutionBudget budget;
+
+    /**
+     * The {@link CompilationContext} of the program we are executing.
      * <p>
-     *     Okay... this is sorta a hack, but the whole point of this flag is to properly
-     *     generate output in the virtual environment so the input prompt can be correctly
-     *     displayed. In my opinion, this provides better runtime performance than having to
-     *     traverse the AST to check if an output statement was executed!
+     *     Okay... this is sorta a hack, but the context is told whenever an {@link OutStmt} is
+     *     executed, so the virtual environment is able to properly generate output and correctly
+     *     display the input prompt. In my opinion, this provides better runtime performance than
+     *     having to traverse the AST to check if an output statement was executed!
      * </p>
      */
-    private static boolean outputFound;
+    private final CompilationContext context;
 
     /**
      * Creates the interpreter for the {@link VM}.
      * @param globalScope The {@link SymbolTable} representing the VM's global scope.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public Interpreter(SymbolTable globalScope) {
-        this.stack = new RuntimeStack();
+    public Interpreter(SymbolTable globalScope, CompilationContext context) { this(globalScope,new RuntimeStack(),context); }
+
+    /**
+     * Creates an interpreter that executes inside an existing global frame.
+     * <p>
+     *     This is used by the {@link cminor.bytecode.BytecodeEngine}, so the interpreter
+     *     and the {@link cminor.bytecode.BytecodeVM} are able to share every global variable.
+     * </p>
+     * @param globalScope The {@link SymbolTable} representing the VM's global scope.
+     * @param globals The {@link RuntimeStack} representing the global frame.
+     * @param context The {@link CompilationContext} of the program.
+     */
+    public Interpreter(SymbolTable globalScope, RuntimeStack globals, CompilationContext context) {
+        this.stack = globals;
         this.currentValue = null;
         this.currentScope = globalScope;
         this.breakFound = false;
         this.continueFound = false;
         this.returnFound = false;
-        this.handler = new MessageHandler();
+        this.realMode = RealMode.EXACT;
+        this.memoTable = new MemoTable();
+        this.closureCompiler = new ClosureCompiler(this);
+        this.closures = new IdentityHashMap<>();
+        this.output = new StandardOutput();
+        this.input = new InputScanner();
+        this.context = context;
+        this.handler = new MessageHandler(context);
+    }
+
+    /**
+     * Sets the {@link RealMode} that will be used for any {@code Real} values created from now on.
+     * @param realMode {@link RealMode}
+     */
+    public void setRealMode(RealMode realMode) {
+        this.realMode = realMode;
+        closureCompiler.setRealMode(realMode);
+        closures.clear();
     }
 
     /**
-     * Prints an extra line when executing in the {@link VM}. See {@link #outputFound}.
+     * Sets the {@link MemoTable} used to memoize calls to {@code pure} functions.
+     * @param memoTable {@link MemoTable}
      */
-    public static void printLine() {
-        if(outputFound) {
-            System.out.println();
-            outputFound = false;
+    public void setMemoTable(MemoTable memoTable) { this.memoTable = memoTable; }
+
+    /**
+     * Sets the {@link OutputSink} that every output statement will print to.
+     * @param output {@link OutputSink}
+     */
+    public void setOutputSink(OutputSink output) { this.output = output; }
+
+    /**
+     * Sets the {@link InputScanner} that every input statement will read from.
+     * @param input {@link InputScanner}
+     */
+    public void setInputScanner(InputScanner input) { this.input = input; }
+
+    /**
+     * Sets the {@link SamplingProfiler} that will sample the call stack of the program.
+     * @param sampler {@link SamplingProfiler}, or {@code null} to disable sampling
+     */
+    public void setSampler(SamplingProfiler sampler) { this.sampler = sampler; }
+
+    /**
+     * Sets the {@link ExecutionBudget} the program has to stay within.
+     * @param budget {@link ExecutionBudget}, or {@code null} if the program is not limited
+     */
+    public void setBudget(ExecutionBudget budget) { this.budget = budget; }
+
+    /**
+     * Sets the {@link ConstantPool} the {@link ClosureCompiler} retrieves the value of every literal from.
+     * @param constantPool {@link ConstantPool}
+     */
+    public void setConstantPool(ConstantPool constantPool) {
+        closureCompiler.setConstantPool(constantPool);
+        closures.clear();
+    }
+
+    /**
+     * Evaluates an expression.
+     * <p>
+     *     This is used by the closure tree to evaluate any expression
+     *     that the {@link ClosureCompiler} was not able to specialize.
+     * </p>
+     * @param e {@link Expression}
+     * @return {@link Value} the expression evaluates to
+     */
+    public Value evaluate(Expression e) {
+        e.visit(this);
+        return currentValue;
+    }
+
+    /**
+     * Evaluates an expression using its closure tree.
+     * <p>
+     *     The closure tree is built by the {@link ClosureCompiler} the first time
+     *     the expression is evaluated, and it will be reused afterward.
+     * </p>
+     * @param e {@link Expression}
+     * @return {@link Value} the expression evaluates to
+     */
+    private Value execute(Expression e) {
+        ExecNode root = closures.get(e);
+        if(root == null) {
+            root = closureCompiler.compile(e);
+            closures.put(e,root);
+        }
+
+        try { return root.execute(stack); }
+        catch(FixedRealValue.OverflowException exc) {
+            realOverflow(e);
+            return null;
         }
     }
 
@@ -120,6 +304,11 @@ public class Interpreter extends Visitor {
         ae.getArrayTarget().visit(this);
         RuntimeList lst = currentValue.asList();
 
+        if(lst.isFlat() && ae.getArrayIndex().size() <= lst.getRank()) {
+            evaluateFlatArrayExpr(ae,lst);
+            return;
+        }
+
         for(int i = 0; i < ae.getArrayIndex().size(); i++) {
             ae.getArrayIndex().get(i).visit(this);
             int offset = currentValue.asInt();
@@ -130,9 +319,9 @@ public class Interpreter extends Visitor {
                 if(!al.getArrayDims().isEmpty())
                     al.getArrayDims().get(i).visit(this);
                 else
-                    currentValue = new Value(lst.size(),new DiscreteType(ScalarType.Scalars.INT));
+                    currentValue = IntValue.of(lst.size());
             } else
-                currentValue = new Value(lst.size(),new DiscreteType(ScalarType.Scalars.INT));
+                currentValue = IntValue.of(lst.size());
 
             // error check yay
             if(offset <= 0 || offset > currentValue.asInt()) {
@@ -142,14 +331,61 @@ public class Interpreter extends Visitor {
                         .generateError();
             }
 
+            // When assigning to the array, the last list we index is the one we store the new value into.
+            if(ae.insideAssignment() && i == ae.getArrayIndex().size()-1) {
+                lst.setOffset(offset);
+                currentValue = lst;
+                return;
+            }
+
             currentValue = lst.get(offset);
             if(currentValue.isList())
                 lst = currentValue.asList();
-            else if(ae.insideAssignment()) {
-                lst.setOffset(offset);
-                currentValue = lst;
+        }
+    }
+
+    /**
+     * Evaluates an array expression whose target is a flattened array.
+     * <p>
+     *     Every dimension of a flattened array has a cached size and stride, so all
+     *     indices are checked and combined into a single row-major position before
+     *     the array is accessed.
+     * </p>
+     * @param ae {@link ArrayExpr}
+     * @param lst Flattened {@link RuntimeList}
+     */
+    private void evaluateFlatArrayExpr(ArrayExpr ae, RuntimeList lst) {
+        int pos = 0, offset = 0;
+
+        for(int i = 0; i < ae.getArrayIndex().size(); i++) {
+            ae.getArrayIndex().get(i).visit(this);
+            offset = currentValue.asInt();
+
+            if(offset <= 0 || offset > lst.getDimension(i)) {
+                handler.createErrorBuilder(RuntimeError.class)
+                        .addLocation(ae.getFullLocation())
+                        .addErrorNumber(MessageNumber.RUNTIME_ERROR_603)
+                        .generateError();
             }
+
+            pos += (offset-1) * lst.getStride(i);
+        }
+
+        int depth = ae.getArrayIndex().size();
+        if(depth < lst.getRank() && ae.insideAssignment()) {
+            // A row is being replaced, so we need the list that stores the row.
+            RuntimeList parent = depth == 1 ? lst : lst.getSubArray(depth-1,pos - (offset-1)*lst.getStride(depth-1));
+            parent.setOffset(offset);
+            currentValue = parent;
+        }
+        else if(depth < lst.getRank())
+            currentValue = lst.getSubArray(depth,pos);
+        else if(ae.insideAssignment()) {
+            lst.setOffset(pos+1);
+            currentValue = lst;
         }
+        else
+            currentValue = lst.getElement(pos);
     }
 
     /**
@@ -158,18 +394,22 @@ public class Interpreter extends Visitor {
      *     Arrays are static in C Minor, so a user can not change its size
      *     once an array literal is declared. We will evaluate every expression
      *     for the current array literal and store it in a {@link RuntimeList}
-     *     This will emulate an array in memory during runtime.
+     *     This will emulate an array in memory during runtime. A rectangular
+     *     multidimensional array will then be flattened into a single block.
      * </p>
      * @param al {@link ArrayLiteral}
      */
     public void visitArrayLiteral(ArrayLiteral al) {
-        RuntimeList arr = new RuntimeList(al);
+        RuntimeList arr = new RuntimeList(al,realMode);
 
         for(Expression e : al.getArrayInits()) {
             e.visit(this);
             arr.addElement(currentValue);
         }
 
+        if(budget != null && !budget.allocateList(arr.size()))
+            budgetExceeded(al);
+        arr.flatten(realMode);
         currentValue = arr;
     }
 
@@ -191,8 +431,11 @@ public class Interpreter extends Visitor {
         as.getRHS().visit(this);
         Value newValue = currentValue;
 
-        if(oldValue.isObject())
-            oldValue = oldValue.asObject().getField(as.getLHS().asFieldExpr().getFieldName());
+        FieldExpr field = as.getLHS().isFieldExpr() ? as.getLHS().asFieldExpr().getLastFieldExpr() : null;
+        if(field != null && oldValue.isObject()) {
+            RuntimeObject obj = oldValue.asObject();
+            oldValue = field.getFieldSlot() != -1 ? obj.getField(field.getFieldSlot()) : obj.getField(field.getAccessExpr());
+        }
 
         switch(assignOp) {
             case "=":
@@ -200,31 +443,37 @@ public class Interpreter extends Visitor {
             default:
                 if(as.getRHS().type.isInt()) {
                     switch (assignOp) {
-                        case "+=" -> newValue = new Value(oldValue.asInt() + newValue.asInt(), newValue.getType());
-                        case "-=" -> newValue = new Value(oldValue.asInt() - newValue.asInt(), newValue.getType());
-                        case "*=" -> newValue = new Value(oldValue.asInt() * newValue.asInt(), newValue.getType());
-                        case "/=" -> newValue = new Value(oldValue.asInt() / newValue.asInt(), newValue.getType());
-                        case "%=" -> newValue = new Value(oldValue.asInt() % newValue.asInt(), newValue.getType());
-                        case "**=" -> newValue = new Value(Math.round(Math.pow(oldValue.asInt(), newValue.asInt())), newValue.getType());
+                        case "+=" -> newValue = IntValue.of(oldValue.asInt() + newValue.asInt());
+                        case "-=" -> newValue = IntValue.of(oldValue.asInt() - newValue.asInt());
+                        case "*=" -> newValue = IntValue.of(oldValue.asInt() * newValue.asInt());
+                        case "/=" -> newValue = IntValue.of(oldValue.asInt() / newValue.asInt());
+                        case "%=" -> newValue = IntValue.of(oldValue.asInt() % newValue.asInt());
+                        case "**=" -> newValue = IntValue.of((int) Math.round(Math.pow(oldValue.asInt(), newValue.asInt())));
                     }
                 } else if(as.getRHS().type.isReal()) {
-                    switch(assignOp) {
-                        case "+=" -> newValue = new Value(oldValue.asReal().add(newValue.asReal()), newValue.getType());
-                        case "-=" -> newValue = new Value(oldValue.asReal().subtract(newValue.asReal()), newValue.getType());
-                        case "*=" -> newValue = new Value(oldValue.asReal().multiply(newValue.asReal()), newValue.getType());
-                        case "/=" -> newValue = new Value(oldValue.asReal().divide(newValue.asReal(), MathContext.DECIMAL128), newValue.getType());
-                        case "%=" -> newValue = new Value(oldValue.asReal().remainder(newValue.asReal()), newValue.getType());
-                        case "**=" -> newValue = new Value(oldValue.asReal().pow(newValue.asReal().toBigInteger().intValue(),MathContext.DECIMAL128), newValue.getType());
+                    try {
+                        switch(assignOp) {
+                            case "+=" -> newValue = oldValue.asReal().add(newValue.asReal());
+                            case "-=" -> newValue = oldValue.asReal().subtract(newValue.asReal());
+                            case "*=" -> newValue = oldValue.asReal().multiply(newValue.asReal());
+                            case "/=" -> newValue = oldValue.asReal().divide(newValue.asReal());
+                            case "%=" -> newValue = oldValue.asReal().remainder(newValue.asReal());
+                            case "**=" -> newValue = oldValue.asReal().pow(newValue.asReal().intValue());
+                        }
                     }
+                    catch(FixedRealValue.OverflowException e) { realOverflow(as); }
                 } else if(as.getRHS().type.isString())
-                    newValue = new Value(oldValue.asString() + newValue.asString(), newValue.getType());
+                    newValue = StringValue.concat(oldValue, newValue, newValue.getType());
         }
 
         if(as.getLHS().isNameExpr())
             stack.setValue(as.getLHS(), newValue);
         else if(as.getLHS().isFieldExpr()) {
             as.getLHS().visit(this);
-            currentValue.asObject().setField(as.getLHS().asFieldExpr().getFieldName(),newValue);
+            if(field.getFieldSlot() != -1)
+                currentValue.asObject().setField(field.getFieldSlot(),newValue);
+            else
+                currentValue.asObject().setField(field.getAccessExpr(),newValue);
         }
         else if(as.getLHS().isArrayExpr()) {
             as.getLHS().visit(this);
@@ -236,13 +485,23 @@ public class Interpreter extends Visitor {
     /**
      * Evaluates a binary expression.
      * <p>
+     *     The binary expression is evaluated by its closure tree. See {@link ClosureCompiler}.
+     * </p>
+     * @param be {@link BinaryExpr}
+     */
+    public void visitBinaryExpr(BinaryExpr be) { currentValue = execute(be); }
+
+    /**
+     * Evaluates a binary expression without a specialized closure tree node.
+     * <p>
      *     We first need to evaluate the values of the LHS and RHS of the current
      *     binary expression. Then, we will perform the correct binary operation
      *     based on the type the binary expression evaluates to.
      * </p>
      * @param be {@link BinaryExpr}
+     * @return {@link Value} the binary expression evaluates to
      */
-    public void visitBinaryExpr(BinaryExpr be) {
+    public Value evaluateBinaryExpr(BinaryExpr be) {
         String binOp = be.getBinaryOp().toString();
 
         be.getLHS().visit(this);
@@ -261,35 +520,35 @@ public class Interpreter extends Visitor {
             case "**":
                 if(be.type.isInt()) {
                     switch(binOp) {
-                        case "+" -> currentValue = new Value(LHS.asInt() + RHS.asInt(),be.type);
-                        case "-" -> currentValue = new Value(LHS.asInt() - RHS.asInt(),be.type);
-                        case "*" -> currentValue = new Value(LHS.asInt() * RHS.asInt(),be.type);
-                        case "/" -> currentValue = new Value(LHS.asInt() / RHS.asInt(),be.type);
-                        case "%" -> currentValue = new Value(LHS.asInt() % RHS.asInt(),be.type);
-                        case "**" -> currentValue = new Value(Math.round(Math.pow(LHS.asInt(),RHS.asInt())),be.type);
+                        case "+" -> currentValue = IntValue.of(LHS.asInt() + RHS.asInt());
+                        case "-" -> currentValue = IntValue.of(LHS.asInt() - RHS.asInt());
+                        case "*" -> currentValue = IntValue.of(LHS.asInt() * RHS.asInt());
+                        case "/" -> currentValue = IntValue.of(LHS.asInt() / RHS.asInt());
+                        case "%" -> currentValue = IntValue.of(LHS.asInt() % RHS.asInt());
+                        case "**" -> currentValue = IntValue.of((int) Math.round(Math.pow(LHS.asInt(),RHS.asInt())));
                     }
                     break;
                 }
                 else if(be.type.isReal()) {
                     switch(binOp) {
-                        case "+" -> currentValue = new Value(LHS.asReal().add(RHS.asReal()),be.type);
-                        case "-" -> currentValue = new Value(LHS.asReal().subtract(RHS.asReal()),be.type);
-                        case "*" -> currentValue = new Value(LHS.asReal().multiply(RHS.asReal()),be.type);
-                        case "/" -> currentValue = new Value(LHS.asReal().divide(RHS.asReal(),MathContext.DECIMAL128),be.type);
-                        case "%" -> currentValue = new Value(LHS.asReal().remainder(RHS.asReal()),be.type);
-                        case "**" -> currentValue = new Value(LHS.asReal().pow(RHS.asReal().toBigInteger().intValue(),MathContext.DECIMAL128),be.type);
+                        case "+" -> currentValue = LHS.asReal().add(RHS.asReal());
+                        case "-" -> currentValue = LHS.asReal().subtract(RHS.asReal());
+                        case "*" -> currentValue = LHS.asReal().multiply(RHS.asReal());
+                        case "/" -> currentValue = LHS.asReal().divide(RHS.asReal());
+                        case "%" -> currentValue = LHS.asReal().remainder(RHS.asReal());
+                        case "**" -> currentValue = LHS.asReal().pow(RHS.asReal().intValue());
                     }
                     break;
                 }
                 else if(be.type.isString()) {
-                    currentValue = new Value(LHS.asString() + RHS.asString(),be.type);
+                    currentValue = StringValue.concat(LHS,RHS,be.type);
                     break;
                 }
             case "==":
             case "!=":
                 switch(binOp) {
-                    case "==" -> currentValue = new Value(LHS.equals(RHS),be.type);
-                    case "!=" -> currentValue = new Value(!LHS.equals(RHS),be.type);
+                    case "==" -> currentValue = BoolValue.of(LHS.equals(RHS));
+                    case "!=" -> currentValue = BoolValue.of(!LHS.equals(RHS));
                 }
                 break;
             case "<":
@@ -298,34 +557,34 @@ public class Interpreter extends Visitor {
             case ">=":
                 if(be.getRHS().type.isInt()) {
                     switch (binOp) {
-                        case "<" -> currentValue = new Value(LHS.asInt() < RHS.asInt(),be.type);
-                        case "<=" -> currentValue = new Value(LHS.asInt() <= RHS.asInt(),be.type);
-                        case ">" -> currentValue = new Value(LHS.asInt() > RHS.asInt(),be.type);
-                        case ">=" -> currentValue = new Value(LHS.asInt() >= RHS.asInt(),be.type);
+                        case "<" -> currentValue = BoolValue.of(LHS.asInt() < RHS.asInt());
+                        case "<=" -> currentValue = BoolValue.of(LHS.asInt() <= RHS.asInt());
+                        case ">" -> currentValue = BoolValue.of(LHS.asInt() > RHS.asInt());
+                        case ">=" -> currentValue = BoolValue.of(LHS.asInt() >= RHS.asInt());
                     }
                     break;
                 }
                 else if(be.getRHS().type.isReal()) {
                     switch (binOp) {
-                        case "<" -> currentValue = new Value(LHS.asReal().compareTo(RHS.asReal()) < 0, be.type);
-                        case "<=" -> currentValue = new Value(LHS.asReal().compareTo(RHS.asReal()) <= 0, be.type);
-                        case ">" -> currentValue = new Value(LHS.asReal().compareTo(RHS.asReal()) > 0, be.type);
-                        case ">=" -> currentValue = new Value(LHS.asReal().compareTo(RHS.asReal()) >= 0, be.type);
+                        case "<" -> currentValue = BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) < 0);
+                        case "<=" -> currentValue = BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) <= 0);
+                        case ">" -> currentValue = BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) > 0);
+                        case ">=" -> currentValue = BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) >= 0);
                     }
                     break;
                 }
             case "and":
             case "or":
                 switch(binOp) {
-                    case "and" -> currentValue = new Value(LHS.asBool() && RHS.asBool(),be.type);
-                    case "or" -> currentValue = new Value(LHS.asBool() || RHS.asBool(),be.type);
+                    case "and" -> currentValue = BoolValue.of(LHS.asBool() && RHS.asBool());
+                    case "or" -> currentValue = BoolValue.of(LHS.asBool() || RHS.asBool());
                 }
                 break;
             case "<<":
             case ">>":
                 switch(binOp) {
-                    case "<<" -> currentValue = new Value(LHS.asInt() << RHS.asInt(), be.type);
-                    case ">>" -> currentValue = new Value(LHS.asInt() >> RHS.asInt(), be.type);
+                    case "<<" -> currentValue = IntValue.of(LHS.asInt() << RHS.asInt());
+                    case ">>" -> currentValue = IntValue.of(LHS.asInt() >> RHS.asInt());
                 }
                 break;
             case "&":
@@ -333,25 +592,25 @@ public class Interpreter extends Visitor {
             case "^":
                 if(be.getRHS().type.isInt()) {
                     switch(binOp) {
-                        case "&" -> currentValue = new Value(LHS.asInt() & RHS.asInt(),be.type);
-                        case "|" -> currentValue = new Value(LHS.asInt() | RHS.asInt(),be.type);
-                        case "^" -> currentValue = new Value(LHS.asInt() ^ RHS.asInt(),be.type);
+                        case "&" -> currentValue = IntValue.of(LHS.asInt() & RHS.asInt());
+                        case "|" -> currentValue = IntValue.of(LHS.asInt() | RHS.asInt());
+                        case "^" -> currentValue = IntValue.of(LHS.asInt() ^ RHS.asInt());
                     }
                     break;
                 }
                 else if(be.getRHS().type.isChar()) {
                     switch(binOp) {
-                        case "&" -> currentValue = new Value(LHS.asChar() & RHS.asChar(),be.type);
-                        case "|" -> currentValue = new Value(LHS.asChar() | RHS.asChar(),be.type);
-                        case "^" -> currentValue = new Value(LHS.asChar() ^ RHS.asChar(),be.type);
+                        case "&" -> currentValue = IntValue.of(LHS.asChar() & RHS.asChar());
+                        case "|" -> currentValue = IntValue.of(LHS.asChar() | RHS.asChar());
+                        case "^" -> currentValue = IntValue.of(LHS.asChar() ^ RHS.asChar());
                     }
                     break;
                 }
                 else if(be.getRHS().type.isBool()) {
                     switch (binOp) {
-                        case "&" -> currentValue = new Value(LHS.asBool() & RHS.asBool(),be.type);
-                        case "|" -> currentValue = new Value(LHS.asBool() | RHS.asBool(),be.type);
-                        case "^" -> currentValue = new Value(LHS.asBool() ^ RHS.asBool(),be.type);
+                        case "&" -> currentValue = BoolValue.of(LHS.asBool() & RHS.asBool());
+                        case "|" -> currentValue = BoolValue.of(LHS.asBool() | RHS.asBool());
+                        case "^" -> currentValue = BoolValue.of(LHS.asBool() ^ RHS.asBool());
                     }
                     break;
                 }
@@ -360,28 +619,25 @@ public class Interpreter extends Visitor {
                 ClassType objType = LHS.asObject().getCurrentType();
                 ClassType classType = be.getRHS().type.asClass();
                 switch(binOp) {
-                    case "instanceof" -> currentValue = new Value(ClassType.temporaryName(currentScope.getGlobalScope(), objType,classType),be.type);
-                    case "!instanceof" -> currentValue = new Value(!ClassType.temporaryName(currentScope.getGlobalScope(), objType,classType),be.type);
+                    case "instanceof" -> currentValue = BoolValue.of(ClassType.temporaryName(currentScope.getGlobalScope(), objType,classType));
+                    case "!instanceof" -> currentValue = BoolValue.of(!ClassType.temporaryName(currentScope.getGlobalScope(), objType,classType));
                 }
                 break;
         }
+        return currentValue;
     }
 
     /**
      * Executes a block statement.
      * <p>
-     *     We will create a new call frame on the {@link #stack} every time
-     *     we visit a block statement. We then individually visit each statement
-     *     found in the block statement. First we execute all local declaration
-     *     statements followed by the remaining statements in the block. Once each
-     *     statement has been visited (or if we encounter a statement that requires
-     *     us to terminate the execution of the block), we will destroy the call frame.
+     *     We individually visit each statement found in the block statement. First
+     *     we execute all local declaration statements followed by the remaining
+     *     statements in the block. No call frame is needed for a block since every
+     *     local variable was already given its own slot by the {@link cminor.micropasses.SlotResolver}.
      * </p>
      * @param bs {@link BlockStmt}
      */
     public void visitBlockStmt(BlockStmt bs) {
-        stack = stack.createCallFrame();
-
         for(LocalDecl decl : bs.getLocalDecls())
             decl.visit(this);
 
@@ -394,8 +650,6 @@ public class Interpreter extends Visitor {
             if(returnFound || breakFound || continueFound)
                 break;
         }
-
-        stack = stack.destroyCallFrame();
     }
 
     /**
@@ -411,28 +665,12 @@ public class Interpreter extends Visitor {
     /**
      * Evaluates a cast expression.
      * <p>
-     *     We will evaluate the cast expression's value and
-     *     typecast it to the appropriate type.
+     *     We will evaluate the cast expression's value and typecast it to the
+     *     appropriate type. The cast is performed by its closure tree.
      * </p>
      * @param cs {@link CastExpr}
      */
-    public void visitCastExpr(CastExpr cs) {
-        cs.getCastExpr().visit(this);
-        if(cs.getCastType().isInt()) {
-            if(cs.getCastExpr().type.isReal())
-                currentValue = new Value(currentValue.asReal().intValue(),cs.type);
-            else
-                currentValue = new Value((int) currentValue.asChar(),cs.type);
-        }
-        else if(cs.getCastType().isReal()) {
-            if(cs.getCastExpr().type.isInt())
-                currentValue = new Value(new BigDecimal(currentValue.asInt()),cs.type);
-        }
-        else if(cs.getCastType().isString()) {
-            if(cs.getCastType().isChar())
-                currentValue = new Value(currentValue.asChar(),cs.type);
-        }
-    }
+    public void visitCastExpr(CastExpr cs) { currentValue = execute(cs); }
 
     /**
      * Executes a choice statement.
@@ -494,6 +732,7 @@ public class Interpreter extends Visitor {
      *     generating bytecode. When we do this, we want to make sure to
      *     visit every {@code EnumDecl} and {@code GlobalDecl}, so they can
      *     be saved into the runtime stack before visiting the main function.
+     *     The main function will then be executed inside its own call frame.
      * </p>
      * @param c {@link CompilationUnit}
      */
@@ -510,8 +749,11 @@ public class Interpreter extends Visitor {
         for(GlobalDecl gd : c.getGlobals())
             gd.visit(this);
 
-        if(c.getMain() != null)
+        if(c.getMain() != null) {
+            stack = stack.createCallFrame(c.getMain().getFrameSize());
             c.getMain().getBody().visit(this);
+            stack = stack.destroyCallFrame();
+        }
     }
 
     /**
@@ -530,11 +772,15 @@ public class Interpreter extends Visitor {
      *     A do while loop requires the loop to execute at least once and
      *     then the loop will continue to be executed until the condition
      *     evaluates to be false. Internally, we will be using a Java do
-     *     while loop to help us execute the code.
+     *     while loop to help us execute the code. The assignments in the
+     *     loop's preheader are executed once before the loop starts.
      * </p>
      * @param ds {@link DoStmt}
      */
     public void visitDoStmt(DoStmt ds) {
+        for(AssignStmt as : ds.getPreheader())
+            as.visit(this);
+
         do {
             ds.getBody().visit(this);
 
@@ -542,6 +788,8 @@ public class Interpreter extends Visitor {
                 break;
 
             continueFound = false;
+            if(budget != null && !budget.charge(ExecutionBudget.statementCount(ds.getBody())))
+                budgetExceeded(ds);
             ds.getCondition().visit(this);
         } while(currentValue.asBool());
 
@@ -559,7 +807,7 @@ public class Interpreter extends Visitor {
     public void visitEnumDecl(EnumDecl ed) {
         for(Var constant : ed.getConstants()) {
             constant.getInitialValue().visit(this);
-            stack.addValue(constant, currentValue);
+            stack.setValue(constant, currentValue);
         }
     }
 
@@ -569,7 +817,9 @@ public class Interpreter extends Visitor {
      *     We will evaluate the target expression first to get the
      *     object we need, and we will evaluate its access expression.
      *     If we need to save any value into the object itself, then we
-     *     will make sure to set {@link #currentValue} to be the object.
+     *     will make sure to set {@link #currentValue} to be the object
+     *     that owns the accessed field. A field bound to a slot by the
+     *     {@link cminor.micropasses.SlotResolver} is read directly from that slot.
      * </p>
      * @param fe {@link FieldExpr}
      */
@@ -584,60 +834,76 @@ public class Interpreter extends Visitor {
             obj.setType(fe.getTarget().type.asClass());
             fe.getAccessExpr().visit(this);
             obj.setType(oldType.asClass());
-        } else if(fe.getAccessExpr().isNameExpr())
-            currentValue = obj.getField(fe.getAccessExpr());
+        } else if(fe.getAccessExpr().isNameExpr()) {
+            fieldOwner = obj;
+            currentValue = fe.getFieldSlot() != -1 ? obj.getField(fe.getFieldSlot()) : obj.getField(fe.getAccessExpr());
+        }
         else
             fe.getAccessExpr().visit(this);
         // If we're executing an assignment statement and a field expression appears on the LHS,
         // we have to make sure we can save the value into the object instead of just getting a field value.
+        // For a nested field expression, this will be the object that owns the innermost field.
         if(fe.insideAssignment())
-            currentValue = obj;
+            currentValue = fe.getAccessExpr().isFieldExpr() ? fieldOwner : obj;
     }
 
     /**
      * Executes a for statement.
      * <p>
      *     Since for loops are static in C Minor, we will evaluate the LHS and
-     *     the RHS expressions to determine how many iterations are needed. We
-     *     then simply execute the for loop's body until either the for loop
-     *     terminates early or once all iterations are completed.
+     *     the RHS expressions once to determine how many iterations are needed.
+     *     The loop is then executed as a counted loop: the bounds are kept as
+     *     primitive integers, and the control variable is written directly into
+     *     the slot the {@link cminor.micropasses.SlotResolver} gave it at the start
+     *     of each iteration. We then simply execute the for loop's body until either
+     *     the for loop terminates early or once all iterations are completed.
+     *     The assignments in the loop's preheader are executed once the bounds
+     *     are evaluated.
      * </p>
      * @param fs {@link ForStmt}
      */
     public void visitForStmt(ForStmt fs) {
-        String loopOp = fs.getLoopOperator().toString();
-
         fs.getStartValue().visit(this);
-        Value LHS = currentValue;
+        int start = currentValue.asInt();
 
         fs.getEndValue().visit(this);
-        Value RHS = currentValue;
+        int end = currentValue.asInt();
 
         // Handles both iterating over Ints and Chars
-        switch(loopOp) {
-            case "<.." -> LHS = new Value(LHS.asInt() + 1, fs.getStartValue().type);
-            case "..<" -> RHS = new Value(RHS.asInt() - 1, fs.getEndValue().type);
-            case "<..<" -> {
-                LHS = new Value(LHS.asInt() + 1, fs.getStartValue().type);
-                RHS = new Value(RHS.asInt() - 1, fs.getEndValue().type);
+        switch(fs.getLoopOperator().getLoopOp()) {
+            case EXCL_L -> start++;
+            case EXCL_R -> end--;
+            case EXCL -> {
+                start++;
+                end--;
             }
         }
 
-        stack.createCallFrame();
-        stack.addValue(fs.getControlVariable(),LHS);
+        for(AssignStmt as : fs.getPreheader())
+            as.visit(this);
+
+        LocalDecl control = fs.getControlVariable();
+        boolean charLoop = fs.getStartValue().type.isChar();
+
+        for(int i = start; i <= end; i++) {
+            Value counter = charLoop ? CharValue.of((char) i) : IntValue.of(i);
+            if(control.getSlot() != -1)
+                stack.setValue(control.getDepth(),control.getSlot(),counter);
+            else
+                stack.setValue(control,counter);
 
-        for(int i = LHS.asInt(); i <= RHS.asInt(); i++) {
-            stack.setValue(fs.getControlVariable(),new Value(i,fs.getStartValue().type));
             fs.getBody().visit(this);
 
-            if(breakFound || returnFound)
+            if(breakFound || returnFound || i == Integer.MAX_VALUE)
                 break;
 
             continueFound = false;
+            if(budget != null && !budget.charge(ExecutionBudget.statementCount(fs.getBody())))
+                budgetExceeded(fs);
         }
 
-        stack.destroyCallFrame();
         breakFound = false;
+        continueFound = false;
     }
 
     public void visitFuncDecl(FuncDecl fd) {  /* Do nothing. */ }
@@ -646,14 +912,18 @@ public class Interpreter extends Visitor {
      * Executes a global declaration statement.
      * <p>
      *     By executing a global declaration, we will allocate
-     *     space on the runtime stack to store a new global value.
+     *     space on the runtime stack to store a new global value. A global
+     *     variable that is never used by the program will not be executed.
      * </p>
      * @param gd {@link GlobalDecl}
      */
     public void visitGlobalDecl(GlobalDecl gd) {
+        if(gd.isUnused())
+            return;
+
         if(gd.getInitialValue() != null)
             gd.getInitialValue().visit(this);
-        stack.addValue(gd.getVariableName(), currentValue);
+        stack.setValue(gd, currentValue);
     }
 
     /**
@@ -700,71 +970,68 @@ public class Interpreter extends Visitor {
         RuntimeObject obj = currentValue.asObject();
 
         for(AssignStmt as : id.getInitStmts()) {
-            if(!obj.hasField(as.getLHS().asFieldExpr().getAccessExpr())) {
-                if(as.getRHS() == null)
-                    currentValue = null;
-                else
-                    as.getRHS().visit(this);
-                obj.setField(as.getLHS(), currentValue);
+            FieldExpr field = as.getLHS().asFieldExpr();
+            if(field.getFieldSlot() == -1) {
+                if(!obj.hasField(field.getAccessExpr())) {
+                    initField(as);
+                    obj.setField(field.getAccessExpr(), currentValue);
+                }
+            }
+            else if(!obj.hasField(field.getFieldSlot())) {
+                initField(as);
+                obj.setField(field.getFieldSlot(), currentValue);
             }
         }
 
         currentValue = obj;
     }
 
+    /**
+     * Evaluates the initial value of a field that the user did not initialize.
+     * @param as {@link AssignStmt} found inside an {@link InitDecl}
+     */
+    private void initField(AssignStmt as) {
+        if(as.getRHS() == null)
+            currentValue = null;
+        else
+            as.getRHS().visit(this);
+    }
+
     /**
      * Executes an input statement.
      * <p>
      *     In C Minor, the interpreter will handle all runtime errors for the
      *     programmer. This means that if a user incorrectly writes a value that
      *     needs to be stored, we will automatically generate an error and terminate
-     *     the program.
+     *     the program. Each value is read as a whitespace separated token from the
+     *     {@link InputScanner}, so a single line may provide values for several input statements.
      * </p>
      * @param in {@link InStmt}
      */
     public void visitInStmt(InStmt in) {
-        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
-        String input = "";
-        try { input = br.readLine(); }
-        catch(IOException e) { System.out.println("Error! Input was not recognized"); }
-
-        Vector<String> vals = new Vector<>();
-        while(input.indexOf(' ') != -1) {
-            vals.add(input.substring(0,input.indexOf(' ')));
-            input = input.substring(input.indexOf(' ')+1);
-        }
-        vals.add(input);
-
-        // ERROR CHECK #1: This checks if the user inputted the expected number of input values.
-        if(vals.size() != in.getInExprs().size()) {
-            handler.createErrorBuilder(RuntimeError.class)
-                    .addLocation(in)
-                    .addErrorNumber(MessageNumber.RUNTIME_ERROR_600)
-                    .generateError();
-        }
-
-        for(int i = 0; i < vals.size(); i++) {
-            String currVal = vals.get(i);
-            Expression currExpr = in.getInExprs().get(i);
-            try {
-                if(currExpr.type.isInt())
-                    stack.setValue(currExpr,new Value(currVal,new DiscreteType(ScalarType.Scalars.INT)));
-                else if(currExpr.type.isReal())
-                    stack.setValue(currExpr,new Value(new BigDecimal(currVal),new ScalarType(ScalarType.Scalars.REAL)));
-                else if(currExpr.type.isChar())
-                    stack.setValue(currExpr,new Value(currVal,new DiscreteType(ScalarType.Scalars.CHAR)));
-                else if(currExpr.type.isString())
-                    stack.setValue(currExpr,new Value(currVal,new ScalarType(ScalarType.Scalars.STR)));
-                else
-                    stack.setValue(currExpr,new Value(currVal,new DiscreteType(ScalarType.Scalars.BOOL)));
-            } catch(Exception e) {
-                // ERROR CHECK #2: Make sure user input matches the type of the input variable
+        // Any prompt the program printed needs to be visible before we wait for the user.
+        output.flush();
+
+        for(Expression currExpr : in.getInExprs()) {
+            Value val = null;
+            try { val = input.nextValue(currExpr.type,realMode); }
+            catch(NumberFormatException e) {
+                // ERROR CHECK #1: Make sure user input matches the type of the input variable
                 handler.createErrorBuilder(RuntimeError.class)
                     .addLocation(in)
                     .addErrorNumber(MessageNumber.RUNTIME_ERROR_601)
                     .addErrorArgs(currExpr.type)
                     .generateError();
             }
+
+            // ERROR CHECK #2: This checks if the user inputted the expected number of input values.
+            if(val == null) {
+                handler.createErrorBuilder(RuntimeError.class)
+                        .addLocation(in)
+                        .addErrorNumber(MessageNumber.RUNTIME_ERROR_600)
+                        .generateError();
+            }
+            stack.setValue(currExpr,val);
         }
     }
 
@@ -782,10 +1049,11 @@ public class Interpreter extends Visitor {
      * Evaluates an invocation.
      * <p>
      *     An invocation will result in a call to a function or a method. In
-     *     either case, we will evaluate all arguments and save each argument
-     *     as their respective parameter in the stack. This means we will create
-     *     and destroy a call frame manually instead of visiting {@link BlockStmt}
-     *     to handle it for us.
+     *     either case, we will evaluate all arguments in the caller's frame and
+     *     save each argument into the slot of its respective parameter. This means
+     *     we will create and destroy a call frame manually based on the frame size
+     *     computed by the {@link cminor.micropasses.SlotResolver}. The declaration that
+     *     is called will be remembered by the invocation's {@link cminor.utilities.InlineCache}.
      * </p>
      * @param in {@link Invocation}
      */
@@ -793,14 +1061,14 @@ public class Interpreter extends Visitor {
         RuntimeObject obj = null;
         if(currentValue != null && currentValue.isObject())
             obj = currentValue.asObject();
-        else if(stack.getValue("this") != null)
-            obj = stack.getValue("this").asObject();
+        else if(stack.getThis() != null)
+            obj = stack.getThis();
 
         Vector<ParamDecl> params;
         Vector<Value> args = new Vector<>();
         SymbolTable oldScope = currentScope;
-
-        stack = stack.createCallFrame();
+        MemoCache memo = null;
+        Object key = null;
 
         // Evaluates all arguments
         for(Expression arg : in.getArgs()) {
@@ -809,23 +1077,42 @@ public class Interpreter extends Visitor {
         }
 
         if(in.isLengthInvocation()) {
-            currentValue = new Value(currentValue.asList().size(),in.type);
+            currentValue = IntValue.of(currentValue.asList().size());
             return;
         }
 
         // Function Invocation
         if(!in.isMethodInvocation()) {
-            FuncDecl fd = (in.templatedFunction != null)
-                    ? in.templatedFunction : currentScope.findMethod(in.getName().toString(),in.getSignature()).asTopLevelDecl().asFuncDecl();
-            params = fd.getParams();
-            currentScope = fd.getScope();
+            FuncDecl fd = in.templatedFunction;
+            if(fd == null) {
+                fd = in.getInlineCache().getFunction();
+                if(fd == null) {
+                    fd = currentScope.findMethod(in.getName().toString(),in.getSignature()).asTopLevelDecl().asFuncDecl();
+                    in.getInlineCache().setFunction(fd);
+                }
+            }
 
-            // Save arguments into respective parameters and add to the stack.
-            for(int i = 0; i < in.getArgs().size(); i++)
-                stack.addValue(params.get(i),args.get(i));
+            // A tail call will reuse the call frame of the function that is executing.
+            if(in.isTailCall() && fd == currentCallee) {
+                tailCallArgs = args;
+                return;
+            }
 
+            // If the function was called with the same arguments before, we can reuse its result.
+            memo = memoTable.getCache(fd);
+            if(memo != null) {
+                key = MemoCache.keyOf(args);
+                Value result = memo.get(key);
+                if(result != null) {
+                    currentValue = result;
+                    return;
+                }
+            }
 
-            fd.getBody().visit(this);
+            params = fd.getParams();
+            currentScope = fd.getScope();
+            stack = stack.createCallFrame(fd.getFrameSize());
+            executeBody(fd,fd.getBody(),args);
         }
         // Method Invocation
         else {
@@ -838,41 +1125,132 @@ public class Interpreter extends Visitor {
 //                        .generateError();
 //            }
 
-            // Find the class that contains the specific method we want to call
-            ClassDecl cd = currentScope.findName(obj.getCurrentType().getTypeName()).asTopLevelDecl().asClassDecl();
-            MethodDecl md = cd.getScope().findMethod(in.getName().toString(), in.getSignature()).asClassNode().asMethodDecl();
-            params = md.getParams();
-            currentScope = md.getScope();
+            // Find the method we want to call based on the runtime class of the object
+            MethodDecl md = in.getInlineCache().lookup(obj.getCurrentType());
+            if(md == null) {
+                md = findVirtualMethod(in,obj.getCurrentType());
+                in.getInlineCache().add(obj.getCurrentType(),md);
+            }
 
-            // Create a 'this' pointer when we invoke an object's method for the first time
-            stack.addValue("this",obj);
+            // A tail call will reuse the call frame if the same method is invoked on the same object.
+            if(in.isTailCall() && md == currentCallee && obj == stack.getThis()) {
+                tailCallArgs = args;
+                return;
+            }
 
-            // Save arguments into respective parameters and add to the stack.
-            for(int i = 0; i < in.getArgs().size(); i++)
-                stack.addValue(params.get(i),args.get(i));
+            params = md.getParams();
+            currentScope = md.getScope();
 
-            md.getBody().visit(this);
+            // Create a 'this' pointer when we invoke an object's method
+            stack = stack.createCallFrame(md.getFrameSize(),obj);
+            executeBody(md,md.getBody(),args);
         }
 
-        // Figure out which variables need to be updated.
-        HashMap<String,Value> varsToUpdate = new HashMap<>();
+        currentScope = oldScope;
+        returnFound = false;
+        RuntimeStack callee = stack;
+        stack = stack.destroyCallFrame();
+
+        // Update any variables passed to an out, inout, or ref parameter with their new values.
         for(int i = 0; i < in.getArgs().size(); i++) {
             if(in.getArgs().get(i).isNameExpr()) {
-                String argName = in.getArgs().get(i).toString();
                 ParamDecl currParam = params.get(i);
 
                 if(currParam.mod.isOutMode() || currParam.mod.isInOutMode() || currParam.mod.isRefMode())
-                    varsToUpdate.put(argName,stack.getValue(currParam));
+                    stack.setValue(in.getArgs().get(i),callee.getValue(RuntimeStack.LOCAL_DEPTH,i));
             }
         }
 
-        currentScope = oldScope;
-        returnFound = false;
-        stack = stack.destroyCallFrame();
+        if(memo != null)
+            memo.put(key,currentValue);
+    }
+
+    /**
+     * Executes the body of a function or method inside the current call frame.
+     * <p>
+     *     Every argument is saved into its respective parameter before the body is executed.
+     *     If the body ends with a tail call (see {@link cminor.micropasses.TailCallAnalyzer}),
+     *     the call frame is cleared and the body is executed again with the new arguments, so
+     *     a tail recursive function runs in constant stack space.
+     * </p>
+     * @param callee {@link FrameDecl} representing the function or method
+     * @param body {@link BlockStmt} of the function or method
+     * @param args {@link Vector} of argument values
+     */
+    private void executeBody(FrameDecl callee, BlockStmt body, Vector<Value> args) {
+        FrameDecl oldCallee = currentCallee;
+        currentCallee = callee;
+        if(sampler != null)
+            sampler.enter(callee);
+
+        while(true) {
+            if(budget != null && !budget.charge(ExecutionBudget.statementCount(body)))
+                budgetExceeded((AST) callee);
+
+            // Save arguments into respective parameters and add to the stack.
+            for(int i = 0; i < args.size(); i++)
+                stack.setValue(RuntimeStack.LOCAL_DEPTH,i,args.get(i));
 
-        // Update variables with new values before finishing visit.
-        for(String varName : varsToUpdate.keySet())
-            stack.setValue(varName,varsToUpdate.get(varName));
+            body.visit(this);
+            if(tailCallArgs == null)
+                break;
+
+            args = tailCallArgs;
+            tailCallArgs = null;
+            returnFound = false;
+            stack.clear();
+        }
+
+        if(sampler != null)
+            sampler.exit();
+        currentCallee = oldCallee;
+    }
+
+    /**
+     * Generates the runtime error for a {@code Real} operation that overflowed in fixed mode.
+     * @param node {@link AST} that was executing when the operation overflowed
+     */
+    private void realOverflow(AST node) {
+        handler.createErrorBuilder(RuntimeError.class)
+                .addLocation(node)
+                .addErrorNumber(MessageNumber.RUNTIME_ERROR_613)
+                .generateError();
+    }
+
+    /**
+     * Generates the runtime error for the limit of the {@link #budget} that was exceeded.
+     * @param node {@link AST} that was executing when the limit was exceeded
+     */
+    private void budgetExceeded(AST node) {
+        handler.createErrorBuilder(RuntimeError.class)
+                .addLocation(node)
+                .addErrorNumber(budget.getExceededError())
+                .addErrorArgs(budget.getExceededLimit())
+                .generateError();
+    }
+
+    /**
+     * Finds the method an invocation calls for a runtime class.
+     * <p>
+     *     This is only used when the {@link cminor.utilities.InlineCache} of the invocation
+     *     does not know the class yet. If we already know the position of the method inside
+     *     the virtual method table, we can directly retrieve it from the class's table.
+     *     Otherwise, we will search for the method in the class's scope.
+     * </p>
+     * @param in {@link Invocation} representing a method invocation
+     * @param objType {@link ClassType} of the object the method is invoked on
+     * @return {@link MethodDecl}
+     */
+    private MethodDecl findVirtualMethod(Invocation in, ClassType objType) {
+        ClassDecl cd = currentScope.findName(objType.getTypeName()).asTopLevelDecl().asClassDecl();
+        int index = in.getInlineCache().getVTableIndex();
+
+        if(index != -1 && cd.getVTable() != null && index < cd.getVTable().size()) {
+            MethodDecl md = cd.getVTable().get(index);
+            if(md.toString().equals(in.getName().toString()) && md.getParamSignature().equals(in.getSignature()))
+                return md;
+        }
+        return cd.getScope().findMethod(in.getName().toString(), in.getSignature()).asClassNode().asMethodDecl();
     }
 
     /**
@@ -887,13 +1265,15 @@ public class Interpreter extends Visitor {
      * @param ll {@link ListLiteral}
      */
     public void visitListLiteral(ListLiteral ll) {
-        RuntimeList lst = new RuntimeList(ll);
+        RuntimeList lst = new RuntimeList(ll,realMode);
 
         for(Expression e : ll.getInits()) {
             e.visit(this);
             lst.addElement(currentValue);
         }
 
+        if(budget != null && !budget.allocateList(lst.size()))
+            budgetExceeded(ll);
         currentValue = lst;
     }
 
@@ -915,6 +1295,7 @@ public class Interpreter extends Visitor {
         // Obtain list from the stack
         ls.getList().visit(this);
         RuntimeList lst = currentValue.asList();
+        int oldSize = lst.size();
 
         ls.getAllArgs().get(1).visit(this);
         switch(ls.getCommand()) {
@@ -963,17 +1344,20 @@ public class Interpreter extends Visitor {
                 }
 
         }
+
+        if(budget != null && !budget.resizeList(lst.size() - oldSize))
+            budgetExceeded(ls);
     }
 
     /**
      * Evaluates a literal.
      * <p>
-     *     We create a new value to represent the literal
-     *     and store the result into {@link #currentValue}.
+     *     The value of the literal is created once by the {@link ClosureCompiler},
+     *     and we store the result into {@link #currentValue}.
      * </p>
      * @param li {@link Literal}
      */
-    public void visitLiteral(Literal li) { currentValue = new Value(li); }
+    public void visitLiteral(Literal li) { currentValue = execute(li); }
 
     /**
      * Executes a local declaration statement.
@@ -986,7 +1370,7 @@ public class Interpreter extends Visitor {
     public void visitLocalDecl(LocalDecl ld) {
         if(ld.getInitialValue() != null)
             ld.getInitialValue().visit(this);
-        stack.addValue(ld.getVariableName(), currentValue);
+        stack.setValue(ld, currentValue);
     }
 
     /**
@@ -1031,12 +1415,12 @@ public class Interpreter extends Visitor {
      *     We will create a {@link RuntimeObject} whenever we visit a {@link NewExpr}.
      *     During this visit, we will initialize the fields the user explicitly initialized
      *     for the object before we visit an {@link InitDecl} to handle the initialization
-     *     of the rest of the fields.
+     *     of the rest of the fields. The object's fields are stored in the slots given
+     *     by the {@link cminor.utilities.FieldLayout} of its class.
      * </p>
      * @param ne {@link NewExpr}
      */
     public void visitNewExpr(NewExpr ne) {
-        RuntimeObject obj = new RuntimeObject(ne.type);
         ClassDecl cd;
 
         if(ne.createsFromTemplate())
@@ -1044,9 +1428,18 @@ public class Interpreter extends Visitor {
         else
             cd = currentScope.findName(ne.getClassName()).asTopLevelDecl().asClassDecl();
 
-        for(Var field : ne.getInitialFields()) {
+        RuntimeObject obj = new RuntimeObject(ne.type, cd.getFieldLayout());
+        if(budget != null && !budget.allocateObject(cd.getFieldLayout().size()))
+            budgetExceeded(ne);
+        int[] fieldSlots = ne.getFieldSlots();
+
+        for(int i = 0; i < ne.getInitialFields().size(); i++) {
+            Var field = ne.getInitialFields().get(i);
             field.getInitialValue().visit(this);
-            obj.setField(field, currentValue);
+            if(fieldSlots != null && fieldSlots[i] != -1)
+                obj.setField(fieldSlots[i], currentValue);
+            else
+                obj.setField(field, currentValue);
         }
 
         currentValue = obj;
@@ -1057,7 +1450,7 @@ public class Interpreter extends Visitor {
      * Executes an output statement.
      * <p>
      *     We will visit every expression  in the current output
-     *     statement and print each value to the terminal.
+     *     statement and print each value to the {@link OutputSink}.
      * </p>
      * @param os {@link OutStmt}
      */
@@ -1065,16 +1458,11 @@ public class Interpreter extends Visitor {
         for(Expression e : os.getOutExprs()) {
             e.visit(this);
             if(e.isEndl())
-                System.out.println();
-            else if(currentValue.isList()) {
-                StringBuilder sb = new StringBuilder();
-                RuntimeList.buildList(currentValue.asList(),sb);
-                System.out.print(sb);
-            }
+                output.println();
             else
-                System.out.print(currentValue);
+                output.print(currentValue);
         }
-        outputFound = true;
+        context.setOutputFound(true);
     }
 
     /**
@@ -1112,12 +1500,15 @@ public class Interpreter extends Visitor {
     /**
      * Executes a stop statement.
      * <p><br>
-     *     If a stop statement is written by the user, we
-     *     will simply terminate the C Minor interpreter.
+     *     If a stop statement is written by the user, we will
+     *     throw a {@link StopException} to terminate the program.
      * </p>
      * @param ss Stop Statement
      */
-    public void visitStopStmt(StopStmt ss) { System.exit(1); }
+    public void visitStopStmt(StopStmt ss) {
+        output.flush();
+        throw new StopException();
+    }
 
     /**
      * Executes a {@link ThisStmt}.
@@ -1129,39 +1520,31 @@ public class Interpreter extends Visitor {
      * </p>
      * @param ts {@link ThisStmt}
      */
-    public void visitThis(ThisStmt ts) { currentValue = stack.getValue("this"); }
+    public void visitThis(ThisStmt ts) { currentValue = stack.getThis(); }
 
     /**
      * Evaluates a unary expression.
      * <p>
-     *     We will evaluate the unary expression and save its value.
+     *     We will evaluate the unary expression with its closure tree and save its value.
      * </p>
      * @param ue {@link UnaryExpr}
      */
-    public void visitUnaryExpr(UnaryExpr ue) {
-        ue.getExpr().visit(this);
-
-        switch(ue.getUnaryOp().toString()) {
-            case "~":
-                currentValue = ue.getExpr().type.isInt() ?
-                        new Value(~(currentValue.asInt()),ue.type) : new Value(~currentValue.asChar(),ue.type);
-                break;
-            case "not":
-                currentValue = new Value(!currentValue.asBool(),ue.type);
-                break;
-        }
-    }
+    public void visitUnaryExpr(UnaryExpr ue) { currentValue = execute(ue); }
 
     /**
      * Executes a while loop.
      * <p>
      *     A while loop will be executed as long as its condition remains true.
      *     We will be using a Java while loop internally to help us execute the code.
+     *     The assignments in the loop's preheader are executed once before the loop starts.
      * </p>
      * @param ws {@link WhileStmt}
 
      */
     public void visitWhileStmt(WhileStmt ws) {
+        for(AssignStmt as : ws.getPreheader())
+            as.visit(this);
+
         ws.getCondition().visit(this);
 
         while(currentValue.asBool()) {
@@ -1171,6 +1554,8 @@ public class Interpreter extends Visitor {
                 break;
 
             continueFound = false;
+            if(budget != null && !budget.charge(ExecutionBudget.statementCount(ws.getBody())))
+                budgetExceeded(ws);
             ws.getCondition().visit(this);
         }
         breakFound = false;
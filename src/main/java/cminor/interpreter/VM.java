@@ -7,16 +7,13 @@ import cminor.messages.CompilationMessage;
 import cminor.messages.MessageHandler;
 import cminor.messages.MessageNumber;
 import cminor.messages.errors.setting.SettingError;
-import cminor.micropasses.*;
-import cminor.parser.Parser;
 import cminor.parser.PEG;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.PhaseHandler;
 import cminor.utilities.PhaseNumber;
 import cminor.utilities.Vector;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import cminor.interpreter.input.InputScanner;
 
 /**
  * A class that initializes and sets up the C Minor virtual environment.
@@ -43,15 +40,25 @@ public class VM {
      */
     private final MessageHandler msgHandler;
 
+    /**
+     * {@link CompilationContext} that stores the settings and the shared state of the {@link VM}.
+     * <p>
+     *     Every {@link VM} has its own context, so multiple virtual environments
+     *     can be executed at the same time without affecting each other.
+     * </p>
+     */
+    private final CompilationContext context;
+
     /**
      * Default constructor for {@link VM}.
      */
     public VM() {
-        MessageHandler.setInterpretationMode();
+        this.context = new CompilationContext();
+        this.context.setInterpretationMode();
 
         this.globalUnit = new CompilationUnit();
-        this.phaseHandler = new PhaseHandler(this.globalUnit.getScope());
-        this.msgHandler = new MessageHandler();
+        this.phaseHandler = new PhaseHandler(this.globalUnit.getScope(),context);
+        this.msgHandler = new MessageHandler(context);
     }
 
     /**
@@ -66,13 +73,21 @@ public class VM {
         phaseHandler.setFinalPhase(phase);
     }
 
+    /**
+     * Getter for {@link #context}.
+     * @return {@link CompilationContext}
+     */
+    public CompilationContext getContext() { return context; }
+
     /**
      * Reads in user input from the {@link VM} and processes it before executing the compiler.
-     * @throws IOException An exception thrown in case there was an error reading in user input with InputStreamReader.
-     * (Not sure if an exception is ever thrown).
+     * <p>
+     *     The {@link VM} will stop once there is no user input left to read.
+     * </p>
      */
-    public void readUserInput() throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+    public void readUserInput() {
+        // The program and its input statements share the same scanner, so no input is lost between them.
+        InputScanner reader = phaseHandler.getInputScanner();
 
         System.out.println("C Minor Interpreter\n");
         while(true) {
@@ -80,18 +95,20 @@ public class VM {
             String input;
 
             System.out.print(">>> ");
-            input = reader.readLine();
+            input = reader.nextLine();
+            if(input == null)
+                return;
 
             switch(input) {
                 // Temporary until interpreter is back online.
                 case "stop":
-                    System.exit(0);
+                    return;
                 case "#clear":
-                    ImportHandler.clear();
                     globalUnit.reset();
+                    phaseHandler.reset();
                     continue;
                 case "#print-tokens":
-                    Parser.setPrintTokens();
+                    context.setPrintTokens(!context.isPrintingTokens());
                     continue;
                 case "#print-tree":
                     phaseHandler.addPrinterPhase();
@@ -99,13 +116,33 @@ public class VM {
                 case "#print-table":
                     continue;
                 case "#debug":
-                    CompilationMessage.setDebugMode();
+                    context.setDebugMode(!context.isDebugMode());
                     continue;
                 default:
                     try {
                         if(input.startsWith("#")) {
                             if(input.startsWith("#phase"))
                                 phaseHandler.setFinalPhase(input);
+                            else if(input.startsWith("#real-mode")) {
+                                phaseHandler.setRealMode(input);
+                                continue;
+                            }
+                            else if(input.startsWith("#engine")) {
+                                phaseHandler.setExecutionMode(input);
+                                continue;
+                            }
+                            else if(input.startsWith("#memoize")) {
+                                phaseHandler.setMemoization(input);
+                                continue;
+                            }
+                            else if(input.startsWith("#profile")) {
+                                phaseHandler.setProfiling(input);
+                                continue;
+                            }
+                            else if(input.startsWith("#sample")) {
+                                phaseHandler.setSampling(input);
+                                continue;
+                            }
                             else {
                                 msgHandler.createErrorBuilder(SettingError.class)
                                           .addErrorNumber(MessageNumber.SETTING_ERROR_4)
@@ -128,7 +165,9 @@ public class VM {
             tabs -= input.length() - input.replace("}", "").length();
             while(tabs > 0) {
                 System.out.print("... ");
-                input = reader.readLine();
+                input = reader.nextLine();
+                if(input == null)
+                    return;
                 tabs += input.length() - input.replace("{","").length();
                 tabs -= input.length() - input.replace("}", "").length();
                 program.append(input).append("\n");
@@ -144,15 +183,35 @@ public class VM {
      * @param program String representation of the user program that will be parsed and analyzed by the compiler.
      */
     private void runInterpreter(String program) {
+        phaseHandler.startExecution();
         try {
-            PEG parser = new PEG(new Lexer(program));
-            Vector<? extends AST> nodes = parser.parse();
-            for(AST node : nodes)
-                phaseHandler.execute(node);
-            Interpreter.printLine();
+            // The output is always written out before any error is printed, even if the program crashes.
+            try {
+                PEG parser = new PEG(new Lexer(program,context));
+                Vector<? extends AST> nodes = parser.parse();
+                for(AST node : nodes)
+                    phaseHandler.execute(node);
+                printLine();
+            } finally { phaseHandler.flushOutput(); }
+        } catch(Interpreter.StopException e) {
+            // A stop statement only ends the current program, so the VM keeps running.
         } catch(CompilationMessage msg) {
             msg.updateGlobalScope(globalUnit.getScope());
             msg.printMessage();
         }
+        phaseHandler.printProfile();
+    }
+
+    /**
+     * Prints an extra line if the program generated any output.
+     * <p>
+     *     This makes sure the input prompt of the {@link VM} is always displayed on its own line.
+     * </p>
+     */
+    private void printLine() {
+        if(context.isOutputFound()) {
+            phaseHandler.getOutputSink().println();
+            context.setOutputFound(false);
+        }
     }
 }
@@ -0,0 +1,246 @@
+package cminor.interpreter.budget;
+
+import cminor.ast.statements.BlockStmt;
+import cminor.messages.MessageNumber;
+
+/**
+ * A set of limits that a single run of a program is not allowed to exceed.
+ * <p>
+ *     A budget limits the number of statements a program executes, the time it is allowed
+ *     to run for, and the approximate amount of memory used by its lists, arrays, and objects.
+ *     Every limit is optional, and a limit of 0 means the program is not limited.
+ * </p>
+ * <p>
+ *     The execution engine charges the budget every time a loop repeats and every time a
+ *     function or method is called, since a program can only run forever by doing one of the
+ *     two. The memory of a program is charged whenever a list or an object is created and whenever
+ *     the size of a list changes. Each charge only updates a counter and compares it against a
+ *     precomputed threshold, so the clock is only read after {@link #CLOCK_INTERVAL} statements.
+ * </p>
+ * <p>
+ *     The memory used by a program is only an estimate. A list or an object is never given back
+ *     to the budget once it is no longer used, since we would have to wait for the garbage collector
+ *     to find out, and the same program would then be stopped at different points on each run.
+ *     Only the elements removed from a list are given back.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ExecutionBudget {
+
+    /**
+     * The number of statements that can be executed before the clock is checked again.
+     */
+    public static final long CLOCK_INTERVAL = 4096;
+
+    /**
+     * The approximate number of bytes every list and object needs before storing any value.
+     */
+    public static final long HEADER_SIZE = 32;
+
+    /**
+     * The approximate number of bytes needed to store a single element or field.
+     */
+    public static final long SLOT_SIZE = 8;
+
+    /**
+     * The maximum number of statements that can be executed, or 0 if there is no limit.
+     */
+    private long statementLimit;
+
+    /**
+     * The maximum number of milliseconds the program can run for, or 0 if there is no limit.
+     */
+    private long timeLimit;
+
+    /**
+     * The maximum number of bytes that can be used by lists and objects, or 0 if there is no limit.
+     */
+    private long heapLimit;
+
+    /**
+     * Number of statements executed during the current run.
+     */
+    private long statements;
+
+    /**
+     * Approximate number of bytes used by lists and objects during the current run.
+     */
+    private long heap;
+
+    /**
+     * The value {@link #statements} needs to reach before any limit is checked again.
+     */
+    private long nextCheck;
+
+    /**
+     * The time (in nanoseconds) at which the current run has to finish.
+     */
+    private long deadline;
+
+    /**
+     * The {@link MessageNumber} of the limit that was exceeded, or {@code null} if no limit was exceeded.
+     */
+    private MessageNumber exceeded;
+
+    /**
+     * Creates an {@link ExecutionBudget} without any limits.
+     */
+    public ExecutionBudget() {
+        this.statementLimit = 0;
+        this.timeLimit = 0;
+        this.heapLimit = 0;
+        start();
+    }
+
+    /**
+     * Sets the maximum number of statements that can be executed.
+     * @param statementLimit Number of statements, or 0 to remove the limit
+     */
+    public void setStatementLimit(long statementLimit) { this.statementLimit = statementLimit; }
+
+    /**
+     * Sets the maximum amount of time the program can run for.
+     * @param timeLimit Number of milliseconds, or 0 to remove the limit
+     */
+    public void setTimeLimit(long timeLimit) { this.timeLimit = timeLimit; }
+
+    /**
+     * Sets the maximum amount of memory the lists and objects of the program can use.
+     * @param heapLimit Number of bytes, or 0 to remove the limit
+     */
+    public void setHeapLimit(long heapLimit) { this.heapLimit = heapLimit; }
+
+    /**
+     * Checks if any limit was set.
+     * @return Boolean
+     */
+    public boolean isLimited() { return statementLimit > 0 || timeLimit > 0 || heapLimit > 0; }
+
+    /**
+     * Starts a new run of the program.
+     * <p>
+     *     Every counter is cleared, and the deadline of the run is computed from the current time.
+     * </p>
+     */
+    public void start() {
+        statements = 0;
+        heap = 0;
+        exceeded = null;
+        deadline = System.nanoTime() + timeLimit*1_000_000L;
+        nextCheck = computeNextCheck();
+    }
+
+    /**
+     * Charges the budget for a number of executed statements.
+     * @param count Number of statements
+     * @return {@code true} if the program is still within its budget, {@code false} otherwise
+     */
+    public boolean charge(int count) {
+        statements += count;
+        return statements < nextCheck || checkLimits();
+    }
+
+    /**
+     * Counts the statements of a block that are charged every time it is executed.
+     * <p>
+     *     Nested statements are not counted, and an empty block is still charged
+     *     a single statement, so an empty loop will not run forever. Both execution
+     *     engines use this count, so a program is stopped at the same point by either one.
+     * </p>
+     * @param body {@link BlockStmt}
+     * @return Int
+     */
+    public static int statementCount(BlockStmt body) {
+        return Math.max(1,body.getLocalDecls().size() + body.getStatements().size());
+    }
+
+    /**
+     * Charges the budget for a newly created list.
+     * @param size Number of elements stored by the list
+     * @return {@code true} if the program is still within its budget, {@code false} otherwise
+     */
+    public boolean allocateList(int size) { return allocate(HEADER_SIZE + size*SLOT_SIZE); }
+
+    /**
+     * Charges the budget for a newly created object.
+     * @param fields Number of fields stored by the object
+     * @return {@code true} if the program is still within its budget, {@code false} otherwise
+     */
+    public boolean allocateObject(int fields) { return allocate(HEADER_SIZE + fields*SLOT_SIZE); }
+
+    /**
+     * Charges the budget for a list whose size changed.
+     * <p>
+     *     If elements were removed, the memory they used is given back to the budget.
+     * </p>
+     * @param change Number of elements that were added (or removed, if negative)
+     * @return {@code true} if the program is still within its budget, {@code false} otherwise
+     */
+    public boolean resizeList(int change) { return allocate(change*SLOT_SIZE); }
+
+    /**
+     * Getter for the {@link MessageNumber} of the limit that was exceeded.
+     * @return {@link MessageNumber}, or {@code null} if no limit was exceeded
+     */
+    public MessageNumber getExceededError() { return exceeded; }
+
+    /**
+     * Getter for the value of the limit that was exceeded.
+     * @return Number of statements, milliseconds, or bytes
+     */
+    public long getExceededLimit() {
+        if(exceeded == MessageNumber.RUNTIME_ERROR_610)
+            return statementLimit;
+        else if(exceeded == MessageNumber.RUNTIME_ERROR_611)
+            return timeLimit;
+        return heapLimit;
+    }
+
+    /**
+     * Updates the memory used by the program.
+     * @param bytes Number of bytes that were allocated (or freed, if negative)
+     * @return {@code true} if the program is still within its budget, {@code false} otherwise
+     */
+    private boolean allocate(long bytes) {
+        heap += bytes;
+        if(heapLimit > 0 && heap > heapLimit) {
+            exceeded = MessageNumber.RUNTIME_ERROR_612;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the statement and time limits once {@link #statements} reaches {@link #nextCheck}.
+     * @return {@code true} if the program is still within its budget, {@code false} otherwise
+     */
+    private boolean checkLimits() {
+        if(statementLimit > 0 && statements > statementLimit) {
+            exceeded = MessageNumber.RUNTIME_ERROR_610;
+            return false;
+        }
+        if(timeLimit > 0 && System.nanoTime() - deadline > 0) {
+            exceeded = MessageNumber.RUNTIME_ERROR_611;
+            return false;
+        }
+
+        nextCheck = computeNextCheck();
+        return true;
+    }
+
+    /**
+     * Computes the next value of {@link #statements} at which the limits have to be checked.
+     * <p>
+     *     If only the heap is limited, the limits will never be checked while executing statements.
+     * </p>
+     * @return Long
+     */
+    private long computeNextCheck() {
+        long next = Long.MAX_VALUE;
+        if(timeLimit > 0)
+            next = statements + CLOCK_INTERVAL;
+        if(statementLimit > 0)
+            next = Math.min(next,statementLimit + 1);
+        return next;
+    }
+}
@@ -0,0 +1,513 @@
+package cminor.interpreter.closure;
+
+import cminor.ast.types.Type;
+import cminor.interpreter.value.IntValue;
+import cminor.interpreter.value.StringValue;
+import cminor.interpreter.value.Value;
+import cminor.utilities.RuntimeStack;
+
+/**
+ * Every arithmetic and bitwise {@link ExecNode} generated by the {@link ClosureCompiler}.
+ * <p>
+ *     Each node performs exactly one operation on one type, so the operation and the
+ *     representation of its operands never have to be checked once the tree is built.
+ * </p>
+ * @author Daniel Levy
+ */
+public final class ArithmeticNodes {
+
+    /**
+     * {@link ArithmeticNodes} only groups node classes, so it should never be instantiated.
+     */
+    private ArithmeticNodes() {}
+
+    /**
+     * Adds two {@code Int} values.
+     */
+    public static final class IntAdd extends BinaryNode {
+
+        /**
+         * Creates an {@link IntAdd} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntAdd(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() + RHS.asInt());
+        }
+    }
+
+    /**
+     * Subtracts two {@code Int} values.
+     */
+    public static final class IntSub extends BinaryNode {
+
+        /**
+         * Creates an {@link IntSub} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntSub(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() - RHS.asInt());
+        }
+    }
+
+    /**
+     * Multiplies two {@code Int} values.
+     */
+    public static final class IntMul extends BinaryNode {
+
+        /**
+         * Creates an {@link IntMul} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntMul(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() * RHS.asInt());
+        }
+    }
+
+    /**
+     * Divides two {@code Int} values.
+     */
+    public static final class IntDiv extends BinaryNode {
+
+        /**
+         * Creates an {@link IntDiv} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntDiv(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() / RHS.asInt());
+        }
+    }
+
+    /**
+     * Finds the remainder of two {@code Int} values.
+     */
+    public static final class IntMod extends BinaryNode {
+
+        /**
+         * Creates an {@link IntMod} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntMod(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() % RHS.asInt());
+        }
+    }
+
+    /**
+     * Raises an {@code Int} value to the power of another {@code Int} value.
+     */
+    public static final class IntPow extends BinaryNode {
+
+        /**
+         * Creates an {@link IntPow} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntPow(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of((int) Math.round(Math.pow(LHS.asInt(),RHS.asInt())));
+        }
+    }
+
+    /**
+     * Adds two {@code Real} values.
+     */
+    public static final class RealAdd extends BinaryNode {
+
+        /**
+         * Creates a {@link RealAdd} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealAdd(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return LHS.asReal().add(RHS.asReal());
+        }
+    }
+
+    /**
+     * Subtracts two {@code Real} values.
+     */
+    public static final class RealSub extends BinaryNode {
+
+        /**
+         * Creates a {@link RealSub} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealSub(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return LHS.asReal().subtract(RHS.asReal());
+        }
+    }
+
+    /**
+     * Multiplies two {@code Real} values.
+     */
+    public static final class RealMul extends BinaryNode {
+
+        /**
+         * Creates a {@link RealMul} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealMul(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return LHS.asReal().multiply(RHS.asReal());
+        }
+    }
+
+    /**
+     * Divides two {@code Real} values.
+     */
+    public static final class RealDiv extends BinaryNode {
+
+        /**
+         * Creates a {@link RealDiv} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealDiv(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return LHS.asReal().divide(RHS.asReal());
+        }
+    }
+
+    /**
+     * Finds the remainder of two {@code Real} values.
+     */
+    public static final class RealMod extends BinaryNode {
+
+        /**
+         * Creates a {@link RealMod} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealMod(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return LHS.asReal().remainder(RHS.asReal());
+        }
+    }
+
+    /**
+     * Raises a {@code Real} value to the power of the integer part of another {@code Real} value.
+     */
+    public static final class RealPow extends BinaryNode {
+
+        /**
+         * Creates a {@link RealPow} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealPow(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return LHS.asReal().pow(RHS.asReal().intValue());
+        }
+    }
+
+    /**
+     * Shifts the bits of an {@code Int} value to the left.
+     */
+    public static final class IntShl extends BinaryNode {
+
+        /**
+         * Creates an {@link IntShl} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntShl(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() << RHS.asInt());
+        }
+    }
+
+    /**
+     * Shifts the bits of an {@code Int} value to the right.
+     */
+    public static final class IntShr extends BinaryNode {
+
+        /**
+         * Creates an {@link IntShr} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntShr(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() >> RHS.asInt());
+        }
+    }
+
+    /**
+     * Performs a bitwise and on two {@code Int} values.
+     */
+    public static final class IntBitAnd extends BinaryNode {
+
+        /**
+         * Creates an {@link IntBitAnd} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntBitAnd(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() & RHS.asInt());
+        }
+    }
+
+    /**
+     * Performs a bitwise or on two {@code Int} values.
+     */
+    public static final class IntBitOr extends BinaryNode {
+
+        /**
+         * Creates an {@link IntBitOr} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntBitOr(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() | RHS.asInt());
+        }
+    }
+
+    /**
+     * Performs a bitwise xor on two {@code Int} values.
+     */
+    public static final class IntBitXor extends BinaryNode {
+
+        /**
+         * Creates an {@link IntBitXor} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntBitXor(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asInt() ^ RHS.asInt());
+        }
+    }
+
+    /**
+     * Performs a bitwise and on two {@code Char} values.
+     */
+    public static final class CharBitAnd extends BinaryNode {
+
+        /**
+         * Creates a {@link CharBitAnd} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public CharBitAnd(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asChar() & RHS.asChar());
+        }
+    }
+
+    /**
+     * Performs a bitwise or on two {@code Char} values.
+     */
+    public static final class CharBitOr extends BinaryNode {
+
+        /**
+         * Creates a {@link CharBitOr} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public CharBitOr(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asChar() | RHS.asChar());
+        }
+    }
+
+    /**
+     * Performs a bitwise xor on two {@code Char} values.
+     */
+    public static final class CharBitXor extends BinaryNode {
+
+        /**
+         * Creates a {@link CharBitXor} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public CharBitXor(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return IntValue.of(LHS.asChar() ^ RHS.asChar());
+        }
+    }
+
+    /**
+     * Flips every bit of an {@code Int} value.
+     */
+    public static final class IntComplement extends UnaryNode {
+
+        /**
+         * Creates an {@link IntComplement} node.
+         * @param expr {@link ExecNode} representing the operand
+         */
+        public IntComplement(ExecNode expr) { super(expr); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            return IntValue.of(~expr.execute(stack).asInt());
+        }
+    }
+
+    /**
+     * Concatenates two {@code String} values.
+     */
+    public static final class StringConcat extends BinaryNode {
+
+        /**
+         * {@link Type} of the concatenated string.
+         */
+        private final Type type;
+
+        /**
+         * Creates a {@link StringConcat} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         * @param type {@link Type} of the concatenated string
+         */
+        public StringConcat(ExecNode lhs, ExecNode rhs, Type type) {
+            super(lhs,rhs);
+            this.type = type;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return StringValue.concat(LHS,RHS,type);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cminor.interpreter.closure;
+
+/**
+ * An {@link ExecNode} that evaluates a binary operation.
+ * <p>
+ *     Both operands are always evaluated from left to right before the
+ *     operation is performed, which matches the {@link cminor.interpreter.Interpreter}.
+ * </p>
+ * @author Daniel Levy
+ */
+public abstract class BinaryNode extends ExecNode {
+
+    /**
+     * {@link ExecNode} representing the left operand.
+     */
+    protected final ExecNode lhs;
+
+    /**
+     * {@link ExecNode} representing the right operand.
+     */
+    protected final ExecNode rhs;
+
+    /**
+     * Default constructor for {@link BinaryNode}.
+     * @param lhs {@link ExecNode} representing the left operand
+     * @param rhs {@link ExecNode} representing the right operand
+     */
+    protected BinaryNode(ExecNode lhs, ExecNode rhs) {
+        this.lhs = lhs;
+        this.rhs = rhs;
+    }
+}
@@ -0,0 +1,288 @@
+package cminor.interpreter.closure;
+
+import cminor.ast.expressions.BinaryExpr;
+import cminor.ast.expressions.CastExpr;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.Literal;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.expressions.UnaryExpr;
+import cminor.ast.operators.BinaryOp;
+import cminor.ast.types.Type;
+import cminor.interpreter.Interpreter;
+import cminor.interpreter.closure.ArithmeticNodes.*;
+import cminor.interpreter.closure.ComparisonNodes.*;
+import cminor.interpreter.closure.LogicalNodes.*;
+import cminor.interpreter.closure.ValueNodes.*;
+import cminor.interpreter.value.RealMode;
+import cminor.interpreter.value.Value;
+import cminor.utilities.ConstantPool;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.Visitor;
+
+/**
+ * A {@link Visitor} class that turns a checked expression into a closure tree.
+ * <p>
+ *     The {@link Interpreter} calls this compiler the first time it evaluates a
+ *     binary, unary, cast, or literal expression. Every operator and every type the
+ *     {@link cminor.typechecker.TypeChecker} computed is resolved here, and each literal is
+ *     converted into its {@link Value} once. The resulting {@link ExecNode} tree can then be
+ *     evaluated repeatedly without ever comparing an operator string or a type again.
+ * </p>
+ * <p>
+ *     Any expression we do not have a specialized node for is wrapped inside an
+ *     {@link Interpreted} node, so the {@link Interpreter} will still evaluate it.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ClosureCompiler extends Visitor {
+
+    /**
+     * {@link Interpreter} that evaluates any expression we can not specialize.
+     */
+    private final Interpreter interpreter;
+
+    /**
+     * {@link RealMode} used to create every {@code Real} constant.
+     */
+    private RealMode realMode;
+
+    /**
+     * {@link ConstantPool} that stores the value of every literal.
+     */
+    private ConstantPool constantPool;
+
+    /**
+     * {@link ExecNode} generated for the last expression that was visited.
+     */
+    private ExecNode result;
+
+    /**
+     * Creates the {@link ClosureCompiler}.
+     * @param interpreter {@link Interpreter} that evaluates any expression we can not specialize
+     */
+    public ClosureCompiler(Interpreter interpreter) {
+        this.interpreter = interpreter;
+        this.realMode = RealMode.EXACT;
+        this.constantPool = new ConstantPool();
+    }
+
+    /**
+     * Sets the {@link RealMode} used to create every {@code Real} constant.
+     * <p>
+     *     Any tree that was already built keeps the previous {@link RealMode}, so the
+     *     {@link Interpreter} has to discard its trees when the mode changes.
+     * </p>
+     * @param realMode {@link RealMode}
+     */
+    public void setRealMode(RealMode realMode) {
+        this.realMode = realMode;
+        constantPool.setRealMode(realMode);
+    }
+
+    /**
+     * Sets the {@link ConstantPool} every literal's value is retrieved from.
+     * @param constantPool {@link ConstantPool}
+     */
+    public void setConstantPool(ConstantPool constantPool) { this.constantPool = constantPool; }
+
+    /**
+     * Builds the closure tree for an expression.
+     * @param e {@link Expression} that was type checked
+     * @return {@link ExecNode} representing the root of the tree
+     */
+    public ExecNode compile(Expression e) {
+        if(e.isBinaryExpr() || e.isUnaryExpr() || e.isCastExpr() || e.isNameExpr()
+                || (e.isLiteral() && !e.isArrayLiteral() && !e.isListLiteral()))
+            e.visit(this);
+        else
+            result = new Interpreted(interpreter,e);
+        return result;
+    }
+
+    /**
+     * Builds the node for a binary expression.
+     * <p>
+     *     The node is selected the same way the {@link Interpreter} selects its operation.
+     *     Arithmetic operators use the type of the expression, while comparisons and bitwise
+     *     operators use the type of the right operand. If none of the specialized nodes apply,
+     *     we let the {@link Interpreter} evaluate the expression.
+     * </p>
+     * @param be {@link BinaryExpr}
+     */
+    public void visitBinaryExpr(BinaryExpr be) {
+        ExecNode node = null;
+
+        switch(be.getBinaryOp().getBinaryType()) {
+            case PLUS:
+            case MINUS:
+            case MULT:
+            case DIV:
+            case MOD:
+            case EXP:
+                node = arithmetic(be);
+                break;
+            case EQEQ:
+                node = new Equal(compile(be.getLHS()),compile(be.getRHS()));
+                break;
+            case NEQ:
+                node = new NotEqual(compile(be.getLHS()),compile(be.getRHS()));
+                break;
+            case LT:
+            case LTEQ:
+            case GT:
+            case GTEQ:
+                node = comparison(be);
+                break;
+            case AND:
+                node = new And(compile(be.getLHS()),compile(be.getRHS()));
+                break;
+            case OR:
+                node = new Or(compile(be.getLHS()),compile(be.getRHS()));
+                break;
+            case SLEFT:
+                node = new IntShl(compile(be.getLHS()),compile(be.getRHS()));
+                break;
+            case SRIGHT:
+                node = new IntShr(compile(be.getLHS()),compile(be.getRHS()));
+                break;
+            case BAND:
+            case BOR:
+            case XOR:
+                node = bitwise(be);
+                break;
+        }
+
+        result = (node != null) ? node : new InterpretedBinary(interpreter,be);
+    }
+
+    /**
+     * Builds the node for an arithmetic operator.
+     * @param be {@link BinaryExpr}
+     * @return {@link ExecNode}, or {@code null} if no specialized node exists
+     */
+    private ExecNode arithmetic(BinaryExpr be) {
+        Type type = be.type;
+
+        if(type.isString())
+            return be.getBinaryOp().getBinaryType() == BinaryOp.BinaryType.PLUS
+                    ? new StringConcat(compile(be.getLHS()),compile(be.getRHS()),type) : null;
+        if(!type.isInt() && !type.isReal())
+            return null;
+
+        ExecNode lhs = compile(be.getLHS());
+        ExecNode rhs = compile(be.getRHS());
+        boolean isInt = type.isInt();
+
+        return switch(be.getBinaryOp().getBinaryType()) {
+            case PLUS -> isInt ? new IntAdd(lhs,rhs) : new RealAdd(lhs,rhs);
+            case MINUS -> isInt ? new IntSub(lhs,rhs) : new RealSub(lhs,rhs);
+            case MULT -> isInt ? new IntMul(lhs,rhs) : new RealMul(lhs,rhs);
+            case DIV -> isInt ? new IntDiv(lhs,rhs) : new RealDiv(lhs,rhs);
+            case MOD -> isInt ? new IntMod(lhs,rhs) : new RealMod(lhs,rhs);
+            default -> isInt ? new IntPow(lhs,rhs) : new RealPow(lhs,rhs);
+        };
+    }
+
+    /**
+     * Builds the node for a relational operator.
+     * @param be {@link BinaryExpr}
+     * @return {@link ExecNode}, or {@code null} if no specialized node exists
+     */
+    private ExecNode comparison(BinaryExpr be) {
+        Type type = be.getRHS().type;
+        if(!type.isInt() && !type.isReal())
+            return null;
+
+        ExecNode lhs = compile(be.getLHS());
+        ExecNode rhs = compile(be.getRHS());
+        boolean isInt = type.isInt();
+
+        return switch(be.getBinaryOp().getBinaryType()) {
+            case LT -> isInt ? new IntLess(lhs,rhs) : new RealLess(lhs,rhs);
+            case LTEQ -> isInt ? new IntLessEq(lhs,rhs) : new RealLessEq(lhs,rhs);
+            case GT -> isInt ? new IntGreater(lhs,rhs) : new RealGreater(lhs,rhs);
+            default -> isInt ? new IntGreaterEq(lhs,rhs) : new RealGreaterEq(lhs,rhs);
+        };
+    }
+
+    /**
+     * Builds the node for a bitwise operator.
+     * @param be {@link BinaryExpr}
+     * @return {@link ExecNode}, or {@code null} if no specialized node exists
+     */
+    private ExecNode bitwise(BinaryExpr be) {
+        Type type = be.getRHS().type;
+        if(!type.isInt() && !type.isChar() && !type.isBool())
+            return null;
+
+        ExecNode lhs = compile(be.getLHS());
+        ExecNode rhs = compile(be.getRHS());
+
+        return switch(be.getBinaryOp().getBinaryType()) {
+            case BAND -> type.isInt() ? new IntBitAnd(lhs,rhs) : type.isChar() ? new CharBitAnd(lhs,rhs) : new BoolBitAnd(lhs,rhs);
+            case BOR -> type.isInt() ? new IntBitOr(lhs,rhs) : type.isChar() ? new CharBitOr(lhs,rhs) : new BoolBitOr(lhs,rhs);
+            default -> type.isInt() ? new IntBitXor(lhs,rhs) : type.isChar() ? new CharBitXor(lhs,rhs) : new BoolBitXor(lhs,rhs);
+        };
+    }
+
+    /**
+     * Builds the node for a cast expression.
+     * <p>
+     *     A cast that does not change the representation of a value will
+     *     not generate a node, and we will directly use its operand's node.
+     * </p>
+     * @param cs {@link CastExpr}
+     */
+    public void visitCastExpr(CastExpr cs) {
+        ExecNode expr = compile(cs.getCastExpr());
+
+        if(cs.getCastType().isInt())
+            result = cs.getCastExpr().type.isReal() ? new RealToInt(expr) : new CharToInt(expr);
+        else if(cs.getCastType().isReal() && cs.getCastExpr().type.isInt())
+            result = new IntToReal(expr,realMode);
+        else
+            result = expr;
+    }
+
+    /**
+     * Builds the node for a literal.
+     * <p>
+     *     The value of the literal is retrieved from the {@link ConstantPool}, so it will never be parsed again.
+     * </p>
+     * @param li {@link Literal}
+     */
+    public void visitLiteral(Literal li) { result = new Constant(constantPool.get(li)); }
+
+    /**
+     * Builds the node for a name expression.
+     * <p>
+     *     A name that was bound to a slot by the {@link cminor.micropasses.SlotResolver} will be
+     *     loaded directly from its call frame. Names found inside a complex field expression depend
+     *     on the object the {@link Interpreter} is currently evaluating, so they are not specialized.
+     * </p>
+     * @param ne {@link NameExpr}
+     */
+    public void visitNameExpr(NameExpr ne) {
+        Interpreted fallback = new Interpreted(interpreter,ne);
+
+        if(!ne.isResolved() || ne.inComplexFieldExpr())
+            result = fallback;
+        else if(ne.getDepth() == RuntimeStack.GLOBAL_DEPTH)
+            result = new GlobalLoad(ne.getSlot(),fallback);
+        else
+            result = new LocalLoad(ne.getSlot(),fallback);
+    }
+
+    /**
+     * Builds the node for a unary expression.
+     * @param ue {@link UnaryExpr}
+     */
+    public void visitUnaryExpr(UnaryExpr ue) {
+        ExecNode expr = compile(ue.getExpr());
+
+        switch(ue.getUnaryOp().getUnaryType()) {
+            case BNOT -> result = new IntComplement(expr);
+            case NOT -> result = new Not(expr);
+        }
+    }
+}
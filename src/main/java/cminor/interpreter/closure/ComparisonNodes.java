@@ -0,0 +1,237 @@
+package cminor.interpreter.closure;
+
+import cminor.interpreter.value.BoolValue;
+import cminor.interpreter.value.Value;
+import cminor.utilities.RuntimeStack;
+
+/**
+ * Every comparison {@link ExecNode} generated by the {@link ClosureCompiler}.
+ * @author Daniel Levy
+ */
+public final class ComparisonNodes {
+
+    /**
+     * {@link ComparisonNodes} only groups node classes, so it should never be instantiated.
+     */
+    private ComparisonNodes() {}
+
+    /**
+     * Checks if a {@code Int} value is less than another {@code Int} value.
+     */
+    public static final class IntLess extends BinaryNode {
+
+        /**
+         * Creates an {@link IntLess} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntLess(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asInt() < RHS.asInt());
+        }
+    }
+
+    /**
+     * Checks if a {@code Int} value is less than or equal to another {@code Int} value.
+     */
+    public static final class IntLessEq extends BinaryNode {
+
+        /**
+         * Creates an {@link IntLessEq} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntLessEq(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asInt() <= RHS.asInt());
+        }
+    }
+
+    /**
+     * Checks if a {@code Int} value is greater than another {@code Int} value.
+     */
+    public static final class IntGreater extends BinaryNode {
+
+        /**
+         * Creates an {@link IntGreater} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntGreater(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asInt() > RHS.asInt());
+        }
+    }
+
+    /**
+     * Checks if a {@code Int} value is greater than or equal to another {@code Int} value.
+     */
+    public static final class IntGreaterEq extends BinaryNode {
+
+        /**
+         * Creates an {@link IntGreaterEq} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public IntGreaterEq(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asInt() >= RHS.asInt());
+        }
+    }
+
+    /**
+     * Checks if a {@code Real} value is less than another {@code Real} value.
+     */
+    public static final class RealLess extends BinaryNode {
+
+        /**
+         * Creates a {@link RealLess} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealLess(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) < 0);
+        }
+    }
+
+    /**
+     * Checks if a {@code Real} value is less than or equal to another {@code Real} value.
+     */
+    public static final class RealLessEq extends BinaryNode {
+
+        /**
+         * Creates a {@link RealLessEq} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealLessEq(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) <= 0);
+        }
+    }
+
+    /**
+     * Checks if a {@code Real} value is greater than another {@code Real} value.
+     */
+    public static final class RealGreater extends BinaryNode {
+
+        /**
+         * Creates a {@link RealGreater} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealGreater(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) > 0);
+        }
+    }
+
+    /**
+     * Checks if a {@code Real} value is greater than or equal to another {@code Real} value.
+     */
+    public static final class RealGreaterEq extends BinaryNode {
+
+        /**
+         * Creates a {@link RealGreaterEq} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public RealGreaterEq(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asReal().compareTo(RHS.asReal()) >= 0);
+        }
+    }
+
+    /**
+     * Checks if two values are equal.
+     */
+    public static final class Equal extends BinaryNode {
+
+        /**
+         * Creates an {@link Equal} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public Equal(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.equals(RHS));
+        }
+    }
+
+    /**
+     * Checks if two values are not equal.
+     */
+    public static final class NotEqual extends BinaryNode {
+
+        /**
+         * Creates a {@link NotEqual} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public NotEqual(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(!LHS.equals(RHS));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package cminor.interpreter.closure;
+
+import cminor.interpreter.value.Value;
+import cminor.utilities.RuntimeStack;
+
+/**
+ * An executable node of a closure tree.
+ * <p>
+ *     The {@link ClosureCompiler} turns a checked expression into a tree of these nodes
+ *     before the expression is evaluated for the first time. Each subclass is specialized
+ *     for one operation on one type (i.e. {@code Int} addition), so all the decisions the
+ *     {@link cminor.interpreter.Interpreter} would normally make during evaluation were
+ *     already made when the tree was built.
+ * </p>
+ * @author Daniel Levy
+ */
+public abstract class ExecNode {
+
+    /**
+     * Evaluates the node.
+     * @param stack {@link RuntimeStack} representing the current call frame
+     * @return {@link Value} the node evaluates to
+     */
+    public abstract Value execute(RuntimeStack stack);
+}
@@ -0,0 +1,146 @@
+package cminor.interpreter.closure;
+
+import cminor.interpreter.value.BoolValue;
+import cminor.interpreter.value.Value;
+import cminor.utilities.RuntimeStack;
+
+/**
+ * Every logical {@link ExecNode} generated by the {@link ClosureCompiler}.
+ * @author Daniel Levy
+ */
+public final class LogicalNodes {
+
+    /**
+     * {@link LogicalNodes} only groups node classes, so it should never be instantiated.
+     */
+    private LogicalNodes() {}
+
+    /**
+     * Evaluates a logical and. Both operands are always evaluated, just like in the {@link cminor.interpreter.Interpreter}.
+     */
+    public static final class And extends BinaryNode {
+
+        /**
+         * Creates an {@link And} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public And(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asBool() && RHS.asBool());
+        }
+    }
+
+    /**
+     * Evaluates a logical or. Both operands are always evaluated, just like in the {@link cminor.interpreter.Interpreter}.
+     */
+    public static final class Or extends BinaryNode {
+
+        /**
+         * Creates an {@link Or} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public Or(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asBool() || RHS.asBool());
+        }
+    }
+
+    /**
+     * Performs a bitwise and on two {@code Bool} values.
+     */
+    public static final class BoolBitAnd extends BinaryNode {
+
+        /**
+         * Creates a {@link BoolBitAnd} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public BoolBitAnd(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asBool() & RHS.asBool());
+        }
+    }
+
+    /**
+     * Performs a bitwise or on two {@code Bool} values.
+     */
+    public static final class BoolBitOr extends BinaryNode {
+
+        /**
+         * Creates a {@link BoolBitOr} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public BoolBitOr(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asBool() | RHS.asBool());
+        }
+    }
+
+    /**
+     * Performs a bitwise xor on two {@code Bool} values.
+     */
+    public static final class BoolBitXor extends BinaryNode {
+
+        /**
+         * Creates a {@link BoolBitXor} node.
+         * @param lhs {@link ExecNode} representing the left operand
+         * @param rhs {@link ExecNode} representing the right operand
+         */
+        public BoolBitXor(ExecNode lhs, ExecNode rhs) { super(lhs,rhs); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value LHS = lhs.execute(stack);
+            Value RHS = rhs.execute(stack);
+            return BoolValue.of(LHS.asBool() ^ RHS.asBool());
+        }
+    }
+
+    /**
+     * Negates a {@code Bool} value.
+     */
+    public static final class Not extends UnaryNode {
+
+        /**
+         * Creates a {@link Not} node.
+         * @param expr {@link ExecNode} representing the operand
+         */
+        public Not(ExecNode expr) { super(expr); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            return BoolValue.of(!expr.execute(stack).asBool());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package cminor.interpreter.closure;
+
+/**
+ * An {@link ExecNode} that evaluates an operation on a single operand.
+ * @author Daniel Levy
+ */
+public abstract class UnaryNode extends ExecNode {
+
+    /**
+     * {@link ExecNode} representing the operand.
+     */
+    protected final ExecNode expr;
+
+    /**
+     * Default constructor for {@link UnaryNode}.
+     * @param expr {@link ExecNode} representing the operand
+     */
+    protected UnaryNode(ExecNode expr) { this.expr = expr; }
+}
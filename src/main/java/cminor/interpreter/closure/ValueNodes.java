@@ -0,0 +1,250 @@
+package cminor.interpreter.closure;
+
+import cminor.ast.expressions.BinaryExpr;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.NameExpr;
+import cminor.interpreter.Interpreter;
+import cminor.interpreter.value.IntValue;
+import cminor.interpreter.value.RealMode;
+import cminor.interpreter.value.Value;
+import cminor.utilities.RuntimeStack;
+
+/**
+ * Every {@link ExecNode} generated by the {@link ClosureCompiler} that produces
+ * a value without performing an operator.
+ * <p>
+ *     This includes constants, variable loads, casts, and the nodes that hand an
+ *     expression back to the {@link Interpreter} when it can not be specialized.
+ * </p>
+ * @author Daniel Levy
+ */
+public final class ValueNodes {
+
+    /**
+     * {@link ValueNodes} only groups node classes, so it should never be instantiated.
+     */
+    private ValueNodes() {}
+
+    /**
+     * Returns a value that was created from a literal when the tree was built.
+     */
+    public static final class Constant extends ExecNode {
+
+        /**
+         * {@link Value} of the literal.
+         */
+        private final Value value;
+
+        /**
+         * Creates a {@link Constant} node.
+         * @param value {@link Value} of the literal
+         */
+        public Constant(Value value) { this.value = value; }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) { return value; }
+    }
+
+    /**
+     * Loads the value stored in a slot of the current call frame.
+     */
+    public static final class LocalLoad extends ExecNode {
+
+        /**
+         * Position of the variable inside the call frame.
+         */
+        private final int slot;
+
+        /**
+         * {@link Interpreted} node used when the slot was never initialized.
+         */
+        private final Interpreted uninitialized;
+
+        /**
+         * Creates a {@link LocalLoad} node.
+         * @param slot Position of the variable inside the call frame
+         * @param uninitialized {@link Interpreted} node for the {@link NameExpr}
+         */
+        public LocalLoad(int slot, Interpreted uninitialized) {
+            this.slot = slot;
+            this.uninitialized = uninitialized;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value value = stack.getValue(RuntimeStack.LOCAL_DEPTH,slot);
+            // An uninitialized variable is reported by the interpreter.
+            return value != null ? value : uninitialized.execute(stack);
+        }
+    }
+
+    /**
+     * Loads the value stored in a slot of the global frame.
+     */
+    public static final class GlobalLoad extends ExecNode {
+
+        /**
+         * Position of the variable inside the global frame.
+         */
+        private final int slot;
+
+        /**
+         * {@link Interpreted} node used when the slot was never initialized.
+         */
+        private final Interpreted uninitialized;
+
+        /**
+         * Creates a {@link GlobalLoad} node.
+         * @param slot Position of the variable inside the global frame
+         * @param uninitialized {@link Interpreted} node for the {@link NameExpr}
+         */
+        public GlobalLoad(int slot, Interpreted uninitialized) {
+            this.slot = slot;
+            this.uninitialized = uninitialized;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) {
+            Value value = stack.getValue(RuntimeStack.GLOBAL_DEPTH,slot);
+            // An uninitialized variable is reported by the interpreter.
+            return value != null ? value : uninitialized.execute(stack);
+        }
+    }
+
+    /**
+     * Casts a {@code Real} value into an {@code Int} value.
+     */
+    public static final class RealToInt extends UnaryNode {
+
+        /**
+         * Creates a {@link RealToInt} node.
+         * @param expr {@link ExecNode} representing the operand
+         */
+        public RealToInt(ExecNode expr) { super(expr); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) { return IntValue.of(expr.execute(stack).asReal().intValue()); }
+    }
+
+    /**
+     * Casts a {@code Char} value into an {@code Int} value.
+     */
+    public static final class CharToInt extends UnaryNode {
+
+        /**
+         * Creates a {@link CharToInt} node.
+         * @param expr {@link ExecNode} representing the operand
+         */
+        public CharToInt(ExecNode expr) { super(expr); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) { return IntValue.of(expr.execute(stack).asChar()); }
+    }
+
+    /**
+     * Casts an {@code Int} value into a {@code Real} value.
+     */
+    public static final class IntToReal extends UnaryNode {
+
+        /**
+         * {@link RealMode} used to represent the {@code Real} value.
+         */
+        private final RealMode realMode;
+
+        /**
+         * Creates an {@link IntToReal} node.
+         * @param expr {@link ExecNode} representing the operand
+         * @param realMode {@link RealMode} used to represent the {@code Real} value
+         */
+        public IntToReal(ExecNode expr, RealMode realMode) {
+            super(expr);
+            this.realMode = realMode;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) { return realMode.fromInt(expr.execute(stack).asInt()); }
+    }
+
+    /**
+     * Evaluates an expression with the {@link Interpreter}.
+     * <p>
+     *     This is used for every expression that has no specialized node, such as
+     *     invocations, field expressions, and object creations.
+     * </p>
+     */
+    public static final class Interpreted extends ExecNode {
+
+        /**
+         * {@link Interpreter} that evaluates the expression.
+         */
+        private final Interpreter interpreter;
+
+        /**
+         * {@link Expression} to evaluate.
+         */
+        private final Expression expr;
+
+        /**
+         * Creates an {@link Interpreted} node.
+         * @param interpreter {@link Interpreter} that evaluates the expression
+         * @param expr {@link Expression} to evaluate
+         */
+        public Interpreted(Interpreter interpreter, Expression expr) {
+            this.interpreter = interpreter;
+            this.expr = expr;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) { return interpreter.evaluate(expr); }
+    }
+
+    /**
+     * Evaluates a binary expression with the generic implementation of the {@link Interpreter}.
+     * <p>
+     *     This is used for any operator that depends on the runtime class of an
+     *     object (i.e. {@code instanceof}) or for any operand types that we do not
+     *     have a specialized node for.
+     * </p>
+     */
+    public static final class InterpretedBinary extends ExecNode {
+
+        /**
+         * {@link Interpreter} that evaluates the binary expression.
+         */
+        private final Interpreter interpreter;
+
+        /**
+         * {@link BinaryExpr} to evaluate.
+         */
+        private final BinaryExpr expr;
+
+        /**
+         * Creates an {@link InterpretedBinary} node.
+         * @param interpreter {@link Interpreter} that evaluates the binary expression
+         * @param expr {@link BinaryExpr} to evaluate
+         */
+        public InterpretedBinary(Interpreter interpreter, BinaryExpr expr) {
+            this.interpreter = interpreter;
+            this.expr = expr;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value execute(RuntimeStack stack) { return interpreter.evaluateBinaryExpr(expr); }
+    }
+}
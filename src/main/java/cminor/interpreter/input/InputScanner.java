@@ -0,0 +1,293 @@
+package cminor.interpreter.input;
+
+import cminor.ast.types.ScalarType;
+import cminor.ast.types.Type;
+import cminor.interpreter.value.BoolValue;
+import cminor.interpreter.value.CharValue;
+import cminor.interpreter.value.IntValue;
+import cminor.interpreter.value.RealMode;
+import cminor.interpreter.value.Value;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A buffered scanner that reads the user input of a program.
+ * <p>
+ *     Every input statement reads whitespace separated tokens from a single scanner,
+ *     so any input that was read ahead by one input statement is still available to the
+ *     next one. The scanner stores its input inside a large character buffer, and every
+ *     {@code Int}, {@code Char}, and {@code Bool} is parsed directly from that buffer
+ *     without creating a string for the token.
+ * </p>
+ * <p>
+ *     By default, the scanner reads from the standard input stream. A scanner can also be
+ *     created for a file or for an array of bytes, which allows a grader to provide the input
+ *     of a program without having to redirect the standard input stream.
+ * </p>
+ * @author Daniel Levy
+ */
+public class InputScanner {
+
+    /**
+     * The number of characters that will be read from the source at once.
+     */
+    public static final int CAPACITY = 65536;
+
+    /**
+     * The {@link Type} given to every {@code String} that was read.
+     */
+    private static final ScalarType STRING_TYPE = new ScalarType(ScalarType.Scalars.STR);
+
+    /**
+     * The {@link Reader} the input is read from. This is {@code null} until the
+     * standard input stream is read for the first time.
+     */
+    private Reader source;
+
+    /**
+     * Buffer storing the input that was read from the {@link #source}.
+     */
+    private char[] buffer;
+
+    /**
+     * Position of the next character in the {@link #buffer} that was not scanned yet.
+     */
+    private int pos;
+
+    /**
+     * Number of characters currently stored in the {@link #buffer}.
+     */
+    private int limit;
+
+    /**
+     * Position of the first character of the current token.
+     */
+    private int tokenStart;
+
+    /**
+     * Position after the last character of the current token.
+     */
+    private int tokenEnd;
+
+    /**
+     * Creates an {@link InputScanner} that reads from the standard input stream.
+     * <p>
+     *     The stream is looked up the first time the scanner reads any input, so a stream
+     *     set with {@link System#setIn(InputStream)} after the scanner was created will still be used.
+     * </p>
+     */
+    public InputScanner() { this((Reader) null); }
+
+    /**
+     * Creates an {@link InputScanner} that reads from an {@link InputStream}.
+     * @param in {@link InputStream} storing UTF-8 encoded input
+     */
+    public InputScanner(InputStream in) { this(new InputStreamReader(in,StandardCharsets.UTF_8)); }
+
+    /**
+     * Creates an {@link InputScanner} that reads from an array of bytes.
+     * @param bytes Array storing UTF-8 encoded input
+     */
+    public InputScanner(byte[] bytes) { this(new ByteArrayInputStream(bytes)); }
+
+    /**
+     * Creates an {@link InputScanner} that reads from a {@link Reader}.
+     * @param source {@link Reader}, or {@code null} to read from the standard input stream
+     */
+    private InputScanner(Reader source) {
+        this.source = source;
+        this.buffer = new char[CAPACITY];
+        this.pos = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * Creates an {@link InputScanner} that reads from a file.
+     * @param file {@link Path} of the file
+     * @return {@link InputScanner}
+     * @throws IOException Exception when the file could not be opened
+     */
+    public static InputScanner fromFile(Path file) throws IOException {
+        return new InputScanner(Files.newInputStream(file));
+    }
+
+    /**
+     * Reads the next token and converts it into a {@link Value} of the given type.
+     * @param type {@link Type} of the variable that will store the value
+     * @param realMode {@link RealMode} used to represent a {@code Real} value
+     * @return {@link Value}, or {@code null} if there is no input left to read
+     * @throws NumberFormatException If the token does not represent a value of the given type
+     */
+    public Value nextValue(Type type, RealMode realMode) {
+        if(!nextToken())
+            return null;
+
+        if(type.isInt())
+            return IntValue.of(parseInt());
+        else if(type.isReal())
+            return realMode.parse(buffer,tokenStart,tokenEnd-tokenStart);
+        else if(type.isChar()) {
+            if(tokenEnd - tokenStart != 1)
+                throw new NumberFormatException();
+            return CharValue.of(buffer[tokenStart]);
+        }
+        else if(type.isString())
+            return new Value(new String(buffer,tokenStart,tokenEnd-tokenStart),STRING_TYPE);
+        else
+            return BoolValue.of(parseBool());
+    }
+
+    /**
+     * Reads the rest of the current line.
+     * <p>
+     *     This is used by the {@link cminor.interpreter.VM} to read each line of a program,
+     *     so the program and its input statements are able to share the same input.
+     * </p>
+     * @return String representing the line without its line terminator, or {@code null} if there is no input left
+     */
+    public String nextLine() {
+        if(pos == limit && !fill())
+            return null;
+
+        StringBuilder line = new StringBuilder();
+        while(true) {
+            if(pos == limit && !fill())
+                break;
+
+            char c = buffer[pos++];
+            if(c == '\n')
+                break;
+            if(c != '\r')
+                line.append(c);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Finds the next whitespace separated token.
+     * <p>
+     *     The {@link #buffer} will be refilled whenever we reach its end. If a token
+     *     is split between two reads, the token is moved to the front of the buffer
+     *     first, and the buffer will grow if a single token is larger than the buffer.
+     * </p>
+     * @return {@code true} if a token was found, {@code false} if there is no input left
+     */
+    private boolean nextToken() {
+        while(true) {
+            if(pos == limit && !fill())
+                return false;
+            if(!Character.isWhitespace(buffer[pos]))
+                break;
+            pos++;
+        }
+
+        tokenStart = pos;
+        while(true) {
+            if(pos == limit) {
+                compact();
+                if(!fill())
+                    break;
+            }
+            if(Character.isWhitespace(buffer[pos]))
+                break;
+            pos++;
+        }
+        tokenEnd = pos;
+        return true;
+    }
+
+    /**
+     * Moves the current token to the front of the {@link #buffer}.
+     */
+    private void compact() {
+        int length = limit - tokenStart;
+        if(length == buffer.length) {
+            char[] larger = new char[buffer.length*2];
+            System.arraycopy(buffer,tokenStart,larger,0,length);
+            buffer = larger;
+        }
+        else
+            System.arraycopy(buffer,tokenStart,buffer,0,length);
+
+        tokenStart = 0;
+        pos = length;
+        limit = length;
+    }
+
+    /**
+     * Reads more input into the {@link #buffer} after its last character.
+     * @return {@code true} if any input was read, {@code false} if there is no input left
+     */
+    private boolean fill() {
+        if(source == null)
+            source = new InputStreamReader(System.in,StandardCharsets.UTF_8);
+        if(limit == buffer.length)
+            limit = pos = 0;
+
+        try {
+            int read = source.read(buffer,limit,buffer.length-limit);
+            if(read <= 0)
+                return false;
+            limit += read;
+            return true;
+        }
+        catch(IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    /**
+     * Parses the current token as an {@code Int}.
+     * @return Int
+     * @throws NumberFormatException If the token is not a valid {@code Int}
+     */
+    private int parseInt() {
+        int i = tokenStart;
+        boolean isNegative = buffer[i] == '-';
+        if(isNegative || buffer[i] == '+')
+            i++;
+        if(i == tokenEnd)
+            throw new NumberFormatException();
+
+        // The value is accumulated as a negative number, so the smallest Int can be parsed.
+        long val = 0;
+        for(; i < tokenEnd; i++) {
+            int digit = buffer[i] - '0';
+            if(digit < 0 || digit > 9)
+                throw new NumberFormatException();
+            val = val*10 - digit;
+            if(val < Integer.MIN_VALUE)
+                throw new NumberFormatException();
+        }
+
+        if(isNegative)
+            return (int) val;
+        if(val == Integer.MIN_VALUE)
+            throw new NumberFormatException();
+        return (int) -val;
+    }
+
+    /**
+     * Parses the current token as a {@code Bool}.
+     * <p>
+     *     Just like {@link Boolean#parseBoolean(String)}, any token that is not
+     *     {@code true} (ignoring case) will be treated as {@code false}.
+     * </p>
+     * @return Boolean
+     */
+    private boolean parseBool() {
+        String expected = "true";
+        if(tokenEnd - tokenStart != expected.length())
+            return false;
+
+        for(int i = 0; i < expected.length(); i++)
+            if(Character.toLowerCase(buffer[tokenStart+i]) != expected.charAt(i))
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package cminor.interpreter.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An {@link OutputSink} that writes to a byte channel.
+ * <p>
+ *     Any {@link WritableByteChannel} can be used, which allows the output of a program
+ *     to be redirected into a file or a socket. Every character is encoded as UTF-8.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ChannelOutput extends OutputSink {
+
+    /**
+     * The {@link WritableByteChannel} the output will be written to.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * Creates a {@link ChannelOutput}.
+     * @param channel {@link WritableByteChannel} the output will be written to
+     */
+    public ChannelOutput(WritableByteChannel channel) { this.channel = channel; }
+
+    /**
+     * Creates a {@link ChannelOutput} that writes to a file.
+     * <p>
+     *     The file will be created if it does not exist, and any previous contents will be replaced.
+     * </p>
+     * @param file {@link Path} of the file
+     * @return {@link ChannelOutput}
+     * @throws IOException Exception when the file could not be opened
+     */
+    public static ChannelOutput toFile(Path file) throws IOException {
+        return new ChannelOutput(FileChannel.open(file, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.WRITE));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void write(CharSequence chars) {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(chars));
+        try {
+            while(bytes.hasRemaining())
+                channel.write(bytes);
+        }
+        catch(IOException e) { throw new UncheckedIOException(e); }
+    }
+
+    /**
+     * Flushes the sink and closes its channel.
+     */
+    @Override
+    public void close() {
+        flush();
+        try { channel.close(); }
+        catch(IOException e) { throw new UncheckedIOException(e); }
+    }
+}
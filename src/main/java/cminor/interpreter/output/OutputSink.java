@@ -0,0 +1,133 @@
+package cminor.interpreter.output;
+
+import cminor.interpreter.value.BoolValue;
+import cminor.interpreter.value.CharValue;
+import cminor.interpreter.value.IntValue;
+import cminor.interpreter.value.RuntimeList;
+import cminor.interpreter.value.Value;
+
+/**
+ * A buffered destination for everything a C Minor program prints.
+ * <p>
+ *     Every output statement writes its values into a single buffer instead of calling
+ *     {@link System#out} once per expression. The buffer is only written to its destination
+ *     when it becomes full, or when the execution engine calls {@link #flush()} before reading
+ *     input, stopping the program, finishing the program, or printing a runtime error.
+ * </p>
+ * <p>
+ *     Integers, characters, booleans, and lists are appended directly into the buffer, so
+ *     printing them does not create an intermediate string. Each subclass decides where
+ *     the buffered output will be written to.
+ * </p>
+ * @author Daniel Levy
+ */
+public abstract class OutputSink {
+
+    /**
+     * The number of characters that can be buffered before the sink is flushed.
+     */
+    public static final int CAPACITY = 8192;
+
+    /**
+     * Buffer storing every character that was printed since the last flush.
+     */
+    private final StringBuilder buffer;
+
+    /**
+     * Creates an empty {@link OutputSink}.
+     */
+    protected OutputSink() { this.buffer = new StringBuilder(CAPACITY); }
+
+    /**
+     * Writes the buffered characters to the destination of the sink.
+     * @param chars Characters that were printed since the last flush
+     */
+    protected abstract void write(CharSequence chars);
+
+    /**
+     * Prints a {@link Value}.
+     * @param val {@link Value} to print
+     */
+    public void print(Value val) {
+        append(val);
+        flushIfFull();
+    }
+
+    /**
+     * Prints a string.
+     * @param str String to print
+     */
+    public void print(String str) {
+        buffer.append(str);
+        flushIfFull();
+    }
+
+    /**
+     * Prints a new line.
+     */
+    public void println() {
+        buffer.append('\n');
+        flushIfFull();
+    }
+
+    /**
+     * Writes every buffered character to the destination of the sink.
+     */
+    public void flush() {
+        if(buffer.isEmpty())
+            return;
+
+        write(buffer);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Flushes the sink and releases its destination.
+     * <p>
+     *     By default, there is nothing to release once the sink was flushed.
+     * </p>
+     */
+    public void close() { flush(); }
+
+    /**
+     * Appends a {@link Value} to the buffer.
+     * @param val {@link Value} to append
+     */
+    private void append(Value val) {
+        if(val instanceof IntValue)
+            buffer.append(val.asInt());
+        else if(val instanceof CharValue)
+            buffer.append(val.asChar());
+        else if(val instanceof BoolValue)
+            buffer.append(val.asBool());
+        else if(val != null && val.isList())
+            append(val.asList());
+        else
+            buffer.append(val);
+    }
+
+    /**
+     * Appends every element of a {@link RuntimeList} to the buffer.
+     * <p>
+     *     This produces the same output as {@link RuntimeList#buildList(RuntimeList, StringBuilder)}.
+     * </p>
+     * @param lst {@link RuntimeList} to append
+     */
+    private void append(RuntimeList lst) {
+        buffer.append('[');
+        for(int i = 1; i <= lst.size(); i++) {
+            append(lst.get(i));
+            if(i != lst.size())
+                buffer.append(", ");
+        }
+        buffer.append(']');
+    }
+
+    /**
+     * Flushes the sink once the buffer reached its {@link #CAPACITY}.
+     */
+    private void flushIfFull() {
+        if(buffer.length() >= CAPACITY)
+            flush();
+    }
+}
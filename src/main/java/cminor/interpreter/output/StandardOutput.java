@@ -0,0 +1,24 @@
+package cminor.interpreter.output;
+
+import java.io.PrintStream;
+
+/**
+ * An {@link OutputSink} that writes to the standard output stream.
+ * <p>
+ *     This is the default sink used by every execution engine. The stream is looked up each
+ *     time the sink is flushed, so any stream set with {@link System#setOut(PrintStream)} after
+ *     the sink was created will still receive the output of the program.
+ * </p>
+ * @author Daniel Levy
+ */
+public class StandardOutput extends OutputSink {
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void write(CharSequence chars) {
+        PrintStream out = System.out;
+        out.append(chars);
+        out.flush();
+    }
+}
@@ -0,0 +1,274 @@
+package cminor.interpreter.profiler;
+
+import cminor.ast.AST;
+import cminor.utilities.Vector;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * A deterministic profiler that measures how long each construct of a program takes to execute.
+ * <p>
+ *     The {@link ProfilingInterpreter} calls {@link #enter(AST, Kind)} before it executes a statement,
+ *     a loop, or the body of a function or method, and {@link #exit()} once it is done. For every
+ *     construct, we count how many times it executed, the total time spent executing it, and its
+ *     self time, which is the total time minus the time spent inside any construct it contains.
+ * </p>
+ * <p>
+ *     Once the program finishes, {@link #toString()} creates a hot-spot report that lists the
+ *     constructs with the largest self time alongside the line they were written on.
+ * </p>
+ * @author Daniel Levy
+ */
+public class Profiler {
+
+    /**
+     * The kind of construct that is being profiled.
+     */
+    public enum Kind {
+        FUNCTION,
+        METHOD,
+        LOOP,
+        STATEMENT;
+
+        /**
+         * {@code toString} method.
+         * @return Lowercase name of the kind
+         */
+        @Override
+        public String toString() { return name().toLowerCase(); }
+    }
+
+    /**
+     * The maximum number of constructs shown in the hot-spot report.
+     */
+    public static final int REPORT_LIMIT = 25;
+
+    /**
+     * The maximum number of characters of source code shown for each construct.
+     */
+    private static final int TEXT_LIMIT = 40;
+
+    /**
+     * The statistics collected for every construct that was executed.
+     */
+    private final IdentityHashMap<AST,Entry> entries;
+
+    /**
+     * Constructs that are currently executing, ordered from the outermost to the innermost.
+     */
+    private Entry[] active;
+
+    /**
+     * The time each construct in {@link #active} started executing.
+     */
+    private long[] starts;
+
+    /**
+     * The time spent inside the constructs contained by each construct in {@link #active}.
+     */
+    private long[] childTimes;
+
+    /**
+     * Number of constructs currently executing.
+     */
+    private int depth;
+
+    /**
+     * Creates an empty {@link Profiler}.
+     */
+    public Profiler() {
+        this.entries = new IdentityHashMap<>();
+        this.active = new Entry[64];
+        this.starts = new long[64];
+        this.childTimes = new long[64];
+        this.depth = 0;
+    }
+
+    /**
+     * Records that a construct started executing.
+     * @param node {@link AST} representing the construct
+     * @param kind {@link Kind} of the construct
+     */
+    public void enter(AST node, Kind kind) {
+        Entry entry = entries.get(node);
+        if(entry == null) {
+            entry = new Entry(node,kind);
+            entries.put(node,entry);
+        }
+
+        if(depth == active.length) {
+            active = Arrays.copyOf(active,depth*2);
+            starts = Arrays.copyOf(starts,depth*2);
+            childTimes = Arrays.copyOf(childTimes,depth*2);
+        }
+
+        entry.running++;
+        active[depth] = entry;
+        childTimes[depth] = 0;
+        starts[depth++] = System.nanoTime();
+    }
+
+    /**
+     * Records that the innermost construct finished executing.
+     * <p>
+     *     The total time of a recursive function is only updated once its
+     *     outermost call finishes, so the time of each recursive call is not counted twice.
+     * </p>
+     */
+    public void exit() {
+        long elapsed = System.nanoTime() - starts[--depth];
+        Entry entry = active[depth];
+        active[depth] = null;
+
+        entry.count++;
+        if(--entry.running == 0)
+            entry.totalTime += elapsed;
+        entry.selfTime += elapsed - childTimes[depth];
+        if(depth > 0)
+            childTimes[depth-1] += elapsed;
+    }
+
+    /**
+     * Finishes every construct that is still executing.
+     * <p>
+     *     This is needed when a runtime error stops the program, since none
+     *     of the constructs that were executing will call {@link #exit()}.
+     * </p>
+     */
+    public void finish() {
+        while(depth > 0)
+            exit();
+    }
+
+    /**
+     * Checks if any construct was profiled.
+     * @return Boolean
+     */
+    public boolean isEmpty() { return entries.isEmpty(); }
+
+    /**
+     * Removes every statistic that was collected.
+     */
+    public void reset() {
+        entries.clear();
+        Arrays.fill(active,null);
+        depth = 0;
+    }
+
+    /**
+     * Creates the hot-spot report.
+     * <p>
+     *     The constructs are sorted by their self time, and only the first
+     *     {@link #REPORT_LIMIT} constructs will be shown.
+     * </p>
+     * @return String containing the hot-spot report
+     */
+    @Override
+    public String toString() {
+        if(entries.isEmpty())
+            return "No constructs were profiled.\n";
+
+        Vector<Entry> sorted = new Vector<>();
+        for(Entry entry : entries.values())
+            sorted.add(entry);
+        sorted.sort((a,b) -> Long.compare(b.selfTime,a.selfTime));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%10s %10s %10s %6s  %-9s %s%n","Self(ms)","Total(ms)","Count","Line","Kind","Construct"));
+        for(int i = 0; i < sorted.size() && i < REPORT_LIMIT; i++)
+            sb.append(sorted.get(i)).append('\n');
+        if(sorted.size() > REPORT_LIMIT)
+            sb.append("... ").append(sorted.size() - REPORT_LIMIT).append(" more constructs were not shown.\n");
+        return sb.toString();
+    }
+
+    /**
+     * Finds the line a construct was written on.
+     * <p>
+     *     Any construct created by an optimization will not have a location, so
+     *     we will use the location of the closest construct that contains it.
+     * </p>
+     * @param node {@link AST}
+     * @return Line number, or 0 if the line is unknown
+     */
+    private static int lineOf(AST node) {
+        while(node != null && node.getLocation() == null)
+            node = node.getParent();
+        return node != null ? node.getLocation().start.line : 0;
+    }
+
+    /**
+     * Creates a short description of a construct based on its first line of source code.
+     * @param node {@link AST}
+     * @param kind {@link Kind} of the construct
+     * @return String describing the construct
+     */
+    private static String describe(AST node, Kind kind) {
+        if(kind == Kind.FUNCTION || kind == Kind.METHOD)
+            return node + "()";
+
+        String text = node.getText() != null ? node.getText().strip() : node.toString();
+        int newLine = text.indexOf('\n');
+        if(newLine != -1)
+            text = text.substring(0,newLine).strip();
+        if(text.length() > TEXT_LIMIT)
+            text = text.substring(0,TEXT_LIMIT-3) + "...";
+        return text;
+    }
+
+    /**
+     * The statistics collected for a single construct.
+     */
+    private static class Entry {
+
+        /**
+         * {@link AST} representing the construct.
+         */
+        private final AST node;
+
+        /**
+         * {@link Kind} of the construct.
+         */
+        private final Kind kind;
+
+        /**
+         * Number of times the construct was executed.
+         */
+        private long count;
+
+        /**
+         * Nanoseconds spent executing the construct.
+         */
+        private long totalTime;
+
+        /**
+         * Number of times the construct is currently executing. This is only larger than 1 during recursion.
+         */
+        private int running;
+
+        /**
+         * Nanoseconds spent executing the construct, excluding any construct it contains.
+         */
+        private long selfTime;
+
+        /**
+         * Creates an {@link Entry}.
+         * @param node {@link AST} representing the construct
+         * @param kind {@link Kind} of the construct
+         */
+        private Entry(AST node, Kind kind) {
+            this.node = node;
+            this.kind = kind;
+        }
+
+        /**
+         * {@code toString} method.
+         * @return String containing a single row of the hot-spot report
+         */
+        @Override
+        public String toString() {
+            return String.format("%10.3f %10.3f %10d %6d  %-9s %s",selfTime/1e6,totalTime/1e6,count,
+                                 lineOf(node),kind,describe(node,kind));
+        }
+    }
+}
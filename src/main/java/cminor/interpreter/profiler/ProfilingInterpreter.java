@@ -0,0 +1,197 @@
+package cminor.interpreter.profiler;
+
+import cminor.ast.AST;
+import cminor.ast.statements.*;
+import cminor.interpreter.Interpreter;
+import cminor.interpreter.profiler.Profiler.Kind;
+import cminor.utilities.CompilationContext;
+import cminor.utilities.SymbolTable;
+
+/**
+ * An {@link Interpreter} that reports every construct it executes to a {@link Profiler}.
+ * <p>
+ *     Every statement visit is wrapped, so the {@link Profiler} is told when a statement starts
+ *     and finishes executing. The body of a function or method is reported separately, which gives
+ *     us the time spent inside each function or method. Since the {@link Interpreter} always executes
+ *     a statement by visiting it, every nested statement will also go through this class.
+ * </p>
+ * <p>
+ *     This class is only used when profiling is enabled, so the {@link Interpreter} does not pay
+ *     any cost for profiling during a normal run.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ProfilingInterpreter extends Interpreter {
+
+    /**
+     * {@link Profiler} that stores the statistics of every construct.
+     */
+    private final Profiler profiler;
+
+    /**
+     * Creates a {@link ProfilingInterpreter}.
+     * @param globalScope The {@link SymbolTable} representing the VM's global scope.
+     * @param profiler {@link Profiler} that will store the statistics of every construct
+     * @param context The {@link CompilationContext} of the program.
+     */
+    public ProfilingInterpreter(SymbolTable globalScope, Profiler profiler, CompilationContext context) {
+        super(globalScope,context);
+        this.profiler = profiler;
+    }
+
+    /**
+     * Profiles the body of a function or method.
+     * <p>
+     *     Any other block statement is already profiled by the statement it belongs to.
+     * </p>
+     * @param bs {@link BlockStmt}
+     */
+    @Override
+    public void visitBlockStmt(BlockStmt bs) {
+        AST parent = bs.getParent();
+        Kind kind = null;
+        if(parent != null && parent.isTopLevelDecl() && parent.asTopLevelDecl().isFuncDecl())
+            kind = Kind.FUNCTION;
+        else if(parent != null && parent.isClassNode() && parent.asClassNode().isMethodDecl())
+            kind = Kind.METHOD;
+
+        if(kind == null) {
+            super.visitBlockStmt(bs);
+            return;
+        }
+
+        profiler.enter(parent,kind);
+        super.visitBlockStmt(bs);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitAssignStmt(AssignStmt as) {
+        profiler.enter(as,Kind.STATEMENT);
+        super.visitAssignStmt(as);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitChoiceStmt(ChoiceStmt cs) {
+        profiler.enter(cs,Kind.STATEMENT);
+        super.visitChoiceStmt(cs);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitDoStmt(DoStmt ds) {
+        profiler.enter(ds,Kind.LOOP);
+        super.visitDoStmt(ds);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitExprStmt(ExprStmt es) {
+        profiler.enter(es,Kind.STATEMENT);
+        super.visitExprStmt(es);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitForStmt(ForStmt fs) {
+        profiler.enter(fs,Kind.LOOP);
+        super.visitForStmt(fs);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitIfStmt(IfStmt is) {
+        profiler.enter(is,Kind.STATEMENT);
+        super.visitIfStmt(is);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitInStmt(InStmt in) {
+        profiler.enter(in,Kind.STATEMENT);
+        super.visitInStmt(in);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitListStmt(ListStmt ls) {
+        profiler.enter(ls,Kind.STATEMENT);
+        super.visitListStmt(ls);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitLocalDecl(LocalDecl ld) {
+        profiler.enter(ld,Kind.STATEMENT);
+        super.visitLocalDecl(ld);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitOutStmt(OutStmt os) {
+        profiler.enter(os,Kind.STATEMENT);
+        super.visitOutStmt(os);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitReturnStmt(ReturnStmt rs) {
+        profiler.enter(rs,Kind.STATEMENT);
+        super.visitReturnStmt(rs);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitRetypeStmt(RetypeStmt rt) {
+        profiler.enter(rt,Kind.STATEMENT);
+        super.visitRetypeStmt(rt);
+        profiler.exit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void visitWhileStmt(WhileStmt ws) {
+        profiler.enter(ws,Kind.LOOP);
+        super.visitWhileStmt(ws);
+        profiler.exit();
+    }
+}
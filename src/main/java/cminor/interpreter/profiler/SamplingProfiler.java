@@ -0,0 +1,253 @@
+package cminor.interpreter.profiler;
+
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.misc.FrameDecl;
+import cminor.ast.topleveldecls.MainDecl;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A profiler that periodically samples the C Minor call stack of a running program.
+ * <p>
+ *     Unlike the {@link Profiler}, the execution engine does not measure anything itself. It only
+ *     records which function or method it enters and leaves, and a background thread will take a
+ *     snapshot of those calls every {@link #interval} nanoseconds. This keeps the overhead small
+ *     enough for the profiler to stay enabled on every run.
+ * </p>
+ * <p>
+ *     Once the program finishes, {@link #toString()} writes every sampled call stack in the collapsed
+ *     stack format (i.e. {@code program;main;fib 42}), which can be passed directly to any standard
+ *     flame graph tool.
+ * </p>
+ * @author Daniel Levy
+ */
+public class SamplingProfiler {
+
+    /**
+     * The default number of nanoseconds between two samples.
+     */
+    public static final long DEFAULT_INTERVAL = 1_000_000L;
+
+    /**
+     * Name of the frame every call stack starts with.
+     */
+    private static final String ROOT = "program";
+
+    /**
+     * {@link VarHandle} used to publish {@link #depth} to the sampling thread.
+     * <p>
+     *     A release store is enough for the sampling thread to see every frame written before the
+     *     depth, and unlike a volatile store, it does not require a memory fence on every call.
+     * </p>
+     */
+    private static final VarHandle DEPTH;
+
+    static {
+        try { DEPTH = MethodHandles.lookup().findVarHandle(SamplingProfiler.class,"depth",int.class); }
+        catch(ReflectiveOperationException e) { throw new ExceptionInInitializerError(e); }
+    }
+
+    /**
+     * Every function or method that is currently executing, ordered from the outermost call.
+     */
+    private FrameDecl[] frames;
+
+    /**
+     * Number of calls that are currently executing.
+     */
+    private int depth;
+
+    /**
+     * Number of nanoseconds between two samples.
+     */
+    private final long interval;
+
+    /**
+     * Number of samples taken for each collapsed call stack. This is only accessed by the sampling thread
+     * while the program is executing.
+     */
+    private final TreeMap<String,Long> samples;
+
+    /**
+     * The name of each function and method that appeared in a sample.
+     */
+    private final IdentityHashMap<FrameDecl,String> names;
+
+    /**
+     * The thread taking each sample, or {@code null} if the profiler is not running.
+     */
+    private Thread sampler;
+
+    /**
+     * Flag that tells the sampling thread to stop.
+     */
+    private volatile boolean isRunning;
+
+    /**
+     * Creates a {@link SamplingProfiler} that uses the {@link #DEFAULT_INTERVAL}.
+     */
+    public SamplingProfiler() { this(DEFAULT_INTERVAL); }
+
+    /**
+     * Creates a {@link SamplingProfiler}.
+     * @param interval Number of nanoseconds between two samples
+     */
+    public SamplingProfiler(long interval) {
+        this.frames = new FrameDecl[64];
+        this.depth = 0;
+        this.interval = interval;
+        this.samples = new TreeMap<>();
+        this.names = new IdentityHashMap<>();
+    }
+
+    /**
+     * Records that a function or method started executing.
+     * <p>
+     *     This is called by the execution engine for every call, so it only writes the
+     *     callee into the current frame and then publishes the new depth.
+     * </p>
+     * @param callee {@link FrameDecl} that was called
+     */
+    public void enter(FrameDecl callee) {
+        int d = depth;
+        if(d == frames.length)
+            frames = Arrays.copyOf(frames,d*2);
+        frames[d] = callee;
+        DEPTH.setRelease(this,d+1);
+    }
+
+    /**
+     * Records that the innermost function or method finished executing.
+     */
+    public void exit() { DEPTH.setRelease(this,depth-1); }
+
+    /**
+     * Starts the sampling thread.
+     * <p>
+     *     Any call that was not finished by the previous run (i.e. due to a runtime error) will be discarded.
+     * </p>
+     */
+    public void start() {
+        if(sampler != null)
+            return;
+
+        DEPTH.setRelease(this,0);
+        isRunning = true;
+        sampler = Thread.ofPlatform().daemon().name("cminor-sampler").start(this::run);
+    }
+
+    /**
+     * Stops the sampling thread and waits for it to finish its last sample.
+     */
+    public void stop() {
+        if(sampler == null)
+            return;
+
+        isRunning = false;
+        LockSupport.unpark(sampler);
+        try { sampler.join(); }
+        catch(InterruptedException e) { Thread.currentThread().interrupt(); }
+        sampler = null;
+    }
+
+    /**
+     * Counts the total number of samples that were taken.
+     * @return Long
+     */
+    public long getSampleCount() {
+        long count = 0;
+        for(long c : samples.values())
+            count += c;
+        return count;
+    }
+
+    /**
+     * Removes every sample that was taken.
+     */
+    public void reset() { samples.clear(); }
+
+    /**
+     * Takes a sample every {@link #interval} nanoseconds until the profiler is stopped.
+     */
+    private void run() {
+        long next = System.nanoTime() + interval;
+        while(isRunning) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            long now = System.nanoTime();
+            if(now < next)
+                continue;
+
+            takeSample();
+            next = now + interval;
+        }
+    }
+
+    /**
+     * Records the current call stack of the program.
+     * <p>
+     *     The execution engine keeps running while we read its frames, so a frame
+     *     can be replaced during the sample. This only affects a single sample, which
+     *     is an acceptable trade-off for not having to synchronize every call.
+     * </p>
+     */
+    private void takeSample() {
+        int d = (int) DEPTH.getAcquire(this);
+        FrameDecl[] current = frames;
+
+        StringBuilder stack = new StringBuilder(ROOT);
+        for(int i = 0; i < d && i < current.length; i++) {
+            FrameDecl fd = current[i];
+            if(fd == null)
+                break;
+            stack.append(';').append(nameOf(fd));
+        }
+        samples.merge(stack.toString(),1L,Long::sum);
+    }
+
+    /**
+     * Finds the name of a function or method for a collapsed call stack.
+     * <p>
+     *     A method is named after its class, and any character that has a special
+     *     meaning in the collapsed stack format is replaced.
+     * </p>
+     * @param fd {@link FrameDecl}
+     * @return String representing the frame
+     */
+    private String nameOf(FrameDecl fd) {
+        String name = names.get(fd);
+        if(name != null)
+            return name;
+
+        if(fd instanceof MethodDecl && ((MethodDecl) fd).getParent() != null)
+            name = ((MethodDecl) fd).getClassDecl() + "." + fd;
+        else if(fd instanceof MainDecl)
+            name = "main";
+        else
+            name = fd.toString();
+
+        name = name.replace(' ','_').replace(';','_');
+        names.put(fd,name);
+        return name;
+    }
+
+    /**
+     * Creates the collapsed call stacks of every sample.
+     * <p>
+     *     Each line contains a call stack with every frame separated by a semicolon,
+     *     followed by the number of samples in which the call stack was found.
+     * </p>
+     * @return String containing the collapsed call stacks
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for(Map.Entry<String,Long> sample : samples.entrySet())
+            sb.append(sample.getKey()).append(' ').append(sample.getValue()).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package cminor.interpreter.value;
+
+import cminor.ast.types.DiscreteType;
+import cminor.ast.types.ScalarType;
+import cminor.ast.types.Type;
+
+/**
+ * A {@link Value} that stores a {@code Bool} as a primitive.
+ * <p>
+ *     There are only two possible boolean values, so the {@link cminor.interpreter.Interpreter}
+ *     will always use either {@link #TRUE} or {@link #FALSE} instead of creating a new value.
+ * </p>
+ * @author Daniel Levy
+ */
+public class BoolValue extends Value {
+
+    /**
+     * The {@link Type} shared by every {@link BoolValue}.
+     */
+    public static final Type BOOL_TYPE = new DiscreteType(ScalarType.Scalars.BOOL);
+
+    /**
+     * Canonical instance representing {@code true}.
+     */
+    public static final BoolValue TRUE = new BoolValue(true);
+
+    /**
+     * Canonical instance representing {@code false}.
+     */
+    public static final BoolValue FALSE = new BoolValue(false);
+
+    /**
+     * The boolean that the value is representing.
+     */
+    private final boolean val;
+
+    /**
+     * Creates a {@link BoolValue}. Only {@link #TRUE} and {@link #FALSE} should ever be created.
+     * @param val Boolean that the value is representing
+     */
+    private BoolValue(boolean val) {
+        this.val = val;
+        this.type = BOOL_TYPE;
+    }
+
+    /**
+     * Retrieves the {@link BoolValue} representing the given boolean.
+     * @param val Boolean that the value is representing
+     * @return {@link #TRUE} or {@link #FALSE}
+     */
+    public static BoolValue of(boolean val) { return val ? TRUE : FALSE; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean asBool() { return val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals(Value RHS) {
+        if(RHS.type != type && !RHS.type.equals(type))
+            return false;
+        return val == RHS.asBool();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { return String.valueOf(val); }
+}
@@ -0,0 +1,86 @@
+package cminor.interpreter.value;
+
+import cminor.ast.types.DiscreteType;
+import cminor.ast.types.ScalarType;
+import cminor.ast.types.Type;
+
+/**
+ * A {@link Value} that stores a {@code Char} as a primitive.
+ * <p>
+ *     Every ASCII character has a cached instance, so evaluating a character
+ *     expression will usually not allocate a new value.
+ * </p>
+ * @author Daniel Levy
+ */
+public class CharValue extends Value {
+
+    /**
+     * The {@link Type} shared by every {@link CharValue} created through {@link #of(char)}.
+     */
+    public static final Type CHAR_TYPE = new DiscreteType(ScalarType.Scalars.CHAR);
+
+    /**
+     * Canonical instances for every ASCII character.
+     */
+    private static final CharValue[] cache = new CharValue[128];
+
+    static {
+        for(int i = 0; i < cache.length; i++)
+            cache[i] = new CharValue((char) i, CHAR_TYPE);
+    }
+
+    /**
+     * The character that the value is representing.
+     */
+    private final char val;
+
+    /**
+     * Creates a {@link CharValue} with a specific type.
+     * <p>
+     *     This constructor should only be used when the value does not have the
+     *     {@link #CHAR_TYPE} (i.e. a constant from a {@code Char} enumeration).
+     * </p>
+     * @param val Char that the value is representing
+     * @param type {@link Type} of the value
+     */
+    public CharValue(char val, Type type) {
+        this.val = val;
+        this.type = type;
+    }
+
+    /**
+     * Retrieves a {@link CharValue} representing the given character.
+     * @param val Char that the value is representing
+     * @return A cached {@link CharValue} if the character is ASCII, otherwise a new {@link CharValue}.
+     */
+    public static CharValue of(char val) {
+        if(val < cache.length)
+            return cache[val];
+        return new CharValue(val, CHAR_TYPE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int asInt() { return val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public char asChar() { return val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals(Value RHS) {
+        if(RHS.type != type && !RHS.type.equals(type))
+            return false;
+        return val == RHS.asChar();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { return String.valueOf(val); }
+}
@@ -0,0 +1,93 @@
+package cminor.interpreter.value;
+
+import java.math.BigDecimal;
+
+/**
+ * A {@link RealValue} stored as a double.
+ * <p>
+ *     This representation is used by {@link RealMode#DOUBLE}. All arithmetic is
+ *     performed with hardware floating point, so results may be rounded.
+ * </p>
+ * @author Daniel Levy
+ */
+public class DoubleRealValue extends RealValue {
+
+    /**
+     * The number that the value is representing.
+     */
+    private final double val;
+
+    /**
+     * Creates a {@link DoubleRealValue}.
+     * @param val Double that the value is representing
+     */
+    public DoubleRealValue(double val) { this.val = val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue add(RealValue RHS) { return new DoubleRealValue(val + RHS.toDouble()); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue subtract(RealValue RHS) { return new DoubleRealValue(val - RHS.toDouble()); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue multiply(RealValue RHS) { return new DoubleRealValue(val * RHS.toDouble()); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue divide(RealValue RHS) { return new DoubleRealValue(val / RHS.toDouble()); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue remainder(RealValue RHS) { return new DoubleRealValue(val % RHS.toDouble()); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue pow(int exponent) { return new DoubleRealValue(Math.pow(val,exponent)); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int compareTo(RealValue RHS) {
+        double other = RHS.toDouble();
+        return val < other ? -1 : (val > other ? 1 : 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int intValue() { return (int) val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public BigDecimal toBigDecimal() { return BigDecimal.valueOf(val); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double toDouble() { return val; }
+
+    /**
+     * Returns the string representation of the double.
+     * <p>
+     *     We avoid scientific notation, so the output will look the same
+     *     as the output generated by {@link RealMode#EXACT} whenever possible.
+     * </p>
+     * @return String representation of the current value
+     */
+    @Override
+    public String toString() {
+        if(Double.isNaN(val) || Double.isInfinite(val))
+            return Double.toString(val);
+        return BigDecimal.valueOf(val).toPlainString();
+    }
+}
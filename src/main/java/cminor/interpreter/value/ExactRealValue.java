@@ -0,0 +1,84 @@
+package cminor.interpreter.value;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * A {@link RealValue} stored as a {@link BigDecimal}.
+ * <p>
+ *     This is the default representation used by {@link RealMode#EXACT}. Division and
+ *     exponentiation are calculated with {@link MathContext#DECIMAL128}.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ExactRealValue extends RealValue {
+
+    /**
+     * The number that the value is representing.
+     */
+    private final BigDecimal val;
+
+    /**
+     * Creates an {@link ExactRealValue}.
+     * @param val {@link BigDecimal} that the value is representing
+     */
+    public ExactRealValue(BigDecimal val) { this.val = val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue add(RealValue RHS) { return new ExactRealValue(val.add(RHS.toBigDecimal())); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue subtract(RealValue RHS) { return new ExactRealValue(val.subtract(RHS.toBigDecimal())); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue multiply(RealValue RHS) { return new ExactRealValue(val.multiply(RHS.toBigDecimal())); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue divide(RealValue RHS) {
+        return new ExactRealValue(val.divide(RHS.toBigDecimal(),MathContext.DECIMAL128));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue remainder(RealValue RHS) { return new ExactRealValue(val.remainder(RHS.toBigDecimal())); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue pow(int exponent) { return new ExactRealValue(val.pow(exponent,MathContext.DECIMAL128)); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int compareTo(RealValue RHS) { return val.compareTo(RHS.toBigDecimal()); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int intValue() { return val.intValue(); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public BigDecimal toBigDecimal() { return val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double toDouble() { return val.doubleValue(); }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { return val.toString(); }
+}
@@ -0,0 +1,207 @@
+package cminor.interpreter.value;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * A {@link RealValue} stored as a fixed-scale decimal inside a {@code long}.
+ * <p>
+ *     This representation is used by {@link RealMode#FIXED}. Every number is scaled
+ *     by {@link #FACTOR}, so we keep {@link #SCALE} digits after the decimal point.
+ *     Addition, subtraction, and comparisons are exact, while multiplication and
+ *     division truncate any digits past the scale. An {@link OverflowException}
+ *     is thrown if a result can not fit inside a {@code long}.
+ * </p>
+ * @author Daniel Levy
+ */
+public class FixedRealValue extends RealValue {
+
+    /**
+     * An exception thrown when the result of an operation can not fit inside a {@code long}.
+     * <p>
+     *     The execution engines will catch this exception and generate a runtime error
+     *     for the expression that overflowed.
+     * </p>
+     */
+    public static class OverflowException extends ArithmeticException {
+
+        /**
+         * Creates an {@link OverflowException}.
+         */
+        public OverflowException() { super("The result of a Real operation can not be stored in fixed mode."); }
+    }
+
+    /**
+     * Number of digits stored after the decimal point.
+     */
+    public static final int SCALE = 6;
+
+    /**
+     * Factor every number is multiplied by ({@code 10^SCALE}).
+     */
+    public static final long FACTOR = 1_000_000L;
+
+    /**
+     * The scaled number that the value is representing.
+     */
+    private final long val;
+
+    /**
+     * Creates a {@link FixedRealValue}.
+     * @param val Long representing a number that was already multiplied by {@link #FACTOR}
+     */
+    public FixedRealValue(long val) { this.val = val; }
+
+    /**
+     * Converts a {@link BigDecimal} into its fixed-scale representation.
+     * @param num {@link BigDecimal} we are converting
+     * @return Long representing the scaled number
+     * @throws OverflowException If the scaled number can not fit inside a {@code long}.
+     */
+    public static long scale(BigDecimal num) {
+        try { return num.movePointRight(SCALE).setScale(0,RoundingMode.DOWN).longValueExact(); }
+        catch(ArithmeticException e) { throw new OverflowException(); }
+    }
+
+    /**
+     * Retrieves the fixed-scale representation of any {@link RealValue}.
+     * @param num {@link RealValue} we are converting
+     * @return Long representing the scaled number
+     */
+    private static long scaled(RealValue num) {
+        if(num instanceof FixedRealValue)
+            return ((FixedRealValue) num).val;
+        return scale(num.toBigDecimal());
+    }
+
+    /**
+     * Multiplies two longs and divides the result, falling back to a {@link BigInteger} if the product overflows.
+     * @param a First factor
+     * @param b Second factor
+     * @param divisor Divisor
+     * @return Long representing {@code (a*b)/divisor}
+     * @throws OverflowException If the result can not fit inside a {@code long}.
+     */
+    private static long multiplyThenDivide(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a,b);
+        long low = a*b;
+        if((high == 0 && low >= 0) || (high == -1 && low < 0))
+            return low / divisor;
+
+        BigInteger result = BigInteger.valueOf(a)
+                                      .multiply(BigInteger.valueOf(b))
+                                      .divide(BigInteger.valueOf(divisor));
+        if(result.bitLength() > 63)
+            throw new OverflowException();
+        return result.longValue();
+    }
+
+    /**
+     * Adds two longs.
+     * @param a First addend
+     * @param b Second addend
+     * @return Long representing {@code a+b}
+     * @throws OverflowException If the sum can not fit inside a {@code long}.
+     */
+    private static long addExact(long a, long b) {
+        try { return Math.addExact(a,b); }
+        catch(ArithmeticException e) { throw new OverflowException(); }
+    }
+
+    /**
+     * Subtracts two longs.
+     * @param a Minuend
+     * @param b Subtrahend
+     * @return Long representing {@code a-b}
+     * @throws OverflowException If the difference can not fit inside a {@code long}.
+     */
+    private static long subtractExact(long a, long b) {
+        try { return Math.subtractExact(a,b); }
+        catch(ArithmeticException e) { throw new OverflowException(); }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue add(RealValue RHS) { return new FixedRealValue(addExact(val,scaled(RHS))); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue subtract(RealValue RHS) { return new FixedRealValue(subtractExact(val,scaled(RHS))); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue multiply(RealValue RHS) { return new FixedRealValue(multiplyThenDivide(val,scaled(RHS),FACTOR)); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue divide(RealValue RHS) { return new FixedRealValue(multiplyThenDivide(val,FACTOR,scaled(RHS))); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue remainder(RealValue RHS) { return new FixedRealValue(val % scaled(RHS)); }
+
+    /**
+     * Raises the value to an integer power.
+     * <p>
+     *     The power is computed by repeated squaring, so only {@code O(log |exponent|)}
+     *     multiplications are needed.
+     * </p>
+     * @param exponent Integer exponent
+     * @return {@link RealValue} representing the result
+     */
+    public RealValue pow(int exponent) {
+        long result = FACTOR, base = val;
+        for(long n = Math.abs((long) exponent); n > 0; n >>= 1) {
+            if((n & 1) == 1)
+                result = multiplyThenDivide(result,base,FACTOR);
+            if(n > 1)
+                base = multiplyThenDivide(base,base,FACTOR);
+        }
+
+        if(exponent < 0)
+            result = multiplyThenDivide(FACTOR,FACTOR,result);
+        return new FixedRealValue(result);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int compareTo(RealValue RHS) { return Long.compare(val,scaled(RHS)); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int intValue() { return (int) (val / FACTOR); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public BigDecimal toBigDecimal() { return BigDecimal.valueOf(val,SCALE); }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double toDouble() { return (double) val / FACTOR; }
+
+    /**
+     * Returns the string representation of the fixed-scale number.
+     * <p>
+     *     Trailing zeros are removed, but we will always print at least one digit
+     *     after the decimal point.
+     * </p>
+     * @return String representation of the current value
+     */
+    @Override
+    public String toString() {
+        BigDecimal num = toBigDecimal().stripTrailingZeros();
+        if(num.scale() < 1)
+            num = num.setScale(1);
+        return num.toPlainString();
+    }
+}
@@ -0,0 +1,98 @@
+package cminor.interpreter.value;
+
+import cminor.ast.types.DiscreteType;
+import cminor.ast.types.ScalarType;
+import cminor.ast.types.Type;
+
+/**
+ * A {@link Value} that stores an {@code Int} as a primitive.
+ * <p>
+ *     The {@link cminor.interpreter.Interpreter} creates a new value every time it
+ *     evaluates an arithmetic expression. Storing the integer as a primitive means we
+ *     no longer need to box the result, and any small integer will reuse a cached
+ *     instance instead of allocating a new value.
+ * </p>
+ * @author Daniel Levy
+ */
+public class IntValue extends Value {
+
+    /**
+     * The {@link Type} shared by every {@link IntValue} created through {@link #of(int)}.
+     */
+    public static final Type INT_TYPE = new DiscreteType(ScalarType.Scalars.INT);
+
+    /**
+     * Smallest integer that will be cached.
+     */
+    private static final int CACHE_LOW = -128;
+
+    /**
+     * Largest integer that will be cached.
+     */
+    private static final int CACHE_HIGH = 1024;
+
+    /**
+     * Canonical instances for every integer in the range {@link #CACHE_LOW} to {@link #CACHE_HIGH}.
+     */
+    private static final IntValue[] cache = new IntValue[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for(int i = 0; i < cache.length; i++)
+            cache[i] = new IntValue(i + CACHE_LOW, INT_TYPE);
+    }
+
+    /**
+     * The integer that the value is representing.
+     */
+    private final int val;
+
+    /**
+     * Creates an {@link IntValue} with a specific type.
+     * <p>
+     *     This constructor should only be used when the value does not have the
+     *     {@link #INT_TYPE} (i.e. a constant from an {@code Int} enumeration).
+     * </p>
+     * @param val Int that the value is representing
+     * @param type {@link Type} of the value
+     */
+    public IntValue(int val, Type type) {
+        this.val = val;
+        this.type = type;
+    }
+
+    /**
+     * Retrieves an {@link IntValue} representing the given integer.
+     * @param val Int that the value is representing
+     * @return A cached {@link IntValue} if the integer is small enough, otherwise a new {@link IntValue}.
+     */
+    public static IntValue of(int val) {
+        if(val >= CACHE_LOW && val <= CACHE_HIGH)
+            return cache[val - CACHE_LOW];
+        return new IntValue(val, INT_TYPE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int asInt() { return val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public char asChar() { return (char) val; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals(Value RHS) {
+        if(RHS.type != type && !RHS.type.equals(type))
+            return false;
+        return val == RHS.asInt();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { return Integer.toString(val); }
+}
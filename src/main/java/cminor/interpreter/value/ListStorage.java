@@ -0,0 +1,404 @@
+package cminor.interpreter.value;
+
+import cminor.ast.types.Type;
+import cminor.utilities.Vector;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An abstract class representing the internal storage of a {@link RuntimeList}.
+ * <p>
+ *     A {@link RuntimeList} used to store every element as a {@link Value} inside of a
+ *     {@link Vector}, which meant an {@code Array[Int]} with a million elements needed a
+ *     million objects. A {@link ListStorage} is chosen from the static type of the list,
+ *     and a one-dimensional array or list of {@code Int}, {@code Char}, {@code Bool}, or
+ *     {@code Real} (when {@link RealMode#DOUBLE} is used) will store its elements in a
+ *     primitive array instead. Every other list will store its elements as values.
+ * </p>
+ * <p>
+ *     All positions used by a {@link ListStorage} start at 0. The {@link RuntimeList} is
+ *     responsible for translating the 1-based indices used by C Minor.
+ * </p>
+ * @author Daniel Levy
+ */
+public abstract class ListStorage {
+
+    /**
+     * Initial capacity of a primitive array.
+     */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * Number of elements currently stored.
+     */
+    protected int size;
+
+    /**
+     * Creates a {@link ListStorage} based on the type of a list.
+     * @param type {@link Type} of the array or list literal
+     * @param realMode {@link RealMode} used to represent {@code Real} values
+     * @return {@link ListStorage}
+     */
+    public static ListStorage create(Type type, RealMode realMode) {
+        if(type == null || !(type.isArray() || type.isList()) || type.asArray().getDims() != 1)
+            return new ValueStorage();
+        return forElements(type.asArray().getBaseType(),realMode);
+    }
+
+    /**
+     * Creates a {@link ListStorage} that will only store elements of a scalar type.
+     * <p>
+     *     This is used directly by a flattened multidimensional array since every element
+     *     inside its block will have the base type of the array.
+     * </p>
+     * @param baseType {@link Type} of every element
+     * @param realMode {@link RealMode} used to represent {@code Real} values
+     * @return {@link ListStorage}
+     */
+    public static ListStorage forElements(Type baseType, RealMode realMode) {
+        if(baseType == null || baseType.isEnum())
+            return new ValueStorage();
+        else if(baseType.isInt())
+            return new IntStorage();
+        else if(baseType.isChar())
+            return new CharStorage();
+        else if(baseType.isBool())
+            return new BoolStorage();
+        else if(baseType.isReal() && realMode == RealMode.DOUBLE)
+            return new DoubleStorage();
+        return new ValueStorage();
+    }
+
+    /**
+     * Returns the number of elements stored.
+     * @return Int
+     */
+    public int size() { return size; }
+
+    /**
+     * Retrieves the element stored at a position.
+     * @param pos Position of the element
+     * @return {@link Value}
+     */
+    public abstract Value get(int pos);
+
+    /**
+     * Replaces the element stored at a position.
+     * @param pos Position of the element
+     * @param val {@link Value} to store
+     */
+    public abstract void set(int pos, Value val);
+
+    /**
+     * Inserts an element at a position, shifting every element after it.
+     * @param pos Position the element will be stored at
+     * @param val {@link Value} to store
+     */
+    public abstract void insert(int pos, Value val);
+
+    /**
+     * Removes the element stored at a position.
+     * @param pos Position of the element
+     */
+    public abstract void remove(int pos);
+
+    /**
+     * Checks if a value can be stored without being converted to a {@link Value}.
+     * @param val {@link Value} we want to store
+     * @return Boolean
+     */
+    public abstract boolean accepts(Value val);
+
+    /**
+     * Appends an element to the end of the storage.
+     * @param val {@link Value} to store
+     */
+    public void add(Value val) { insert(size,val); }
+
+    /**
+     * Copies every element into a {@link ValueStorage}.
+     * <p>
+     *     This is only needed if a value that can not be stored in a primitive array is
+     *     added to the list, so the list will keep working instead of losing the value.
+     * </p>
+     * @return {@link ValueStorage}
+     */
+    public ValueStorage toValueStorage() {
+        ValueStorage storage = new ValueStorage();
+        for(int i = 0; i < size; i++)
+            storage.add(get(i));
+        return storage;
+    }
+
+    /**
+     * Calculates the capacity needed to store one more element.
+     * @param capacity The current capacity of the primitive array
+     * @return Int
+     */
+    protected int grow(int capacity) { return Math.max(DEFAULT_CAPACITY, capacity + (capacity >> 1) + 1); }
+
+    /**
+     * Checks if a value is a primitive that is not an enumeration constant.
+     * @param val {@link Value}
+     * @return Boolean
+     */
+    private static boolean isPrimitive(Value val) {
+        return val != null && !val.isList() && !val.isObject() && val.getType() != null && !val.getType().isEnum();
+    }
+
+    /**
+     * A {@link ListStorage} that stores every element as a {@link Value}.
+     */
+    public static class ValueStorage extends ListStorage {
+
+        /**
+         * Elements stored by the list.
+         */
+        private final Vector<Value> elements = new Vector<>();
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value get(int pos) { return elements.get(pos); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void set(int pos, Value val) { elements.set(pos,val); }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void insert(int pos, Value val) {
+            elements.add(pos,val);
+            size++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void remove(int pos) {
+            elements.remove(pos);
+            size--;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean accepts(Value val) { return true; }
+
+        /**
+         * {@inheritDoc}
+         */
+        public ValueStorage toValueStorage() { return this; }
+    }
+
+    /**
+     * A {@link ListStorage} that stores {@code Int} elements inside an {@code int[]}.
+     */
+    public static class IntStorage extends ListStorage {
+
+        /**
+         * Elements stored by the list.
+         */
+        private int[] elements = new int[0];
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value get(int pos) {
+            Objects.checkIndex(pos,size);
+            return IntValue.of(elements[pos]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void set(int pos, Value val) {
+            Objects.checkIndex(pos,size);
+            elements[pos] = val.asInt();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void insert(int pos, Value val) {
+            if(size == elements.length)
+                elements = Arrays.copyOf(elements,grow(elements.length));
+            System.arraycopy(elements,pos,elements,pos+1,size-pos);
+            elements[pos] = val.asInt();
+            size++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void remove(int pos) {
+            Objects.checkIndex(pos,size);
+            System.arraycopy(elements,pos+1,elements,pos,size-pos-1);
+            size--;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean accepts(Value val) { return isPrimitive(val) && val.getType().isInt(); }
+    }
+
+    /**
+     * A {@link ListStorage} that stores {@code Char} elements inside a {@code char[]}.
+     */
+    public static class CharStorage extends ListStorage {
+
+        /**
+         * Elements stored by the list.
+         */
+        private char[] elements = new char[0];
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value get(int pos) {
+            Objects.checkIndex(pos,size);
+            return CharValue.of(elements[pos]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void set(int pos, Value val) {
+            Objects.checkIndex(pos,size);
+            elements[pos] = val.asChar();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void insert(int pos, Value val) {
+            if(size == elements.length)
+                elements = Arrays.copyOf(elements,grow(elements.length));
+            System.arraycopy(elements,pos,elements,pos+1,size-pos);
+            elements[pos] = val.asChar();
+            size++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void remove(int pos) {
+            Objects.checkIndex(pos,size);
+            System.arraycopy(elements,pos+1,elements,pos,size-pos-1);
+            size--;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean accepts(Value val) { return isPrimitive(val) && val.getType().isChar(); }
+    }
+
+    /**
+     * A {@link ListStorage} that stores {@code Bool} elements inside a {@code boolean[]}.
+     */
+    public static class BoolStorage extends ListStorage {
+
+        /**
+         * Elements stored by the list.
+         */
+        private boolean[] elements = new boolean[0];
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value get(int pos) {
+            Objects.checkIndex(pos,size);
+            return BoolValue.of(elements[pos]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void set(int pos, Value val) {
+            Objects.checkIndex(pos,size);
+            elements[pos] = val.asBool();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void insert(int pos, Value val) {
+            if(size == elements.length)
+                elements = Arrays.copyOf(elements,grow(elements.length));
+            System.arraycopy(elements,pos,elements,pos+1,size-pos);
+            elements[pos] = val.asBool();
+            size++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void remove(int pos) {
+            Objects.checkIndex(pos,size);
+            System.arraycopy(elements,pos+1,elements,pos,size-pos-1);
+            size--;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean accepts(Value val) { return isPrimitive(val) && val.getType().isBool(); }
+    }
+
+    /**
+     * A {@link ListStorage} that stores {@code Real} elements inside a {@code double[]}.
+     * This is only used when every {@code Real} is represented by a {@link DoubleRealValue}.
+     */
+    public static class DoubleStorage extends ListStorage {
+
+        /**
+         * Elements stored by the list.
+         */
+        private double[] elements = new double[0];
+
+        /**
+         * {@inheritDoc}
+         */
+        public Value get(int pos) {
+            Objects.checkIndex(pos,size);
+            return new DoubleRealValue(elements[pos]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void set(int pos, Value val) {
+            Objects.checkIndex(pos,size);
+            elements[pos] = val.asReal().toDouble();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void insert(int pos, Value val) {
+            if(size == elements.length)
+                elements = Arrays.copyOf(elements,grow(elements.length));
+            System.arraycopy(elements,pos,elements,pos+1,size-pos);
+            elements[pos] = val.asReal().toDouble();
+            size++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void remove(int pos) {
+            Objects.checkIndex(pos,size);
+            System.arraycopy(elements,pos+1,elements,pos,size-pos-1);
+            size--;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean accepts(Value val) { return val instanceof DoubleRealValue; }
+    }
+}
@@ -0,0 +1,87 @@
+package cminor.interpreter.value;
+
+import java.math.BigDecimal;
+
+/**
+ * An enum that keeps track of the numeric representation used for {@code Real} values.
+ * <p>
+ *     By default, every {@code Real} is stored as a {@link BigDecimal} in order to give
+ *     exact results. This is very slow for programs that perform a lot of floating point
+ *     arithmetic, so a user is able to select a different representation either with the
+ *     {@code --real-mode} compiler flag or the {@code #real-mode} command in the {@link cminor.interpreter.VM}.
+ *     <ol>
+ *         <li>{@link #EXACT}: Arbitrary precision decimals (see {@link ExactRealValue}).</li>
+ *         <li>{@link #DOUBLE}: IEEE 754 double precision floats (see {@link DoubleRealValue}).</li>
+ *         <li>{@link #FIXED}: Fixed-scale decimals stored in a {@code long} (see {@link FixedRealValue}).</li>
+ *     </ol>
+ * </p>
+ * @author Daniel Levy
+ */
+public enum RealMode {
+
+    EXACT {
+        public RealValue parse(String text) { return new ExactRealValue(new BigDecimal(text)); }
+        public RealValue parse(char[] chars, int offset, int length) { return new ExactRealValue(new BigDecimal(chars,offset,length)); }
+        public RealValue fromInt(int val) { return new ExactRealValue(new BigDecimal(val)); }
+    },
+    DOUBLE {
+        public RealValue parse(String text) { return new DoubleRealValue(Double.parseDouble(text)); }
+        public RealValue parse(char[] chars, int offset, int length) { return parse(new String(chars,offset,length)); }
+        public RealValue fromInt(int val) { return new DoubleRealValue(val); }
+    },
+    FIXED {
+        public RealValue parse(String text) { return new FixedRealValue(FixedRealValue.scale(new BigDecimal(text))); }
+        public RealValue parse(char[] chars, int offset, int length) {
+            return new FixedRealValue(FixedRealValue.scale(new BigDecimal(chars,offset,length)));
+        }
+        public RealValue fromInt(int val) { return new FixedRealValue(Math.multiplyExact((long) val,FixedRealValue.FACTOR)); }
+    };
+
+    /**
+     * Creates a {@link RealValue} from the string representation of a number.
+     * @param text String representing a real number (i.e. a literal or user input).
+     * @return {@link RealValue}
+     * @throws NumberFormatException If the string does not represent a real number.
+     */
+    public abstract RealValue parse(String text);
+
+    /**
+     * Creates a {@link RealValue} from a number stored inside a character array.
+     * <p>
+     *     This is used by the {@link cminor.interpreter.input.InputScanner}, so user input can be
+     *     parsed without first copying it into a string. Only the {@code double} mode needs a string.
+     * </p>
+     * @param chars Array storing the number
+     * @param offset Position of the first character of the number
+     * @param length Number of characters in the number
+     * @return {@link RealValue}
+     * @throws NumberFormatException If the characters do not represent a real number.
+     */
+    public abstract RealValue parse(char[] chars, int offset, int length);
+
+    /**
+     * Creates a {@link RealValue} from an integer. This is used when an {@code Int} is cast to a {@code Real}.
+     * @param val Int we are converting.
+     * @return {@link RealValue}
+     */
+    public abstract RealValue fromInt(int val);
+
+    /**
+     * Finds the {@link RealMode} associated with a name.
+     * @param name The name of the mode (i.e. {@code exact}, {@code double}, or {@code fixed}).
+     * @return {@link RealMode}, or {@code null} if the name does not correspond to any mode.
+     */
+    public static RealMode fromName(String name) {
+        for(RealMode mode : values()) {
+            if(mode.toString().equals(name))
+                return mode;
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { return name().toLowerCase(); }
+}
@@ -0,0 +1,110 @@
+package cminor.interpreter.value;
+
+import cminor.ast.types.ScalarType;
+import cminor.ast.types.Type;
+import java.math.BigDecimal;
+
+/**
+ * A {@link Value} that stores a {@code Real}.
+ * <p>
+ *     The representation of a real number depends on the {@link RealMode} that was
+ *     selected for the current run. Each subclass implements the arithmetic for its
+ *     own representation, and the {@link cminor.interpreter.Interpreter} only works
+ *     with this class. If two values with different representations are combined,
+ *     the result will use the representation of the left operand.
+ * </p>
+ * @author Daniel Levy
+ */
+public abstract class RealValue extends Value {
+
+    /**
+     * The {@link Type} shared by every {@link RealValue}.
+     */
+    public static final Type REAL_TYPE = new ScalarType(ScalarType.Scalars.REAL);
+
+    /**
+     * Default constructor for {@link RealValue}.
+     */
+    protected RealValue() { this.type = REAL_TYPE; }
+
+    /**
+     * Adds two real values.
+     * @param RHS {@link RealValue} representing the right operand.
+     * @return {@link RealValue} representing the sum.
+     */
+    public abstract RealValue add(RealValue RHS);
+
+    /**
+     * Subtracts two real values.
+     * @param RHS {@link RealValue} representing the right operand.
+     * @return {@link RealValue} representing the difference.
+     */
+    public abstract RealValue subtract(RealValue RHS);
+
+    /**
+     * Multiplies two real values.
+     * @param RHS {@link RealValue} representing the right operand.
+     * @return {@link RealValue} representing the product.
+     */
+    public abstract RealValue multiply(RealValue RHS);
+
+    /**
+     * Divides two real values.
+     * @param RHS {@link RealValue} representing the right operand.
+     * @return {@link RealValue} representing the quotient.
+     */
+    public abstract RealValue divide(RealValue RHS);
+
+    /**
+     * Calculates the remainder of dividing two real values.
+     * @param RHS {@link RealValue} representing the right operand.
+     * @return {@link RealValue} representing the remainder.
+     */
+    public abstract RealValue remainder(RealValue RHS);
+
+    /**
+     * Raises the real value to an integer power.
+     * @param exponent Int representing the exponent.
+     * @return {@link RealValue} representing the result.
+     */
+    public abstract RealValue pow(int exponent);
+
+    /**
+     * Compares two real values.
+     * @param RHS {@link RealValue} we are comparing against.
+     * @return A negative number, zero, or a positive number if the value is less than, equal to, or greater than {@code RHS}.
+     */
+    public abstract int compareTo(RealValue RHS);
+
+    /**
+     * Truncates the real value into an integer.
+     * @return Int
+     */
+    public abstract int intValue();
+
+    /**
+     * Converts the real value into a {@link BigDecimal}.
+     * @return {@link BigDecimal}
+     */
+    public abstract BigDecimal toBigDecimal();
+
+    /**
+     * Converts the real value into a double.
+     * @return Double
+     */
+    public abstract double toDouble();
+
+    /**
+     * {@inheritDoc}
+     */
+    public RealValue asReal() { return this; }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals(Value RHS) {
+        if(RHS.type != type && !RHS.type.equals(type))
+            return false;
+        return compareTo(RHS.asReal()) == 0;
+    }
+}
@@ -1,15 +1,27 @@
 package cminor.interpreter.value;
 
+import cminor.ast.expressions.ArrayLiteral;
+import cminor.ast.expressions.Expression;
 import cminor.ast.expressions.Literal;
 import cminor.interpreter.Interpreter;
-import cminor.utilities.Vector;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * A type representing a list that the {@link Interpreter} can interact with.
  * <p><br>
  *     Since C Minor natively supports continuous memory structures, this class helps
- *     with internally keeping track of an array or list for the interpreter. We will
- *     mimic the behavior of these structures with a row-based {@link Vector}.
+ *     with internally keeping track of an array or list for the interpreter. The elements
+ *     are kept inside a {@link ListStorage} chosen from the static type of the list, so an
+ *     array of primitives will be backed by a primitive array. Indices given to a
+ *     {@link RuntimeList} start at 1 and are translated before the storage is accessed.
+ * </p>
+ * <p>
+ *     A rectangular multidimensional array is flattened into a single row-major block (see
+ *     {@link #flatten(RealMode)}). Each dimension will then have a cached size and stride,
+ *     and accessing a row of the array will create a view that shares the same block. Rows
+ *     are always shared by reference, so assigning a row will turn the array back into nested
+ *     lists (see {@link #replaceRow(int,Value)}).
  * </p>
  * @author Daniel Levy
  */
@@ -18,7 +30,7 @@ public class RuntimeList extends Value {
     /**
      * Array or list we are internally storing.
      */
-    private final Vector<Value> arr;
+    private ListStorage arr;
 
     /**
      * An {@link ast.expressions.ArrayLiteral} or {@link ast.expressions.ListLiteral} storing the list's metadata.
@@ -31,23 +43,236 @@ public class RuntimeList extends Value {
     private int offset;
 
     /**
-     * Creates a default {@link RuntimeList}.
+     * Size of each dimension of a flattened array. This is {@code null} if the list was not flattened.
+     */
+    private int[] dims;
+
+    /**
+     * Number of elements we skip in {@link #arr} when the index of each dimension increases by 1.
+     */
+    private int[] strides;
+
+    /**
+     * The literal representing each dimension of a flattened array.
+     */
+    private Literal[] levels;
+
+    /**
+     * The first dimension of the flattened array that is represented by the current list.
+     */
+    private int level;
+
+    /**
+     * Position of the first element of the current list inside of {@link #arr}.
+     */
+    private int base;
+
+    /**
+     * The flattened list (at dimension 0) that the current view was created from.
+     */
+    private RuntimeList root;
+
+    /**
+     * Creates a {@link RuntimeList} whose storage is chosen from the type of the literal.
      * @param metaData {@link ast.expressions.ArrayLiteral} or {@link ast.expressions.ListLiteral}
+     * @param realMode {@link RealMode} used to represent {@code Real} elements
      */
-    public RuntimeList(Literal metaData) {
+    public RuntimeList(Literal metaData, RealMode realMode) {
         super();
-        // Start list with one element to make index calculations easier to do.
-        this.arr = new Vector<>(new Value());
+        this.arr = ListStorage.create(metaData.type,realMode);
         this.metaData = metaData;
         this.offset = -1;
         this.type = metaData.type;
     }
 
+    /**
+     * Creates a view of a row inside a flattened array.
+     * @param flat The flattened {@link RuntimeList} the row belongs to
+     * @param level The dimension the row starts at
+     * @param base Position of the row's first element inside the flattened block
+     */
+    private RuntimeList(RuntimeList flat, int level, int base) {
+        super();
+        this.arr = flat.arr;
+        this.dims = flat.dims;
+        this.strides = flat.strides;
+        this.levels = flat.levels;
+        this.level = level;
+        this.base = base;
+        this.root = flat.root;
+        this.metaData = levels[level];
+        this.offset = -1;
+        this.type = metaData.type;
+    }
+
     /**
      * Returns the size of the current {@link #arr}.
      * @return Int
      */
-    public int size() { return arr.size()-1; }
+    public int size() { return dims != null ? dims[level] : arr.size(); }
+
+    /**
+     * Flattens a multidimensional array into a single row-major block.
+     * <p>
+     *     An array is only flattened if each of its rows was created by its own array literal,
+     *     so no other variable can refer to a row we are copying. Every row also needs to have
+     *     the same shape, and this shape has to match any dimensions written in the array literal.
+     *     Otherwise, the array will keep storing each row as a separate {@link RuntimeList}.
+     * </p>
+     * @param realMode {@link RealMode} used to represent {@code Real} elements
+     */
+    public void flatten(RealMode realMode) {
+        if(!isArray() || dims != null || size() == 0 || !metaData.isArrayLiteral())
+            return;
+
+        ArrayLiteral al = metaData.asArrayLiteral();
+        for(Expression init : al.getArrayInits()) {
+            if(!init.isArrayLiteral())
+                return;
+        }
+
+        if(!get(1).isList())
+            return;
+
+        RuntimeList first = get(1).asList();
+        int[] rowShape = first.getShape();
+        if(rowShape == null)
+            return;
+
+        for(int i = 2; i <= size(); i++) {
+            if(!get(i).isList() || !Arrays.equals(rowShape,get(i).asList().getShape()))
+                return;
+        }
+
+        int[] shape = new int[rowShape.length+1];
+        shape[0] = size();
+        System.arraycopy(rowShape,0,shape,1,rowShape.length);
+
+        if(!al.getArrayDims().isEmpty()) {
+            if(al.getArrayDims().size() != shape.length)
+                return;
+            for(int i = 0; i < shape.length; i++) {
+                Expression dim = al.getArrayDims().get(i);
+                if(!dim.isLiteral() || dim.asLiteral().asInt() != shape[i])
+                    return;
+            }
+        }
+
+        Literal[] levels = new Literal[shape.length];
+        levels[0] = metaData;
+        for(int i = 1; i < shape.length; i++)
+            levels[i] = first.dims != null ? first.levels[first.level+i-1] : first.metaData;
+
+        int[] strides = new int[shape.length];
+        strides[shape.length-1] = 1;
+        for(int i = shape.length-2; i >= 0; i--)
+            strides[i] = strides[i+1] * shape[i+1];
+
+        ListStorage block = ListStorage.forElements(type.asArray().getBaseType(),realMode);
+        for(int i = 1; i <= size(); i++) {
+            RuntimeList row = get(i).asList();
+            for(int pos = 0; pos < strides[0]; pos++) {
+                Value val = row.getElement(pos);
+                if(!block.accepts(val))
+                    block = block.toValueStorage();
+                block.add(val);
+            }
+        }
+
+        this.arr = block;
+        this.dims = shape;
+        this.strides = strides;
+        this.levels = levels;
+        this.level = 0;
+        this.base = 0;
+        this.root = this;
+    }
+
+    /**
+     * Turns a flattened list back into a list of rows.
+     * <p>
+     *     Each row becomes a view of the old block, so it still shares its elements
+     *     with every view of the row that was created before.
+     * </p>
+     */
+    private void expand() {
+        if(dims == null)
+            return;
+
+        ListStorage rows = new ListStorage.ValueStorage();
+        for(int i = 1; i <= size(); i++)
+            rows.add(get(i));
+
+        this.arr = rows;
+        this.dims = null;
+        this.strides = null;
+        this.levels = null;
+        this.level = 0;
+        this.base = 0;
+    }
+
+    /**
+     * Finds the size of each dimension of a rectangular array.
+     * @return An array storing the size of each dimension, or {@code null} if the list can not be flattened.
+     */
+    private int[] getShape() {
+        if(dims != null)
+            return Arrays.copyOfRange(dims,level,dims.length);
+        if(!isArray() || (size() > 0 && get(1).isList()))
+            return null;
+        return new int[]{size()};
+    }
+
+    /**
+     * Checks if the current list is stored inside a flattened block.
+     * @return Boolean
+     */
+    public boolean isFlat() { return dims != null; }
+
+    /**
+     * Returns the number of dimensions represented by a flattened list.
+     * @return Int
+     */
+    public int getRank() { return dims.length - level; }
+
+    /**
+     * Returns the size of a dimension of a flattened list.
+     * @param dim Dimension relative to the current list (starting at 0)
+     * @return Int
+     */
+    public int getDimension(int dim) { return dims[level+dim]; }
+
+    /**
+     * Returns the stride of a dimension of a flattened list.
+     * @param dim Dimension relative to the current list (starting at 0)
+     * @return Int
+     */
+    public int getStride(int dim) { return strides[level+dim]; }
+
+    /**
+     * Retrieves a scalar element using its row-major position.
+     * @param pos Position of the element relative to the start of the current list (starting at 0)
+     * @return {@link Value}
+     */
+    public Value getElement(int pos) { return arr.get(base+pos); }
+
+    /**
+     * Creates a view of a subarray inside a flattened list.
+     * @param depth Number of dimensions that were indexed
+     * @param pos Position of the subarray's first element relative to the start of the current list
+     * @return {@link RuntimeList}
+     */
+    public RuntimeList getSubArray(int depth, int pos) { return new RuntimeList(this,level+depth,base+pos); }
+
+    /**
+     * Converts {@link #arr} into a {@link ListStorage.ValueStorage} if a value can not be
+     * stored inside of its primitive array.
+     * @param val {@link Value} we want to store
+     */
+    private void prepareStorage(Value val) {
+        if(!arr.accepts(val))
+            arr = arr.toValueStorage();
+    }
 
     /**
      * Appends or merges a value to the list.
@@ -57,12 +282,12 @@ public class RuntimeList extends Value {
         if(val.isList()) {
             if(this.getType().asList().dims == val.asList().getType().asList().dims)
                 for(int i = 1; i <= val.asList().size(); i++)
-                    arr.add(val.asList().get(i));
+                    addElement(val.asList().get(i));
             else
-                arr.add(val);
+                addElement(val);
         }
         else
-            arr.add(val);
+            addElement(val);
     }
 
     /**
@@ -76,33 +301,91 @@ public class RuntimeList extends Value {
      * @param val {@link Value}
      */
     public void addElement(Value val) {
+        if(dims != null) {
+            setFlatElement(val);
+            return;
+        }
+
+        prepareStorage(val);
         if(offset != -1) {
-            arr.set(offset,val);
+            arr.set(offset-1,val);
             offset = -1;
         }
         else
             arr.add(val);
     }
 
+    /**
+     * Updates a flattened list.
+     * <p>
+     *     The {@link #offset} of a flattened list refers to the row-major position of a scalar
+     *     element. If we are storing an array instead, then the offset refers to the row that
+     *     is being replaced.
+     * </p>
+     * @param val {@link Value}
+     */
+    private void setFlatElement(Value val) {
+        int pos = offset;
+        offset = -1;
+
+        if(val.isList())
+            replaceRow(pos,val);
+        else
+            arr.set(base+pos-1,val);
+    }
+
+    /**
+     * Replaces a row of a flattened array.
+     * <p>
+     *     The new row may have a different size, and it is shared with any variable that stores it,
+     *     just like a row we read from the array. Since the new row can not be stored inside the block,
+     *     every list from the {@link #root} down to the current dimension is turned back into a list of
+     *     rows (see {@link #expand()}), and the new row is stored inside the last of these lists.
+     * </p>
+     * @param index Position of the row we are replacing (starting at 1)
+     * @param row {@link Value} representing the new row
+     */
+    private void replaceRow(int index, Value row) {
+        RuntimeList lst = root;
+        for(int dim = 0; dim < level; dim++) {
+            lst.expand();
+            lst = lst.arr.get((base / strides[dim]) % dims[dim]).asList();
+        }
+
+        lst.expand();
+        lst.arr.set(index-1,row);
+    }
+
     /**
      * Adds a value to a specific position in the list.
      * @param pos Position we want to add a value to.
      * @param val {@link Value}
      */
-    public void insertElement(int pos, Value val) { arr.add(pos,val); }
+    public void insertElement(int pos, Value val) {
+        prepareStorage(val);
+        arr.insert(pos-1,val);
+    }
 
     /**
      * Retrieves a value from the list based on the current offset.
      * @param offset List position we want to access
      * @return {@link Value}
      */
-    public Value get(int offset) { return arr.get(offset); }
+    public Value get(int offset) {
+        if(dims == null)
+            return arr.get(offset-1);
+
+        Objects.checkIndex(offset-1,dims[level]);
+        if(level == dims.length-1)
+            return arr.get(base+offset-1);
+        return new RuntimeList(this,level+1,base+(offset-1)*strides[level]);
+    }
 
     /**
      * Removes a value from the current {@link #arr} based on a position.
      * @param index Position we want to remove a value from
      */
-    public void remove(int index) { arr.remove(index); }
+    public void remove(int index) { arr.remove(index-1); }
 
     /**
      * Removes the first occurrence of a value in {@link #arr}.
@@ -113,7 +396,7 @@ public class RuntimeList extends Value {
         if(valToRemove.isList() && valToRemove.asList().size() == 1 && valToRemove.asList().get(1).getType().isInt())
             valToRemove = valToRemove.asList().get(1);
 
-        for(int i = 1; i < arr.size(); i++) {
+        for(int i = 0; i < arr.size(); i++) {
             Value currVal = arr.get(i);
 
             if(currVal.isList() && currVal.asList().remove(valToRemove))
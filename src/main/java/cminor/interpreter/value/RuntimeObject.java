@@ -4,65 +4,101 @@ import cminor.ast.AST;
 import cminor.ast.types.ClassType;
 import cminor.ast.types.Type;
 import cminor.interpreter.Interpreter;
-
-import java.util.HashMap;
-import java.util.TreeSet;
+import cminor.utilities.FieldLayout;
 
 /**
  * A type representing an object the {@link Interpreter} can interact with.
  * <p><br>
  *     Since C Minor is an object-oriented language, we need a way to represent objects
  *     during the runtime execution of a program. This class will help to store and
- *     access the internal data for an object via the {@link Interpreter}.
+ *     access the internal data for an object via the {@link Interpreter}. Every field
+ *     is stored inside an array at the slot given by the {@link FieldLayout} of the
+ *     object's class, and any field that was not initialized will be {@code null}.
  * </p>
  * @author Daniel Levy
  */
 public class RuntimeObject extends Value {
 
     /**
-     * Internal hash map that serves as the representation for an object.
+     * {@link FieldLayout} of the class the object was created from.
      */
-    private final HashMap<String,Value> obj;
+    private final FieldLayout layout;
+
+    /**
+     * Internal array that stores the value of each field.
+     */
+    private final Value[] fields;
 
     /**
      * Creates a {@link RuntimeObject} based on a passed type.
      * @param objType {@link Type}
+     * @param layout {@link FieldLayout} of the class the object is created from
      */
-    public RuntimeObject(Type objType) {
+    public RuntimeObject(Type objType, FieldLayout layout) {
         super(null,objType);
-        this.obj = new HashMap<>();
+        this.layout = layout;
+        this.fields = new Value[layout.size()];
     }
 
     /**
-     * Adds either a new field or updates an existing field's value.
-     * @param fieldName Field we want to add/update
+     * Updates the value stored in a field slot.
+     * @param slot Slot of the field
+     * @param val {@link Value} the field will store
+     */
+    public void setField(int slot, Value val) { fields[slot] = val; }
+
+    /**
+     * Updates a field's value.
+     * @param fieldName Field we want to update
      * @param val {@link Value} the field will store
      */
-    public void setField(String fieldName, Value val) { obj.put(fieldName,val); }
+    public void setField(String fieldName, Value val) {
+        int slot = layout.getSlot(fieldName);
+        if(slot == -1)
+            throw new RuntimeException("The field '" + fieldName + "' does not exist for " + getCurrentType() + ".");
+        fields[slot] = val;
+    }
 
     /**
      * See {@link #setField(String,Value)}.
      */
     public void setField(AST node, Value val) { setField(node.toString(),val); }
 
+    /**
+     * Retrieves the value stored in a field slot.
+     * @param slot Slot of the field
+     * @return {@link Value}
+     */
+    public Value getField(int slot) { return fields[slot]; }
+
     /**
      * Retrieves a field value from the current object.
      * @param fieldName Field we want to access
-     * @return {@link Value}
+     * @return {@link Value}, or {@code null} if the field does not exist
      */
-    public Value getField(String fieldName) { return obj.get(fieldName); }
+    public Value getField(String fieldName) {
+        int slot = layout.getSlot(fieldName);
+        return slot == -1 ? null : fields[slot];
+    }
 
     /**
      * See {@link #getField(String)}.
      */
     public Value getField(AST node) { return this.getField(node.toString()); }
 
+    /**
+     * Checks if a field slot was initialized.
+     * @param slot Slot of the field
+     * @return Boolean
+     */
+    public boolean hasField(int slot) { return fields[slot] != null; }
+
     /**
      * Checks if the current object has a field.
      * @param fieldName Field we want to find
      * @return Boolean
      */
-    public boolean hasField(String fieldName) { return obj.get(fieldName) != null; }
+    public boolean hasField(String fieldName) { return getField(fieldName) != null; }
 
     /**
      * See {@link #hasField(String)}.
@@ -98,12 +134,12 @@ public class RuntimeObject extends Value {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Object(");
-        int size = obj.size();
-        for(String key : obj.keySet()) {
-            sb.append(key).append("=").append(obj.get(key));
-            size -= 1;
-            if(size > 0)
+        for(int i = 0; i < fields.length; i++) {
+            if(fields[i] == null)
+                continue;
+            if(sb.length() > "Object(".length())
                 sb.append(", ");
+            sb.append(layout.getName(i)).append("=").append(fields[i]);
         }
 
         sb.append(")");
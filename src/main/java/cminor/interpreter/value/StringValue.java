@@ -0,0 +1,145 @@
+package cminor.interpreter.value;
+
+import cminor.ast.types.Type;
+import java.util.ArrayDeque;
+
+/**
+ * A {@link Value} that represents the result of a {@code String} concatenation.
+ * <p>
+ *     Concatenating two strings does not copy either string. Instead, a {@link StringValue} stores
+ *     both of its parts as a rope, and the characters are only copied into a single Java string
+ *     once the value is needed by a comparison, an output statement, a choice statement, or any
+ *     other operation that calls {@link #asString()}. This means a loop that keeps appending to
+ *     the same string will run in linear time instead of copying the whole string every iteration.
+ * </p>
+ * <p>
+ *     Once a rope is flattened, the result is saved and its parts are released, so every
+ *     {@link StringValue} will be flattened at most once.
+ * </p>
+ * @author Daniel Levy
+ */
+public class StringValue extends Value {
+
+    /**
+     * The maximum length of a concatenation that will be copied right away.
+     * <p>
+     *     Copying a short string is cheaper than creating a rope node that will
+     *     eventually have to be flattened, so small strings are always stored flat.
+     * </p>
+     */
+    public static final int FLAT_LIMIT = 64;
+
+    /**
+     * The string the value is representing, or {@code null} if the rope was not flattened yet.
+     */
+    private String flat;
+
+    /**
+     * The left part of the rope.
+     */
+    private Value left;
+
+    /**
+     * The right part of the rope.
+     */
+    private Value right;
+
+    /**
+     * The number of characters the value is representing.
+     */
+    private final int length;
+
+    /**
+     * Creates a {@link StringValue} representing a flat string.
+     * @param flat String that the value is representing
+     * @param type {@link Type} of the value
+     */
+    private StringValue(String flat, Type type) {
+        this.flat = flat;
+        this.length = flat.length();
+        this.type = type;
+    }
+
+    /**
+     * Creates a {@link StringValue} representing the concatenation of two strings.
+     * @param left {@link Value} storing the left part of the rope
+     * @param right {@link Value} storing the right part of the rope
+     * @param length Total number of characters in both parts
+     * @param type {@link Type} of the value
+     */
+    private StringValue(Value left, Value right, int length, Type type) {
+        this.left = left;
+        this.right = right;
+        this.length = length;
+        this.type = type;
+    }
+
+    /**
+     * Concatenates two {@code String} values without copying them.
+     * @param LHS {@link Value} representing the left string
+     * @param RHS {@link Value} representing the right string
+     * @param type {@link Type} of the result
+     * @return {@link Value} representing the concatenated string
+     */
+    public static Value concat(Value LHS, Value RHS, Type type) {
+        int leftLength = lengthOf(LHS);
+        int rightLength = lengthOf(RHS);
+
+        if(leftLength + rightLength <= FLAT_LIMIT)
+            return new StringValue(LHS.asString() + RHS.asString(),type);
+        return new StringValue(LHS,RHS,leftLength+rightLength,type);
+    }
+
+    /**
+     * Finds the number of characters a string value stores without flattening it.
+     * @param val {@link Value} representing a string
+     * @return Int
+     */
+    private static int lengthOf(Value val) {
+        if(val instanceof StringValue)
+            return ((StringValue) val).length;
+        return String.valueOf(val.asString()).length();
+    }
+
+    /**
+     * Copies every part of the rope into a single string.
+     * <p>
+     *     A rope built inside a loop can be very deep, so we use an explicit
+     *     stack instead of recursion to visit each of its parts in order.
+     * </p>
+     */
+    private void flatten() {
+        StringBuilder sb = new StringBuilder(length);
+        ArrayDeque<Value> parts = new ArrayDeque<>();
+        parts.push(this);
+
+        while(!parts.isEmpty()) {
+            Value part = parts.pop();
+            if(part instanceof StringValue && ((StringValue) part).flat == null) {
+                parts.push(((StringValue) part).right);
+                parts.push(((StringValue) part).left);
+            }
+            else
+                sb.append(part.asString());
+        }
+
+        flat = sb.toString();
+        left = null;
+        right = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String asString() {
+        if(flat == null)
+            flatten();
+        return flat;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { return asString(); }
+}
@@ -5,7 +5,6 @@ import cminor.ast.types.Type;
 import cminor.ast.types.VoidType;
 import cminor.interpreter.Interpreter;
 
-import java.math.BigDecimal;
 
 /**
  * A type that represents a value during the runtime execution of the {@link Interpreter}.
@@ -13,6 +12,9 @@ import java.math.BigDecimal;
  *     This class is designed to create values that will be stored on the {@link utilities.RuntimeStack}
  *     during the execution of the {@link Interpreter}. It is mainly designed to help reduce
  *     the amount of type casting and extra variables needed for the interpreter to properly execute.
+ *     Primitive values are stored by {@link IntValue}, {@link CharValue}, {@link BoolValue}, and
+ *     {@link RealValue}, and the result of a string concatenation is stored by {@link StringValue},
+ *     so this class will mainly be used to represent string literals.
  * </p>
  * @author Daniel Levy
  */
@@ -48,35 +50,37 @@ public class Value {
 
     /**
      * Creates a {@link Value} object based on a {@link Literal}.
+     * <p>
+     *     Any {@code Int}, {@code Char}, {@code Bool}, or {@code Real} literal will be
+     *     stored in its primitive-specialized {@link Value} subclass.
+     * </p>
      * @param li Literal
+     * @param realMode {@link RealMode} used to represent a {@code Real} literal
+     * @return {@link Value} representing the literal
      */
-    public Value(Literal li) {
+    public static Value fromLiteral(Literal li, RealMode realMode) {
         switch(li.getConstantKind()) {
             case INT:
-                val = Integer.parseInt(li.text);
-                break;
+                return IntValue.of(Integer.parseInt(li.text));
             case CHAR:
                 if(!li.text.isEmpty())
-                    val = li.text.charAt(1) == '\\' ? (char) ('\\' + li.text.charAt(2)) : li.text.charAt(1);
+                    return CharValue.of(li.text.charAt(1) == '\\' ? (char) ('\\' + li.text.charAt(2)) : li.text.charAt(1));
                 break;
             case BOOL:
-                val = Boolean.parseBoolean(li.text);
-                break;
+                return BoolValue.of(Boolean.parseBoolean(li.text));
             case REAL:
-                val = new BigDecimal(li.text);
-                break;
+                return realMode.parse(li.text);
             case STR:
                 if(!li.text.isEmpty())
-                    val = li.text.substring(1,li.text.length()-1);
+                    return new Value(li.text.substring(1,li.text.length()-1),li.type);
                 break;
             case ENUM:
                 if(li.type.isInt())
-                    val = Integer.parseInt(li.text);
+                    return new IntValue(Integer.parseInt(li.text),li.type);
                 else
-                    val = li.text.charAt(1) == '\\' ? (char) ('\\' + li.text.charAt(2)) : li.text.charAt(1);
-                break;
+                    return new CharValue(li.text.charAt(1) == '\\' ? (char) ('\\' + li.text.charAt(2)) : li.text.charAt(1),li.type);
         }
-        this.type = li.type;
+        return new Value(null,li.type);
     }
 
     /**
@@ -117,9 +121,11 @@ public class Value {
 
     /**
      * Returns the current {@link Value} as a real.
-     * @return {@link BigDecimal}
+     * @return {@link RealValue}
      */
-    public BigDecimal asReal() { return (BigDecimal) val; }
+    public RealValue asReal() {
+        throw new RuntimeException("The current Value does not represent a real and can not be typecasted.");
+    }
 
     /**
      * Returns the current {@link Value} as a string.
@@ -0,0 +1,1421 @@
+package cminor.jvm;
+
+import cminor.ast.AST;
+import cminor.ast.classbody.FieldDecl;
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.expressions.*;
+import cminor.ast.misc.ParamDecl;
+import cminor.ast.misc.Var;
+import cminor.ast.operators.AssignOp;
+import cminor.ast.operators.BinaryOp;
+import cminor.ast.statements.*;
+import cminor.ast.topleveldecls.*;
+import cminor.ast.types.ClassType;
+import cminor.ast.types.Type;
+import cminor.interpreter.value.RealMode;
+import cminor.interpreter.value.Value;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.SymbolTable;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+import java.util.HashMap;
+
+/**
+ * A {@link Visitor} class that translates a checked C Minor program into JVM class files.
+ * <p>
+ *     This generator runs once the {@link cminor.micropasses.SlotResolver} has assigned every
+ *     variable a slot. Each function becomes a static method of a main class, and each class
+ *     becomes its own JVM class with typed fields and virtual methods. Every instruction is
+ *     selected based on the types computed by the {@link cminor.typechecker.TypeChecker}, so
+ *     {@code Int}, {@code Char}, and {@code Bool} values are stored as JVM {@code int} values and
+ *     {@code Real} values are stored as JVM {@code double} values. Since a {@code double} only gives
+ *     the same results as {@link RealMode#DOUBLE}, a program using {@code Real} values is only
+ *     translated when that mode was selected.
+ * </p>
+ * <p>
+ *     The main class also contains a {@code main} method that executes every top level statement
+ *     in order. Global variables become static fields of the main class. All output is written into
+ *     a buffered stream that is flushed once the program ends, a {@code stop} statement is executed,
+ *     or an exception is thrown.
+ * </p>
+ * <p>
+ *     Not every construct is supported yet. Arrays, lists, enumerations, imports, templates, input
+ *     statements, and parameters that are not passed with {@code in} will generate an
+ *     {@link UnsupportedConstructException}, and the {@link cminor.compiler.Compiler} will then
+ *     execute the program with the execution engine instead.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ClassGenerator extends Visitor {
+
+    /**
+     * An exception thrown when a construct can not be translated into a class file.
+     */
+    public static class UnsupportedConstructException extends RuntimeException {
+
+        /**
+         * Creates an {@link UnsupportedConstructException}.
+         * @param node {@link AST} node that could not be translated
+         */
+        public UnsupportedConstructException(AST node) {
+            super("The construct '" + node + "' can not be compiled into a class file.");
+        }
+    }
+
+    /** Internal name of {@link Object}. */
+    private static final String OBJECT = "java/lang/Object";
+
+    /** Internal name of {@link String}. */
+    private static final String STRING = "java/lang/String";
+
+    /** Internal name of {@link java.io.PrintStream}. */
+    private static final String PRINT_STREAM = "java/io/PrintStream";
+
+    /** Name of the static field storing the buffered output stream. */
+    private static final String OUT = "$out";
+
+    /** Name of the static method that converts a {@code Real} into a string. */
+    private static final String REAL_TO_STRING = "$real";
+
+    /**
+     * The global {@link SymbolTable} used to find every function and class.
+     */
+    private final SymbolTable globalScope;
+
+    /**
+     * Internal name of the main class.
+     */
+    private final String mainName;
+
+    /**
+     * The {@link RealMode} selected for the program. {@code Real} values can only be translated
+     * if this is {@link RealMode#DOUBLE}.
+     */
+    private final RealMode realMode;
+
+    /**
+     * Name of the C Minor file we are compiling.
+     */
+    private final String sourceFile;
+
+    /**
+     * {@link ClassWriter} for the main class.
+     */
+    private ClassWriter mainClass;
+
+    /**
+     * Every class that was generated.
+     */
+    private final Vector<ClassWriter> classes;
+
+    /**
+     * Names of the static fields representing each global variable (keyed by slot).
+     */
+    private final HashMap<Integer,String> globals;
+
+    /**
+     * The method we are currently writing instructions into.
+     */
+    private CodeWriter code;
+
+    /**
+     * Indices of the JVM local variables for the current method (keyed by slot and descriptor).
+     */
+    private HashMap<String,Integer> locals;
+
+    /**
+     * Flag set when we are generating a function or a method.
+     */
+    private boolean insideFrame;
+
+    /**
+     * The class whose method we are currently generating (or {@code null}).
+     */
+    private ClassDecl currentClass;
+
+    /**
+     * Return type of the function or method we are currently generating.
+     */
+    private Type returnType;
+
+    /**
+     * Stack of labels for every loop we are currently generating. Each entry
+     * stores the label for a {@code break} followed by the label for a {@code continue}.
+     */
+    private Vector<CodeWriter.Label[]> loops;
+
+    /**
+     * Creates the {@link ClassGenerator}.
+     * @param globalScope The {@link SymbolTable} representing the global scope of the program.
+     * @param mainName Internal name of the main class
+     * @param sourceFile Name of the C Minor file we are compiling
+     * @param realMode The {@link RealMode} selected for the program
+     */
+    public ClassGenerator(SymbolTable globalScope, String mainName, String sourceFile, RealMode realMode) {
+        this.globalScope = globalScope;
+        this.mainName = mainName;
+        this.realMode = realMode;
+        this.sourceFile = sourceFile;
+        this.classes = new Vector<>();
+        this.globals = new HashMap<>();
+    }
+
+    /**
+     * Generates every class file for a C Minor program.
+     * @param program Every top level construct of the program (in order)
+     * @return {@link Vector} of {@link ClassWriter} (the main class is always first)
+     * @throws UnsupportedConstructException If any construct can not be translated.
+     */
+    public Vector<ClassWriter> generate(Vector<? extends AST> program) {
+        mainClass = new ClassWriter(ClassWriter.ACC_PUBLIC,mainName,OBJECT);
+        mainClass.setSourceFile(sourceFile);
+        mainClass.addField(ClassWriter.ACC_PUBLIC | ClassWriter.ACC_STATIC,OUT,"L" + PRINT_STREAM + ";");
+        classes.add(mainClass);
+        generateRealToString();
+
+        for(AST node : program) {
+            if(node.isTopLevelDecl() && node.asTopLevelDecl().isClassDecl())
+                generateClass(node.asTopLevelDecl().asClassDecl());
+            else if(node.isTopLevelDecl() && node.asTopLevelDecl().isFuncDecl() && !node.asTopLevelDecl().asFuncDecl().isUnused())
+                generateFunction(node.asTopLevelDecl().asFuncDecl());
+        }
+
+        generateMain(program);
+        return classes;
+    }
+
+    /**
+     * Generates the {@code main} method that executes every top level statement.
+     * @param program Every top level construct of the program
+     */
+    private void generateMain(Vector<? extends AST> program) {
+        beginMethod(mainClass.addMethod(ClassWriter.ACC_PUBLIC | ClassWriter.ACC_STATIC,"main","([Ljava/lang/String;)V"),null,null);
+        insideFrame = false;
+
+        // $out = new PrintStream(new BufferedOutputStream(System.out,65536),false)
+        code.newObject(PRINT_STREAM);
+        code.op(CodeWriter.DUP,1);
+        code.newObject("java/io/BufferedOutputStream");
+        code.op(CodeWriter.DUP,1);
+        code.field(CodeWriter.GETSTATIC,"java/lang/System","out","L" + PRINT_STREAM + ";");
+        code.pushInt(1 << 16);
+        code.invoke(CodeWriter.INVOKESPECIAL,"java/io/BufferedOutputStream","<init>","(Ljava/io/OutputStream;I)V");
+        code.pushInt(0);
+        code.invoke(CodeWriter.INVOKESPECIAL,PRINT_STREAM,"<init>","(Ljava/io/OutputStream;Z)V");
+        code.field(CodeWriter.PUTSTATIC,mainName,OUT,"L" + PRINT_STREAM + ";");
+
+        CodeWriter.Label start = new CodeWriter.Label();
+        CodeWriter.Label end = new CodeWriter.Label();
+        CodeWriter.Label handler = new CodeWriter.Label();
+
+        code.place(start);
+        for(AST node : program)
+            node.visit(this);
+        code.place(end);
+        flush();
+        code.op(CodeWriter.RETURN,0);
+
+        // Any exception will flush the output that was written so far before it is rethrown.
+        code.place(handler);
+        code.beginHandler();
+        flush();
+        code.op(CodeWriter.ATHROW,-1);
+        code.catchAll(start,end,handler);
+    }
+
+    /**
+     * Generates the static method that converts a {@code Real} into the same string the interpreter prints.
+     */
+    private void generateRealToString() {
+        CodeWriter cw = mainClass.addMethod(ClassWriter.ACC_PUBLIC | ClassWriter.ACC_STATIC,REAL_TO_STRING,"(D)Ljava/lang/String;");
+        CodeWriter.Label special = new CodeWriter.Label();
+
+        cw.load(CodeWriter.DLOAD,0);
+        cw.invoke(CodeWriter.INVOKESTATIC,"java/lang/Double","isNaN","(D)Z");
+        cw.jump(CodeWriter.IFNE,special);
+        cw.load(CodeWriter.DLOAD,0);
+        cw.invoke(CodeWriter.INVOKESTATIC,"java/lang/Double","isInfinite","(D)Z");
+        cw.jump(CodeWriter.IFNE,special);
+        cw.load(CodeWriter.DLOAD,0);
+        cw.invoke(CodeWriter.INVOKESTATIC,"java/math/BigDecimal","valueOf","(D)Ljava/math/BigDecimal;");
+        cw.invoke(CodeWriter.INVOKEVIRTUAL,"java/math/BigDecimal","toPlainString","()Ljava/lang/String;");
+        cw.op(CodeWriter.ARETURN,-1);
+
+        cw.place(special);
+        cw.load(CodeWriter.DLOAD,0);
+        cw.invoke(CodeWriter.INVOKESTATIC,"java/lang/Double","toString","(D)Ljava/lang/String;");
+        cw.op(CodeWriter.ARETURN,-1);
+    }
+
+    /**
+     * Generates a static method for a function.
+     * @param fd {@link FuncDecl}
+     */
+    private void generateFunction(FuncDecl fd) {
+        // Templates are never executed directly.
+        if(fd.isTemplate())
+            return;
+
+        String desc = methodDescriptor(fd,fd.getParams(),fd.getReturnType());
+        beginMethod(mainClass.addMethod(ClassWriter.ACC_PUBLIC | ClassWriter.ACC_STATIC,fd.getName().toString(),desc),
+                    fd.getParams(),fd.getReturnType());
+        fd.getBody().visit(this);
+        endMethod();
+    }
+
+    /**
+     * Generates a JVM class for a C Minor class.
+     * @param cd {@link ClassDecl}
+     */
+    private void generateClass(ClassDecl cd) {
+        // Templates are never instantiated directly.
+        if(cd.isTemplate())
+            return;
+
+        String name = cd.getName().toString();
+        if(name.equals(mainName))
+            throw new UnsupportedConstructException(cd);
+
+        String superName = OBJECT;
+        if(cd.getSuperClass() != null)
+            superName = classDecl(cd,cd.getSuperClass()).getName().toString();
+
+        ClassWriter cw = new ClassWriter(ClassWriter.ACC_PUBLIC,name,superName);
+        cw.setSourceFile(sourceFile);
+        classes.add(cw);
+
+        for(FieldDecl fd : cd.getClassBody().getFields())
+            cw.addField(ClassWriter.ACC_PUBLIC,fd.getVariableName().toString(),descriptor(fd,fd.getType()));
+
+        CodeWriter init = cw.addMethod(ClassWriter.ACC_PUBLIC,"<init>","()V");
+        init.load(CodeWriter.ALOAD,0);
+        init.invoke(CodeWriter.INVOKESPECIAL,superName,"<init>","()V");
+        init.op(CodeWriter.RETURN,0);
+
+        currentClass = cd;
+        for(MethodDecl md : cd.getClassBody().getMethods()) {
+            if(md.isOperatorOverload() || md.getBody() == null)
+                throw new UnsupportedConstructException(md);
+
+            String desc = methodDescriptor(md,md.getParams(),md.getReturnType());
+            beginMethod(cw.addMethod(ClassWriter.ACC_PUBLIC,md.getMethodName().toString(),desc),md.getParams(),md.getReturnType());
+            md.getBody().visit(this);
+            endMethod();
+        }
+        currentClass = null;
+    }
+
+    /**
+     * Prepares the generator to write the instructions of a new method.
+     * @param cw {@link CodeWriter} for the method
+     * @param params Parameters of the method (or {@code null} for the {@code main} method)
+     * @param returnType Return type of the method (or {@code null} for the {@code main} method)
+     */
+    private void beginMethod(CodeWriter cw, Vector<ParamDecl> params, Type returnType) {
+        this.code = cw;
+        this.locals = new HashMap<>();
+        this.insideFrame = true;
+        this.returnType = returnType;
+        this.loops = new Vector<>();
+
+        if(params == null)
+            return;
+
+        int index = (currentClass != null) ? 1 : 0;
+        for(int i = 0; i < params.size(); i++) {
+            ParamDecl param = params.get(i);
+            String desc = descriptor(param,param.getType());
+            locals.put(i + ":" + desc,index);
+            index += CodeWriter.slots(desc);
+        }
+    }
+
+    /**
+     * Finishes the current method by returning a default value if the end of the method can be reached.
+     */
+    private void endMethod() {
+        if(!code.isReachable())
+            return;
+
+        String desc = (returnType == null) ? "V" : descriptor(null,returnType);
+        pushDefault(desc);
+        code.op(returnOpcode(desc),-CodeWriter.slots(desc));
+    }
+
+    /**
+     * Writes the instructions that flush the buffered output stream.
+     */
+    private void flush() {
+        code.field(CodeWriter.GETSTATIC,mainName,OUT,"L" + PRINT_STREAM + ";");
+        code.invoke(CodeWriter.INVOKEVIRTUAL,PRINT_STREAM,"flush","()V");
+    }
+
+    /**
+     * Checks if a {@code Real} value can be stored as a JVM {@code double}.
+     * @param node {@link AST} node using the {@code Real} value
+     * @throws UnsupportedConstructException If the program does not use {@link RealMode#DOUBLE}.
+     */
+    private void checkReal(AST node) {
+        if(realMode != RealMode.DOUBLE)
+            throw new UnsupportedConstructException(node);
+    }
+
+    /**
+     * Returns the JVM descriptor of a C Minor type.
+     * @param node {@link AST} node the type belongs to
+     * @param type {@link Type}
+     * @return String representing the descriptor
+     * @throws UnsupportedConstructException If the type can not be represented on the JVM yet.
+     */
+    private String descriptor(AST node, Type type) {
+        if(type == null || type.isEnum())
+            throw new UnsupportedConstructException(node);
+        if(type.isVoid())
+            return "V";
+        if(type.isInt())
+            return "I";
+        if(type.isChar())
+            return "C";
+        if(type.isBool())
+            return "Z";
+        if(type.isReal()) {
+            checkReal(node);
+            return "D";
+        }
+        if(type.isString())
+            return "L" + STRING + ";";
+        if(type.isClass() && !type.asClass().isTemplatedType())
+            return "L" + type.asClass().getTypeName() + ";";
+        throw new UnsupportedConstructException(node);
+    }
+
+    /**
+     * Returns the JVM descriptor of a function or method.
+     * @param node {@link AST} node representing the function or method
+     * @param params Parameters of the function or method
+     * @param returnType Return type of the function or method
+     * @return String representing the descriptor
+     */
+    private String methodDescriptor(AST node, Vector<ParamDecl> params, Type returnType) {
+        StringBuilder sb = new StringBuilder("(");
+        for(ParamDecl param : params) {
+            // Parameters that write back into the caller's variables are not supported yet.
+            if(param.mod.isOutMode() || param.mod.isInOutMode() || param.mod.isRefMode())
+                throw new UnsupportedConstructException(node);
+            sb.append(descriptor(param,param.getType()));
+        }
+        return sb.append(')').append(descriptor(node,returnType)).toString();
+    }
+
+    /**
+     * Checks if a descriptor is stored as a JVM {@code int}.
+     * @param desc Descriptor
+     * @return Boolean
+     */
+    private static boolean isIntLike(String desc) { return desc.equals("I") || desc.equals("C") || desc.equals("Z"); }
+
+    /**
+     * Returns the instruction that loads a local variable with the given descriptor.
+     * @param desc Descriptor
+     * @return Int representing the opcode
+     */
+    private static int loadOpcode(String desc) {
+        if(isIntLike(desc))
+            return CodeWriter.ILOAD;
+        return desc.equals("D") ? CodeWriter.DLOAD : CodeWriter.ALOAD;
+    }
+
+    /**
+     * Returns the instruction that stores a local variable with the given descriptor.
+     * @param desc Descriptor
+     * @return Int representing the opcode
+     */
+    private static int storeOpcode(String desc) {
+        if(isIntLike(desc))
+            return CodeWriter.ISTORE;
+        return desc.equals("D") ? CodeWriter.DSTORE : CodeWriter.ASTORE;
+    }
+
+    /**
+     * Returns the instruction that returns a value with the given descriptor.
+     * @param desc Descriptor
+     * @return Int representing the opcode
+     */
+    private static int returnOpcode(String desc) {
+        if(desc.equals("V"))
+            return CodeWriter.RETURN;
+        if(isIntLike(desc))
+            return CodeWriter.IRETURN;
+        return desc.equals("D") ? CodeWriter.DRETURN : CodeWriter.ARETURN;
+    }
+
+    /**
+     * Pushes the default value of a descriptor onto the operand stack.
+     * @param desc Descriptor
+     */
+    private void pushDefault(String desc) {
+        if(desc.equals("V"))
+            return;
+        if(isIntLike(desc))
+            code.pushInt(0);
+        else if(desc.equals("D"))
+            code.pushDouble(0);
+        else
+            code.op(CodeWriter.ACONST_NULL,1);
+    }
+
+    /**
+     * Pops a value with the given descriptor from the operand stack.
+     * @param desc Descriptor
+     */
+    private void pop(String desc) {
+        switch(CodeWriter.slots(desc)) {
+            case 1 -> code.op(CodeWriter.POP,-1);
+            case 2 -> code.op(CodeWriter.POP2,-2);
+        }
+    }
+
+    /**
+     * Finds the declaration of a class.
+     * @param node {@link AST} node that refers to the class
+     * @param ct {@link ClassType} of the class
+     * @return {@link ClassDecl}
+     */
+    private ClassDecl classDecl(AST node, ClassType ct) {
+        if(ct.isTemplatedType())
+            throw new UnsupportedConstructException(node);
+
+        AST decl = globalScope.findName(ct.getTypeName());
+        if(decl == null || !decl.isTopLevelDecl() || !decl.asTopLevelDecl().isClassDecl())
+            throw new UnsupportedConstructException(node);
+        return decl.asTopLevelDecl().asClassDecl();
+    }
+
+    /**
+     * Finds the declaration of a field inside a class or any of its superclasses.
+     * @param node {@link AST} node that refers to the field
+     * @param cd {@link ClassDecl} we start searching from
+     * @param name Name of the field
+     * @return {@link FieldDecl}
+     */
+    private FieldDecl findField(AST node, ClassDecl cd, String name) {
+        while(true) {
+            for(FieldDecl fd : cd.getClassBody().getFields()) {
+                if(fd.getVariableName().toString().equals(name))
+                    return fd;
+            }
+            if(cd.getSuperClass() == null)
+                throw new UnsupportedConstructException(node);
+            cd = classDecl(node,cd.getSuperClass());
+        }
+    }
+
+    /**
+     * Returns the class of an object stored inside an expression.
+     * @param target Expression that evaluates to an object
+     * @return {@link ClassDecl}
+     */
+    private ClassDecl targetClass(Expression target) {
+        if(target.isThisStmt() && currentClass != null)
+            return currentClass;
+        if(target.type == null || !target.type.isClass())
+            throw new UnsupportedConstructException(target);
+        return classDecl(target,target.type.asClass());
+    }
+
+    /**
+     * Returns the index of the JVM local variable representing a C Minor variable.
+     * @param node {@link AST} node that refers to the variable
+     * @param slot Slot of the variable
+     * @param desc Descriptor of the variable
+     * @return Int representing the index
+     */
+    private int local(AST node, int slot, String desc) {
+        if(!insideFrame)
+            throw new UnsupportedConstructException(node);
+
+        // A slot could be reused by a variable of another type, so each type receives its own local.
+        String key = slot + ":" + desc;
+        Integer index = locals.get(key);
+        if(index == null) {
+            index = code.newLocal(CodeWriter.slots(desc));
+            locals.put(key,index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the name of the static field representing a global variable.
+     * @param slot Slot of the variable
+     * @param name Name of the variable
+     * @param desc Descriptor of the variable
+     * @return String representing the name of the field
+     */
+    private String global(int slot, String name, String desc) {
+        String field = globals.get(slot);
+        if(field == null) {
+            // A variable could be redeclared, so we give each slot its own field.
+            field = mainClass.hasField(name) || name.equals(OUT) ? name + "$" + slot : name;
+            mainClass.addField(ClassWriter.ACC_PUBLIC | ClassWriter.ACC_STATIC,field,desc);
+            globals.put(slot,field);
+        }
+        return field;
+    }
+
+    /**
+     * Loads a variable onto the operand stack.
+     * @param node {@link AST} node that refers to the variable
+     * @param depth Depth of the variable
+     * @param slot Slot of the variable
+     * @param name Name of the variable
+     * @param type {@link Type} of the variable
+     */
+    private void loadVariable(AST node, int depth, int slot, String name, Type type) {
+        String desc = descriptor(node,type);
+        if(slot == -1)
+            throw new UnsupportedConstructException(node);
+
+        if(depth == RuntimeStack.GLOBAL_DEPTH)
+            code.field(CodeWriter.GETSTATIC,mainName,global(slot,name,desc),desc);
+        else
+            code.load(loadOpcode(desc),local(node,slot,desc));
+    }
+
+    /**
+     * Stores the top of the operand stack into a variable.
+     * @param node {@link AST} node that refers to the variable
+     * @param depth Depth of the variable
+     * @param slot Slot of the variable
+     * @param name Name of the variable
+     * @param type {@link Type} of the variable
+     */
+    private void storeVariable(AST node, int depth, int slot, String name, Type type) {
+        String desc = descriptor(node,type);
+        if(slot == -1)
+            throw new UnsupportedConstructException(node);
+
+        if(depth == RuntimeStack.GLOBAL_DEPTH)
+            code.field(CodeWriter.PUTSTATIC,mainName,global(slot,name,desc),desc);
+        else
+            code.store(storeOpcode(desc),local(node,slot,desc));
+    }
+
+    /**
+     * Generates an expression and converts its value into another type.
+     * @param e {@link Expression}
+     * @param type {@link Type} the value should have
+     */
+    private void generate(Expression e, Type type) {
+        e.visit(this);
+
+        String from = descriptor(e,e.type);
+        String to = descriptor(e,type);
+        if(from.equals(to) || (isIntLike(from) && isIntLike(to)) || (from.startsWith("L") && to.startsWith("L")))
+            return;
+        if(from.equals("I") && to.equals("D"))
+            code.op(CodeWriter.I2D,1);
+        else
+            throw new UnsupportedConstructException(e);
+    }
+
+    /**
+     * Generates a condition that jumps to a label when it is false.
+     * @param e {@link Expression} representing the condition
+     * @param falseTarget {@link CodeWriter.Label} to jump to
+     */
+    private void condition(Expression e, CodeWriter.Label falseTarget) {
+        if(e.isBinaryExpr() && compare(e.asBinaryExpr(),falseTarget))
+            return;
+
+        e.visit(this);
+        code.jump(CodeWriter.IFEQ,falseTarget);
+    }
+
+    /**
+     * Generates a comparison that jumps to a label when it is false.
+     * @param be {@link BinaryExpr}
+     * @param falseTarget {@link CodeWriter.Label} to jump to
+     * @return {@code True} if the expression was a comparison, {@code False} otherwise.
+     */
+    private boolean compare(BinaryExpr be, CodeWriter.Label falseTarget) {
+        // Each jump is the opposite of the comparison, so we only jump when the comparison is false.
+        int negated;
+        switch(be.getBinaryOp().getBinaryType()) {
+            case EQEQ -> negated = CodeWriter.IFNE;
+            case NEQ -> negated = CodeWriter.IFEQ;
+            case LT -> negated = CodeWriter.IFGE;
+            case LTEQ -> negated = CodeWriter.IFGT;
+            case GT -> negated = CodeWriter.IFLE;
+            case GTEQ -> negated = CodeWriter.IFLT;
+            default -> { return false; }
+        }
+        boolean equality = negated == CodeWriter.IFNE || negated == CodeWriter.IFEQ;
+
+        Type LHS = be.getLHS().type, RHS = be.getRHS().type;
+        String left = descriptor(be,LHS), right = descriptor(be,RHS);
+
+        if(isIntLike(left) && isIntLike(right)) {
+            be.getLHS().visit(this);
+            be.getRHS().visit(this);
+            code.jump(negated - CodeWriter.IFEQ + CodeWriter.IF_ICMPEQ,falseTarget);
+        }
+        else if((left.equals("D") || left.equals("I")) && (right.equals("D") || right.equals("I"))) {
+            generate(be.getLHS(),RHS.isReal() ? RHS : LHS);
+            generate(be.getRHS(),RHS.isReal() ? RHS : LHS);
+            code.op((negated == CodeWriter.IFGE || negated == CodeWriter.IFGT) ? CodeWriter.DCMPG : CodeWriter.DCMPL,-3);
+            code.jump(negated,falseTarget);
+        }
+        else if(equality && LHS.isString() && RHS.isString()) {
+            be.getLHS().visit(this);
+            be.getRHS().visit(this);
+            code.invoke(CodeWriter.INVOKESTATIC,"java/util/Objects","equals","(Ljava/lang/Object;Ljava/lang/Object;)Z");
+            code.jump(negated == CodeWriter.IFNE ? CodeWriter.IFEQ : CodeWriter.IFNE,falseTarget);
+        }
+        else if(equality && LHS.isClass() && RHS.isClass()) {
+            be.getLHS().visit(this);
+            be.getRHS().visit(this);
+            code.jump(negated == CodeWriter.IFNE ? CodeWriter.IF_ACMPNE : CodeWriter.IF_ACMPEQ,falseTarget);
+        }
+        else
+            throw new UnsupportedConstructException(be);
+        return true;
+    }
+
+    /**
+     * Generates an arithmetic operation between two values of the same type.
+     * @param node {@link AST} node representing the operation
+     * @param op Operation we are generating
+     * @param type {@link Type} of both operands
+     */
+    private void arithmetic(AST node, BinaryOp.BinaryType op, Type type) {
+        if(type.isInt()) {
+            switch(op) {
+                case PLUS -> code.op(CodeWriter.IADD,-1);
+                case MINUS -> code.op(CodeWriter.ISUB,-1);
+                case MULT -> code.op(CodeWriter.IMUL,-1);
+                case DIV -> code.op(CodeWriter.IDIV,-1);
+                case MOD -> code.op(CodeWriter.IREM,-1);
+                case EXP -> {
+                    // (int) Math.round(Math.pow(LHS,RHS))
+                    int exponent = code.newLocal(1);
+                    code.store(CodeWriter.ISTORE,exponent);
+                    code.op(CodeWriter.I2D,1);
+                    code.load(CodeWriter.ILOAD,exponent);
+                    code.op(CodeWriter.I2D,1);
+                    code.invoke(CodeWriter.INVOKESTATIC,"java/lang/Math","pow","(DD)D");
+                    code.invoke(CodeWriter.INVOKESTATIC,"java/lang/Math","round","(D)J");
+                    code.op(CodeWriter.L2I,-1);
+                }
+                default -> throw new UnsupportedConstructException(node);
+            }
+        }
+        else if(type.isReal()) {
+            switch(op) {
+                case PLUS -> code.op(CodeWriter.DADD,-2);
+                case MINUS -> code.op(CodeWriter.DSUB,-2);
+                case MULT -> code.op(CodeWriter.DMUL,-2);
+                case DIV -> code.op(CodeWriter.DDIV,-2);
+                case MOD -> code.op(CodeWriter.DREM,-2);
+                default -> throw new UnsupportedConstructException(node);
+            }
+        }
+        else if(type.isString() && op == BinaryOp.BinaryType.PLUS)
+            code.invoke(CodeWriter.INVOKEVIRTUAL,STRING,"concat","(Ljava/lang/String;)Ljava/lang/String;");
+        else
+            throw new UnsupportedConstructException(node);
+    }
+
+    /**
+     * Returns the arithmetic operation used by a compound assignment.
+     * @param as {@link AssignStmt}
+     * @return {@link BinaryOp.BinaryType}
+     */
+    private static BinaryOp.BinaryType compoundOperation(AssignStmt as) {
+        return switch(as.getOperator().getAssignOp()) {
+            case PLUSEQ -> BinaryOp.BinaryType.PLUS;
+            case MINUSEQ -> BinaryOp.BinaryType.MINUS;
+            case MULTEQ -> BinaryOp.BinaryType.MULT;
+            case DIVEQ -> BinaryOp.BinaryType.DIV;
+            case MODEQ -> BinaryOp.BinaryType.MOD;
+            default -> BinaryOp.BinaryType.EXP;
+        };
+    }
+
+    /**
+     * Generates the arguments of an invocation and the invocation itself.
+     * @param in {@link Invocation}
+     * @param opcode {@link CodeWriter#INVOKESTATIC} or {@link CodeWriter#INVOKEVIRTUAL}
+     * @param owner Internal name of the class declaring the function or method
+     * @param name Name of the function or method
+     * @param params Parameters of the function or method
+     * @param returnType Return type of the function or method
+     */
+    private void invoke(Invocation in, int opcode, String owner, String name, Vector<ParamDecl> params, Type returnType) {
+        String desc = methodDescriptor(in,params,returnType);
+        for(int i = 0; i < in.getArgs().size(); i++)
+            generate(in.getArgs().get(i),params.get(i).getType());
+        code.invoke(opcode,owner,name,desc);
+    }
+
+    /**
+     * Generates a method invocation on an object that is already on the operand stack.
+     * @param cd {@link ClassDecl} representing the type of the object
+     * @param in {@link Invocation}
+     */
+    private void invokeMethod(ClassDecl cd, Invocation in) {
+        if(in.containsTypeArgs())
+            throw new UnsupportedConstructException(in);
+
+        AST decl = cd.getScope().findMethod(in.getName().toString(),in.getSignature());
+        if(decl == null || !decl.isClassNode() || !decl.asClassNode().isMethodDecl())
+            throw new UnsupportedConstructException(in);
+
+        MethodDecl md = decl.asClassNode().asMethodDecl();
+        invoke(in,CodeWriter.INVOKEVIRTUAL,cd.getName().toString(),md.getMethodName().toString(),md.getParams(),md.getReturnType());
+    }
+
+    /**
+     * Generates a jump that leaves the current loop.
+     * @param bs {@link BreakStmt}
+     */
+    public void visitBreakStmt(BreakStmt bs) {
+        if(loops.isEmpty())
+            throw new UnsupportedConstructException(bs);
+        code.jump(CodeWriter.GOTO,loops.getLast()[0]);
+    }
+
+    /**
+     * Arrays are not supported yet.
+     * @param ae {@link ArrayExpr}
+     */
+    public void visitArrayExpr(ArrayExpr ae) { throw new UnsupportedConstructException(ae); }
+
+    /**
+     * Arrays are not supported yet.
+     * @param al {@link ArrayLiteral}
+     */
+    public void visitArrayLiteral(ArrayLiteral al) { throw new UnsupportedConstructException(al); }
+
+    /**
+     * Generates an assignment statement.
+     * @param as {@link AssignStmt}
+     */
+    public void visitAssignStmt(AssignStmt as) {
+        Expression LHS = as.getLHS();
+        boolean compound = as.getOperator().getAssignOp() != AssignOp.AssignType.EQ;
+        if(compound && !as.getRHS().type.isString() && !as.getRHS().type.isInt() && !as.getRHS().type.isReal())
+            throw new UnsupportedConstructException(as);
+
+        if(LHS.isNameExpr()) {
+            NameExpr var = LHS.asNameExpr();
+            if(compound) {
+                var.visit(this);
+                generate(as.getRHS(),var.type);
+                arithmetic(as,compoundOperation(as),var.type);
+            }
+            else
+                generate(as.getRHS(),var.type);
+            storeVariable(var,var.getDepth(),var.getSlot(),var.getName().toString(),var.type);
+        }
+        else if(LHS.isFieldExpr() && LHS.asFieldExpr().getAccessExpr().isNameExpr()) {
+            FieldExpr fe = LHS.asFieldExpr();
+            ClassDecl cd = targetClass(fe.getTarget());
+            String name = fe.getAccessExpr().toString();
+            FieldDecl field = findField(fe,cd,name);
+            String desc = descriptor(fe,field.getType());
+
+            fe.getTarget().visit(this);
+            if(compound) {
+                code.op(CodeWriter.DUP,1);
+                code.field(CodeWriter.GETFIELD,cd.getName().toString(),name,desc);
+                generate(as.getRHS(),field.getType());
+                arithmetic(as,compoundOperation(as),field.getType());
+            }
+            else
+                generate(as.getRHS(),field.getType());
+            code.field(CodeWriter.PUTFIELD,cd.getName().toString(),name,desc);
+        }
+        else
+            throw new UnsupportedConstructException(as);
+    }
+
+    /**
+     * Generates a binary expression.
+     * @param be {@link BinaryExpr}
+     */
+    public void visitBinaryExpr(BinaryExpr be) {
+        BinaryOp.BinaryType op = be.getBinaryOp().getBinaryType();
+        switch(op) {
+            case PLUS, MINUS, MULT, DIV, MOD, EXP -> {
+                generate(be.getLHS(),be.type);
+                generate(be.getRHS(),be.type);
+                arithmetic(be,op,be.type);
+            }
+            case EQEQ, NEQ, LT, LTEQ, GT, GTEQ -> {
+                CodeWriter.Label isFalse = new CodeWriter.Label();
+                CodeWriter.Label end = new CodeWriter.Label();
+                compare(be,isFalse);
+                code.pushInt(1);
+                code.jump(CodeWriter.GOTO,end);
+                code.place(isFalse);
+                code.pushInt(0);
+                code.place(end);
+            }
+            case AND, OR, SLEFT, SRIGHT, BAND, BOR, XOR -> {
+                if(!isIntLike(descriptor(be,be.getLHS().type)) || !isIntLike(descriptor(be,be.getRHS().type)))
+                    throw new UnsupportedConstructException(be);
+
+                // Both sides of 'and' and 'or' are always evaluated by the interpreter.
+                be.getLHS().visit(this);
+                be.getRHS().visit(this);
+                switch(op) {
+                    case AND, BAND -> code.op(CodeWriter.IAND,-1);
+                    case OR, BOR -> code.op(CodeWriter.IOR,-1);
+                    case XOR -> code.op(CodeWriter.IXOR,-1);
+                    case SLEFT -> code.op(CodeWriter.ISHL,-1);
+                    default -> code.op(CodeWriter.ISHR,-1);
+                }
+            }
+            default -> throw new UnsupportedConstructException(be);
+        }
+    }
+
+    /**
+     * Generates a block statement.
+     * @param bs {@link BlockStmt}
+     */
+    public void visitBlockStmt(BlockStmt bs) {
+        for(LocalDecl ld : bs.getLocalDecls())
+            ld.visit(this);
+
+        for(Statement s : bs.getStatements())
+            s.visit(this);
+    }
+
+    /**
+     * Generates a cast expression.
+     * <p>
+     *     The execution engines keep the {@code Int} value of a cast into a {@code Char}, so
+     *     it is printed as a number. A JVM {@code char} can not hold that value, which is why
+     *     this cast is only supported when it is directly printed by {@link #visitOutStmt(OutStmt)}.
+     * </p>
+     * @param ce {@link CastExpr}
+     */
+    public void visitCastExpr(CastExpr ce) {
+        ce.getCastExpr().visit(this);
+        String from = descriptor(ce,ce.getCastExpr().type);
+        String to = descriptor(ce,ce.getCastType());
+
+        if(from.equals("D") && isIntLike(to))
+            code.op(CodeWriter.D2I,-1);
+        else if(isIntLike(from) && to.equals("D"))
+            code.op(CodeWriter.I2D,1);
+        else if(from.equals("I") && to.equals("C"))
+            throw new UnsupportedConstructException(ce);
+        else if(!from.equals(to) && !(isIntLike(from) && isIntLike(to)))
+            throw new UnsupportedConstructException(ce);
+    }
+
+    /**
+     * Generates a choice statement.
+     * <p>
+     *     The value we are choosing on is stored into a temporary local, and each case
+     *     is tested in order. The default case is placed right after every test.
+     * </p>
+     * @param cs {@link ChoiceStmt}
+     */
+    public void visitChoiceStmt(ChoiceStmt cs) {
+        Type choiceType = cs.getChoiceValue().type;
+        boolean discrete = choiceType.isInt() || choiceType.isChar();
+        if(!discrete && !choiceType.isString())
+            throw new UnsupportedConstructException(cs);
+
+        int choice = code.newLocal(1);
+        cs.getChoiceValue().visit(this);
+        code.store(discrete ? CodeWriter.ISTORE : CodeWriter.ASTORE,choice);
+
+        Vector<CodeWriter.Label> bodies = new Vector<>();
+        for(CaseStmt currCase : cs.getCases()) {
+            CodeWriter.Label body = new CodeWriter.Label();
+            Value low = Value.fromLiteral(currCase.getLabel().getLeftConstant(),RealMode.DOUBLE);
+            Literal right = currCase.getLabel().getRightConstant();
+            bodies.add(body);
+
+            if(discrete) {
+                int lowVal = choiceType.isChar() ? low.asChar() : low.asInt();
+                if(right == null) {
+                    code.load(CodeWriter.ILOAD,choice);
+                    code.pushInt(lowVal);
+                    code.jump(CodeWriter.IF_ICMPEQ,body);
+                }
+                else {
+                    Value high = Value.fromLiteral(right,RealMode.DOUBLE);
+                    CodeWriter.Label next = new CodeWriter.Label();
+                    code.load(CodeWriter.ILOAD,choice);
+                    code.pushInt(lowVal);
+                    code.jump(CodeWriter.IF_ICMPLT,next);
+                    code.load(CodeWriter.ILOAD,choice);
+                    code.pushInt(choiceType.isChar() ? high.asChar() : high.asInt());
+                    code.jump(CodeWriter.IF_ICMPLE,body);
+                    code.place(next);
+                }
+            }
+            else if(right == null) {
+                code.load(CodeWriter.ALOAD,choice);
+                code.pushString(low.asString());
+                code.invoke(CodeWriter.INVOKEVIRTUAL,STRING,"equals","(Ljava/lang/Object;)Z");
+                code.jump(CodeWriter.IFNE,body);
+            }
+            else
+                throw new UnsupportedConstructException(cs);
+        }
+
+        CodeWriter.Label end = new CodeWriter.Label();
+        if(cs.getDefaultBody() != null)
+            cs.getDefaultBody().visit(this);
+        code.jump(CodeWriter.GOTO,end);
+
+        for(int i = 0; i < cs.getCases().size(); i++) {
+            code.place(bodies.get(i));
+            cs.getCases().get(i).getBody().visit(this);
+            code.jump(CodeWriter.GOTO,end);
+        }
+        code.place(end);
+    }
+
+    /**
+     * Classes are generated before the {@code main} method.
+     * @param cd {@link ClassDecl}
+     */
+    public void visitClassDecl(ClassDecl cd) { /* Do nothing. */ }
+
+    /**
+     * Generates a jump to the next iteration of the current loop.
+     * @param cs {@link ContinueStmt}
+     */
+    public void visitContinueStmt(ContinueStmt cs) {
+        if(loops.isEmpty())
+            throw new UnsupportedConstructException(cs);
+        code.jump(CodeWriter.GOTO,loops.getLast()[1]);
+    }
+
+    /**
+     * Generates a do while loop.
+     * @param ds {@link DoStmt}
+     */
+    public void visitDoStmt(DoStmt ds) {
+        CodeWriter.Label top = new CodeWriter.Label();
+        CodeWriter.Label next = new CodeWriter.Label();
+        CodeWriter.Label exit = new CodeWriter.Label();
+
+        for(AssignStmt as : ds.getPreheader())
+            as.visit(this);
+
+        code.place(top);
+        loops.add(new CodeWriter.Label[]{exit,next});
+        ds.getBody().visit(this);
+        loops.removeLast();
+
+        code.place(next);
+        ds.getCondition().visit(this);
+        code.jump(CodeWriter.IFNE,top);
+        code.place(exit);
+    }
+
+    /**
+     * Enumerations are not supported yet.
+     * @param ed {@link EnumDecl}
+     */
+    public void visitEnumDecl(EnumDecl ed) { throw new UnsupportedConstructException(ed); }
+
+    /**
+     * Generates an expression statement and discards its value.
+     * @param es {@link ExprStmt}
+     */
+    public void visitExprStmt(ExprStmt es) {
+        es.getExpression().visit(this);
+        pop(descriptor(es,es.getExpression().type));
+    }
+
+    /**
+     * Generates a field expression.
+     * <p>
+     *     Only a field access or a method invocation on a single object is supported.
+     * </p>
+     * @param fe {@link FieldExpr}
+     */
+    public void visitFieldExpr(FieldExpr fe) {
+        if(fe.getTarget().isParentStmt())
+            throw new UnsupportedConstructException(fe);
+
+        ClassDecl cd = targetClass(fe.getTarget());
+        Expression access = fe.getAccessExpr();
+        fe.getTarget().visit(this);
+
+        if(access.isNameExpr()) {
+            FieldDecl field = findField(fe,cd,access.toString());
+            code.field(CodeWriter.GETFIELD,cd.getName().toString(),access.toString(),descriptor(fe,field.getType()));
+        }
+        else if(access.isInvocation())
+            invokeMethod(cd,access.asInvocation());
+        else
+            throw new UnsupportedConstructException(fe);
+    }
+
+    /**
+     * Generates a for loop.
+     * <p>
+     *     The start and end values are evaluated once and stored into two temporary
+     *     locals, so the control variable is only written at the start of each iteration.
+     * </p>
+     * @param fs {@link ForStmt}
+     */
+    public void visitForStmt(ForStmt fs) {
+        LocalDecl control = fs.getControlVariable();
+        if(!isIntLike(descriptor(fs,fs.getStartValue().type)) || !isIntLike(descriptor(fs,fs.getEndValue().type)))
+            throw new UnsupportedConstructException(fs);
+
+        int counter = code.newLocal(1), limit = code.newLocal(1);
+        fs.getStartValue().visit(this);
+        code.store(CodeWriter.ISTORE,counter);
+        fs.getEndValue().visit(this);
+        code.store(CodeWriter.ISTORE,limit);
+
+        switch(fs.getLoopOperator().getLoopOp()) {
+            case EXCL_L -> code.increment(counter,1);
+            case EXCL_R -> code.increment(limit,-1);
+            case EXCL -> {
+                code.increment(counter,1);
+                code.increment(limit,-1);
+            }
+        }
+
+        for(AssignStmt as : fs.getPreheader())
+            as.visit(this);
+
+        CodeWriter.Label top = new CodeWriter.Label();
+        CodeWriter.Label next = new CodeWriter.Label();
+        CodeWriter.Label exit = new CodeWriter.Label();
+
+        code.place(top);
+        code.load(CodeWriter.ILOAD,counter);
+        code.load(CodeWriter.ILOAD,limit);
+        code.jump(CodeWriter.IF_ICMPGT,exit);
+
+        code.load(CodeWriter.ILOAD,counter);
+        if(fs.getStartValue().type.isChar())
+            code.op(CodeWriter.I2C,0);
+        storeVariable(control,control.getDepth(),control.getSlot(),control.getDeclName(),control.getType());
+
+        loops.add(new CodeWriter.Label[]{exit,next});
+        fs.getBody().visit(this);
+        loops.removeLast();
+
+        code.place(next);
+        code.increment(counter,1);
+        code.jump(CodeWriter.GOTO,top);
+        code.place(exit);
+    }
+
+    /**
+     * Functions are generated before the {@code main} method.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) { /* Do nothing. */ }
+
+    /**
+     * Generates a global declaration.
+     * @param gd {@link GlobalDecl}
+     */
+    public void visitGlobalDecl(GlobalDecl gd) {
+        if(gd.isUnused())
+            return;
+
+        if(gd.getInitialValue() != null)
+            generate(gd.getInitialValue(),gd.getType());
+        else
+            pushDefault(descriptor(gd,gd.getType()));
+        storeVariable(gd,gd.getDepth(),gd.getSlot(),gd.getDeclName(),gd.getType());
+    }
+
+    /**
+     * Generates an if statement.
+     * @param is {@link IfStmt}
+     */
+    public void visitIfStmt(IfStmt is) {
+        CodeWriter.Label end = new CodeWriter.Label();
+        CodeWriter.Label next = new CodeWriter.Label();
+
+        condition(is.getCondition(),next);
+        is.getIfBody().visit(this);
+
+        for(IfStmt elif : is.getElifs()) {
+            code.jump(CodeWriter.GOTO,end);
+            code.place(next);
+            next = new CodeWriter.Label();
+            condition(elif.getCondition(),next);
+            elif.getIfBody().visit(this);
+        }
+
+        if(is.getElseBody() != null) {
+            code.jump(CodeWriter.GOTO,end);
+            code.place(next);
+            is.getElseBody().visit(this);
+        }
+        else
+            code.place(next);
+        code.place(end);
+    }
+
+    /**
+     * Imports are not supported yet.
+     * @param im {@link ImportDecl}
+     */
+    public void visitImportDecl(ImportDecl im) { throw new UnsupportedConstructException(im); }
+
+    /**
+     * Input statements are not supported yet.
+     * @param in {@link InStmt}
+     */
+    public void visitInStmt(InStmt in) { throw new UnsupportedConstructException(in); }
+
+    /**
+     * Generates a function invocation (or a method invocation on {@code this}).
+     * @param in {@link Invocation}
+     */
+    public void visitInvocation(Invocation in) {
+        if(in.isLengthInvocation() || in.containsTypeArgs() || in.templatedFunction != null)
+            throw new UnsupportedConstructException(in);
+
+        if(in.isMethodInvocation()) {
+            if(currentClass == null)
+                throw new UnsupportedConstructException(in);
+            code.load(CodeWriter.ALOAD,0);
+            invokeMethod(currentClass,in);
+            return;
+        }
+
+        AST decl = globalScope.findMethod(in.getName().toString(),in.getSignature());
+        if(decl == null || !decl.isTopLevelDecl() || !decl.asTopLevelDecl().isFuncDecl())
+            throw new UnsupportedConstructException(in);
+
+        FuncDecl fd = decl.asTopLevelDecl().asFuncDecl();
+        invoke(in,CodeWriter.INVOKESTATIC,mainName,fd.getName().toString(),fd.getParams(),fd.getReturnType());
+    }
+
+    /**
+     * Lists are not supported yet.
+     * @param ll {@link ListLiteral}
+     */
+    public void visitListLiteral(ListLiteral ll) { throw new UnsupportedConstructException(ll); }
+
+    /**
+     * Lists are not supported yet.
+     * @param ls {@link ListStmt}
+     */
+    public void visitListStmt(ListStmt ls) { throw new UnsupportedConstructException(ls); }
+
+    /**
+     * Generates a literal.
+     * @param li {@link Literal}
+     */
+    public void visitLiteral(Literal li) {
+        Value val = Value.fromLiteral(li,RealMode.DOUBLE);
+        switch(li.getConstantKind()) {
+            case INT -> code.pushInt(val.asInt());
+            case CHAR -> code.pushInt(val.asChar());
+            case BOOL -> code.pushInt(val.asBool() ? 1 : 0);
+            case REAL -> {
+                checkReal(li);
+                code.pushDouble(val.asReal().toDouble());
+            }
+            case STR -> code.pushString(val.asString());
+            default -> throw new UnsupportedConstructException(li);
+        }
+    }
+
+    /**
+     * Generates a local declaration.
+     * <p>
+     *     A local declaration without an initial value receives the default value of its type.
+     * </p>
+     * @param ld {@link LocalDecl}
+     */
+    public void visitLocalDecl(LocalDecl ld) {
+        if(ld.getInitialValue() != null)
+            generate(ld.getInitialValue(),ld.getType());
+        else
+            pushDefault(descriptor(ld,ld.getType()));
+        storeVariable(ld,ld.getDepth(),ld.getSlot(),ld.getDeclName(),ld.getType());
+    }
+
+    /**
+     * {@code main} can not be written at the top level of a compiled program.
+     * @param md {@link MainDecl}
+     */
+    public void visitMainDecl(MainDecl md) { throw new UnsupportedConstructException(md); }
+
+    /**
+     * Generates a name expression.
+     * @param ne {@link NameExpr}
+     */
+    public void visitNameExpr(NameExpr ne) {
+        if(!ne.isResolved())
+            throw new UnsupportedConstructException(ne);
+        loadVariable(ne,ne.getDepth(),ne.getSlot(),ne.getName().toString(),ne.type);
+    }
+
+    /**
+     * Generates a new expression.
+     * <p>
+     *     The fields the user initialized are set first, and every other field is then
+     *     set by its initial value (if it has one), which mirrors the class's {@link cminor.ast.classbody.InitDecl}.
+     * </p>
+     * @param ne {@link NewExpr}
+     */
+    public void visitNewExpr(NewExpr ne) {
+        if(ne.createsFromTemplate())
+            throw new UnsupportedConstructException(ne);
+
+        ClassDecl cd = classDecl(ne,ne.getClassType());
+        String owner = cd.getName().toString();
+        code.newObject(owner);
+        code.op(CodeWriter.DUP,1);
+        code.invoke(CodeWriter.INVOKESPECIAL,owner,"<init>","()V");
+
+        Vector<String> initialized = new Vector<>();
+        for(Var field : ne.getInitialFields()) {
+            String name = field.toString();
+            FieldDecl fd = findField(ne,cd,name);
+            code.op(CodeWriter.DUP,1);
+            generate(field.getInitialValue(),fd.getType());
+            code.field(CodeWriter.PUTFIELD,owner,name,descriptor(ne,fd.getType()));
+            initialized.add(name);
+        }
+
+        for(AssignStmt as : cd.getConstructor().getInitStmts()) {
+            String name = as.getLHS().asFieldExpr().getAccessExpr().toString();
+            if(initialized.contains(name) || as.getRHS() == null)
+                continue;
+            // Only constant initial values can be evaluated outside of the class.
+            if(!as.getRHS().isLiteral())
+                throw new UnsupportedConstructException(ne);
+
+            FieldDecl fd = findField(ne,cd,name);
+            code.op(CodeWriter.DUP,1);
+            generate(as.getRHS(),fd.getType());
+            code.field(CodeWriter.PUTFIELD,owner,name,descriptor(ne,fd.getType()));
+        }
+    }
+
+    /**
+     * Generates an output statement.
+     * @param os {@link OutStmt}
+     */
+    public void visitOutStmt(OutStmt os) {
+        for(Expression e : os.getOutExprs()) {
+            code.field(CodeWriter.GETSTATIC,mainName,OUT,"L" + PRINT_STREAM + ";");
+            if(e.isEndl()) {
+                code.invoke(CodeWriter.INVOKEVIRTUAL,PRINT_STREAM,"println","()V");
+                continue;
+            }
+
+            // A Char cast of an Int is printed as a number, just like the execution engines.
+            if(e.isCastExpr() && e.type.isChar() && e.asCastExpr().getCastExpr().type.isInt())
+                e = e.asCastExpr().getCastExpr();
+
+            e.visit(this);
+            String desc = descriptor(e,e.type);
+            if(desc.equals("D")) {
+                code.invoke(CodeWriter.INVOKESTATIC,mainName,REAL_TO_STRING,"(D)Ljava/lang/String;");
+                desc = "L" + STRING + ";";
+            }
+            else if(desc.startsWith("L") && !e.type.isString())
+                throw new UnsupportedConstructException(os);
+            code.invoke(CodeWriter.INVOKEVIRTUAL,PRINT_STREAM,"print","(" + desc + ")V");
+        }
+    }
+
+    /**
+     * Parent references are not supported yet.
+     * @param ps {@link ParentStmt}
+     */
+    public void visitParentStmt(ParentStmt ps) { throw new UnsupportedConstructException(ps); }
+
+    /**
+     * Generates a return statement.
+     * @param rs {@link ReturnStmt}
+     */
+    public void visitReturnStmt(ReturnStmt rs) {
+        if(returnType == null)
+            throw new UnsupportedConstructException(rs);
+
+        String desc = descriptor(rs,returnType);
+        if(rs.getReturnValue() != null)
+            generate(rs.getReturnValue(),returnType);
+        else
+            pushDefault(desc);
+        code.op(returnOpcode(desc),-CodeWriter.slots(desc));
+    }
+
+    /**
+     * Retype statements are not supported yet.
+     * @param rt {@link RetypeStmt}
+     */
+    public void visitRetypeStmt(RetypeStmt rt) { throw new UnsupportedConstructException(rt); }
+
+    /**
+     * Generates a stop statement, which flushes the output and terminates the program.
+     * @param ss {@link StopStmt}
+     */
+    public void visitStopStmt(StopStmt ss) {
+        flush();
+        code.pushInt(1);
+        code.invoke(CodeWriter.INVOKESTATIC,"java/lang/System","exit","(I)V");
+    }
+
+    /**
+     * Generates a reference to the current object.
+     * @param ts {@link ThisStmt}
+     */
+    public void visitThis(ThisStmt ts) {
+        if(currentClass == null)
+            throw new UnsupportedConstructException(ts);
+        code.load(CodeWriter.ALOAD,0);
+    }
+
+    /**
+     * Generates a unary expression.
+     * @param ue {@link UnaryExpr}
+     */
+    public void visitUnaryExpr(UnaryExpr ue) {
+        ue.getExpr().visit(this);
+        switch(ue.getUnaryOp().getUnaryType()) {
+            case BNOT -> code.pushInt(-1);
+            case NOT -> code.pushInt(1);
+        }
+        code.op(CodeWriter.IXOR,-1);
+    }
+
+    /**
+     * Generates a while loop.
+     * @param ws {@link WhileStmt}
+     */
+    public void visitWhileStmt(WhileStmt ws) {
+        CodeWriter.Label top = new CodeWriter.Label();
+        CodeWriter.Label exit = new CodeWriter.Label();
+
+        for(AssignStmt as : ws.getPreheader())
+            as.visit(this);
+
+        code.place(top);
+        condition(ws.getCondition(),exit);
+
+        loops.add(new CodeWriter.Label[]{exit,top});
+        ws.getBody().visit(this);
+        loops.removeLast();
+
+        code.jump(CodeWriter.GOTO,top);
+        code.place(exit);
+    }
+}
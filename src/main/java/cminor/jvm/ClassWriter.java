@@ -0,0 +1,337 @@
+package cminor.jvm;
+
+import cminor.utilities.Vector;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * A small writer that assembles a single JVM class file.
+ * <p>
+ *     The {@link ClassGenerator} uses this class to create every class file for a C Minor
+ *     program. We only support the parts of the class file format that the generator needs:
+ *     a constant pool, static and instance fields, methods with a {@code Code} attribute, and
+ *     a {@code SourceFile} attribute.
+ * </p>
+ * <p>
+ *     Every class is written with version 49 of the class file format. This version does
+ *     not require a {@code StackMapTable} attribute, so the JVM will verify each method
+ *     by inferring the types of the operand stack and local variables on its own.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ClassWriter {
+
+    /** Flag for a public class, field, or method. */
+    public static final int ACC_PUBLIC = 0x0001;
+
+    /** Flag for a private field or method. */
+    public static final int ACC_PRIVATE = 0x0002;
+
+    /** Flag for a static field or method. */
+    public static final int ACC_STATIC = 0x0008;
+
+    /** Flag that tells the JVM to use the modern semantics of {@code invokespecial}. */
+    public static final int ACC_SUPER = 0x0020;
+
+    /** Flag for an abstract class. */
+    public static final int ACC_ABSTRACT = 0x0400;
+
+    /** Major version of the class file format we generate. */
+    private static final int MAJOR_VERSION = 49;
+
+    /**
+     * Internal name of the class (i.e. {@code pkg/Name}).
+     */
+    private final String name;
+
+    /**
+     * Access flags of the class.
+     */
+    private final int access;
+
+    /**
+     * Index of the class in the constant pool.
+     */
+    private final int thisClass;
+
+    /**
+     * Index of the superclass in the constant pool.
+     */
+    private final int superClass;
+
+    /**
+     * Bytes of every constant pool entry.
+     */
+    private final ByteArrayOutputStream pool;
+
+    /**
+     * Writer used to append entries into {@link #pool}.
+     */
+    private final DataOutputStream poolWriter;
+
+    /**
+     * Number of slots used by the constant pool (a {@code double} uses two slots).
+     */
+    private int poolCount;
+
+    /**
+     * Map that stores the index of every constant that was already added.
+     */
+    private final HashMap<String,Integer> constants;
+
+    /**
+     * Bytes of every field.
+     */
+    private final Vector<byte[]> fields;
+
+    /**
+     * Names of every field that was declared.
+     */
+    private final Vector<String> fieldNames;
+
+    /**
+     * Every method declared in the class.
+     */
+    private final Vector<CodeWriter> methods;
+
+    /**
+     * Name of the source file the class was generated from (can be {@code null}).
+     */
+    private String sourceFile;
+
+    /**
+     * Creates a {@link ClassWriter}.
+     * @param access Access flags of the class
+     * @param name Internal name of the class
+     * @param superName Internal name of the superclass
+     */
+    public ClassWriter(int access, String name, String superName) {
+        this.name = name;
+        this.access = access | ACC_SUPER;
+        this.pool = new ByteArrayOutputStream();
+        this.poolWriter = new DataOutputStream(pool);
+        this.poolCount = 1;
+        this.constants = new HashMap<>();
+        this.fields = new Vector<>();
+        this.fieldNames = new Vector<>();
+        this.methods = new Vector<>();
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+    }
+
+    /**
+     * Getter for {@link #name}.
+     * @return String
+     */
+    public String getName() { return name; }
+
+    /**
+     * Setter for {@link #sourceFile}.
+     * @param sourceFile Name of the C Minor file
+     */
+    public void setSourceFile(String sourceFile) { this.sourceFile = sourceFile; }
+
+    /**
+     * Adds a constant into the pool if it was not added yet.
+     * @param key String that uniquely identifies the constant
+     * @param tag Tag of the constant pool entry
+     * @param slots Number of slots the entry uses
+     * @param contents Bytes written after the tag
+     * @return Int representing the index of the constant
+     */
+    private int constant(String key, int tag, int slots, byte[] contents) {
+        Integer index = constants.get(key);
+        if(index != null)
+            return index;
+
+        pool.write(tag);
+        pool.write(contents,0,contents.length);
+        constants.put(key,poolCount);
+        poolCount += slots;
+        return poolCount - slots;
+    }
+
+    /**
+     * Converts a list of unsigned 16-bit values into bytes.
+     * @param values Values to write
+     * @return Array of bytes
+     */
+    private static byte[] u2(int... values) {
+        byte[] bytes = new byte[values.length*2];
+        for(int i = 0; i < values.length; i++) {
+            bytes[2*i] = (byte) (values[i] >> 8);
+            bytes[2*i+1] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Adds a {@code CONSTANT_Utf8} entry.
+     * @param text String
+     * @return Int representing the index of the constant
+     */
+    public int utf8(String text) {
+        Integer index = constants.get("U" + text);
+        if(index != null)
+            return index;
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new DataOutputStream(bytes).writeUTF(text);
+            return constant("U" + text,1,1,bytes.toByteArray());
+        }
+        catch(IOException e) { throw new IllegalStateException(e); }
+    }
+
+    /**
+     * Adds a {@code CONSTANT_Class} entry.
+     * @param internalName Internal name of the class
+     * @return Int representing the index of the constant
+     */
+    public int classRef(String internalName) { return constant("C" + internalName,7,1,u2(utf8(internalName))); }
+
+    /**
+     * Adds a {@code CONSTANT_String} entry.
+     * @param text String
+     * @return Int representing the index of the constant
+     */
+    public int string(String text) { return constant("S" + text,8,1,u2(utf8(text))); }
+
+    /**
+     * Adds a {@code CONSTANT_Integer} entry.
+     * @param val Int
+     * @return Int representing the index of the constant
+     */
+    public int integer(int val) {
+        return constant("I" + val,3,1,new byte[]{(byte) (val >> 24),(byte) (val >> 16),(byte) (val >> 8),(byte) val});
+    }
+
+    /**
+     * Adds a {@code CONSTANT_Double} entry.
+     * @param val Double
+     * @return Int representing the index of the constant
+     */
+    public int doubleConstant(double val) {
+        long bits = Double.doubleToRawLongBits(val);
+        byte[] bytes = new byte[8];
+        for(int i = 0; i < 8; i++)
+            bytes[i] = (byte) (bits >> (56 - 8*i));
+        return constant("D" + bits,6,2,bytes);
+    }
+
+    /**
+     * Adds a {@code CONSTANT_NameAndType} entry.
+     * @param name Name of the member
+     * @param descriptor Descriptor of the member
+     * @return Int representing the index of the constant
+     */
+    private int nameAndType(String name, String descriptor) {
+        return constant("N" + name + " " + descriptor,12,1,u2(utf8(name),utf8(descriptor)));
+    }
+
+    /**
+     * Adds a {@code CONSTANT_Fieldref} entry.
+     * @param owner Internal name of the class that declares the field
+     * @param name Name of the field
+     * @param descriptor Descriptor of the field
+     * @return Int representing the index of the constant
+     */
+    public int fieldRef(String owner, String name, String descriptor) {
+        return constant("F" + owner + "." + name + " " + descriptor,9,1,u2(classRef(owner),nameAndType(name,descriptor)));
+    }
+
+    /**
+     * Adds a {@code CONSTANT_Methodref} entry.
+     * @param owner Internal name of the class that declares the method
+     * @param name Name of the method
+     * @param descriptor Descriptor of the method
+     * @return Int representing the index of the constant
+     */
+    public int methodRef(String owner, String name, String descriptor) {
+        return constant("M" + owner + "." + name + descriptor,10,1,u2(classRef(owner),nameAndType(name,descriptor)));
+    }
+
+    /**
+     * Checks if a field was already declared in the class.
+     * @param name Name of the field
+     * @return Boolean
+     */
+    public boolean hasField(String name) { return fieldNames.contains(name); }
+
+    /**
+     * Declares a new field.
+     * @param access Access flags of the field
+     * @param name Name of the field
+     * @param descriptor Descriptor of the field
+     */
+    public void addField(int access, String name, String descriptor) {
+        fieldNames.add(name);
+        fields.add(u2(access,utf8(name),utf8(descriptor),0));
+    }
+
+    /**
+     * Declares a new method.
+     * @param access Access flags of the method
+     * @param name Name of the method
+     * @param descriptor Descriptor of the method
+     * @return {@link CodeWriter} used to write the instructions of the method
+     */
+    public CodeWriter addMethod(int access, String name, String descriptor) {
+        CodeWriter method = new CodeWriter(this,access,name,descriptor);
+        methods.add(method);
+        return method;
+    }
+
+    /**
+     * Generates the bytes of the class file.
+     * @return Array of bytes representing the class file
+     */
+    public byte[] toByteArray() {
+        // The names of every attribute have to be in the pool before the pool is written.
+        int code = utf8("Code");
+        int source = (sourceFile != null) ? utf8("SourceFile") : 0;
+        int sourceName = (sourceFile != null) ? utf8(sourceFile) : 0;
+        Vector<byte[]> methodBytes = new Vector<>();
+        for(CodeWriter method : methods)
+            methodBytes.add(method.toByteArray(code));
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(poolCount);
+            poolWriter.flush();
+            pool.writeTo(out);
+
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);
+
+            out.writeShort(fields.size());
+            for(byte[] field : fields)
+                out.write(field);
+
+            out.writeShort(methodBytes.size());
+            for(byte[] method : methodBytes)
+                out.write(method);
+
+            if(sourceFile != null) {
+                out.writeShort(1);
+                out.writeShort(source);
+                out.writeInt(2);
+                out.writeShort(sourceName);
+            }
+            else
+                out.writeShort(0);
+
+            return bytes.toByteArray();
+        }
+        catch(IOException e) { throw new IllegalStateException(e); }
+    }
+}
@@ -0,0 +1,542 @@
+package cminor.jvm;
+
+import cminor.utilities.Vector;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A writer that generates the instructions of a single JVM method.
+ * <p>
+ *     Every instruction is written through a helper method that also keeps track of the
+ *     current depth of the operand stack. This allows us to compute the {@code max_stack}
+ *     value of the method without a separate analysis. Jumps are written with a {@link Label},
+ *     and each label will be patched once its position is known.
+ * </p>
+ * @author Daniel Levy
+ */
+public class CodeWriter {
+
+    public static final int ACONST_NULL = 0x01;
+    public static final int ICONST_0 = 0x03;
+    public static final int DCONST_0 = 0x0E;
+    public static final int BIPUSH = 0x10;
+    public static final int SIPUSH = 0x11;
+    public static final int LDC_W = 0x13;
+    public static final int LDC2_W = 0x14;
+    public static final int ILOAD = 0x15;
+    public static final int DLOAD = 0x18;
+    public static final int ALOAD = 0x19;
+    public static final int ISTORE = 0x36;
+    public static final int DSTORE = 0x39;
+    public static final int ASTORE = 0x3A;
+    public static final int POP = 0x57;
+    public static final int POP2 = 0x58;
+    public static final int DUP = 0x59;
+    public static final int DUP_X1 = 0x5A;
+    public static final int DUP2 = 0x5C;
+    public static final int DUP2_X1 = 0x5D;
+    public static final int SWAP = 0x5F;
+    public static final int IADD = 0x60;
+    public static final int DADD = 0x63;
+    public static final int ISUB = 0x64;
+    public static final int DSUB = 0x67;
+    public static final int IMUL = 0x68;
+    public static final int DMUL = 0x6B;
+    public static final int IDIV = 0x6C;
+    public static final int DDIV = 0x6F;
+    public static final int IREM = 0x70;
+    public static final int DREM = 0x73;
+    public static final int ISHL = 0x78;
+    public static final int ISHR = 0x7A;
+    public static final int IAND = 0x7E;
+    public static final int IOR = 0x80;
+    public static final int IXOR = 0x82;
+    public static final int IINC = 0x84;
+    public static final int I2D = 0x87;
+    public static final int L2I = 0x88;
+    public static final int D2I = 0x8E;
+    public static final int I2C = 0x92;
+    public static final int DCMPL = 0x97;
+    public static final int DCMPG = 0x98;
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9A;
+    public static final int IFLT = 0x9B;
+    public static final int IFGE = 0x9C;
+    public static final int IFGT = 0x9D;
+    public static final int IFLE = 0x9E;
+    public static final int IF_ICMPEQ = 0x9F;
+    public static final int IF_ICMPNE = 0xA0;
+    public static final int IF_ICMPLT = 0xA1;
+    public static final int IF_ICMPGE = 0xA2;
+    public static final int IF_ICMPGT = 0xA3;
+    public static final int IF_ICMPLE = 0xA4;
+    public static final int IF_ACMPEQ = 0xA5;
+    public static final int IF_ACMPNE = 0xA6;
+    public static final int GOTO = 0xA7;
+    public static final int IRETURN = 0xAC;
+    public static final int DRETURN = 0xAF;
+    public static final int ARETURN = 0xB0;
+    public static final int RETURN = 0xB1;
+    public static final int GETSTATIC = 0xB2;
+    public static final int PUTSTATIC = 0xB3;
+    public static final int GETFIELD = 0xB4;
+    public static final int PUTFIELD = 0xB5;
+    public static final int INVOKEVIRTUAL = 0xB6;
+    public static final int INVOKESPECIAL = 0xB7;
+    public static final int INVOKESTATIC = 0xB8;
+    public static final int NEW = 0xBB;
+    public static final int ATHROW = 0xBF;
+
+    /**
+     * A position inside the method that a jump can target.
+     */
+    public static class Label {
+
+        /**
+         * Position of the label, or -1 if the label was not placed yet.
+         */
+        private int position = -1;
+
+        /**
+         * Depth of the operand stack whenever we reach the label (or -1 if it is unknown).
+         */
+        private int stack = -1;
+
+        /**
+         * Pairs of (instruction position, offset position) for every jump waiting on the label.
+         */
+        private final Vector<int[]> jumps = new Vector<>();
+    }
+
+    /**
+     * {@link ClassWriter} that declares the method.
+     */
+    private final ClassWriter owner;
+
+    /**
+     * Access flags of the method.
+     */
+    private final int access;
+
+    /**
+     * Name of the method.
+     */
+    private final String name;
+
+    /**
+     * Descriptor of the method.
+     */
+    private final String descriptor;
+
+    /**
+     * Array storing every instruction.
+     */
+    private byte[] code;
+
+    /**
+     * Number of bytes written into {@link #code}.
+     */
+    private int size;
+
+    /**
+     * Current depth of the operand stack.
+     */
+    private int stack;
+
+    /**
+     * Largest depth the operand stack reached.
+     */
+    private int maxStack;
+
+    /**
+     * Number of local variable slots used by the method.
+     */
+    private int maxLocals;
+
+    /**
+     * Flag set when the next instruction can only be reached through a jump.
+     */
+    private boolean unreachable;
+
+    /**
+     * Exception handlers written as (start, end, handler) triples that catch every exception.
+     */
+    private final Vector<int[]> handlers;
+
+    /**
+     * Creates a {@link CodeWriter}. This should only be called by {@link ClassWriter#addMethod}.
+     * @param owner {@link ClassWriter} declaring the method
+     * @param access Access flags of the method
+     * @param name Name of the method
+     * @param descriptor Descriptor of the method
+     */
+    CodeWriter(ClassWriter owner, int access, String name, String descriptor) {
+        this.owner = owner;
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.code = new byte[64];
+        this.size = 0;
+        this.stack = 0;
+        this.maxStack = 0;
+        this.maxLocals = argumentSlots(descriptor) + ((access & ClassWriter.ACC_STATIC) != 0 ? 0 : 1);
+        this.unreachable = false;
+        this.handlers = new Vector<>();
+    }
+
+    /**
+     * Getter for {@link #owner}.
+     * @return {@link ClassWriter}
+     */
+    public ClassWriter getOwner() { return owner; }
+
+    /**
+     * Writes a single byte.
+     * @param b Byte to write
+     */
+    private void u1(int b) {
+        if(size == code.length)
+            code = Arrays.copyOf(code,size*2);
+        code[size++] = (byte) b;
+    }
+
+    /**
+     * Writes an unsigned 16-bit value.
+     * @param val Value to write
+     */
+    private void u2(int val) {
+        u1(val >> 8);
+        u1(val);
+    }
+
+    /**
+     * Updates the depth of the operand stack.
+     * @param delta Number of slots pushed (or popped if negative) by an instruction
+     */
+    private void adjust(int delta) {
+        stack += delta;
+        maxStack = Math.max(maxStack,stack);
+    }
+
+    /**
+     * Writes an instruction that has no operands.
+     * @param opcode Opcode of the instruction
+     * @param delta Change to the depth of the operand stack
+     */
+    public void op(int opcode, int delta) {
+        u1(opcode);
+        adjust(delta);
+        if(opcode == ATHROW || (opcode >= IRETURN && opcode <= RETURN))
+            unreachable = true;
+    }
+
+    /**
+     * Pushes an integer constant onto the operand stack.
+     * @param val Int
+     */
+    public void pushInt(int val) {
+        if(val >= -1 && val <= 5)
+            u1(ICONST_0 + val);
+        else if(val >= Byte.MIN_VALUE && val <= Byte.MAX_VALUE) {
+            u1(BIPUSH);
+            u1(val);
+        }
+        else if(val >= Short.MIN_VALUE && val <= Short.MAX_VALUE) {
+            u1(SIPUSH);
+            u2(val);
+        }
+        else {
+            u1(LDC_W);
+            u2(owner.integer(val));
+        }
+        adjust(1);
+    }
+
+    /**
+     * Pushes a double constant onto the operand stack.
+     * @param val Double
+     */
+    public void pushDouble(double val) {
+        if(val == 0.0 && Double.doubleToRawLongBits(val) == 0L)
+            u1(DCONST_0);
+        else if(val == 1.0)
+            u1(DCONST_0 + 1);
+        else {
+            u1(LDC2_W);
+            u2(owner.doubleConstant(val));
+        }
+        adjust(2);
+    }
+
+    /**
+     * Pushes a string constant onto the operand stack.
+     * @param val String
+     */
+    public void pushString(String val) {
+        u1(LDC_W);
+        u2(owner.string(val));
+        adjust(1);
+    }
+
+    /**
+     * Loads a local variable onto the operand stack.
+     * @param opcode {@link #ILOAD}, {@link #DLOAD}, or {@link #ALOAD}
+     * @param index Index of the local variable
+     */
+    public void load(int opcode, int index) {
+        local(opcode,index);
+        adjust(opcode == DLOAD ? 2 : 1);
+    }
+
+    /**
+     * Stores the top of the operand stack into a local variable.
+     * @param opcode {@link #ISTORE}, {@link #DSTORE}, or {@link #ASTORE}
+     * @param index Index of the local variable
+     */
+    public void store(int opcode, int index) {
+        local(opcode,index);
+        adjust(opcode == DSTORE ? -2 : -1);
+    }
+
+    /**
+     * Writes an instruction that accesses a local variable.
+     * @param opcode Opcode of the instruction
+     * @param index Index of the local variable
+     */
+    private void local(int opcode, int index) {
+        if(index > 255) {
+            u1(0xC4); // wide
+            u1(opcode);
+            u2(index);
+        }
+        else {
+            u1(opcode);
+            u1(index);
+        }
+    }
+
+    /**
+     * Increments an {@code int} local variable by a constant.
+     * @param index Index of the local variable
+     * @param val Amount to add
+     */
+    public void increment(int index, int val) {
+        if(index > 255 || val < Byte.MIN_VALUE || val > Byte.MAX_VALUE) {
+            u1(0xC4); // wide
+            u1(IINC);
+            u2(index);
+            u2(val);
+        }
+        else {
+            u1(IINC);
+            u1(index);
+            u1(val);
+        }
+    }
+
+    /**
+     * Reserves space for a new local variable.
+     * @param slots Number of slots the variable needs (2 for a {@code double})
+     * @return Int representing the index of the local variable
+     */
+    public int newLocal(int slots) {
+        maxLocals += slots;
+        return maxLocals - slots;
+    }
+
+    /**
+     * Writes a field instruction.
+     * @param opcode {@link #GETSTATIC}, {@link #PUTSTATIC}, {@link #GETFIELD}, or {@link #PUTFIELD}
+     * @param owner Internal name of the class that declares the field
+     * @param name Name of the field
+     * @param desc Descriptor of the field
+     */
+    public void field(int opcode, String owner, String name, String desc) {
+        u1(opcode);
+        u2(this.owner.fieldRef(owner,name,desc));
+
+        int width = slots(desc);
+        switch(opcode) {
+            case GETSTATIC -> adjust(width);
+            case PUTSTATIC -> adjust(-width);
+            case GETFIELD -> adjust(width-1);
+            default -> adjust(-width-1);
+        }
+    }
+
+    /**
+     * Writes a method invocation.
+     * @param opcode {@link #INVOKESTATIC}, {@link #INVOKEVIRTUAL}, or {@link #INVOKESPECIAL}
+     * @param owner Internal name of the class that declares the method
+     * @param name Name of the method
+     * @param desc Descriptor of the method
+     */
+    public void invoke(int opcode, String owner, String name, String desc) {
+        u1(opcode);
+        u2(this.owner.methodRef(owner,name,desc));
+        adjust(slots(desc.substring(desc.indexOf(')')+1)) - argumentSlots(desc) - (opcode == INVOKESTATIC ? 0 : 1));
+    }
+
+    /**
+     * Creates a new object of a class (without calling its constructor).
+     * @param internalName Internal name of the class
+     */
+    public void newObject(String internalName) {
+        u1(NEW);
+        u2(owner.classRef(internalName));
+        adjust(1);
+    }
+
+    /**
+     * Writes a jump to a {@link Label}.
+     * @param opcode Jump opcode
+     * @param target {@link Label} to jump to
+     */
+    public void jump(int opcode, Label target) {
+        int pos = size;
+        u1(opcode);
+
+        if(opcode >= IF_ICMPEQ && opcode <= IF_ACMPNE)
+            adjust(-2);
+        else if(opcode != GOTO)
+            adjust(-1);
+
+        if(target.stack == -1)
+            target.stack = stack;
+
+        if(target.position != -1) {
+            if(target.position - pos < Short.MIN_VALUE)
+                throw new IllegalStateException("The method '" + name + "' is too large to be generated.");
+            u2(target.position - pos);
+        }
+        else {
+            target.jumps.add(new int[]{pos,size});
+            u2(0);
+        }
+
+        if(opcode == GOTO)
+            unreachable = true;
+    }
+
+    /**
+     * Places a {@link Label} at the current position and patches every jump waiting on it.
+     * @param label {@link Label}
+     */
+    public void place(Label label) {
+        label.position = size;
+        if(unreachable && label.stack != -1)
+            stack = label.stack;
+        else if(label.stack == -1)
+            label.stack = stack;
+        unreachable = false;
+
+        for(int[] jump : label.jumps) {
+            int offset = label.position - jump[0];
+            if(offset > Short.MAX_VALUE)
+                throw new IllegalStateException("The method '" + name + "' is too large to be generated.");
+            code[jump[1]] = (byte) (offset >> 8);
+            code[jump[1]+1] = (byte) offset;
+        }
+        label.jumps.clear();
+    }
+
+    /**
+     * Checks if the next instruction can be reached.
+     * @return Boolean
+     */
+    public boolean isReachable() { return !unreachable; }
+
+    /**
+     * Marks a range of instructions that will jump to a handler if any exception is thrown.
+     * @param start {@link Label} placed before the first instruction
+     * @param end {@link Label} placed after the last instruction
+     * @param handler {@link Label} of the handler (the exception is the only value on the stack)
+     */
+    public void catchAll(Label start, Label end, Label handler) {
+        // An empty range is not allowed by the class file format.
+        if(start.position == end.position)
+            return;
+        handlers.add(new int[]{start.position,end.position,handler.position});
+    }
+
+    /**
+     * Sets the depth of the operand stack at the start of an exception handler.
+     */
+    public void beginHandler() {
+        stack = 1;
+        maxStack = Math.max(maxStack,1);
+        unreachable = false;
+    }
+
+    /**
+     * Returns the number of slots a value of the given descriptor uses.
+     * @param desc Field descriptor
+     * @return Int
+     */
+    public static int slots(String desc) {
+        return switch(desc.charAt(0)) {
+            case 'V' -> 0;
+            case 'D', 'J' -> 2;
+            default -> 1;
+        };
+    }
+
+    /**
+     * Returns the number of slots used by the arguments of a method descriptor.
+     * @param desc Method descriptor
+     * @return Int
+     */
+    public static int argumentSlots(String desc) {
+        int count = 0;
+        for(int i = 1; desc.charAt(i) != ')'; i++) {
+            char c = desc.charAt(i);
+            if(c == 'L')
+                i = desc.indexOf(';',i);
+            else if(c == '[') {
+                while(desc.charAt(i) == '[')
+                    i++;
+                if(desc.charAt(i) == 'L')
+                    i = desc.indexOf(';',i);
+            }
+            count += (c == 'D' || c == 'J') ? 2 : 1;
+        }
+        return count;
+    }
+
+    /**
+     * Generates the bytes of the method.
+     * @param codeName Index of the {@code Code} string in the constant pool
+     * @return Array of bytes
+     */
+    byte[] toByteArray(int codeName) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeShort(access);
+            out.writeShort(owner.utf8(name));
+            out.writeShort(owner.utf8(descriptor));
+            out.writeShort(1);
+
+            out.writeShort(codeName);
+            out.writeInt(12 + size + 8*handlers.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(size);
+            out.write(code,0,size);
+            out.writeShort(handlers.size());
+            for(int[] handler : handlers) {
+                out.writeShort(handler[0]);
+                out.writeShort(handler[1]);
+                out.writeShort(handler[2]);
+                out.writeShort(0);
+            }
+            out.writeShort(0);
+
+            return bytes.toByteArray();
+        }
+        catch(IOException e) { throw new IllegalStateException(e); }
+    }
+}
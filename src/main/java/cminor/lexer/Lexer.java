@@ -7,7 +7,7 @@ import cminor.token.Location;
 import cminor.token.Position;
 import cminor.token.Token;
 import cminor.token.TokenType;
-import cminor.utilities.PrettyPrint;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.Vector;
 
 //TODO: There seems to be an error with '<>' and '<=>' at least in the parser! \(O-o)/
@@ -50,14 +50,23 @@ public class Lexer {
     /** A {@link MessageHandler} to create lexer errors. */
     private final MessageHandler handler;
 
-    /** Creates a new {@code Lexer} instance in interpretation mode.*/
-    public Lexer(final String file) { this(file,""); }
+    /** The {@link CompilationContext} of the program we are tokenizing. */
+    private final CompilationContext context;
+
+    /**
+     * Creates a new {@code Lexer} instance in interpretation mode.
+     * @param file C Minor program that will be tokenized.
+     * @param context The {@link CompilationContext} of the program.
+     */
+    public Lexer(final String file, CompilationContext context) { this(file,"",context); }
 
     /**
      * Creates a new {@code Lexer} instance, will be called by the parser.
      * @param file C Minor program that will be tokenized.
+     * @param fileName The name of the file the program was read from.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public Lexer(final String file, String fileName) {
+    public Lexer(final String file, String fileName, CompilationContext context) {
         this.file = file;
 
         // Get the actual file name depending on the file system.
@@ -73,11 +82,18 @@ public class Lexer {
         this.currLoc = new Location();
         this.currText = "";
         this.lines = new Vector<>();
-        this.handler = this.fileName.isEmpty() ? new MessageHandler() : new MessageHandler(this.fileName);
+        this.context = context;
+        this.handler = new MessageHandler(this.fileName,context);
     }
 
     public String getFileName() { return fileName; }
 
+    /**
+     * Getter for {@link #context}. The parsers will use the same context as the lexer.
+     * @return {@link CompilationContext}
+     */
+    public CompilationContext getContext() { return context; }
+
     public String getText() { return lines.getLast(); }
 
     public Token generateMetaData(Token start, Token end) {
@@ -277,9 +293,10 @@ public class Lexer {
                 currText += '\0';
                 break;
             default:
-                System.out.println(PrettyPrint.RED + "Error! Invalid escape sequence written at positions "
-                                                   + currLoc.toString() + ".");
-                System.exit(1);
+                handler.createErrorBuilder(SyntaxError.class)
+                       .addErrorNumber(MessageNumber.SYNTAX_ERROR_103)
+                       .addErrorArgs(currLoc.toString())
+                       .generateError();
         }
         update();
         currLoc.removeCol();
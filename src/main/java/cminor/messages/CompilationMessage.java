@@ -20,15 +20,25 @@ public class CompilationMessage extends RuntimeException {
     protected final Message msg;
 
     /**
-     * Shared flag that determines whether we should print out a stack trace (only for debugging purposes).
+     * Flag that determines whether we should print out a stack trace (only for debugging purposes).
      */
-    protected static boolean debugMode = false;
+    protected final boolean debugMode;
 
     /**
      * Default constructor for {@link CompilationMessage}.
      * @param msg {@link Message} to store into {@link #msg}.
      */
-    public CompilationMessage(Message msg) { this.msg = msg; }
+    public CompilationMessage(Message msg) { this(msg,false); }
+
+    /**
+     * Creates a {@link CompilationMessage} for a program compiled in debug mode.
+     * @param msg {@link Message} to store into {@link #msg}.
+     * @param debugMode Flag denoting if a stack trace should be printed alongside the message.
+     */
+    public CompilationMessage(Message msg, boolean debugMode) {
+        this.msg = msg;
+        this.debugMode = debugMode;
+    }
 
     /**
      * Prints out the {@link #msg} for the user.
@@ -77,9 +87,4 @@ public class CompilationMessage extends RuntimeException {
      * @return {@code True} if the error is a {@link cminor.messages.errors.scope.RedeclarationError}, {@code False} otherwise.
      */
     public boolean isRedeclarationError() { return false; }
-
-    /**
-     * Sets {@link #debugMode} for all instances of a {@link CompilationMessage}.
-     */
-    public static void setDebugMode() { debugMode = !debugMode; }
 }
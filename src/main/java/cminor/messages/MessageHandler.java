@@ -10,6 +10,7 @@ import cminor.messages.errors.setting.SettingErrorBuilder;
 import cminor.messages.errors.syntax.SyntaxErrorBuilder;
 import cminor.messages.errors.type.TypeErrorBuilder;
 import cminor.messages.warnings.WarningBuilder;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.Vector;
 
 /**
@@ -36,22 +37,25 @@ public class MessageHandler {
     private final Vector<Message> messages;
 
     /**
-     * Flag that will be set by {@link cminor.interpreter.VM} when executing the interpreter.
+     * The {@link CompilationContext} of the program we are generating messages for.
      */
-    private static boolean inInterpretationMode = false;
+    private final CompilationContext context;
 
     /**
      * Default constructor for {@link MessageHandler}. This will be called in interpretation mode.
+     * @param context The {@link CompilationContext} of the current program.
      */
-    public MessageHandler() { this(""); }
+    public MessageHandler(CompilationContext context) { this("",context); }
 
     /**
      * Main constructor for {@link MessageHandler}.
      * @param fileName The file that this handler will create messages for.
+     * @param context The {@link CompilationContext} of the current program.
      */
-    public MessageHandler(String fileName) {
+    public MessageHandler(String fileName, CompilationContext context) {
         this.fileName = fileName;
         this.messages = new Vector<>();
+        this.context = context;
     }
 
     /**
@@ -65,12 +69,12 @@ public class MessageHandler {
     public void storeMessage(Message msg) {
         msg.createMessage(fileName);
 
-        if(inInterpretationMode && msg.isError()) {
+        if(context.isInterpretationMode() && msg.isError()) {
             // Throw special exception if we are redeclaring a node.
             if(msg.asError().isScopeError() && msg.asError().asScopeError().isRedeclarationError())
-                throw new RedeclarationError(msg.asError().asScopeError());
+                throw new RedeclarationError(msg.asError().asScopeError(),context.isDebugMode());
 
-            throw new CompilationMessage(msg);
+            throw new CompilationMessage(msg,context.isDebugMode());
         }
         else
             messages.add(msg);
@@ -79,17 +83,18 @@ public class MessageHandler {
     }
 
     /**
-     * Sets every {@link MessageHandler} object to work under interpretation mode.
+     * Checks if any errors were stored by the {@link MessageHandler}.
+     * <p>
+     *     Every stored message was already printed, so the first stored error will be thrown
+     *     to stop the compilation process. The caller is responsible for handling it, which means
+     *     a program with errors never terminates the JVM that is compiling it.
+     * </p>
+     * @throws CompilationMessage The first error that was stored
      */
-    public static void setInterpretationMode() { inInterpretationMode = true; }
-
-    public void printMessages() {
-        if(messages.isEmpty())
-            return;
-
+    public void checkForErrors() throws CompilationMessage {
         for(Message m : messages)
-            System.out.println(m.msg);
-        System.exit(0);
+            if(m.isError())
+                throw new CompilationMessage(m,context.isDebugMode());
     }
 
     /**
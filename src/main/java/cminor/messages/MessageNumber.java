@@ -24,6 +24,8 @@ public enum MessageNumber {
     SYNTAX_ERROR_100,
     SYNTAX_ERROR_101,
     SYNTAX_ERROR_102,
+    SYNTAX_ERROR_103,
+    SYNTAX_ERROR_104,
 
     /* ######################################## SCOPE ERRORS ######################################## */
     SCOPE_ERROR_300,
@@ -173,6 +175,10 @@ public enum MessageNumber {
     RUNTIME_ERROR_607,
     RUNTIME_ERROR_608,
     RUNTIME_ERROR_609,
+    RUNTIME_ERROR_610,
+    RUNTIME_ERROR_611,
+    RUNTIME_ERROR_612,
+    RUNTIME_ERROR_613,
 
     /* ######################################## SEMANTIC ERRORS ######################################## */
     SEMANTIC_ERROR_700,
@@ -294,7 +300,12 @@ public enum MessageNumber {
     SETTING_ERROR_1,
     SETTING_ERROR_2,
     SETTING_ERROR_3,
-    SETTING_ERROR_4;
+    SETTING_ERROR_4,
+    SETTING_ERROR_5,
+    SETTING_ERROR_6,
+    SETTING_ERROR_7,
+    SETTING_ERROR_8,
+    SETTING_ERROR_9;
 
     /**
      * The file location containing the compiler messages. DO NOT CHANGE UNLESS FILE CHANGES DIRECTORY.
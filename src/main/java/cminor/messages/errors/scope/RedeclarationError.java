@@ -15,8 +15,9 @@ public class RedeclarationError extends CompilationMessage {
     /**
      * Default constructor for {@link RedeclarationError}.
      * @param se {@link ScopeError} to store into {@link #msg}
+     * @param debugMode Flag denoting if a stack trace should be printed alongside the message.
      */
-    public RedeclarationError(ScopeError se) { super(se); }
+    public RedeclarationError(ScopeError se, boolean debugMode) { super(se,debugMode); }
 
     /**
      * {@inheritDoc}
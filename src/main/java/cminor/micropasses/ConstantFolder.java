@@ -0,0 +1,243 @@
+package cminor.micropasses;
+
+import cminor.ast.AST;
+import cminor.ast.expressions.BinaryExpr;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.Literal;
+import cminor.ast.expressions.Literal.ConstantType;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.expressions.UnaryExpr;
+import cminor.ast.misc.Var;
+import cminor.ast.operators.BinaryOp;
+import cminor.ast.operators.UnaryOp;
+import cminor.ast.topleveldecls.GlobalDecl;
+import cminor.ast.types.Type;
+import cminor.utilities.ConstantPool;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.SymbolTable;
+import cminor.utilities.Visitor;
+
+/**
+ * A {@link Visitor} class that folds constant expressions and propagates known constants.
+ * <p>
+ *     This micropass runs after the {@link SlotResolver}, so every name already knows if it
+ *     refers to the global frame. Any name that refers to an enum constant or to a {@code const}
+ *     global initialized with a literal is replaced by a copy of that literal. Afterward, any
+ *     binary or unary expression whose operands are literals will be evaluated and replaced by
+ *     a new literal, so the execution engines never have to compute it again.
+ * </p>
+ * <p>
+ *     We only fold {@code Int}, {@code Bool}, and {@code String} expressions, since these will
+ *     evaluate to the same value no matter which {@link cminor.interpreter.value.RealMode} is used.
+ *     Division or remainder by a literal zero is not folded, so the runtime error is still generated.
+ *     Every literal that remains in the program is then added into the {@link ConstantPool}.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ConstantFolder extends Visitor {
+
+    /**
+     * The global scope used to find the declaration of any name stored in the global frame.
+     */
+    private final SymbolTable globalScope;
+
+    /**
+     * {@link ConstantPool} that will store the value of every literal.
+     */
+    private final ConstantPool pool;
+
+    /**
+     * Creates the {@link ConstantFolder}.
+     * @param globalScope The {@link SymbolTable} representing the global scope
+     * @param pool {@link ConstantPool} shared with the execution engines
+     */
+    public ConstantFolder(SymbolTable globalScope, ConstantPool pool) {
+        this.globalScope = globalScope;
+        this.pool = pool;
+    }
+
+    /**
+     * Folds a binary expression if both of its operands are literals.
+     * @param be {@link BinaryExpr}
+     */
+    public void visitBinaryExpr(BinaryExpr be) {
+        be.getLHS().visit(this);
+        be.getRHS().visit(this);
+
+        if(!isConstant(be.getLHS()) || !isConstant(be.getRHS()) || be.type == null)
+            return;
+
+        Literal LHS = be.getLHS().asLiteral();
+        Literal RHS = be.getRHS().asLiteral();
+        String result = null;
+
+        if(LHS.getConstantKind() == ConstantType.INT && RHS.getConstantKind() == ConstantType.INT)
+            result = foldInt(be,LHS.asInt(),RHS.asInt());
+        else if(LHS.getConstantKind() == ConstantType.BOOL && RHS.getConstantKind() == ConstantType.BOOL)
+            result = foldBool(be,asBool(LHS),asBool(RHS));
+        else if(LHS.getConstantKind() == ConstantType.STR && RHS.getConstantKind() == ConstantType.STR
+                && be.getBinaryOp().getBinaryType() == BinaryOp.BinaryType.PLUS && be.type.isString())
+            result = "'" + unquote(LHS) + unquote(RHS) + "'";
+
+        if(result != null)
+            replace(be,result);
+    }
+
+    /**
+     * Folds a unary expression if its operand is a literal.
+     * @param ue {@link UnaryExpr}
+     */
+    public void visitUnaryExpr(UnaryExpr ue) {
+        ue.getExpr().visit(this);
+        if(!isConstant(ue.getExpr()) || ue.type == null)
+            return;
+
+        Literal expr = ue.getExpr().asLiteral();
+        if(ue.getUnaryOp().getUnaryType() == UnaryOp.UnaryType.BNOT && expr.getConstantKind() == ConstantType.INT && ue.type.isInt())
+            replace(ue,String.valueOf(~expr.asInt()));
+        else if(ue.getUnaryOp().getUnaryType() == UnaryOp.UnaryType.NOT && expr.getConstantKind() == ConstantType.BOOL && ue.type.isBool())
+            replace(ue,boolText(!asBool(expr)));
+    }
+
+    /**
+     * Adds a literal into the {@link ConstantPool}.
+     * @param li {@link Literal}
+     */
+    public void visitLiteral(Literal li) {
+        if(li.isArrayLiteral() || li.isListLiteral())
+            li.visitChildren(this);
+        else if(li.type != null)
+            pool.get(li);
+    }
+
+    /**
+     * Replaces a name with the literal it represents.
+     * <p>
+     *     A name is only replaced if it refers to an enum constant or a {@code const} global
+     *     whose initial value is a literal of the same type. Names that are part of a field
+     *     expression or that name an invoked function are left alone.
+     * </p>
+     * @param ne {@link NameExpr}
+     */
+    public void visitNameExpr(NameExpr ne) {
+        if(!ne.isResolved() || ne.getDepth() != RuntimeStack.GLOBAL_DEPTH || ne.type == null
+                || ne.getParent() == null || ne.getParent().isExpression() && ne.getParent().asExpression().isFieldExpr())
+            return;
+
+        AST decl = globalScope.findName(ne.toString());
+        if(decl == null || !decl.isTopLevelDecl())
+            return;
+
+        Expression init = null;
+        if(decl.asTopLevelDecl().isGlobalDecl()) {
+            GlobalDecl gd = decl.asTopLevelDecl().asGlobalDecl();
+            if(gd.isConstant())
+                init = gd.getInitialValue();
+        }
+        else if(decl.asTopLevelDecl().isEnumDecl()) {
+            for(Var constant : decl.asTopLevelDecl().asEnumDecl().getConstants())
+                if(constant.toString().equals(ne.toString()))
+                    init = constant.getInitialValue();
+        }
+
+        if(!isConstant(init) || init.type == null || !init.type.equals(ne.type))
+            return;
+
+        Literal copy = init.asLiteral().deepCopy().asExpression().asLiteral();
+        copy.type = init.type;
+        ne.getParent().replaceChild(ne,copy);
+        pool.get(copy);
+    }
+
+    /**
+     * Evaluates a binary expression with two {@code Int} operands.
+     * @param be {@link BinaryExpr}
+     * @param LHS Value of the left operand
+     * @param RHS Value of the right operand
+     * @return String representing the result, or {@code null} if the expression can not be folded
+     */
+    private String foldInt(BinaryExpr be, int LHS, int RHS) {
+        Type type = be.type;
+        switch(be.getBinaryOp().getBinaryType()) {
+            case PLUS:   return type.isInt() ? String.valueOf(LHS + RHS) : null;
+            case MINUS:  return type.isInt() ? String.valueOf(LHS - RHS) : null;
+            case MULT:   return type.isInt() ? String.valueOf(LHS * RHS) : null;
+            case DIV:    return type.isInt() && RHS != 0 ? String.valueOf(LHS / RHS) : null;
+            case MOD:    return type.isInt() && RHS != 0 ? String.valueOf(LHS % RHS) : null;
+            case EXP:    return type.isInt() ? String.valueOf((int) Math.round(Math.pow(LHS,RHS))) : null;
+            case SLEFT:  return type.isInt() ? String.valueOf(LHS << RHS) : null;
+            case SRIGHT: return type.isInt() ? String.valueOf(LHS >> RHS) : null;
+            case BAND:   return type.isInt() ? String.valueOf(LHS & RHS) : null;
+            case BOR:    return type.isInt() ? String.valueOf(LHS | RHS) : null;
+            case XOR:    return type.isInt() ? String.valueOf(LHS ^ RHS) : null;
+            case EQEQ:   return type.isBool() ? boolText(LHS == RHS) : null;
+            case NEQ:    return type.isBool() ? boolText(LHS != RHS) : null;
+            case LT:     return type.isBool() ? boolText(LHS < RHS) : null;
+            case LTEQ:   return type.isBool() ? boolText(LHS <= RHS) : null;
+            case GT:     return type.isBool() ? boolText(LHS > RHS) : null;
+            case GTEQ:   return type.isBool() ? boolText(LHS >= RHS) : null;
+            default:     return null;
+        }
+    }
+
+    /**
+     * Evaluates a binary expression with two {@code Bool} operands.
+     * @param be {@link BinaryExpr}
+     * @param LHS Value of the left operand
+     * @param RHS Value of the right operand
+     * @return String representing the result, or {@code null} if the expression can not be folded
+     */
+    private String foldBool(BinaryExpr be, boolean LHS, boolean RHS) {
+        if(!be.type.isBool())
+            return null;
+
+        switch(be.getBinaryOp().getBinaryType()) {
+            case AND:  return boolText(LHS && RHS);
+            case OR:   return boolText(LHS || RHS);
+            case EQEQ: return boolText(LHS == RHS);
+            case NEQ:  return boolText(LHS != RHS);
+            default:   return null;
+        }
+    }
+
+    /**
+     * Replaces an expression with a new literal.
+     * @param e {@link Expression} that was folded
+     * @param text String representing the value of the new literal
+     */
+    private void replace(Expression e, String text) {
+        ConstantType kind = e.type.isInt() ? ConstantType.INT : e.type.isBool() ? ConstantType.BOOL : ConstantType.STR;
+        Literal li = new Literal(kind,text);
+        li.type = e.type;
+        e.getParent().replaceChild(e,li);
+        pool.get(li);
+    }
+
+    /**
+     * Checks if an expression is a literal representing a single value.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isConstant(Expression e) { return e != null && e.isLiteral() && !e.isArrayLiteral() && !e.isListLiteral(); }
+
+    /**
+     * Returns the value of a {@code Bool} literal.
+     * @param li {@link Literal}
+     * @return Boolean
+     */
+    private boolean asBool(Literal li) { return Boolean.parseBoolean(li.getText()); }
+
+    /**
+     * Returns the text of a {@code String} literal without its quotes.
+     * @param li {@link Literal}
+     * @return String
+     */
+    private String unquote(Literal li) { return li.getText().substring(1,li.getText().length()-1); }
+
+    /**
+     * Creates the text of a {@code Bool} literal.
+     * @param val Boolean
+     * @return String
+     */
+    private String boolText(boolean val) { return val ? "True" : "False"; }
+}
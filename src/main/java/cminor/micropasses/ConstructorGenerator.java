@@ -14,6 +14,7 @@ import cminor.ast.statements.AssignStmt;
 import cminor.ast.statements.AssignStmt.AssignStmtBuilder;
 import cminor.ast.topleveldecls.ClassDecl;
 import cminor.ast.topleveldecls.ImportDecl;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.SymbolTable.NameIterator;
 import cminor.utilities.Vector;
@@ -37,7 +38,13 @@ public class ConstructorGenerator extends Visitor {
      * Keeps track of a list of instantiated classes that we have created constructors for.
      * This prevents us from creating multiple constructors for the same class!
      */
-    private static final Vector<String> classes = new Vector<>();
+    private final Vector<String> classes;
+
+    /**
+     * Creates the {@link ConstructorGenerator}.
+     * @param context The {@link CompilationContext} that stores every instantiated class of the program.
+     */
+    public ConstructorGenerator(CompilationContext context) { this.classes = context.getInstantiatedClasses(); }
 
     /**
      * Creates a constructor for the current {@link ClassDecl}.
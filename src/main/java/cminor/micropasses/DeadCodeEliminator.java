@@ -0,0 +1,503 @@
+package cminor.micropasses;
+
+import cminor.ast.AST;
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.misc.CompilationUnit;
+import cminor.ast.operators.AssignOp.AssignType;
+import cminor.ast.operators.BinaryOp.BinaryType;
+import cminor.ast.statements.AssignStmt;
+import cminor.ast.statements.BlockStmt;
+import cminor.ast.statements.IfStmt;
+import cminor.ast.statements.IfStmt.IfStmtBuilder;
+import cminor.ast.statements.LocalDecl;
+import cminor.ast.statements.Statement;
+import cminor.ast.topleveldecls.ClassDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.topleveldecls.GlobalDecl;
+import cminor.ast.topleveldecls.MainDecl;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.SymbolTable;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+import java.util.HashSet;
+
+/**
+ * A {@link Visitor} class that removes code which can never affect the output of a program.
+ * <p>
+ *     This micropass runs after the {@link ConstantFolder}, so any condition that only uses
+ *     constants will already be a literal. The following code is removed from the program:
+ *     <ol>
+ *         <li>Statements written after a {@code return}, {@code break}, {@code continue}, or {@code stop}.</li>
+ *         <li>Branches of an if statement whose condition is always {@code False}, and while loops that never run.</li>
+ *         <li>Stores into local variables that are never read.</li>
+ *         <li>Functions that can never be called, and global variables that are never used.</li>
+ *     </ol>
+ *     A store is only removed if the assigned expression can not produce a side effect or a runtime
+ *     error, so the program will always behave the same way. Unused functions and global variables
+ *     are only marked by {@link #markUnusedDecls(Vector)} once a complete program was analyzed by the
+ *     {@link cminor.compiler.Compiler}, since a user may still refer to them in the {@link cminor.interpreter.VM}.
+ *     The execution engines will then skip every unused global variable, and unused functions will
+ *     not be translated into class files.
+ * </p>
+ * @author Daniel Levy
+ */
+public class DeadCodeEliminator extends Visitor {
+
+    /**
+     * A {@link Visitor} that records which functions and variables are used by the code it visits.
+     */
+    private static class UsageFinder extends Visitor {
+
+        /**
+         * The global {@link SymbolTable} used to find the declaration of each invoked function.
+         */
+        private final SymbolTable globalScope;
+
+        /**
+         * Every function that was found to be invoked.
+         */
+        private final Vector<FuncDecl> called = new Vector<>();
+
+        /**
+         * Names of invoked functions whose declaration could not be found (such as template functions).
+         */
+        private final HashSet<String> calledNames = new HashSet<>();
+
+        /**
+         * Slots of every local variable declared inside a block.
+         */
+        private final HashSet<Integer> declaredSlots = new HashSet<>();
+
+        /**
+         * Slots of every local variable whose value is read.
+         */
+        private final HashSet<Integer> readSlots = new HashSet<>();
+
+        /**
+         * Slots of every global variable that is either read or written.
+         */
+        private final HashSet<Integer> globalSlots = new HashSet<>();
+
+        /**
+         * Creates a {@link UsageFinder}.
+         * @param globalScope The {@link SymbolTable} representing the global scope
+         */
+        private UsageFinder(SymbolTable globalScope) { this.globalScope = globalScope; }
+
+        /**
+         * Records every local variable declared in the block.
+         * @param bs {@link BlockStmt}
+         */
+        public void visitBlockStmt(BlockStmt bs) {
+            for(LocalDecl ld : bs.getLocalDecls())
+                declaredSlots.add(ld.getSlot());
+            bs.visitChildren(this);
+        }
+
+        /**
+         * Visits an assignment without treating a local variable on the LHS as a read.
+         * @param as {@link AssignStmt}
+         */
+        public void visitAssignStmt(AssignStmt as) {
+            Expression LHS = as.getLHS();
+            if(isLocalStore(as)) {
+                if(LHS.asNameExpr().getDepth() == RuntimeStack.GLOBAL_DEPTH)
+                    globalSlots.add(LHS.asNameExpr().getSlot());
+            }
+            else
+                LHS.visit(this);
+            as.getRHS().visit(this);
+        }
+
+        /**
+         * Records the function that is invoked.
+         * @param in {@link Invocation}
+         */
+        public void visitInvocation(Invocation in) {
+            if(!in.isMethodInvocation() && !in.isLengthInvocation()) {
+                AST decl = globalScope != null ? globalScope.findMethod(in) : null;
+                if(!in.containsTypeArgs() && decl != null && decl.isTopLevelDecl() && decl.asTopLevelDecl().isFuncDecl()) {
+                    if(!called.contains(decl.asTopLevelDecl().asFuncDecl()))
+                        called.add(decl.asTopLevelDecl().asFuncDecl());
+                }
+                else
+                    calledNames.add(in.getName().toString());
+            }
+            in.visitChildren(this);
+        }
+
+        /**
+         * Records the variable that is used.
+         * @param ne {@link NameExpr}
+         */
+        public void visitNameExpr(NameExpr ne) {
+            if(!ne.isResolved())
+                return;
+
+            if(ne.getDepth() == RuntimeStack.GLOBAL_DEPTH)
+                globalSlots.add(ne.getSlot());
+            else
+                readSlots.add(ne.getSlot());
+        }
+    }
+
+    /**
+     * The global scope used to find the declaration of each invoked function.
+     */
+    private final SymbolTable globalScope;
+
+    /**
+     * Slots of every local variable that is read inside the frame we are currently simplifying.
+     * This is only set once unreachable code was removed from the frame.
+     */
+    private HashSet<Integer> liveSlots;
+
+    /**
+     * Slots of every local variable that was declared inside the frame we are currently simplifying.
+     */
+    private HashSet<Integer> localSlots;
+
+    /**
+     * Creates the {@link DeadCodeEliminator}.
+     * @param globalScope The {@link SymbolTable} representing the global scope
+     */
+    public DeadCodeEliminator(SymbolTable globalScope) { this.globalScope = globalScope; }
+
+    /**
+     * Removes dead code from every construct of a program.
+     * <p>
+     *     Once every construct was simplified, we can mark the global variables and
+     *     functions that {@code main} will never use.
+     * </p>
+     * @param cu {@link CompilationUnit}
+     */
+    public void visitCompilationUnit(CompilationUnit cu) {
+        cu.visitChildren(this);
+        if(cu.getMain() == null)
+            return;
+
+        Vector<AST> program = new Vector<>();
+        for(GlobalDecl gd : cu.getGlobals())
+            program.add(gd);
+        for(ClassDecl cd : cu.getClasses())
+            program.add(cd);
+        for(FuncDecl fd : cu.getFunctions())
+            program.add(fd);
+        program.add(cu.getMain());
+        markUnusedDecls(program);
+    }
+
+    /**
+     * Simplifies every method of a class.
+     * @param cd {@link ClassDecl}
+     */
+    public void visitClassDecl(ClassDecl cd) {
+        if(!cd.getTypeParams().isEmpty())
+            return;
+
+        for(MethodDecl md : cd.getClassBody().getMethods())
+            md.visit(this);
+    }
+
+    /**
+     * Simplifies the body of a function.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) {
+        if(!fd.isTemplate())
+            simplifyFrame(fd.getBody());
+    }
+
+    /**
+     * Simplifies the body of {@code main}.
+     * @param md {@link MainDecl}
+     */
+    public void visitMainDecl(MainDecl md) { simplifyFrame(md.getBody()); }
+
+    /**
+     * Simplifies the body of a method.
+     * @param md {@link MethodDecl}
+     */
+    public void visitMethodDecl(MethodDecl md) { simplifyFrame(md.getBody()); }
+
+    /**
+     * Removes unreachable code and dead stores from a block statement.
+     * <p>
+     *     Any if statement or while loop with a constant condition is simplified first. We then
+     *     remove every statement that follows a statement which always leaves the block. Stores
+     *     are only removed once we know which local variables of the frame are read.
+     * </p>
+     * @param bs {@link BlockStmt}
+     */
+    public void visitBlockStmt(BlockStmt bs) {
+        Vector<Statement> stmts = bs.getStatements();
+
+        for(int i = 0; i < stmts.size(); i++) {
+            Statement s = stmts.get(i);
+            Statement simplified = s;
+
+            if(s.isIfStmt())
+                simplified = simplifyIf(s.asIfStmt());
+            else if(s.isWhileStmt() && isFalse(s.asWhileStmt().getCondition()))
+                simplified = null;
+
+            if(simplified == null) {
+                bs.removeStatement(s);
+                i--;
+                continue;
+            }
+            else if(simplified != s)
+                bs.replaceChild(s,simplified);
+
+            simplified.visit(this);
+            if(alwaysLeaves(simplified)) {
+                while(stmts.size() > i+1)
+                    bs.removeStatement(stmts.getLast());
+            }
+        }
+
+        if(liveSlots == null)
+            return;
+
+        for(int i = bs.getLocalDecls().size()-1; i >= 0; i--) {
+            LocalDecl ld = bs.getLocalDecls().get(i);
+            if(!liveSlots.contains(ld.getSlot()) && (ld.getInitialValue() == null || isSafe(ld.getInitialValue())))
+                bs.removeLocalDecl(ld);
+        }
+
+        for(int i = stmts.size()-1; i >= 0; i--) {
+            Statement s = stmts.get(i);
+            if(s.isAssignStmt() && isLocalStore(s.asAssignStmt()) && isDead(s.asAssignStmt().getLHS().asNameExpr())
+                    && isSafe(s.asAssignStmt().getRHS()))
+                bs.removeStatement(s);
+        }
+    }
+
+    /**
+     * Removes dead code from the body of a function, method, or {@code main}.
+     * <p>
+     *     The body is simplified twice. The first pass removes unreachable code, which may
+     *     be the only code that reads a local variable. The second pass then removes any
+     *     stores into local variables that are never read.
+     * </p>
+     * @param body {@link BlockStmt}
+     */
+    private void simplifyFrame(BlockStmt body) {
+        body.visit(this);
+
+        UsageFinder usage = new UsageFinder(globalScope);
+        body.visit(usage);
+
+        liveSlots = usage.readSlots;
+        localSlots = usage.declaredSlots;
+        body.visit(this);
+        liveSlots = null;
+        localSlots = null;
+    }
+
+    /**
+     * Removes every branch of an if statement that can never be executed.
+     * <p>
+     *     If the condition is always {@code True}, the if statement is replaced by its body. If
+     *     the condition is always {@code False}, the first else if branch becomes the if branch,
+     *     or the if statement is replaced by its else branch when no else if branches exist.
+     * </p>
+     * @param is {@link IfStmt}
+     * @return The {@link Statement} that should replace the if statement, or {@code null} if it can be removed
+     */
+    private Statement simplifyIf(IfStmt is) {
+        if(isTrue(is.getCondition()))
+            return is.getIfBody();
+        else if(!isFalse(is.getCondition()))
+            return is;
+
+        if(is.getElifs().isEmpty())
+            return is.getElseBody();
+
+        IfStmt elif = is.getElifs().getFirst();
+        Vector<IfStmt> elifs = new Vector<>();
+        for(int i = 1; i < is.getElifs().size(); i++)
+            elifs.add(is.getElifs().get(i));
+
+        IfStmt promoted = new IfStmtBuilder()
+                              .setMetaData(is)
+                              .setCondition(elif.getCondition())
+                              .setIfBody(elif.getIfBody())
+                              .setElifs(elifs)
+                              .setElseBody(is.getElseBody())
+                              .create();
+        promoted.ifScope = elif.getIfScope();
+        promoted.elseScope = is.getElseScope();
+
+        return simplifyIf(promoted);
+    }
+
+    /**
+     * Marks every global variable and function that a complete program never uses.
+     * <p>
+     *     This is called once every construct of a program was analyzed, since a global variable
+     *     or function may be used by any construct that follows it. We start from the code that
+     *     is always executed (every top level statement, {@code main}, and every class) and keep
+     *     visiting the body of every invoked function and the initial value of every used global
+     *     variable until nothing new is found. A global variable is only marked if its initial
+     *     value can be skipped safely. Template functions are always kept since we can not find
+     *     which instantiation is invoked.
+     * </p>
+     * @param program Every top level construct of the program
+     */
+    public void markUnusedDecls(Vector<? extends AST> program) {
+        UsageFinder usage = new UsageFinder(globalScope);
+        Vector<GlobalDecl> globals = new Vector<>();
+        Vector<FuncDecl> functions = new Vector<>();
+
+        for(AST node : program) {
+            if(node.isTopLevelDecl() && node.asTopLevelDecl().isGlobalDecl())
+                globals.add(node.asTopLevelDecl().asGlobalDecl());
+            else if(node.isTopLevelDecl() && node.asTopLevelDecl().isFuncDecl())
+                functions.add(node.asTopLevelDecl().asFuncDecl());
+            else if(!node.isTopLevelDecl() || !node.asTopLevelDecl().isEnumDecl())
+                node.visit(usage);
+        }
+
+        HashSet<GlobalDecl> used = new HashSet<>();
+        int visited = 0;
+        boolean changed = true;
+
+        while(changed) {
+            changed = false;
+            int names = usage.calledNames.size();
+
+            for(FuncDecl fd : functions) {
+                if((fd.isTemplate() || usage.calledNames.contains(fd.getName().toString())) && !usage.called.contains(fd))
+                    usage.called.add(fd);
+            }
+
+            while(visited < usage.called.size())
+                usage.called.get(visited++).getBody().visit(usage);
+
+            for(GlobalDecl gd : globals) {
+                if(used.contains(gd))
+                    continue;
+
+                if(usage.globalSlots.contains(gd.getSlot()) || (gd.getInitialValue() != null && !isSafe(gd.getInitialValue()))) {
+                    used.add(gd);
+                    if(gd.getInitialValue() != null)
+                        gd.getInitialValue().visit(usage);
+                    changed = true;
+                }
+            }
+
+            if(visited < usage.called.size() || names != usage.calledNames.size())
+                changed = true;
+        }
+
+        for(GlobalDecl gd : globals)
+            if(!used.contains(gd))
+                gd.setUnused();
+
+        for(FuncDecl fd : functions)
+            if(!usage.called.contains(fd))
+                fd.setUnused();
+    }
+
+    /**
+     * Checks if a statement will always leave the block it is written in.
+     * @param s {@link Statement}
+     * @return Boolean
+     */
+    private boolean alwaysLeaves(Statement s) {
+        if(s.isReturnStmt() || s.isStopStmt())
+            return true;
+
+        if(s.isExprStmt())
+            return s.asExprStmt().getExpression().isBreakStmt() || s.asExprStmt().getExpression().isContinueStmt();
+
+        if(s.isBlockStmt())
+            return !s.asBlockStmt().getStatements().isEmpty() && alwaysLeaves(s.asBlockStmt().getStatements().getLast());
+
+        if(s.isIfStmt()) {
+            IfStmt is = s.asIfStmt();
+            if(!is.containsElse() || !alwaysLeaves(is.getIfBody()) || !alwaysLeaves(is.getElseBody()))
+                return false;
+            for(IfStmt elif : is.getElifs())
+                if(!alwaysLeaves(elif.getIfBody()))
+                    return false;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if an assignment simply stores a new value into a variable.
+     * @param as {@link AssignStmt}
+     * @return Boolean
+     */
+    private static boolean isLocalStore(AssignStmt as) {
+        return !as.isRetypeStmt() && as.getOperator().getAssignOp() == AssignType.EQ
+                && as.getLHS().isNameExpr() && as.getLHS().asNameExpr().isResolved();
+    }
+
+    /**
+     * Checks if a name refers to a local variable of the current frame that is never read.
+     * @param ne {@link NameExpr}
+     * @return Boolean
+     */
+    private boolean isDead(NameExpr ne) {
+        return ne.getDepth() == RuntimeStack.LOCAL_DEPTH && localSlots.contains(ne.getSlot()) && !liveSlots.contains(ne.getSlot());
+    }
+
+    /**
+     * Checks if an expression can be skipped without changing the behavior of the program.
+     * <p>
+     *     An expression is safe to skip if it can not invoke anything, read an uninitialized
+     *     object, or produce a runtime error (such as a division by zero). Any arithmetic that
+     *     computes a {@code Real} is never skipped, since it can overflow in fixed mode.
+     * </p>
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isSafe(Expression e) {
+        if(e.type == null || e.type.isStructured())
+            return false;
+
+        if(e.isLiteral())
+            return !e.isArrayLiteral() && !e.isListLiteral();
+
+        if(e.isNameExpr())
+            return e.asNameExpr().isResolved();
+
+        if(e.isUnaryExpr())
+            return !e.type.isReal() && isSafe(e.asUnaryExpr().getExpr());
+
+        if(e.isBinaryExpr()) {
+            if(e.type.isReal())
+                return false;
+
+            BinaryType op = e.asBinaryExpr().getBinaryOp().getBinaryType();
+            if(op == BinaryType.DIV || op == BinaryType.MOD || op == BinaryType.INSTOF
+                    || op == BinaryType.NINSTOF || op == BinaryType.AS)
+                return false;
+            return isSafe(e.asBinaryExpr().getLHS()) && isSafe(e.asBinaryExpr().getRHS());
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if a condition is the literal {@code True}.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isTrue(Expression e) { return e.isLiteral() && e.getText().equals("True"); }
+
+    /**
+     * Checks if a condition is the literal {@code False}.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isFalse(Expression e) { return e.isLiteral() && e.getText().equals("False"); }
+}
@@ -0,0 +1,346 @@
+package cminor.micropasses;
+
+import cminor.ast.AST;
+import cminor.ast.expressions.ArrayExpr;
+import cminor.ast.expressions.BinaryExpr;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.expressions.Literal;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.misc.FrameDecl;
+import cminor.ast.misc.Name;
+import cminor.ast.statements.InStmt;
+import cminor.ast.statements.LocalDecl;
+import cminor.ast.statements.Statement;
+import cminor.ast.types.Type;
+import cminor.token.Token;
+import cminor.utilities.Visitor;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Visitor} class containing the analysis shared by every micropass that stores the value
+ * of an expression into a temporary.
+ * <p>
+ *     Both the {@link LoopOptimizer} and the {@link SubexpressionEliminator} need to know what a piece
+ *     of code may write to, whether two expressions compute the same value, and whether an expression
+ *     can be replaced by a temporary. The temporaries they create are given a slot by the {@link SlotResolver}.
+ * </p>
+ * @author Daniel Levy
+ */
+abstract class ExpressionOptimizer extends Visitor {
+
+    /**
+     * A class that records everything a piece of code may write to.
+     */
+    static class Effects {
+
+        /**
+         * Every variable that may be written, stored as a {@code depth:slot} key.
+         */
+        final HashSet<String> writtenVars = new HashSet<>();
+
+        /**
+         * The name of every field that may be written.
+         */
+        final HashSet<String> writtenFields = new HashSet<>();
+
+        /**
+         * The initial value of every local variable declared in the code, mapped by its slot.
+         */
+        final HashMap<String,Expression> localInits = new HashMap<>();
+
+        /**
+         * Flag set if an element of an array or a list may be written.
+         */
+        boolean writesArray;
+
+        /**
+         * Flag set if the code invokes something with a side effect, or creates an object.
+         */
+        boolean hasCall;
+
+        /**
+         * Flag set if the code contains a list statement that could change the size of a list.
+         */
+        boolean hasListStmt;
+    }
+
+    /**
+     * The {@link SlotResolver} that gives each temporary a slot.
+     */
+    protected final SlotResolver resolver;
+
+    /**
+     * The {@link FrameDecl} we are currently optimizing, or {@code null} for top level code.
+     */
+    protected FrameDecl currentFrame;
+
+    /**
+     * Creates the {@link ExpressionOptimizer}.
+     * @param resolver {@link SlotResolver} that will give each temporary a slot
+     */
+    protected ExpressionOptimizer(SlotResolver resolver) { this.resolver = resolver; }
+
+    /**
+     * Checks if an expression that is not part of another expression may be replaced by a temporary.
+     * <p>
+     *     This is only called when the parent of the expression is not an expression or an assignment.
+     * </p>
+     * @param parent {@link AST} containing the expression
+     * @return Boolean
+     */
+    protected abstract boolean isReplaceableIn(AST parent);
+
+    /**
+     * Checks if an invocation can not change the state of the program.
+     * <p>
+     *     By default, this is only true for {@code length}.
+     * </p>
+     * @param in {@link Invocation}
+     * @return Boolean
+     */
+    protected boolean isSideEffectFree(Invocation in) { return in.isLengthInvocation(); }
+
+    /**
+     * Records everything a node may write to.
+     * @param node {@link AST} node we are scanning
+     * @param fx {@link Effects} that will store the results
+     * @param countDecls Flag denoting if a local declaration is treated as a write
+     */
+    protected void scan(AST node, Effects fx, boolean countDecls) { scan(node,fx,countDecls,this::isSideEffectFree); }
+
+    /**
+     * Records everything a node may write to.
+     * <p>
+     *     This allows a micropass that does not create temporaries to find out what a piece of code writes to.
+     * </p>
+     * @param node {@link AST} node we are scanning
+     * @param fx {@link Effects} that will store the results
+     * @param countDecls Flag denoting if a local declaration is treated as a write
+     * @param sideEffectFree {@link Predicate} checking if an invocation can not change the state of the program
+     */
+    static void scan(AST node, Effects fx, boolean countDecls, Predicate<Invocation> sideEffectFree) {
+        if(node == null)
+            return;
+
+        if(node.isStatement()) {
+            Statement s = node.asStatement();
+            if(s.isAssignStmt())
+                recordWrite(s.asAssignStmt().getLHS(),fx);
+            else if(s instanceof InStmt) {
+                for(Expression input : ((InStmt) s).getInExprs())
+                    recordWrite(input,fx);
+            }
+            else if(s.isListStmt()) {
+                fx.hasListStmt = true;
+                fx.writesArray = true;
+            }
+            else if(s.isLocalDecl()) {
+                LocalDecl ld = s.asLocalDecl();
+                fx.localInits.put(key(ld.getDepth(),ld.getSlot()),ld.getInitialValue());
+                if(countDecls)
+                    fx.writtenVars.add(key(ld.getDepth(),ld.getSlot()));
+            }
+            else if(s.isForStmt()) {
+                LocalDecl control = s.asForStmt().getControlVariable();
+                fx.writtenVars.add(key(control.getDepth(),control.getSlot()));
+            }
+        }
+        else if(node.isExpression()) {
+            Expression e = node.asExpression();
+            if(e.isNewExpr())
+                fx.hasCall = true;
+            else if(e.isInvocation() && !sideEffectFree.test(e.asInvocation())) {
+                fx.hasCall = true;
+                // Any variable passed as an argument could be an out, inout, or ref argument.
+                for(Expression arg : e.asInvocation().getArgs())
+                    if(arg.isNameExpr())
+                        recordWrite(arg,fx);
+            }
+        }
+
+        for(AST child : node.getChildren())
+            scan(child,fx,countDecls,sideEffectFree);
+    }
+
+    /**
+     * Finds every local variable that is initialized with a new object, array, or list and never written again.
+     * @param fx {@link Effects} of the frame, scanned without treating local declarations as writes
+     * @return Set storing the key of every initialized local variable
+     */
+    static HashSet<String> initializedLocals(Effects fx) {
+        HashSet<String> initialized = new HashSet<>();
+        for(String local : fx.localInits.keySet()) {
+            Expression init = fx.localInits.get(local);
+            if(init != null && (init.isNewExpr() || init.isArrayLiteral() || init.isListLiteral()))
+                initialized.add(local);
+        }
+        initialized.removeAll(fx.writtenVars);
+        return initialized;
+    }
+
+    /**
+     * Records the variable, field, or array element that an expression writes to.
+     * @param target {@link Expression} being written to
+     * @param fx {@link Effects} that will store the results
+     */
+    private static void recordWrite(Expression target, Effects fx) {
+        if(target.isNameExpr() && target.asNameExpr().isResolved())
+            fx.writtenVars.add(key(target.asNameExpr().getDepth(),target.asNameExpr().getSlot()));
+        else if(target.isArrayExpr())
+            fx.writesArray = true;
+        else if(target.isFieldExpr()) {
+            Expression access = target.asFieldExpr().getLastFieldExpr().getAccessExpr();
+            if(access.isArrayExpr()) {
+                fx.writesArray = true;
+                access = access.asArrayExpr().getArrayTarget();
+            }
+            fx.writtenFields.add(access.toString());
+        }
+    }
+
+    /**
+     * Checks if an expression can be replaced by a temporary without changing the meaning of its parent.
+     * <p>
+     *     Expressions that are written to, arguments of an invocation that could have a side effect, and
+     *     the parts of a field expression are never replaced.
+     * </p>
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    protected boolean isReplaceable(Expression e) {
+        AST parent = e.getParent();
+        if(parent == null)
+            return false;
+
+        if(parent.isExpression()) {
+            Expression pe = parent.asExpression();
+            if(pe.isInvocation())
+                return !pe.asInvocation().isLengthInvocation() && isSideEffectFree(pe.asInvocation());
+            return pe.isBinaryExpr() || pe.isUnaryExpr() || pe.isCastExpr()
+                    || (pe.isArrayExpr() && pe.asArrayExpr().getArrayTarget() != e);
+        }
+
+        if(parent.isStatement() && parent.asStatement().isAssignStmt())
+            return parent.asStatement().asAssignStmt().getRHS() == e && !parent.asStatement().asAssignStmt().isRetypeStmt();
+
+        return isReplaceableIn(parent);
+    }
+
+    /**
+     * Checks if a child of an expression names a field or an invoked function instead of a variable.
+     * @param parent {@link Expression}
+     * @param child {@link AST}
+     * @return Boolean
+     */
+    protected boolean isAccess(Expression parent, AST child) {
+        if(parent.isFieldExpr())
+            return parent.asFieldExpr().getAccessExpr() == child && !child.asExpression().isArrayExpr();
+        if(parent.isInvocation())
+            return parent.asInvocation().getName() == child;
+        if(parent.isArrayExpr() && parent.asArrayExpr().inFieldExpr())
+            return parent.asArrayExpr().getArrayTarget() == child;
+        return false;
+    }
+
+    /**
+     * Checks if a type always has a value, even when a variable is not explicitly initialized.
+     * @param type {@link Type}
+     * @return Boolean
+     */
+    protected boolean isScalar(Type type) {
+        return type.isInt() || type.isReal() || type.isBool() || type.isChar() || type.isString() || type.isText();
+    }
+
+    /**
+     * Creates a key that is equal for two expressions that compute the same value.
+     * @param e {@link Expression}
+     * @return String
+     */
+    protected String keyOf(Expression e) {
+        if(e.isLiteral())
+            return "L" + e.asLiteral().getConstantKind() + ":" + e.getText();
+        if(e.isNameExpr())
+            return "N" + key(e.asNameExpr().getDepth(),e.asNameExpr().getSlot());
+        if(e.isThisStmt())
+            return "this";
+        if(e.isFieldExpr()) {
+            Expression access = e.asFieldExpr().getAccessExpr();
+            String field = access.isArrayExpr() ? keyOf(access) : access.toString();
+            return "F(" + keyOf(e.asFieldExpr().getTarget()) + "." + field + ")";
+        }
+        if(e.isArrayExpr()) {
+            ArrayExpr ae = e.asArrayExpr();
+            StringBuilder sb = new StringBuilder("A(");
+            sb.append(ae.inFieldExpr() ? ae.getArrayTarget().toString() : keyOf(ae.getArrayTarget()));
+            for(Expression index : ae.getArrayIndex())
+                sb.append("[").append(keyOf(index)).append("]");
+            return sb.append(")").toString();
+        }
+        if(e.isInvocation()) {
+            Invocation in = e.asInvocation();
+            StringBuilder sb = new StringBuilder("I(").append(in.getName()).append(in.getSignature());
+            for(Expression arg : in.getArgs())
+                sb.append(" ").append(keyOf(arg));
+            return sb.append(")").toString();
+        }
+        if(e.isUnaryExpr())
+            return "U" + e.asUnaryExpr().getUnaryOp() + "(" + keyOf(e.asUnaryExpr().getExpr()) + ")";
+        if(e.isCastExpr())
+            return "C" + e.asCastExpr().getCastType() + "(" + keyOf(e.asCastExpr().getCastExpr()) + ")";
+
+        BinaryExpr be = e.asBinaryExpr();
+        return "B(" + keyOf(be.getLHS()) + " " + be.getBinaryOp() + " " + keyOf(be.getRHS()) + ")";
+    }
+
+    /**
+     * Creates the key of a variable.
+     * @param depth Depth of the variable
+     * @param slot Slot of the variable
+     * @return String
+     */
+    protected static String key(int depth, int slot) { return depth + ":" + slot; }
+
+    /**
+     * Creates a new temporary inside the current frame.
+     * @param type {@link Type} of the value the temporary stores
+     * @return {@link NameExpr} referring to the temporary
+     */
+    protected NameExpr createTemp(Type type) {
+        int[] location = resolver.declareTemporary(currentFrame);
+        String name = "$temp" + location[1];
+
+        NameExpr temp = new NameExpr(new Token(name),new Name(name));
+        temp.setSlot(location[0],location[1]);
+        temp.type = type;
+        return temp;
+    }
+
+    /**
+     * Creates a copy of a variable that keeps its type and slot.
+     * @param ne {@link NameExpr} representing the variable
+     * @return {@link NameExpr}
+     */
+    protected NameExpr copyOf(NameExpr ne) {
+        NameExpr copy = new NameExpr(new Token(ne.getText(),ne.getLocation()),new Name(ne.toString()));
+        copy.setSlot(ne.getDepth(),ne.getSlot());
+        copy.type = ne.type;
+        return copy;
+    }
+
+    /**
+     * Creates a copy of a literal or a variable that keeps its type and slot.
+     * @param e {@link Expression} representing a literal or a variable
+     * @return {@link Expression}
+     */
+    protected Expression copyOf(Expression e) {
+        if(!e.isLiteral())
+            return copyOf(e.asNameExpr());
+
+        Literal li = new Literal(e.asLiteral().getConstantKind(),e.getText());
+        li.type = e.type;
+        return li;
+    }
+}
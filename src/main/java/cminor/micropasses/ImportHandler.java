@@ -10,6 +10,7 @@ import java.io.FileReader;
 import cminor.messages.MessageHandler;
 import cminor.messages.MessageNumber;
 import cminor.messages.errors.semantic.SemanticError;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
 
@@ -43,27 +44,37 @@ public class ImportHandler extends Visitor {
      */
     private MessageHandler handler;
 
+    /**
+     * The {@link CompilationContext} of the program we are compiling.
+     */
+    private final CompilationContext context;
+
     /**
      * Queue of import statements we need to perform syntax analysis for.
+     * This is shared by every file imported by the same program.
      */
-    private final static Vector<AST> q = new Vector<>();
+    private final Vector<AST> q;
 
     /**
      * List of all imports we have performed syntax analysis for
      * including the original file. ThisStmt is needed to prevent circular
      * imports causing an infinite loop in the parser.
      */
-    private final static Vector<String> seenImports = new Vector<>();
+    private final Vector<String> seenImports;
 
 
     /**
      * Creates an {@code ImportHandler} object.
      * @param mainFile ThisStmt is a String that represents the original file we were compiling
+     * @param context The {@link CompilationContext} that stores the imports of the program
      */
-    public ImportHandler(String mainFile) {
+    public ImportHandler(String mainFile, CompilationContext context) {
         this.currFile = mainFile;
+        this.context = context;
+        this.q = context.getImportQueue();
+        this.seenImports = context.getSeenImports();
         seenImports.add(mainFile);
-        this.handler = new MessageHandler(mainFile);
+        this.handler = new MessageHandler(mainFile,context);
     }
 
     /**
@@ -86,17 +97,6 @@ public class ImportHandler extends Visitor {
         return null;
     }
 
-    /**
-     * Clears all seen imports (only during interpretation)
-     * <p>
-     *     ThisStmt method removes all the seen imports whenever the
-     *     {@code #clear} flag is used inside of the VM. ThisStmt prevents
-     *     any unwarranted errors to show up when a user tries to reimport
-     *     a file after all of its contents have been cleared.
-     * </p>
-     * */
-    public static void clear() { seenImports.clear(); }
-
     /**
      * Analyzes every import statement currently in the queue.
      * <p>
@@ -181,7 +181,7 @@ public class ImportHandler extends Visitor {
                 .generateError();
         }
 
-        Compiler c = new Compiler();
+        Compiler c = new Compiler(context);
         CompilationUnit root = c.syntaxAnalysis(program.toString());
         im.setCompilationUnit(root);
     }
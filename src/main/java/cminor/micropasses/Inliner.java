@@ -0,0 +1,484 @@
+package cminor.micropasses;
+
+import cminor.ast.AST;
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.FieldExpr;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.misc.CompilationUnit;
+import cminor.ast.misc.ParamDecl;
+import cminor.ast.statements.BlockStmt;
+import cminor.ast.statements.Statement;
+import cminor.ast.topleveldecls.ClassDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.topleveldecls.GlobalDecl;
+import cminor.ast.topleveldecls.MainDecl;
+import cminor.ast.types.Type;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.SymbolTable;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+import java.util.HashSet;
+
+/**
+ * A {@link Visitor} class that inlines calls to small functions and methods.
+ * <p>
+ *     Every invocation creates a new call frame, evaluates its arguments, and copies the value
+ *     of any {@code out}, {@code inout}, or {@code ref} argument back once the call completes.
+ *     For a small function whose body only returns a single expression, this work costs far
+ *     more than the expression itself. This micropass replaces such an invocation with a copy
+ *     of the returned expression, where every parameter is replaced by its argument.
+ * </p>
+ * <p>
+ *     A function or method can only be inlined if it is not {@code recurs}, its body is a single
+ *     {@code return} statement, and the returned expression has at most {@link #INLINE_LIMIT} nodes
+ *     and does not invoke anything (besides {@code length}). Since nothing can be written while the
+ *     expression is evaluated, the value copied back into an {@code out}, {@code inout}, or {@code ref}
+ *     argument is always the value the argument already had, so every parameter mode behaves the same.
+ *     A method is only inlined if it can not be overridden ({@code final} method or {@code final} class)
+ *     and if it is invoked on {@code this} or on a variable that is known to store an initialized object.
+ *     Invoking a method on an uninitialized object is a runtime error, and the inlined expression would
+ *     not check the object before it is evaluated.
+ * </p>
+ * <p>
+ *     Arguments are evaluated when their parameter is used instead of before the call. To make sure
+ *     this does not change the program, every argument has to be free of invocations, an argument used
+ *     more than once has to be a literal or a variable, and an argument that is never used has to be a
+ *     literal or a scalar variable.
+ * </p>
+ * @author Daniel Levy
+ */
+public class Inliner extends Visitor {
+
+    /**
+     * The maximum number of nodes the returned expression of an inlined function or method may have.
+     */
+    public static final int INLINE_LIMIT = 24;
+
+    /**
+     * The global scope used to find the declaration of each invoked function and class.
+     */
+    private final SymbolTable globalScope;
+
+    /**
+     * Slots of every variable that is known to store an initialized object.
+     */
+    private HashSet<String> initializedVars;
+
+    /**
+     * Creates the {@link Inliner}.
+     * @param globalScope The {@link SymbolTable} representing the global scope
+     */
+    public Inliner(SymbolTable globalScope) {
+        this.globalScope = globalScope;
+        this.initializedVars = new HashSet<>();
+    }
+
+    /**
+     * Inlines invocations found in a compilation unit.
+     * <p>
+     *     Every global variable initialized with a new object that is never written
+     *     anywhere in the compilation unit will always store an initialized object.
+     * </p>
+     * @param cu {@link CompilationUnit}
+     */
+    public void visitCompilationUnit(CompilationUnit cu) {
+        ExpressionOptimizer.Effects fx = new ExpressionOptimizer.Effects();
+        ExpressionOptimizer.scan(cu,fx,false,Invocation::isLengthInvocation);
+
+        HashSet<String> oldInitialized = initializedVars;
+        initializedVars = new HashSet<>();
+        for(GlobalDecl gd : cu.getGlobals()) {
+            String key = ExpressionOptimizer.key(gd.getDepth(),gd.getSlot());
+            if(gd.getInitialValue() != null && gd.getInitialValue().isNewExpr() && !fx.writtenVars.contains(key))
+                initializedVars.add(key);
+        }
+
+        cu.visitChildren(this);
+        initializedVars = oldInitialized;
+    }
+
+    /**
+     * Inlines invocations found in a non-template class.
+     * @param cd {@link ClassDecl}
+     */
+    public void visitClassDecl(ClassDecl cd) {
+        if(cd.getTypeParams().isEmpty())
+            cd.visitChildren(this);
+    }
+
+    /**
+     * Inlines invocations found in a non-template function.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) {
+        if(!fd.isTemplate())
+            inlineFrame(fd.getBody());
+    }
+
+    /**
+     * Inlines invocations found in {@code main}.
+     * @param md {@link MainDecl}
+     */
+    public void visitMainDecl(MainDecl md) { inlineFrame(md.getBody()); }
+
+    /**
+     * Inlines invocations found in a method.
+     * @param md {@link MethodDecl}
+     */
+    public void visitMethodDecl(MethodDecl md) { inlineFrame(md.getBody()); }
+
+    /**
+     * Inlines invocations found in the body of a function, method, or {@code main}.
+     * <p>
+     *     Every local variable initialized with a new object that is never written
+     *     again will always store an initialized object.
+     * </p>
+     * @param body {@link BlockStmt} representing the body of the frame
+     */
+    private void inlineFrame(BlockStmt body) {
+        ExpressionOptimizer.Effects fx = new ExpressionOptimizer.Effects();
+        ExpressionOptimizer.scan(body,fx,false,Invocation::isLengthInvocation);
+
+        HashSet<String> oldInitialized = initializedVars;
+        initializedVars = new HashSet<>(oldInitialized);
+        initializedVars.addAll(ExpressionOptimizer.initializedLocals(fx));
+
+        body.visit(this);
+        initializedVars = oldInitialized;
+    }
+
+    /**
+     * Replaces an invocation with the expression returned by its function or method.
+     * <p>
+     *     The arguments are visited first, so any invocation they contain will be inlined
+     *     before we check if the current invocation can be inlined.
+     * </p>
+     * @param in {@link Invocation}
+     */
+    public void visitInvocation(Invocation in) {
+        for(Expression arg : in.getArgs())
+            arg.visit(this);
+
+        if(in.isLengthInvocation() || in.containsTypeArgs() || in.templatedFunction != null || in.type == null)
+            return;
+
+        if(in.isMethodInvocation())
+            inlineMethod(in);
+        else
+            inlineFunction(in);
+    }
+
+    /**
+     * Inlines a function invocation.
+     * @param in {@link Invocation}
+     */
+    private void inlineFunction(Invocation in) {
+        AST decl = globalScope.findMethod(in);
+        if(decl == null || !decl.isTopLevelDecl() || !decl.asTopLevelDecl().isFuncDecl())
+            return;
+
+        FuncDecl fd = decl.asTopLevelDecl().asFuncDecl();
+        if(fd.mod.isRecursive() || fd.isTemplate())
+            return;
+
+        Expression body = inlinedExpr(fd.getBody(),fd.getParams(),fd.getReturnType(),in);
+        if(body != null && in.getParent() != null && isReplaceable(in))
+            in.getParent().replaceChild(in,body);
+    }
+
+    /**
+     * Inlines a method invocation.
+     * <p>
+     *     The {@code this} pointer of the method is replaced by the object the method
+     *     is invoked on, and the whole field expression is replaced by the inlined expression.
+     * </p>
+     * @param in {@link Invocation}
+     */
+    private void inlineMethod(Invocation in) {
+        if(in.getParent() == null || !in.getParent().isExpression() || !in.getParent().asExpression().isFieldExpr())
+            return;
+
+        FieldExpr fe = in.getParent().asExpression().asFieldExpr();
+        if(fe.getAccessExpr() != in || fe.isNullCheck() || fe.getParent() == null || !isReplaceable(fe))
+            return;
+
+        Expression target = fe.getTarget();
+        if(!target.isThisStmt() && !isInitialized(target))
+            return;
+        if(target.type == null || !target.type.isClass())
+            return;
+
+        AST cls = globalScope.findName(target.type.getTypeName());
+        if(cls == null || !cls.isTopLevelDecl() || !cls.asTopLevelDecl().isClassDecl())
+            return;
+
+        ClassDecl cd = cls.asTopLevelDecl().asClassDecl();
+        AST decl = cd.getScope().findMethod(in.getName().toString(),in.getSignature());
+        if(decl == null || !decl.isClassNode() || !decl.asClassNode().isMethodDecl())
+            return;
+
+        MethodDecl md = decl.asClassNode().asMethodDecl();
+        if(md.mod.isRecursive() || (!md.mod.isFinal() && !cd.mod.isFinal()) || !cd.getTypeParams().isEmpty())
+            return;
+
+        Expression body = inlinedExpr(md.getBody(),md.getParams(),md.getReturnType(),in);
+        if(body == null)
+            return;
+
+        body = replaceThis(body,target);
+        fe.getParent().replaceChild(fe,body);
+    }
+
+    /**
+     * Checks if a variable is known to store an initialized object.
+     * <p>
+     *     Besides the variables found by the current frame or compilation unit, a constant
+     *     global variable initialized with a new object is always initialized.
+     * </p>
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isInitialized(Expression e) {
+        if(!e.isNameExpr() || !e.asNameExpr().isResolved())
+            return false;
+
+        NameExpr ne = e.asNameExpr();
+        if(initializedVars.contains(ExpressionOptimizer.key(ne.getDepth(),ne.getSlot())))
+            return true;
+        if(ne.getDepth() != RuntimeStack.GLOBAL_DEPTH)
+            return false;
+
+        AST decl = globalScope.findName(ne.toString());
+        if(decl == null || !decl.isTopLevelDecl() || !decl.asTopLevelDecl().isGlobalDecl())
+            return false;
+
+        GlobalDecl gd = decl.asTopLevelDecl().asGlobalDecl();
+        return gd.isConstant() && gd.getInitialValue() != null && gd.getInitialValue().isNewExpr();
+    }
+
+    /**
+     * Creates the expression that will replace an invocation.
+     * @param body {@link BlockStmt} of the invoked function or method
+     * @param params {@link Vector} of {@link ParamDecl} of the invoked function or method
+     * @param returnType {@link Type} returned by the invoked function or method
+     * @param in {@link Invocation} we want to inline
+     * @return {@link Expression} with every parameter replaced by its argument, or {@code null} if the invocation can not be inlined
+     */
+    private Expression inlinedExpr(BlockStmt body, Vector<ParamDecl> params, Type returnType, Invocation in) {
+        if(body == null || !body.getLocalDecls().isEmpty() || body.getStatements().size() != 1)
+            return null;
+
+        Statement s = body.getStatements().getFirst();
+        if(!s.isReturnStmt() || s.asReturnStmt().getReturnValue() == null)
+            return null;
+
+        Expression value = s.asReturnStmt().getReturnValue();
+        if(value.type == null || !value.type.equals(returnType) || !value.type.equals(in.type)
+                || size(value) > INLINE_LIMIT || !isInlinable(value))
+            return null;
+
+        if(params.size() != in.getArgs().size())
+            return null;
+
+        int[] uses = new int[params.size()];
+        countUses(value,uses);
+
+        for(int i = 0; i < params.size(); i++) {
+            Expression arg = in.getArgs().get(i);
+            if(arg.type == null || !arg.type.equals(params.get(i).getType()) || !isInlinable(arg) || containsInvocation(arg))
+                return null;
+            if(uses[i] > 1 && !isTrivial(arg))
+                return null;
+            if(uses[i] == 0 && !(arg.isLiteral() || (isTrivial(arg) && !arg.type.isStructured())))
+                return null;
+        }
+
+        Expression copy = copy(value);
+        return replaceParams(copy,in.getArgs());
+    }
+
+    /**
+     * Checks if the node that contains an invocation allows the invocation to be replaced.
+     * <p>
+     *     An invocation written as its own statement is left alone, since only an
+     *     invocation is allowed to be executed as a statement.
+     * </p>
+     * @param e {@link Expression} representing the invocation
+     * @return Boolean
+     */
+    private boolean isReplaceable(Expression e) {
+        AST parent = e.getParent();
+        if(parent == null)
+            return false;
+        if(parent.isStatement() && parent.asStatement().isExprStmt())
+            return false;
+        return !(parent.isExpression() && (parent.asExpression().isArrayLiteral() || parent.asExpression().isFieldExpr()));
+    }
+
+    /**
+     * Checks if an expression only contains nodes that can be safely copied into another frame.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isInlinable(Expression e) {
+        if(e.isNewExpr() || e.isParentStmt() || e.isBreakStmt() || e.isContinueStmt() || e.isEndl()
+                || e.isInStmt() || e.isOutStmt())
+            return false;
+        if(e.isInvocation() && !e.asInvocation().isLengthInvocation())
+            return false;
+        if(e.isNameExpr() && !e.asNameExpr().isResolved() && !e.asNameExpr().inFieldExpr())
+            return false;
+
+        for(AST child : e.getChildren())
+            if(child.isExpression() && !isInlinable(child.asExpression()))
+                return false;
+        return true;
+    }
+
+    /**
+     * Checks if an expression contains any invocation.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean containsInvocation(Expression e) {
+        if(e.isInvocation())
+            return true;
+
+        for(AST child : e.getChildren())
+            if(child.isExpression() && containsInvocation(child.asExpression()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks if an argument can be evaluated more than once without any additional cost.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isTrivial(Expression e) {
+        return e.isLiteral() && !e.isArrayLiteral() && !e.isListLiteral()
+               || e.isNameExpr() && e.asNameExpr().isResolved()
+               || e.isThisStmt();
+    }
+
+    /**
+     * Counts the number of times each parameter is used inside an expression.
+     * @param e {@link Expression}
+     * @param uses Array storing the number of uses of each parameter
+     */
+    private void countUses(Expression e, int[] uses) {
+        if(isParam(e,uses.length))
+            uses[e.asNameExpr().getSlot()]++;
+
+        for(AST child : e.getChildren())
+            if(child.isExpression())
+                countUses(child.asExpression(),uses);
+    }
+
+    /**
+     * Checks if an expression refers to a parameter of the inlined function or method.
+     * <p>
+     *     An inlined body does not contain any local variables, so every name stored in
+     *     the local frame has to be a parameter.
+     * </p>
+     * @param e {@link Expression}
+     * @param paramCount The number of parameters
+     * @return Boolean
+     */
+    private boolean isParam(Expression e, int paramCount) {
+        return e.isNameExpr() && e.asNameExpr().isResolved() && e.asNameExpr().getDepth() == RuntimeStack.LOCAL_DEPTH
+               && e.asNameExpr().getSlot() < paramCount;
+    }
+
+    /**
+     * Replaces every parameter inside an expression with a copy of its argument.
+     * @param e {@link Expression}
+     * @param args {@link Vector} of arguments
+     * @return The expression with its parameters replaced
+     */
+    private Expression replaceParams(Expression e, Vector<Expression> args) {
+        if(isParam(e,args.size()))
+            return copy(args.get(e.asNameExpr().getSlot()));
+
+        for(int i = 0; i < e.getChildren().size(); i++) {
+            AST child = e.getChildren().get(i);
+            if(!child.isExpression())
+                continue;
+
+            Expression replacement = replaceParams(child.asExpression(),args);
+            if(replacement != child)
+                e.replaceChild(child,replacement);
+        }
+        return e;
+    }
+
+    /**
+     * Replaces every {@code this} pointer inside an expression with a copy of the invoked object.
+     * @param e {@link Expression}
+     * @param target {@link Expression} representing the object a method is invoked on
+     * @return The expression with every {@code this} pointer replaced
+     */
+    private Expression replaceThis(Expression e, Expression target) {
+        if(e.isThisStmt())
+            return copy(target);
+
+        for(int i = 0; i < e.getChildren().size(); i++) {
+            AST child = e.getChildren().get(i);
+            if(!child.isExpression())
+                continue;
+
+            Expression replacement = replaceThis(child.asExpression(),target);
+            if(replacement != child)
+                e.replaceChild(child,replacement);
+        }
+        return e;
+    }
+
+    /**
+     * Creates a deep copy of an expression that keeps the information found by earlier phases.
+     * @param e {@link Expression}
+     * @return Deep copy of the expression
+     */
+    private Expression copy(Expression e) {
+        Expression copy = e.deepCopy().asExpression();
+        copyInfo(e,copy);
+        return copy;
+    }
+
+    /**
+     * Copies the type and slot information of every node into a deep copy of the node.
+     * @param from The original {@link AST} node
+     * @param to The copy of the node
+     */
+    private void copyInfo(AST from, AST to) {
+        if(from.isExpression() && to.isExpression()) {
+            Expression original = from.asExpression();
+            Expression copy = to.asExpression();
+            copy.type = original.type;
+
+            if(original.isNameExpr() && original.asNameExpr().isResolved())
+                copy.asNameExpr().setSlot(original.asNameExpr().getDepth(),original.asNameExpr().getSlot());
+            else if(original.isFieldExpr())
+                copy.asFieldExpr().setFieldSlot(original.asFieldExpr().getFieldSlot());
+            else if(original.isInvocation() && original.asInvocation().isLengthInvocation())
+                copy.asInvocation().setLengthInvocation();
+        }
+
+        for(int i = 0; i < from.getChildren().size() && i < to.getChildren().size(); i++)
+            copyInfo(from.getChildren().get(i),to.getChildren().get(i));
+    }
+
+    /**
+     * Counts the number of nodes inside an expression.
+     * @param node {@link AST}
+     * @return Int
+     */
+    private int size(AST node) {
+        int size = 1;
+        for(AST child : node.getChildren())
+            size += size(child);
+        return size;
+    }
+}
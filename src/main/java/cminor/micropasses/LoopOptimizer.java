@@ -0,0 +1,674 @@
+package cminor.micropasses;
+
+import cminor.ast.AST;
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.expressions.BinaryExpr;
+import cminor.ast.expressions.BinaryExpr.BinaryExprBuilder;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.FieldExpr;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.expressions.Literal;
+import cminor.ast.expressions.Literal.ConstantType;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.misc.FrameDecl;
+import cminor.ast.misc.ParamDecl;
+import cminor.ast.operators.AssignOp;
+import cminor.ast.operators.AssignOp.AssignType;
+import cminor.ast.operators.BinaryOp;
+import cminor.ast.operators.BinaryOp.BinaryType;
+import cminor.ast.statements.AssignStmt;
+import cminor.ast.statements.AssignStmt.AssignStmtBuilder;
+import cminor.ast.statements.BlockStmt;
+import cminor.ast.statements.DoStmt;
+import cminor.ast.statements.ForStmt;
+import cminor.ast.statements.InStmt;
+import cminor.ast.statements.OutStmt;
+import cminor.ast.statements.Statement;
+import cminor.ast.statements.WhileStmt;
+import cminor.ast.topleveldecls.ClassDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.topleveldecls.MainDecl;
+import cminor.ast.types.Type;
+import cminor.token.Token;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * A {@link Visitor} class that moves work out of while, do while, and for loops.
+ * <p>
+ *     This micropass performs two optimizations on every loop, starting from the innermost loop.
+ *     <ol>
+ *         <li>
+ *             <b>Loop-invariant code motion.</b> Any expression whose value can not change while the loop
+ *             executes (such as {@code length(a)}, {@code n - 1}, or a field read from an object that is
+ *             never modified) is evaluated once before the loop starts and stored into a temporary.
+ *         </li>
+ *         <li>
+ *             <b>Strength reduction.</b> A multiplication between the control variable of a for loop and
+ *             a loop-invariant value (such as {@code i*width}) is replaced by a temporary that is increased
+ *             by the invariant value at the start of every iteration.
+ *         </li>
+ *     </ol>
+ *     The assignments that initialize each temporary are stored in the preheader of the loop, which the
+ *     execution engines run once before the loop's first iteration. Every temporary is given its own slot
+ *     by the {@link SlotResolver}.
+ * </p>
+ * <p>
+ *     An expression is only moved out of a loop if it can not produce a runtime error, since the
+ *     preheader is executed even if the loop's body never is. This means any object or array that
+ *     the expression reads has to be initialized before the loop starts.
+ * </p>
+ * @author Daniel Levy
+ */
+public class LoopOptimizer extends ExpressionOptimizer {
+
+    /**
+     * The minimum number of times a multiplication has to appear in a loop before it is strength reduced.
+     * <p>
+     *     An addition costs as much as a multiplication in both execution engines, so replacing a single
+     *     multiplication with a temporary that is increased every iteration would not save any work.
+     * </p>
+     */
+    public static final int REDUCTION_THRESHOLD = 2;
+
+    /**
+     * Slots of every variable in the current frame that is guaranteed to store an initialized value.
+     */
+    private HashSet<String> initializedVars;
+
+    /**
+     * Slots of every variable that is guaranteed to store an initialized value when the current loop starts.
+     */
+    private HashSet<String> knownVars;
+
+    /**
+     * Everything the loop we are currently optimizing may write to.
+     */
+    private Effects loopEffects;
+
+    /**
+     * Maps every expression that was moved out of the current loop to the temporary storing its value.
+     */
+    private HashMap<String,NameExpr> temps;
+
+    /**
+     * Creates the {@link LoopOptimizer}.
+     * @param resolver {@link SlotResolver} that will give each temporary a slot
+     */
+    public LoopOptimizer(SlotResolver resolver) {
+        super(resolver);
+        this.initializedVars = new HashSet<>();
+    }
+
+    /**
+     * Optimizes every method of a non-template class.
+     * @param cd {@link ClassDecl}
+     */
+    public void visitClassDecl(ClassDecl cd) {
+        if(!cd.isTemplate())
+            for(MethodDecl md : cd.getClassBody().getMethods())
+                md.visit(this);
+    }
+
+    /**
+     * Optimizes every loop inside a do while loop, followed by the loop itself.
+     * @param ds {@link DoStmt}
+     */
+    public void visitDoStmt(DoStmt ds) {
+        ds.visitChildren(this);
+
+        loopEffects = new Effects();
+        scan(ds.getBody(),loopEffects,true);
+        scan(ds.getCondition(),loopEffects,true);
+
+        knownVars = new HashSet<>(initializedVars);
+        temps = new HashMap<>();
+        hoistFrom(ds.getBody(),ds);
+        hoistFrom(ds.getCondition(),ds);
+    }
+
+    /**
+     * Optimizes every loop inside a for loop, followed by the loop itself.
+     * <p>
+     *     The bounds of a for loop are only evaluated once, so they are not part of the loop.
+     *     Every variable read by the bounds is then known to be initialized once the loop starts.
+     * </p>
+     * @param fs {@link ForStmt}
+     */
+    public void visitForStmt(ForStmt fs) {
+        fs.visitChildren(this);
+
+        loopEffects = new Effects();
+        scan(fs.getBody(),loopEffects,true);
+
+        String control = key(fs.getControlVariable().getDepth(),fs.getControlVariable().getSlot());
+        boolean controlWritten = loopEffects.writtenVars.contains(control);
+        loopEffects.writtenVars.add(control);
+
+        knownVars = new HashSet<>(initializedVars);
+        findReads(fs.getStartValue(),knownVars);
+        findReads(fs.getEndValue(),knownVars);
+        temps = new HashMap<>();
+        hoistFrom(fs.getBody(),fs);
+
+        if(!controlWritten)
+            reduceStrength(fs,control);
+    }
+
+    /**
+     * Optimizes every loop inside a non-template function.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) {
+        if(!fd.isTemplate())
+            optimizeFrame(fd,fd.getParams(),fd.getBody());
+    }
+
+    /**
+     * Optimizes every loop inside {@code main}.
+     * @param md {@link MainDecl}
+     */
+    public void visitMainDecl(MainDecl md) { optimizeFrame(md,md.getParams(),md.getBody()); }
+
+    /**
+     * Optimizes every loop inside a method.
+     * @param md {@link MethodDecl}
+     */
+    public void visitMethodDecl(MethodDecl md) { optimizeFrame(md,md.getParams(),md.getBody()); }
+
+    /**
+     * Optimizes every loop inside a while loop, followed by the loop itself.
+     * <p>
+     *     The condition of a while loop is always evaluated before the body, so every
+     *     variable it reads is known to be initialized once the loop starts.
+     * </p>
+     * @param ws {@link WhileStmt}
+     */
+    public void visitWhileStmt(WhileStmt ws) {
+        ws.visitChildren(this);
+
+        loopEffects = new Effects();
+        scan(ws.getCondition(),loopEffects,true);
+        scan(ws.getBody(),loopEffects,true);
+
+        knownVars = new HashSet<>(initializedVars);
+        findReads(ws.getCondition(),knownVars);
+        temps = new HashMap<>();
+        hoistFrom(ws.getCondition(),ws);
+        hoistFrom(ws.getBody(),ws);
+    }
+
+    /**
+     * Optimizes every loop inside the body of a function, method, or {@code main}.
+     * <p>
+     *     A parameter always stores an initialized value when the frame is created. If neither a parameter
+     *     nor a local variable initialized with a new object or literal is ever written to again, then it
+     *     will store an initialized value whenever a loop inside the frame starts.
+     * </p>
+     * @param frame {@link FrameDecl} we are optimizing
+     * @param params {@link Vector} of {@link ParamDecl} of the frame
+     * @param body {@link BlockStmt} representing the body of the frame
+     */
+    private void optimizeFrame(FrameDecl frame, Vector<ParamDecl> params, BlockStmt body) {
+        FrameDecl oldFrame = currentFrame;
+        HashSet<String> oldInitialized = initializedVars;
+
+        Effects frameEffects = new Effects();
+        scan(body,frameEffects,false);
+
+        initializedVars = new HashSet<>();
+        for(int i = 0; i < params.size(); i++)
+            initializedVars.add(key(RuntimeStack.LOCAL_DEPTH,i));
+        initializedVars.removeAll(frameEffects.writtenVars);
+        initializedVars.addAll(initializedLocals(frameEffects));
+
+        currentFrame = frame;
+        body.visit(this);
+
+        currentFrame = oldFrame;
+        initializedVars = oldInitialized;
+    }
+
+    /**
+     * Moves every loop-invariant expression found inside a node into the preheader of a loop.
+     * <p>
+     *     We always try to move the largest expression possible. If an expression can not be moved,
+     *     then we will check each of its subexpressions instead.
+     * </p>
+     * @param node {@link AST} node found inside the loop
+     * @param loop {@link Statement} representing the loop
+     */
+    private void hoistFrom(AST node, Statement loop) {
+        if(node == null || !canDescend(node))
+            return;
+
+        if(node.isExpression() && isReplaceable(node.asExpression())) {
+            Expression e = node.asExpression();
+            if(isWorthHoisting(e) && isInvariant(e) && !canFail(e)) {
+                hoist(e,loop);
+                return;
+            }
+        }
+
+        for(int i = 0; i < node.getChildren().size(); i++) {
+            AST child = node.getChildren().get(i);
+            if(isSkipped(node,child))
+                continue;
+            hoistFrom(child,loop);
+        }
+    }
+
+    /**
+     * Replaces an expression with the temporary that will store its value.
+     * <p>
+     *     If the same expression was already moved out of the loop, then we will reuse its temporary.
+     * </p>
+     * @param e {@link Expression} that is loop-invariant
+     * @param loop {@link Statement} representing the loop
+     */
+    private void hoist(Expression e, Statement loop) {
+        String key = keyOf(e);
+        NameExpr temp = temps.get(key);
+
+        if(temp != null) {
+            e.getParent().replaceChild(e,copyOf(temp));
+            return;
+        }
+
+        temp = createTemp(e.type);
+        temps.put(key,temp);
+        e.getParent().replaceChild(e,copyOf(temp));
+        addToPreheader(loop,assign(temp,e,AssignType.EQ,loop));
+    }
+
+    /**
+     * Replaces repeated multiplications by the control variable of a for loop with additions.
+     * <p>
+     *     For a product {@code i*c} where {@code c} is loop-invariant, we create a temporary {@code t}
+     *     that is initialized to {@code (start-1)*c} in the preheader. The statement {@code t += c} is
+     *     then added to the start of the loop's body, so {@code t} will always store the value of
+     *     {@code i*c} during an iteration. This is only done for loops over {@code Int} values whose
+     *     start value is a literal or a variable, so it can be evaluated again by the preheader.
+     * </p>
+     * @param fs {@link ForStmt}
+     * @param control Key of the loop's control variable
+     */
+    private void reduceStrength(ForStmt fs, String control) {
+        Expression start = fs.getStartValue();
+        if(start.type == null || !start.type.isInt() || !(start.isLiteral() || start.isNameExpr() && start.asNameExpr().isResolved()))
+            return;
+
+        Effects boundEffects = new Effects();
+        scan(fs.getEndValue(),boundEffects,true);
+        if(boundEffects.hasCall)
+            return;
+
+        HashMap<String,Vector<BinaryExpr>> products = new HashMap<>();
+        for(Statement s : fs.getBody().getStatements())
+            findProducts(s,control,products);
+
+        int offset = switch(fs.getLoopOperator().getLoopOp()) {
+            case EXCL_L, EXCL -> 0;
+            default -> -1;
+        };
+
+        for(Vector<BinaryExpr> uses : products.values()) {
+            if(uses.size() < REDUCTION_THRESHOLD)
+                continue;
+
+            BinaryExpr first = uses.getFirst();
+            Expression step = isControl(first.getLHS(),control) ? first.getRHS() : first.getLHS();
+
+            NameExpr temp = createTemp(first.type);
+            for(BinaryExpr product : uses)
+                product.getParent().replaceChild(product,copyOf(temp));
+
+            addToPreheader(fs,assign(temp,initialProduct(start,offset,step,first.type),AssignType.EQ,fs));
+            fs.getBody().addStatement(0,assign(temp,copyOf(step),AssignType.PLUSEQ,fs));
+        }
+    }
+
+    /**
+     * Finds every multiplication between a control variable and a loop-invariant value.
+     * @param node {@link AST} node found inside the loop
+     * @param control Key of the control variable
+     * @param products Map storing every multiplication found, grouped by the loop-invariant value
+     */
+    private void findProducts(AST node, String control, HashMap<String,Vector<BinaryExpr>> products) {
+        if(!canDescend(node))
+            return;
+
+        if(node.isExpression() && node.asExpression().isBinaryExpr() && isReplaceable(node.asExpression())) {
+            BinaryExpr be = node.asExpression().asBinaryExpr();
+            if(be.getBinaryOp().getBinaryType() == BinaryType.MULT && be.type != null && be.type.isInt()) {
+                Expression step = null;
+                if(isControl(be.getLHS(),control))
+                    step = be.getRHS();
+                else if(isControl(be.getRHS(),control))
+                    step = be.getLHS();
+
+                if(step != null && step.type != null && step.type.isInt() && (step.isLiteral() || step.isNameExpr())
+                        && isInvariant(step) && !canFail(step)) {
+                    products.computeIfAbsent(keyOf(step),k -> new Vector<>()).add(be);
+                    return;
+                }
+            }
+        }
+
+        for(int i = 0; i < node.getChildren().size(); i++) {
+            AST child = node.getChildren().get(i);
+            if(!isSkipped(node,child))
+                findProducts(child,control,products);
+        }
+    }
+
+    /**
+     * Creates the expression that computes the initial value of a strength reduced temporary.
+     * @param start {@link Expression} representing the start value of the for loop
+     * @param offset Value added to the start value before it is multiplied
+     * @param step {@link Expression} the control variable is multiplied by
+     * @param type {@link Type} of the product
+     * @return {@link Expression}
+     */
+    private Expression initialProduct(Expression start, int offset, Expression step, Type type) {
+        if(start.isLiteral() && step.isLiteral())
+            return literal(String.valueOf((start.asLiteral().asInt()+offset) * step.asLiteral().asInt()),type);
+
+        Expression base;
+        if(start.isLiteral())
+            base = literal(String.valueOf(start.asLiteral().asInt()+offset),type);
+        else if(offset == 0)
+            base = copyOf(start);
+        else
+            base = binary(copyOf(start),literal(String.valueOf(-offset),type),BinaryType.MINUS,type);
+
+        return binary(base,copyOf(step),BinaryType.MULT,type);
+    }
+
+    /**
+     * Records every variable that an expression always reads when it is evaluated.
+     * <p>
+     *     The right operand of {@code and} and {@code or} may not be evaluated, so it is ignored.
+     * </p>
+     * @param e {@link Expression}
+     * @param reads Set storing the key of every variable that is read
+     */
+    private void findReads(Expression e, HashSet<String> reads) {
+        if(e == null)
+            return;
+
+        if(e.isNameExpr()) {
+            if(e.asNameExpr().isResolved())
+                reads.add(key(e.asNameExpr().getDepth(),e.asNameExpr().getSlot()));
+            return;
+        }
+
+        if(e.isBinaryExpr()) {
+            BinaryType op = e.asBinaryExpr().getBinaryOp().getBinaryType();
+            findReads(e.asBinaryExpr().getLHS(),reads);
+            if(op != BinaryType.AND && op != BinaryType.OR)
+                findReads(e.asBinaryExpr().getRHS(),reads);
+            return;
+        }
+
+        if(e.isFieldExpr()) {
+            findReads(e.asFieldExpr().getTarget(),reads);
+            return;
+        }
+
+        for(AST child : e.getChildren())
+            if(child.isExpression())
+                findReads(child.asExpression(),reads);
+    }
+
+    /**
+     * Checks if the value of an expression can not change while the current loop executes.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isInvariant(Expression e) {
+        if(e.isLiteral())
+            return !e.isArrayLiteral() && !e.isListLiteral();
+
+        if(e.isThisStmt())
+            return true;
+
+        if(e.isNameExpr()) {
+            NameExpr ne = e.asNameExpr();
+            return ne.isResolved() && !loopEffects.writtenVars.contains(key(ne.getDepth(),ne.getSlot()))
+                    && (ne.getDepth() == RuntimeStack.LOCAL_DEPTH || !loopEffects.hasCall);
+        }
+
+        if(e.isFieldExpr()) {
+            FieldExpr fe = e.asFieldExpr();
+            Expression target = fe.getTarget();
+            return !fe.isNullCheck() && fe.getAccessExpr().isNameExpr() && fe.type != null && isScalar(fe.type) && !loopEffects.hasCall
+                    && !loopEffects.writtenFields.contains(fe.getAccessExpr().toString())
+                    && (target.isThisStmt() || target.isNameExpr()) && isInvariant(target);
+        }
+
+        if(e.isInvocation()) {
+            Invocation in = e.asInvocation();
+            if(!in.isLengthInvocation() || in.getArgs().size() != 1 || !in.getArgs().getFirst().isNameExpr())
+                return false;
+
+            Expression arg = in.getArgs().getFirst();
+            if(arg.type == null || (arg.type.isList() && (loopEffects.hasCall || loopEffects.hasListStmt)))
+                return false;
+            return isInvariant(arg);
+        }
+
+        if(e.isBinaryExpr()) {
+            BinaryExpr be = e.asBinaryExpr();
+            switch(be.getBinaryOp().getBinaryType()) {
+                case INSTOF, NINSTOF, AS:
+                    return false;
+                case DIV, MOD:
+                    if(!be.getRHS().isLiteral() || !be.getRHS().type.isInt() || be.getRHS().asLiteral().asInt() == 0)
+                        return false;
+                    break;
+                case EXP:
+                    if(be.type == null || !be.type.isInt())
+                        return false;
+                    break;
+            }
+            return isInvariant(be.getLHS()) && isInvariant(be.getRHS());
+        }
+
+        if(e.isUnaryExpr())
+            return isInvariant(e.asUnaryExpr().getExpr());
+
+        return false;
+    }
+
+    /**
+     * Checks if an expression could produce a runtime error when it is evaluated before the loop.
+     * <p>
+     *     A scalar variable always stores a value, but an object, array, list, or enum variable
+     *     may not have been initialized yet. Such a variable can only be read if we know it is
+     *     initialized when the loop starts. Any arithmetic that computes a {@code Real} can
+     *     overflow in fixed mode, so it is never evaluated before the loop.
+     * </p>
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean canFail(Expression e) {
+        if((e.isBinaryExpr() || e.isUnaryExpr()) && (e.type == null || e.type.isReal()))
+            return true;
+
+        if(e.isNameExpr()) {
+            NameExpr ne = e.asNameExpr();
+            return ne.type == null || (!isScalar(ne.type) && !knownVars.contains(key(ne.getDepth(),ne.getSlot())));
+        }
+
+        for(AST child : e.getChildren())
+            if(child.isExpression() && !isAccess(e,child) && canFail(child.asExpression()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks if moving an expression out of the loop would save any work.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isWorthHoisting(Expression e) {
+        if(e.type == null || e.type.isVoid())
+            return false;
+        if(!e.isBinaryExpr() && !e.isUnaryExpr() && !e.isFieldExpr() && !e.isInvocation())
+            return false;
+        return readsVariable(e);
+    }
+
+    /**
+     * Checks if an expression reads a variable or the current object.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean readsVariable(Expression e) {
+        if(e.isNameExpr() || e.isThisStmt())
+            return true;
+
+        for(AST child : e.getChildren())
+            if(child.isExpression() && !isAccess(e,child) && readsVariable(child.asExpression()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks if an expression that is not part of another expression may be moved out of a loop.
+     * <p>
+     *     This is true for the conditions of control flow statements, printed and returned values,
+     *     and the initial values of local variables.
+     * </p>
+     * @param parent {@link AST} containing the expression
+     * @return Boolean
+     */
+    protected boolean isReplaceableIn(AST parent) {
+        if(parent.isStatement()) {
+            Statement s = parent.asStatement();
+            return s.isIfStmt() || s.isWhileStmt() || s.isDoStmt() || s.isForStmt() || s.isReturnStmt() || s instanceof OutStmt;
+        }
+
+        return parent.isSubNode() && parent.asSubNode().isVar() && parent.getParent() != null
+                && parent.getParent().isStatement() && parent.getParent().asStatement().isLocalDecl();
+    }
+
+    /**
+     * Checks if we are allowed to look inside a node for expressions to optimize.
+     * @param node {@link AST}
+     * @return Boolean
+     */
+    private boolean canDescend(AST node) {
+        if(node.isStatement())
+            return !(node instanceof InStmt) && !node.asStatement().isRetypeStmt();
+        if(node.isExpression())
+            return !node.asExpression().isNewExpr();
+        return true;
+    }
+
+    /**
+     * Checks if a child of a node should be ignored when we look for expressions to optimize.
+     * <p>
+     *     The LHS of an assignment is written to, and the access expression of a field
+     *     expression is only searched when it invokes a method or indexes into an array.
+     * </p>
+     * @param parent {@link AST}
+     * @param child {@link AST}
+     * @return Boolean
+     */
+    private boolean isSkipped(AST parent, AST child) {
+        if(parent.isStatement() && parent.asStatement().isAssignStmt())
+            return parent.asStatement().asAssignStmt().getLHS() == child;
+
+        if(parent.isExpression() && parent.asExpression().isFieldExpr()) {
+            Expression access = parent.asExpression().asFieldExpr().getAccessExpr();
+            return access == child && !access.isInvocation() && !access.isArrayExpr();
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if an expression is the control variable of a for loop.
+     * @param e {@link Expression}
+     * @param control Key of the control variable
+     * @return Boolean
+     */
+    private boolean isControl(Expression e, String control) {
+        return e.isNameExpr() && e.asNameExpr().isResolved() && key(e.asNameExpr().getDepth(),e.asNameExpr().getSlot()).equals(control);
+    }
+
+    /**
+     * Creates an {@code Int} literal.
+     * @param text Text of the literal
+     * @param type {@link Type} of the literal
+     * @return {@link Literal}
+     */
+    private Literal literal(String text, Type type) { return literal(text,type,ConstantType.INT); }
+
+    /**
+     * Creates a literal.
+     * @param text Text of the literal
+     * @param type {@link Type} of the literal
+     * @param kind {@link ConstantType} of the literal
+     * @return {@link Literal}
+     */
+    private Literal literal(String text, Type type, ConstantType kind) {
+        Literal li = new Literal(kind,text);
+        li.type = type;
+        return li;
+    }
+
+    /**
+     * Creates a binary expression.
+     * @param LHS {@link Expression} representing the left operand
+     * @param RHS {@link Expression} representing the right operand
+     * @param op {@link BinaryType} of the expression
+     * @param type {@link Type} of the expression
+     * @return {@link BinaryExpr}
+     */
+    private BinaryExpr binary(Expression LHS, Expression RHS, BinaryType op, Type type) {
+        BinaryExpr be = new BinaryExprBuilder()
+                            .setLHS(LHS)
+                            .setRHS(RHS)
+                            .setBinaryOp(new BinaryOp(new Token(),op))
+                            .create();
+        be.type = type;
+        return be;
+    }
+
+    /**
+     * Creates an assignment into a temporary.
+     * @param temp {@link NameExpr} representing the temporary
+     * @param value {@link Expression} that will be stored
+     * @param op {@link AssignType} of the assignment
+     * @param loop {@link Statement} representing the loop the assignment belongs to
+     * @return {@link AssignStmt}
+     */
+    private AssignStmt assign(NameExpr temp, Expression value, AssignType op, Statement loop) {
+        return new AssignStmtBuilder()
+                   .setMetaData(loop)
+                   .setLHS(copyOf(temp).asNameExpr())
+                   .setRHS(value)
+                   .setAssignOp(new AssignOp(op))
+                   .create();
+    }
+
+    /**
+     * Adds an assignment to the preheader of a loop.
+     * @param loop {@link Statement} representing the loop
+     * @param as {@link AssignStmt}
+     */
+    private void addToPreheader(Statement loop, AssignStmt as) {
+        if(loop.isWhileStmt())
+            loop.asWhileStmt().addPreheaderStmt(as);
+        else if(loop.isDoStmt())
+            loop.asDoStmt().addPreheaderStmt(as);
+        else
+            loop.asForStmt().addPreheaderStmt(as);
+    }
+}
@@ -0,0 +1,206 @@
+package cminor.micropasses;
+
+import cminor.ast.AST;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.expressions.NewExpr;
+import cminor.ast.misc.CompilationUnit;
+import cminor.ast.misc.ParamDecl;
+import cminor.ast.statements.InStmt;
+import cminor.ast.statements.OutStmt;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.types.Type;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+
+/**
+ * A {@link Visitor} class that finds {@code pure} functions whose calls can be memoized.
+ * <p>
+ *     The {@link cminor.modifierchecker.ModifierChecker} will only generate a warning if a
+ *     {@code pure} function changes state, so we can not assume every {@code pure} function
+ *     is safe to memoize. This micropass will mark a function as memoizable if it is
+ *     {@code pure} and its body does not perform any input or output, does not read a
+ *     global variable that could change, does not create objects or call methods, and only
+ *     calls other functions that also meet these conditions.
+ * </p>
+ * <p>
+ *     Additionally, every parameter has to be an {@code in} parameter and the function has
+ *     to accept and return scalar values. This allows the execution engine to use the
+ *     argument values as the key of the function's {@link cminor.utilities.MemoCache}.
+ * </p>
+ * @author Daniel Levy
+ */
+public class PurityAnalyzer extends Visitor {
+
+    /**
+     * The {@code pure} function whose body we are currently analyzing.
+     */
+    private FuncDecl currentFunction;
+
+    /**
+     * Flag set to {@code False} once the body of {@link #currentFunction} is found to have a side effect.
+     */
+    private boolean isSideEffectFree;
+
+    /**
+     * Every function invoked by {@link #currentFunction}.
+     */
+    private Vector<FuncDecl> callees;
+
+    /**
+     * Analyzes every function found in a program.
+     * @param cu {@link CompilationUnit}
+     */
+    public void visitCompilationUnit(CompilationUnit cu) { analyze(cu.getFunctions()); }
+
+    /**
+     * Analyzes a single function that was written in the {@link cminor.interpreter.VM}.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) { analyze(new Vector<>(fd)); }
+
+    /**
+     * Marks every memoizable function from a group of functions.
+     * <p>
+     *     We first find every {@code pure} function whose body does not have a side effect
+     *     by itself. A function is then removed from this group if it calls a function that
+     *     is not in the group, and this is repeated until no more functions can be removed.
+     * </p>
+     * @param functions {@link Vector} of {@link FuncDecl}
+     */
+    private void analyze(Vector<FuncDecl> functions) {
+        Vector<FuncDecl> candidates = new Vector<>();
+        Vector<Vector<FuncDecl>> invoked = new Vector<>();
+
+        for(FuncDecl fd : functions) {
+            if(!fd.mod.isPure() || fd.isTemplate() || fd.isMemoizable())
+                continue;
+
+            currentFunction = fd;
+            isSideEffectFree = true;
+            callees = new Vector<>();
+            fd.getBody().visit(this);
+
+            if(isSideEffectFree) {
+                candidates.add(fd);
+                invoked.add(callees);
+            }
+        }
+
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            for(int i = candidates.size()-1; i >= 0; i--) {
+                for(FuncDecl callee : invoked.get(i)) {
+                    if(!callee.isMemoizable() && !candidates.contains(callee)) {
+                        candidates.remove(i);
+                        invoked.remove(i);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        for(FuncDecl fd : candidates)
+            if(hasScalarSignature(fd))
+                fd.setMemoizable();
+
+        currentFunction = null;
+    }
+
+    /**
+     * Checks if a function only accepts and returns scalar values.
+     * @param fd {@link FuncDecl}
+     * @return {@code True} if every argument can be used as part of a cache key, {@code False} otherwise.
+     */
+    private boolean hasScalarSignature(FuncDecl fd) {
+        if(!isScalar(fd.getReturnType()))
+            return false;
+
+        for(ParamDecl pd : fd.getParams())
+            if(!pd.mod.isInMode() || !isScalar(pd.getType()))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Checks if a type represents a scalar value.
+     * @param type {@link Type}
+     * @return Boolean
+     */
+    private boolean isScalar(Type type) { return type != null && !type.isVoid() && !type.isStructured(); }
+
+    /**
+     * Records the function that is invoked.
+     * <p>
+     *     Methods may change the state of the object they are invoked on, so we will treat
+     *     any method invocation as a side effect.
+     * </p>
+     * @param in {@link Invocation}
+     */
+    public void visitInvocation(Invocation in) {
+        if(currentFunction == null)
+            return;
+
+        for(AST arg : in.getArgs())
+            arg.visit(this);
+
+        if(in.isLengthInvocation())
+            return;
+
+        if(in.isMethodInvocation() || in.containsTypeArgs()) {
+            isSideEffectFree = false;
+            return;
+        }
+
+        AST decl = currentFunction.getScope().findMethod(in.getName().toString(),in.getSignature());
+        if(decl == null || !decl.isTopLevelDecl() || !decl.asTopLevelDecl().isFuncDecl())
+            isSideEffectFree = false;
+        else if(decl != currentFunction)
+            callees.add(decl.asTopLevelDecl().asFuncDecl());
+    }
+
+    /**
+     * Checks if a global variable is accessed.
+     * <p>
+     *     Enum constants and scalar global constants will always have the same value,
+     *     so these are the only global names a memoizable function can refer to.
+     * </p>
+     * @param ne {@link NameExpr}
+     */
+    public void visitNameExpr(NameExpr ne) {
+        if(currentFunction == null || !ne.isResolved() || ne.getDepth() != RuntimeStack.GLOBAL_DEPTH)
+            return;
+
+        AST decl = currentFunction.getScope().findName(ne.toString());
+        if(decl == null || !decl.isTopLevelDecl())
+            isSideEffectFree = false;
+        else if(decl.asTopLevelDecl().isGlobalDecl()) {
+            if(!decl.asTopLevelDecl().asGlobalDecl().isConstant() || !isScalar(decl.asTopLevelDecl().asGlobalDecl().getType()))
+                isSideEffectFree = false;
+        }
+        else if(!decl.asTopLevelDecl().isEnumDecl())
+            isSideEffectFree = false;
+    }
+
+    /**
+     * Objects are not allowed to be created inside a memoizable function.
+     * @param ne {@link NewExpr}
+     */
+    public void visitNewExpr(NewExpr ne) { isSideEffectFree = false; }
+
+    /**
+     * Input statements are not allowed inside a memoizable function.
+     * @param in {@link InStmt}
+     */
+    public void visitInStmt(InStmt in) { isSideEffectFree = false; }
+
+    /**
+     * Output statements are not allowed inside a memoizable function.
+     * @param os {@link OutStmt}
+     */
+    public void visitOutStmt(OutStmt os) { isSideEffectFree = false; }
+}
@@ -12,6 +12,7 @@ import cminor.messages.MessageHandler;
 import cminor.messages.MessageNumber;
 import cminor.messages.errors.ErrorBuilder;
 import cminor.messages.errors.semantic.SemanticError;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.Visitor;
 
 /**
@@ -41,9 +42,10 @@ public class SemanticAnalyzer extends Visitor {
 
     /**
      * Default constructor for {@link SemanticAnalyzer}.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public SemanticAnalyzer() {
-        this.handler = new MessageHandler();
+    public SemanticAnalyzer(CompilationContext context) {
+        this.handler = new MessageHandler(context);
         this.helper = new SemanticAnalyzerHelper();
     }
 
@@ -124,7 +126,7 @@ public class SemanticAnalyzer extends Visitor {
      */
     public void visitCompilationUnit(CompilationUnit cu) {
         super.visitCompilationUnit(cu);
-        handler.printMessages();
+        handler.checkForErrors();
     }
 
     /**
@@ -0,0 +1,526 @@
+package cminor.micropasses;
+
+import cminor.ast.classbody.FieldDecl;
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.expressions.ArrayExpr;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.FieldExpr;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.expressions.NewExpr;
+import cminor.ast.misc.CompilationUnit;
+import cminor.ast.misc.FrameDecl;
+import cminor.ast.misc.ParamDecl;
+import cminor.ast.misc.Var;
+import cminor.ast.statements.AssignStmt;
+import cminor.ast.statements.BlockStmt;
+import cminor.ast.statements.ForStmt;
+import cminor.ast.statements.LocalDecl;
+import cminor.ast.statements.Statement;
+import cminor.ast.topleveldecls.ClassDecl;
+import cminor.ast.topleveldecls.EnumDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.topleveldecls.GlobalDecl;
+import cminor.ast.topleveldecls.ImportDecl;
+import cminor.ast.topleveldecls.MainDecl;
+import cminor.utilities.FieldLayout;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * A {@link Visitor} class that binds every variable to a slot inside a call frame.
+ * <p>
+ *     The {@link cminor.interpreter.Interpreter} used to look up every variable by its name
+ *     inside a chain of hash maps, and a new map was created each time a block was executed.
+ *     This micropass runs once the program has been fully checked, and it will assign each
+ *     variable a {@code (depth, slot)} pair. A depth of {@link RuntimeStack#GLOBAL_DEPTH} refers
+ *     to the global frame (enum constants, global variables, and any variables declared at the
+ *     top level of the {@link cminor.interpreter.VM}) while a depth of {@link RuntimeStack#LOCAL_DEPTH}
+ *     refers to the call frame of the function, method, or {@code main} that is currently executing.
+ *     Every {@link FrameDecl} will also store how many slots it needs, so the interpreter can allocate
+ *     a flat call frame when it is invoked. Since every class is complete at this point, we will also
+ *     build the virtual method table of each class here.
+ * </p>
+ * @author Daniel Levy
+ */
+public class SlotResolver extends Visitor {
+
+    /**
+     * Stack of scopes mapping a variable name to its {@code (depth, slot)} pair. The first
+     * scope will always be the global scope which persists between every {@link cminor.interpreter.VM} input.
+     */
+    private Vector<HashMap<String,int[]>> scopes;
+
+    /**
+     * Number of slots that have been assigned in the global frame.
+     */
+    private int globalSlots;
+
+    /**
+     * Number of slots that have been assigned in the call frame we are currently resolving.
+     */
+    private int localSlots;
+
+    /**
+     * Flag set when we are resolving the body of a {@link FrameDecl}.
+     */
+    private boolean insideFrame;
+
+    /**
+     * Set of classes that were already resolved. This prevents us from resolving an instantiated
+     * template class multiple times if it is used by more than one {@link NewExpr}.
+     */
+    private final HashSet<ClassDecl> resolvedClasses;
+
+    /**
+     * Map containing every class that was resolved. This is used to find the base class of a subclass
+     * when we build its field layout and virtual method table, and to find the field layout of the
+     * class a {@link FieldExpr} accesses.
+     */
+    private final HashMap<String,ClassDecl> classes;
+
+    /**
+     * Creates the {@link SlotResolver} with an empty global frame.
+     */
+    public SlotResolver() {
+        this.scopes = new Vector<>();
+        this.scopes.add(new HashMap<>());
+        this.globalSlots = 0;
+        this.localSlots = 0;
+        this.insideFrame = false;
+        this.resolvedClasses = new HashSet<>();
+        this.classes = new HashMap<>();
+    }
+
+    /**
+     * Binds a variable to the next available slot in the frame we are currently resolving.
+     * @param name The name of the variable.
+     * @return An array storing the {@code (depth, slot)} pair of the variable.
+     */
+    private int[] declare(String name) {
+        int[] location = insideFrame
+                            ? new int[]{RuntimeStack.LOCAL_DEPTH, localSlots++}
+                            : new int[]{RuntimeStack.GLOBAL_DEPTH, globalSlots++};
+
+        scopes.getLast().put(name,location);
+        return location;
+    }
+
+    /**
+     * Binds a compiler-generated temporary to a new slot.
+     * <p>
+     *     This is used by any micropass that runs after slot resolution and needs to store
+     *     an intermediate value. A temporary created inside a {@link FrameDecl} will increase
+     *     the size of its call frame, and any other temporary is stored in the global frame.
+     * </p>
+     * @param frame The {@link FrameDecl} the temporary is used in, or {@code null} for top level code.
+     * @return An array storing the {@code (depth, slot)} pair of the temporary.
+     */
+    public int[] declareTemporary(FrameDecl frame) {
+        if(frame == null)
+            return new int[]{RuntimeStack.GLOBAL_DEPTH, globalSlots++};
+
+        int slot = frame.getFrameSize();
+        frame.setFrameSize(slot+1);
+        return new int[]{RuntimeStack.LOCAL_DEPTH, slot};
+    }
+
+    /**
+     * Finds the {@code (depth, slot)} pair associated with a variable name.
+     * @param name The name of the variable.
+     * @return An array storing the {@code (depth, slot)} pair, or {@code null} if the name is not a variable.
+     */
+    private int[] lookup(String name) {
+        for(int i = scopes.size()-1; i >= 0; i--) {
+            if(scopes.get(i).containsKey(name))
+                return scopes.get(i).get(name);
+        }
+        return null;
+    }
+
+    /**
+     * Resolves every parameter and local variable of a function, method, or {@code main}.
+     * <p>
+     *     Parameters will always occupy the first slots of the call frame in the order they
+     *     were declared, so the interpreter is able to bind arguments by their position.
+     * </p>
+     * @param decl The {@link FrameDecl} we are resolving.
+     * @param params The {@link ParamDecl} associated with the frame.
+     * @param body The {@link BlockStmt} that will be executed inside the frame.
+     */
+    private void resolveFrame(FrameDecl decl, Vector<ParamDecl> params, BlockStmt body) {
+        Vector<HashMap<String,int[]>> oldScopes = scopes;
+        int oldLocalSlots = localSlots;
+        boolean oldInsideFrame = insideFrame;
+
+        scopes = new Vector<>();
+        scopes.add(oldScopes.getFirst());
+        scopes.add(new HashMap<>());
+        localSlots = 0;
+        insideFrame = true;
+
+        for(ParamDecl pd : params)
+            declare(pd.toString());
+
+        body.visit(this);
+        decl.setFrameSize(localSlots);
+
+        scopes = oldScopes;
+        localSlots = oldLocalSlots;
+        insideFrame = oldInsideFrame;
+    }
+
+    /**
+     * Resolves any names found in the access expression of a {@link FieldExpr}.
+     * <p>
+     *     Names found in the access expression refer to fields, so they will not be bound
+     *     to a slot. However, array indices and invocation arguments will still need to
+     *     be resolved since they are evaluated in the current call frame.
+     * </p>
+     * @param access The {@link Expression} we are accessing from the target.
+     */
+    private void resolveAccess(Expression access) {
+        if(access.isNameExpr())
+            return;
+
+        if(access.isFieldExpr()) {
+            resolveAccess(access.asFieldExpr().getTarget());
+            resolveAccess(access.asFieldExpr().getAccessExpr());
+            resolveFieldSlot(access.asFieldExpr());
+        }
+        else if(access.isArrayExpr()) {
+            ArrayExpr ae = access.asArrayExpr();
+            resolveAccess(ae.getArrayTarget());
+            for(Expression index : ae.getArrayIndex())
+                index.visit(this);
+        }
+        else
+            access.visit(this);
+    }
+
+    /**
+     * Resolves all variables declared inside a block statement.
+     * <p>
+     *     Each block statement opens a new scope. Slots are never reused once a block
+     *     ends, so every variable of a call frame is guaranteed to have its own slot.
+     * </p>
+     * @param bs {@link BlockStmt}
+     */
+    public void visitBlockStmt(BlockStmt bs) {
+        scopes.add(new HashMap<>());
+
+        for(LocalDecl ld : bs.getLocalDecls())
+            ld.visit(this);
+
+        for(Statement s : bs.getStatements())
+            s.visit(this);
+
+        scopes.removeLast();
+    }
+
+    /**
+     * Builds the virtual method table of a class.
+     * <p>
+     *     The table starts as a copy of the base class's table. A method that overrides a base
+     *     class method will take the position of that method, and any new method is added to
+     *     the end of the table. This means a method will be found at the same position for
+     *     every class in a hierarchy.
+     * </p>
+     * @param cd {@link ClassDecl}
+     */
+    private void buildVTable(ClassDecl cd) {
+        Vector<MethodDecl> vtable = new Vector<>();
+        if(cd.getSuperClass() != null) {
+            ClassDecl baseClass = classes.get(cd.getSuperClass().getTypeName());
+            if(baseClass != null && baseClass.getVTable() != null)
+                vtable.merge(baseClass.getVTable());
+        }
+
+        for(MethodDecl md : cd.getClassBody().getMethods()) {
+            int index = vtable.size();
+            for(int i = 0; i < vtable.size(); i++) {
+                MethodDecl baseMethod = vtable.get(i);
+                if(baseMethod.toString().equals(md.toString()) && baseMethod.getParamSignature().equals(md.getParamSignature())) {
+                    index = i;
+                    break;
+                }
+            }
+
+            if(index == vtable.size())
+                vtable.add(md);
+            else
+                vtable.set(index,md);
+            md.setVTableIndex(index);
+        }
+
+        cd.setVTable(vtable);
+    }
+
+    /**
+     * Builds the {@link FieldLayout} of a class.
+     * <p>
+     *     The layout starts with every field of the base class, so an inherited field will have
+     *     the same slot in the base class and the subclass. Each field declared by the class is
+     *     then added in the order it was declared.
+     * </p>
+     * @param cd {@link ClassDecl}
+     */
+    private void buildFieldLayout(ClassDecl cd) {
+        FieldLayout layout = new FieldLayout();
+        if(cd.getSuperClass() != null) {
+            ClassDecl baseClass = classes.get(cd.getSuperClass().getTypeName());
+            if(baseClass != null && baseClass.getFieldLayout() != null)
+                layout = new FieldLayout(baseClass.getFieldLayout());
+        }
+
+        for(FieldDecl fd : cd.getClassBody().getFields())
+            layout.addField(fd.toString());
+
+        cd.setFieldLayout(layout);
+        classes.put(cd.getName().toString(),cd);
+    }
+
+    /**
+     * Resolves all methods and field initializations of a class.
+     * <p>
+     *     Template classes are ignored since only their instantiated copies will be executed.
+     *     Field initializations will only be able to reference global variables, so they are
+     *     resolved outside of any call frame. We will also build the field layout and the virtual
+     *     method table of the class, so the {@link cminor.interpreter.Interpreter} does not have to
+     *     search for a field or a method by its name whenever it is accessed.
+     * </p>
+     * @param cd {@link ClassDecl}
+     */
+    public void visitClassDecl(ClassDecl cd) {
+        if(cd.isTemplate() || resolvedClasses.contains(cd))
+            return;
+        resolvedClasses.add(cd);
+        buildFieldLayout(cd);
+
+        Vector<HashMap<String,int[]>> oldScopes = scopes;
+        boolean oldInsideFrame = insideFrame;
+
+        scopes = new Vector<>();
+        scopes.add(oldScopes.getFirst());
+        insideFrame = false;
+
+        for(FieldDecl fd : cd.getClassBody().getFields()) {
+            if(fd.hasInitialValue() && fd.getInitialValue() != null)
+                fd.getInitialValue().visit(this);
+        }
+
+        if(cd.getConstructor() != null) {
+            for(AssignStmt as : cd.getConstructor().getInitStmts()) {
+                FieldExpr field = as.getLHS().asFieldExpr();
+                field.setFieldSlot(cd.getFieldLayout().getSlot(field.getAccessExpr().toString()));
+                if(as.getRHS() != null)
+                    as.getRHS().visit(this);
+            }
+        }
+
+        scopes = oldScopes;
+        insideFrame = oldInsideFrame;
+
+        for(MethodDecl md : cd.getClassBody().getMethods())
+            md.visit(this);
+
+        buildVTable(cd);
+    }
+
+    /**
+     * Begins the slot resolution in compilation mode.
+     * <p>
+     *     Enum constants and global variables are resolved first since they are
+     *     stored in the global frame before {@code main} is executed.
+     * </p>
+     * @param cu {@link CompilationUnit}
+     */
+    public void visitCompilationUnit(CompilationUnit cu) {
+        for(ImportDecl id : cu.getImports())
+            id.visit(this);
+
+        for(EnumDecl ed : cu.getEnums())
+            ed.visit(this);
+
+        for(GlobalDecl gd : cu.getGlobals())
+            gd.visit(this);
+
+        for(ClassDecl cd : cu.getClasses())
+            cd.visit(this);
+
+        for(FuncDecl fd : cu.getFunctions())
+            fd.visit(this);
+
+        if(cu.getMain() != null)
+            cu.getMain().visit(this);
+    }
+
+    /**
+     * Binds every enum constant to a slot in the global frame.
+     * @param ed {@link EnumDecl}
+     */
+    public void visitEnumDecl(EnumDecl ed) {
+        for(Var constant : ed.getConstants()) {
+            constant.getInitialValue().visit(this);
+            int[] location = declare(constant.toString());
+            constant.setSlot(location[0],location[1]);
+        }
+    }
+
+    /**
+     * Resolves the target of a field expression followed by its access expression.
+     * @param fe {@link FieldExpr}
+     */
+    public void visitFieldExpr(FieldExpr fe) {
+        fe.getTarget().visit(this);
+        resolveAccess(fe.getAccessExpr());
+        resolveFieldSlot(fe);
+    }
+
+    /**
+     * Binds the field accessed by a {@link FieldExpr} to its slot.
+     * <p>
+     *     The slot is found in the {@link FieldLayout} of the target's class. Since a subclass
+     *     keeps the slot of every inherited field, the slot will be valid for any object the
+     *     target refers to at runtime. If the target's class is unknown, then the field will
+     *     be accessed by its name instead.
+     * </p>
+     * @param fe {@link FieldExpr}
+     */
+    private void resolveFieldSlot(FieldExpr fe) {
+        if(!fe.getAccessExpr().isNameExpr() || fe.getTarget().type == null || !fe.getTarget().type.isClass())
+            return;
+
+        ClassDecl cd = classes.get(fe.getTarget().type.getTypeName());
+        if(cd != null && cd.getFieldLayout() != null)
+            fe.setFieldSlot(cd.getFieldLayout().getSlot(fe.getAccessExpr().toString()));
+    }
+
+    /**
+     * Binds the control variable of a for loop to a slot.
+     * <p>
+     *     Similarly to the {@link cminor.namechecker.NameChecker}, the control variable
+     *     will be stored in the same scope as the outermost scope of the loop's body.
+     * </p>
+     * @param fs {@link ForStmt}
+     */
+    public void visitForStmt(ForStmt fs) {
+        fs.getStartValue().visit(this);
+        fs.getEndValue().visit(this);
+
+        scopes.add(new HashMap<>());
+
+        int[] location = declare(fs.getControlVariable().toString());
+        fs.getControlVariable().setSlot(location[0],location[1]);
+
+        for(LocalDecl ld : fs.getBody().getLocalDecls())
+            ld.visit(this);
+
+        for(Statement s : fs.getBody().getStatements())
+            s.visit(this);
+
+        scopes.removeLast();
+    }
+
+    /**
+     * Resolves the parameters and local variables of a function.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) { resolveFrame(fd,fd.getParams(),fd.getBody()); }
+
+    /**
+     * Binds a global variable to a slot in the global frame.
+     * @param gd {@link GlobalDecl}
+     */
+    public void visitGlobalDecl(GlobalDecl gd) {
+        if(gd.getInitialValue() != null)
+            gd.getInitialValue().visit(this);
+
+        int[] location = declare(gd.toString());
+        gd.setSlot(location[0],location[1]);
+    }
+
+    /**
+     * Resolves any names found in an imported {@link CompilationUnit}.
+     * @param id {@link ImportDecl}
+     */
+    public void visitImportDecl(ImportDecl id) { id.getCompilationUnit().visit(this); }
+
+    /**
+     * Resolves the arguments of an invocation.
+     * <p>
+     *     The name of the invocation refers to a function or method, so it will not be resolved.
+     * </p>
+     * @param in {@link Invocation}
+     */
+    public void visitInvocation(Invocation in) {
+        for(Expression arg : in.getArgs())
+            arg.visit(this);
+    }
+
+    /**
+     * Binds a local variable to a slot in the current frame.
+     * <p>
+     *     If we are not inside a {@link FrameDecl}, then the local variable was declared at the
+     *     top level of the {@link cminor.interpreter.VM}, and it will be stored in the global frame.
+     * </p>
+     * @param ld {@link LocalDecl}
+     */
+    public void visitLocalDecl(LocalDecl ld) {
+        if(ld.getInitialValue() != null)
+            ld.getInitialValue().visit(this);
+
+        int[] location = declare(ld.toString());
+        ld.setSlot(location[0],location[1]);
+    }
+
+    /**
+     * Resolves the local variables of {@code main}.
+     * @param md {@link MainDecl}
+     */
+    public void visitMainDecl(MainDecl md) { resolveFrame(md,md.getParams(),md.getBody()); }
+
+    /**
+     * Resolves the parameters and local variables of a method.
+     * @param md {@link MethodDecl}
+     */
+    public void visitMethodDecl(MethodDecl md) { resolveFrame(md,md.getParams(),md.getBody()); }
+
+    /**
+     * Binds a name expression to the slot of the variable it refers to.
+     * @param ne {@link NameExpr}
+     */
+    public void visitNameExpr(NameExpr ne) {
+        int[] location = lookup(ne.toString());
+        if(location != null)
+            ne.setSlot(location[0],location[1]);
+    }
+
+    /**
+     * Resolves the initial field values of a new expression.
+     * <p>
+     *     If the object is created from a template class, then we will also resolve
+     *     the instantiated class since it is not found in the original program. Each
+     *     initialized field is then bound to its slot in the class's field layout.
+     * </p>
+     * @param ne {@link NewExpr}
+     */
+    public void visitNewExpr(NewExpr ne) {
+        for(Var field : ne.getInitialFields())
+            field.getInitialValue().visit(this);
+
+        if(ne.createsFromTemplate())
+            ne.getInstantiatedClass().visit(this);
+
+        ClassDecl cd = ne.createsFromTemplate() ? ne.getInstantiatedClass() : classes.get(ne.getClassName().toString());
+        if(cd != null && cd.getFieldLayout() != null) {
+            int[] fieldSlots = new int[ne.getInitialFields().size()];
+            for(int i = 0; i < fieldSlots.length; i++)
+                fieldSlots[i] = cd.getFieldLayout().getSlot(ne.getInitialFields().get(i).toString());
+            ne.setFieldSlots(fieldSlots);
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package cminor.micropasses;
+
+import cminor.ast.AST;
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.expressions.BinaryExpr;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.FieldExpr;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.expressions.NameExpr;
+import cminor.ast.misc.FrameDecl;
+import cminor.ast.operators.AssignOp;
+import cminor.ast.operators.AssignOp.AssignType;
+import cminor.ast.operators.BinaryOp.BinaryType;
+import cminor.ast.statements.AssignStmt.AssignStmtBuilder;
+import cminor.ast.statements.BlockStmt;
+import cminor.ast.statements.OutStmt;
+import cminor.ast.statements.Statement;
+import cminor.ast.topleveldecls.ClassDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.topleveldecls.MainDecl;
+import cminor.utilities.RuntimeStack;
+import cminor.utilities.SymbolTable;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+
+/**
+ * A {@link Visitor} class that reuses the value of an expression that is computed more than once.
+ * <p>
+ *     Expressions such as {@code a[i] + a[i]} or {@code p.x*p.x + p.y*p.y} will evaluate the same array
+ *     access or field access multiple times, and each array access will also perform a bounds check.
+ *     This micropass finds every expression that is computed more than once by the statements of a
+ *     block and stores its value into a temporary the first time it is needed. Each later occurrence
+ *     of the expression will then read the temporary instead.
+ * </p>
+ * <p>
+ *     An expression is only reused if nothing executed between two of its occurrences could change its
+ *     value. Any variable, field, or array element written by a statement will stop the reuse of every
+ *     expression that reads it. Functions that the {@link PurityAnalyzer} marked as memoizable do not
+ *     have any side effects, so calls to them can be reused and they do not stop the reuse of anything.
+ *     Any other invocation may change the state of the program, so a statement containing one is never
+ *     optimized, and no expression reading a field, an array, or a global variable is reused across it.
+ * </p>
+ * <p>
+ *     The temporary is assigned right before the statement that first computes the expression. Since
+ *     this changes the order in which a statement evaluates its expressions, an expression that could
+ *     produce a runtime error is not reused if an output statement prints a value before computing it.
+ *     Initial values of local variables are always evaluated before the statements of their block, so
+ *     they are not optimized.
+ * </p>
+ * @author Daniel Levy
+ */
+public class SubexpressionEliminator extends ExpressionOptimizer {
+
+    /**
+     * A class that stores every occurrence of an expression that computes the same value.
+     */
+    private static class Subexpression {
+
+        /**
+         * Every occurrence of the expression, in the order they are evaluated.
+         */
+        private final Vector<Expression> uses = new Vector<>();
+
+        /**
+         * Every variable the expression reads, stored as a {@code depth:slot} key.
+         */
+        private final HashSet<String> readVars = new HashSet<>();
+
+        /**
+         * The name of every field the expression reads.
+         */
+        private final HashSet<String> readFields = new HashSet<>();
+
+        /**
+         * Flag set if the expression reads an array element or the length of an array or list.
+         */
+        private boolean readsArray;
+
+        /**
+         * Flag set if the expression reads a value that an invocation could change.
+         */
+        private boolean readsHeap;
+    }
+
+    /**
+     * The minimum cost an expression needs to have before its value is reused.
+     * <p>
+     *     Each operator costs 1 and each array access, field access, or invocation costs 3. Storing a value
+     *     into a temporary is not free, so a single arithmetic operation between two variables is never reused.
+     * </p>
+     */
+    public static final int MIN_COST = 2;
+
+    /**
+     * The global scope used to find the declaration of each invoked function.
+     */
+    private final SymbolTable globalScope;
+
+    /**
+     * Maps every expression whose value can still be reused to all of its occurrences.
+     */
+    private HashMap<String,Subexpression> available;
+
+    /**
+     * Every group of occurrences found in the block we are currently optimizing.
+     */
+    private Vector<Subexpression> found;
+
+    /**
+     * Flag set once the statement we are currently searching produced output.
+     */
+    private boolean observed;
+
+    /**
+     * Creates the {@link SubexpressionEliminator}.
+     * @param resolver {@link SlotResolver} that will give each temporary a slot
+     * @param globalScope The {@link SymbolTable} representing the global scope
+     */
+    public SubexpressionEliminator(SlotResolver resolver, SymbolTable globalScope) {
+        super(resolver);
+        this.globalScope = globalScope;
+    }
+
+    /**
+     * Reuses common subexpressions in every block nested inside a block, followed by the block itself.
+     * @param bs {@link BlockStmt}
+     */
+    public void visitBlockStmt(BlockStmt bs) {
+        bs.visitChildren(this);
+
+        available = new HashMap<>();
+        found = new Vector<>();
+
+        for(Statement s : bs.getStatements())
+            search(s);
+        for(Subexpression sub : available.values())
+            found.add(sub);
+
+        found.sort((a,b) -> size(b.uses.getFirst()) - size(a.uses.getFirst()));
+        for(Subexpression sub : found)
+            reuse(sub,bs);
+
+        available = null;
+        found = null;
+    }
+
+    /**
+     * Optimizes every method of a non-template class.
+     * @param cd {@link ClassDecl}
+     */
+    public void visitClassDecl(ClassDecl cd) {
+        if(!cd.isTemplate())
+            for(MethodDecl md : cd.getClassBody().getMethods())
+                md.visit(this);
+    }
+
+    /**
+     * Optimizes the body of a non-template function.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) {
+        if(!fd.isTemplate())
+            optimizeFrame(fd,fd.getBody());
+    }
+
+    /**
+     * Optimizes the body of {@code main}.
+     * @param md {@link MainDecl}
+     */
+    public void visitMainDecl(MainDecl md) { optimizeFrame(md,md.getBody()); }
+
+    /**
+     * Optimizes the body of a method.
+     * @param md {@link MethodDecl}
+     */
+    public void visitMethodDecl(MethodDecl md) { optimizeFrame(md,md.getBody()); }
+
+    /**
+     * Optimizes the body of a function, method, or {@code main}.
+     * @param frame {@link FrameDecl} we are optimizing
+     * @param body {@link BlockStmt} representing the body of the frame
+     */
+    private void optimizeFrame(FrameDecl frame, BlockStmt body) {
+        FrameDecl oldFrame = currentFrame;
+        currentFrame = frame;
+        body.visit(this);
+        currentFrame = oldFrame;
+    }
+
+    /**
+     * Records every expression a statement evaluates, followed by everything the statement writes to.
+     * <p>
+     *     We only look inside the expressions a statement always evaluates once: the RHS of an assignment,
+     *     the values of an output or return statement, and the condition of an if statement. A statement
+     *     that invokes something with a side effect is not searched at all.
+     * </p>
+     * @param s {@link Statement}
+     */
+    private void search(Statement s) {
+        Effects fx = new Effects();
+        scan(s,fx,true);
+
+        Vector<Expression> evaluated = new Vector<>();
+        if(s.isAssignStmt() && !s.asAssignStmt().isRetypeStmt())
+            evaluated.add(s.asAssignStmt().getRHS());
+        else if(s instanceof OutStmt)
+            evaluated = ((OutStmt) s).getOutExprs();
+        else if(s.isReturnStmt() && s.asReturnStmt().getReturnValue() != null)
+            evaluated.add(s.asReturnStmt().getReturnValue());
+        else if(s.isIfStmt())
+            evaluated.add(s.asIfStmt().getCondition());
+
+        if(fx.hasCall) {
+            kill(fx);
+            return;
+        }
+
+        observed = false;
+        for(Expression e : evaluated) {
+            collect(e);
+            // Each value of an output statement is printed before the next one is evaluated.
+            if(s instanceof OutStmt)
+                observed = true;
+        }
+        kill(fx);
+    }
+
+    /**
+     * Records every occurrence of a reusable expression in the order it is evaluated.
+     * @param e {@link Expression}
+     */
+    private void collect(Expression e) {
+        boolean movable = !observed;
+
+        // The RHS of `and` and `or` is not always evaluated.
+        if(e.isBinaryExpr() && isShortCircuit(e.asBinaryExpr()))
+            collect(e.asBinaryExpr().getLHS());
+        else {
+            for(AST child : e.getChildren())
+                if(child.isExpression() && !isAccess(e,child))
+                    collect(child.asExpression());
+        }
+
+        if(isCandidate(e) && isReplaceable(e)) {
+            String key = keyOf(e);
+            Subexpression sub = available.get(key);
+            if(sub != null)
+                sub.uses.add(e);
+            else if(movable || !canFail(e)) {
+                sub = new Subexpression();
+                findReads(e,sub);
+                sub.uses.add(e);
+                available.put(key,sub);
+            }
+        }
+    }
+
+    /**
+     * Stops the reuse of every expression whose value could be changed by a statement.
+     * @param fx {@link Effects} of the statement
+     */
+    private void kill(Effects fx) {
+        Iterator<Subexpression> it = available.values().iterator();
+        while(it.hasNext()) {
+            Subexpression sub = it.next();
+            boolean killed = (fx.hasCall && sub.readsHeap) || (fx.writesArray && sub.readsArray);
+
+            for(String var : sub.readVars)
+                killed |= fx.writtenVars.contains(var);
+            for(String field : sub.readFields)
+                killed |= fx.writtenFields.contains(field);
+
+            if(killed) {
+                found.add(sub);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Stores the value of a common subexpression into a temporary.
+     * <p>
+     *     Larger expressions are replaced first, so an occurrence may have already been removed from the
+     *     block if it was part of a larger expression that was reused. The temporary is assigned right
+     *     before the first statement that still computes the expression.
+     * </p>
+     * @param sub {@link Subexpression}
+     * @param bs {@link BlockStmt} the expression was found in
+     */
+    private void reuse(Subexpression sub, BlockStmt bs) {
+        Vector<Expression> uses = new Vector<>();
+        int pos = bs.getStatements().size();
+
+        for(Expression use : sub.uses) {
+            int index = statementIndex(use,bs);
+            if(index != -1) {
+                uses.add(use);
+                pos = Math.min(pos,index);
+            }
+        }
+
+        if(uses.size() < 2)
+            return;
+
+        Expression first = uses.getFirst();
+        NameExpr temp = createTemp(first.type);
+        for(Expression use : uses)
+            use.getParent().replaceChild(use,copyOf(temp));
+
+        bs.addStatement(pos,new AssignStmtBuilder()
+                                .setMetaData(bs.getStatements().get(pos))
+                                .setLHS(copyOf(temp))
+                                .setRHS(first)
+                                .setAssignOp(new AssignOp(AssignType.EQ))
+                                .create());
+    }
+
+    /**
+     * Finds the position of the statement inside a block that evaluates an expression.
+     * @param e {@link Expression}
+     * @param bs {@link BlockStmt}
+     * @return Index of the statement, or -1 if the expression was already removed from the block.
+     */
+    private int statementIndex(Expression e, BlockStmt bs) {
+        AST node = e;
+        while(node.getParent() != null && node.getParent() != bs)
+            node = node.getParent();
+
+        if(node.getParent() == null)
+            return -1;
+
+        Vector<Statement> stmts = bs.getStatements();
+        for(int i = 0; i < stmts.size(); i++)
+            if(stmts.get(i) == node)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Records every variable, field, and array that an expression reads.
+     * @param e {@link Expression}
+     * @param sub {@link Subexpression} that will store the results
+     */
+    private void findReads(Expression e, Subexpression sub) {
+        if(e.isNameExpr()) {
+            NameExpr ne = e.asNameExpr();
+            sub.readVars.add(key(ne.getDepth(),ne.getSlot()));
+            if(ne.getDepth() == RuntimeStack.GLOBAL_DEPTH)
+                sub.readsHeap = true;
+            return;
+        }
+
+        if(e.isFieldExpr()) {
+            Expression access = e.asFieldExpr().getAccessExpr();
+            sub.readFields.add(access.isArrayExpr() ? access.asArrayExpr().getArrayTarget().toString() : access.toString());
+            sub.readsHeap = true;
+            findReads(e.asFieldExpr().getTarget(),sub);
+            if(access.isArrayExpr()) {
+                sub.readsArray = true;
+                for(Expression index : access.asArrayExpr().getArrayIndex())
+                    findReads(index,sub);
+            }
+            return;
+        }
+
+        if(e.isArrayExpr() || (e.isInvocation() && e.asInvocation().isLengthInvocation())) {
+            sub.readsArray = true;
+            sub.readsHeap = true;
+        }
+
+        for(AST child : e.getChildren())
+            if(child.isExpression() && !isAccess(e,child))
+                findReads(child.asExpression(),sub);
+    }
+
+    /**
+     * Checks if the value of an expression can be stored into a temporary and reused.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isCandidate(Expression e) {
+        return e.type != null && isScalar(e.type) && isReusable(e) && cost(e) >= MIN_COST;
+    }
+
+    /**
+     * Checks if an expression always computes the same value when the variables it reads do not change.
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean isReusable(Expression e) {
+        if(e.isLiteral())
+            return !e.isArrayLiteral() && !e.isListLiteral();
+
+        if(e.isThisStmt())
+            return true;
+
+        if(e.isNameExpr())
+            return e.asNameExpr().isResolved();
+
+        if(e.isFieldExpr()) {
+            FieldExpr fe = e.asFieldExpr();
+            Expression target = fe.getTarget();
+            Expression access = fe.getAccessExpr();
+            if(fe.isNullCheck() || !(target.isThisStmt() || target.isNameExpr()) || !isReusable(target))
+                return false;
+            if(access.isNameExpr())
+                return true;
+            if(!access.isArrayExpr() || !access.asArrayExpr().getArrayTarget().isNameExpr())
+                return false;
+            for(Expression index : access.asArrayExpr().getArrayIndex())
+                if(!isReusable(index))
+                    return false;
+            return true;
+        }
+
+        if(e.isArrayExpr()) {
+            Expression target = e.asArrayExpr().getArrayTarget();
+            if(!target.isNameExpr() && !target.isFieldExpr())
+                return false;
+            if(!isReusable(target))
+                return false;
+            for(Expression index : e.asArrayExpr().getArrayIndex())
+                if(!isReusable(index))
+                    return false;
+            return true;
+        }
+
+        if(e.isInvocation()) {
+            Invocation in = e.asInvocation();
+            if(!isSideEffectFree(in))
+                return false;
+            if(in.isLengthInvocation() && (in.getArgs().size() != 1 || !in.getArgs().getFirst().isNameExpr()))
+                return false;
+            for(Expression arg : in.getArgs())
+                if(!isReusable(arg))
+                    return false;
+            return true;
+        }
+
+        if(e.isBinaryExpr()) {
+            BinaryType op = e.asBinaryExpr().getBinaryOp().getBinaryType();
+            if(op == BinaryType.INSTOF || op == BinaryType.NINSTOF || op == BinaryType.AS)
+                return false;
+            return isReusable(e.asBinaryExpr().getLHS()) && isReusable(e.asBinaryExpr().getRHS());
+        }
+
+        if(e.isUnaryExpr())
+            return isReusable(e.asUnaryExpr().getExpr());
+
+        if(e.isCastExpr())
+            return isReusable(e.asCastExpr().getCastExpr());
+
+        return false;
+    }
+
+    /**
+     * Checks if an invocation can not change the state of the program.
+     * <p>
+     *     Besides {@code length}, this is only true for functions that the {@link PurityAnalyzer}
+     *     marked as memoizable, since a {@code pure} function could still have a side effect.
+     * </p>
+     * @param in {@link Invocation}
+     * @return Boolean
+     */
+    protected boolean isSideEffectFree(Invocation in) {
+        if(in.isLengthInvocation())
+            return true;
+        if(in.isMethodInvocation() || in.containsTypeArgs() || globalScope == null)
+            return false;
+
+        AST decl = globalScope.findMethod(in);
+        return decl != null && decl.isTopLevelDecl() && decl.asTopLevelDecl().isFuncDecl()
+                && decl.asTopLevelDecl().asFuncDecl().isMemoizable();
+    }
+
+    /**
+     * Checks if an expression that is not part of another expression may be reused.
+     * <p>
+     *     This is only true for conditions of if statements, printed values, and returned values.
+     * </p>
+     * @param parent {@link AST} containing the expression
+     * @return Boolean
+     */
+    protected boolean isReplaceableIn(AST parent) {
+        if(!parent.isStatement())
+            return false;
+
+        Statement s = parent.asStatement();
+        return s.isIfStmt() || s.isReturnStmt() || s instanceof OutStmt;
+    }
+
+    /**
+     * Checks if an expression could produce a runtime error when it is evaluated.
+     * <p>
+     *     This includes array accesses (which are bounds checked), field accesses through an
+     *     object that may not be initialized, invocations, casts, and divisions by a value that
+     *     is not a nonzero literal.
+     * </p>
+     * @param e {@link Expression}
+     * @return Boolean
+     */
+    private boolean canFail(Expression e) {
+        if(e.isArrayExpr() || e.isInvocation() || e.isCastExpr())
+            return true;
+
+        if(e.isFieldExpr() && (!e.asFieldExpr().getTarget().isThisStmt() || e.asFieldExpr().getAccessExpr().isArrayExpr()))
+            return true;
+
+        if(e.isBinaryExpr()) {
+            BinaryExpr be = e.asBinaryExpr();
+            BinaryType op = be.getBinaryOp().getBinaryType();
+            if((op == BinaryType.DIV || op == BinaryType.MOD)
+                    && (!be.getRHS().isLiteral() || !be.getRHS().type.isInt() || be.getRHS().asLiteral().asInt() == 0))
+                return true;
+        }
+
+        for(AST child : e.getChildren())
+            if(child.isExpression() && !isAccess(e,child) && canFail(child.asExpression()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks if a binary expression may skip the evaluation of its RHS.
+     * @param be {@link BinaryExpr}
+     * @return Boolean
+     */
+    private boolean isShortCircuit(BinaryExpr be) {
+        BinaryType op = be.getBinaryOp().getBinaryType();
+        return op == BinaryType.AND || op == BinaryType.OR;
+    }
+
+    /**
+     * Estimates how much work is saved every time the value of an expression is reused.
+     * @param e {@link Expression}
+     * @return Int
+     */
+    private int cost(Expression e) {
+        int total = 0;
+        if(e.isArrayExpr() || e.isFieldExpr() || e.isInvocation())
+            total = 3;
+        else if(e.isBinaryExpr() || e.isUnaryExpr() || e.isCastExpr())
+            total = 1;
+
+        for(AST child : e.getChildren())
+            if(child.isExpression() && !isAccess(e,child))
+                total += cost(child.asExpression());
+        return total;
+    }
+
+    /**
+     * Counts the number of nodes an expression contains.
+     * @param node {@link AST}
+     * @return Int
+     */
+    private int size(AST node) {
+        int total = 1;
+        for(AST child : node.getChildren())
+            total += size(child);
+        return total;
+    }
+}
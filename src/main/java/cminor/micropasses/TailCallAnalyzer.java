@@ -0,0 +1,110 @@
+package cminor.micropasses;
+
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.expressions.Expression;
+import cminor.ast.expressions.FieldExpr;
+import cminor.ast.expressions.Invocation;
+import cminor.ast.misc.ParamDecl;
+import cminor.ast.statements.ReturnStmt;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.utilities.Vector;
+import cminor.utilities.Visitor;
+
+/**
+ * A {@link Visitor} class that finds self-recursive calls in tail position.
+ * <p>
+ *     A function or method marked with {@code recurs} may call itself, and every call
+ *     will normally create a new call frame on top of the JVM stack. If the result of
+ *     the recursive call is immediately returned, then nothing in the current call frame
+ *     is needed after the call completes. This micropass marks every such {@link Invocation},
+ *     so the execution engine can reuse the current call frame and run the call as a loop.
+ * </p>
+ * <p>
+ *     A call is only marked if the callee does not have any {@code out}, {@code inout}, or
+ *     {@code ref} parameters since their values need to be copied back once each call returns.
+ * </p>
+ * @author Daniel Levy
+ */
+public class TailCallAnalyzer extends Visitor {
+
+    /**
+     * The recursive function whose body we are currently analyzing (if applicable).
+     */
+    private FuncDecl currentFunction;
+
+    /**
+     * The recursive method whose body we are currently analyzing (if applicable).
+     */
+    private MethodDecl currentMethod;
+
+    /**
+     * Checks if every parameter of a function or method is passed by value.
+     * @param params {@link Vector} of {@link ParamDecl}
+     * @return Boolean
+     */
+    private boolean onlyInParams(Vector<ParamDecl> params) {
+        for(ParamDecl pd : params) {
+            if(pd.mod.isOutMode() || pd.mod.isInOutMode() || pd.mod.isRefMode())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Analyzes the body of a recursive function.
+     * @param fd {@link FuncDecl}
+     */
+    public void visitFuncDecl(FuncDecl fd) {
+        if(!fd.mod.isRecursive() || fd.isTemplate() || !onlyInParams(fd.getParams()))
+            return;
+
+        currentFunction = fd;
+        fd.getBody().visit(this);
+        currentFunction = null;
+    }
+
+    /**
+     * Analyzes the body of a recursive method.
+     * @param md {@link MethodDecl}
+     */
+    public void visitMethodDecl(MethodDecl md) {
+        if(!md.mod.isRecursive() || !onlyInParams(md.getParams()))
+            return;
+
+        currentMethod = md;
+        md.getBody().visit(this);
+        currentMethod = null;
+    }
+
+    /**
+     * Marks the returned {@link Invocation} if it calls the function or method we are in.
+     * <p>
+     *     A recursive method call is rewritten by the {@link FieldRewriter} into a field
+     *     expression whose target is {@code this}, so we will only mark method invocations
+     *     that are made on the same object.
+     * </p>
+     * @param rs {@link ReturnStmt}
+     */
+    public void visitReturnStmt(ReturnStmt rs) {
+        Expression value = rs.getReturnValue();
+        if(value == null)
+            return;
+
+        if(currentFunction != null && value.isInvocation()) {
+            Invocation in = value.asInvocation();
+            if(!in.isMethodInvocation() && !in.containsTypeArgs()
+                    && in.getName().toString().equals(currentFunction.toString())
+                    && in.getSignature().equals(currentFunction.getParamSignature()))
+                in.setTailCall();
+        }
+        else if(currentMethod != null && value.isFieldExpr()) {
+            FieldExpr fe = value.asFieldExpr();
+            if(fe.getTarget().isThisStmt() && fe.getAccessExpr().isInvocation()) {
+                Invocation in = fe.getAccessExpr().asInvocation();
+                if(in.getName().toString().equals(currentMethod.toString())
+                        && in.getSignature().equals(currentMethod.getParamSignature()))
+                    in.setTailCall();
+            }
+        }
+    }
+}
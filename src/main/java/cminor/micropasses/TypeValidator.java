@@ -21,6 +21,7 @@ import cminor.messages.errors.ErrorBuilder;
 import cminor.messages.errors.scope.ScopeError;
 import cminor.messages.errors.type.TypeError;
 import cminor.namechecker.NameChecker;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
@@ -54,21 +55,29 @@ public class TypeValidator extends Visitor {
      */
     private final TypeValidatorHelper helper;
 
+    /**
+     * The {@link CompilationContext} of the program. This is needed to name check instantiated classes.
+     */
+    private final CompilationContext context;
+
     /**
      * Creates {@link TypeValidator} in compilation mode.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public TypeValidator() {
+    public TypeValidator(CompilationContext context) {
         this.currentScope = null;
-        this.handler = new MessageHandler();
+        this.context = context;
+        this.handler = new MessageHandler(context);
         this.helper = new TypeValidatorHelper();
     }
 
     /**
      * Creates {@link TypeValidator} in interpretation mode.
      * @param globalScope The global {@link SymbolTable} that will be stored in {@link #currentScope}.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public TypeValidator(SymbolTable globalScope) {
-        this();
+    public TypeValidator(SymbolTable globalScope, CompilationContext context) {
+        this(context);
         this.currentScope = globalScope;
     }
 
@@ -536,7 +545,7 @@ public class TypeValidator extends Visitor {
             // We need to rerun the name checker, so the copy of the template can
             // have an independent symbol table from the original template class.
             copyOfTemplate.setName(new Name(ct.getTypeName()));
-            copyOfTemplate.visit(new NameChecker(currentScope.getGlobalScope()));
+            copyOfTemplate.visit(new NameChecker(currentScope.getGlobalScope(),context));
 
             typeArguments = ct.getTypeArgs();
             typeParams = copyOfTemplate.getTypeParams();
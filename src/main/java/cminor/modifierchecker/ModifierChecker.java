@@ -15,6 +15,7 @@ import cminor.ast.topleveldecls.MainDecl;
 import cminor.messages.MessageHandler;
 import cminor.messages.MessageNumber;
 import cminor.messages.errors.mod.ModError;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
@@ -46,18 +47,20 @@ public class ModifierChecker extends Visitor {
 
     /**
      * Creates the {@link ModifierChecker} in compilation mode.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public ModifierChecker() {
-        this.handler = new MessageHandler();
+    public ModifierChecker(CompilationContext context) {
+        this.handler = new MessageHandler(context);
         this.helper = new ModifierCheckerHelper();
     }
 
     /**
      * Creates the {@link ModifierChecker} in interpretation mode.
      * @param globalScope The {@link SymbolTable} representing the global scope.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public ModifierChecker(SymbolTable globalScope) {
-        this();
+    public ModifierChecker(SymbolTable globalScope, CompilationContext context) {
+        this(context);
         this.currentScope = globalScope;
     }
 
@@ -12,6 +12,7 @@ import cminor.messages.MessageNumber;
 import cminor.messages.errors.ErrorBuilder;
 import cminor.messages.errors.scope.ScopeError;
 import cminor.messages.errors.semantic.SemanticError;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.SymbolTable.NameIterator;
 import cminor.utilities.Vector;
@@ -41,18 +42,20 @@ public class NameChecker extends Visitor {
 
     /**
      * Creates {@link NameChecker} in compilation mode
+     * @param context The {@link CompilationContext} of the program.
      */
-    public NameChecker() {
+    public NameChecker(CompilationContext context) {
         this.helper = new NameCheckerHelper();
-        this.handler = new MessageHandler();
+        this.handler = new MessageHandler(context);
     }
 
     /**
      * Creates {@link NameChecker} in interpretation mode
      * @param globalScope {@link SymbolTable} representing the default scope of the {@link cminor.interpreter.VM}.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public NameChecker(SymbolTable globalScope) {
-        this();
+    public NameChecker(SymbolTable globalScope, CompilationContext context) {
+        this(context);
         this.currentScope = globalScope;
     }
 
@@ -220,7 +223,7 @@ public class NameChecker extends Visitor {
         super.visitCompilationUnit(cu);
         cu.setScope(currentScope);
 
-        handler.printMessages();
+        handler.checkForErrors();
     }
 
     /**
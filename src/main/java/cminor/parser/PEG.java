@@ -68,7 +68,7 @@ public class PEG {
         this.lookaheads = new Vector<>();
         this.positions = new Vector<>();
         this.pos = 0;
-        this.handler = new MessageHandler();
+        this.handler = new MessageHandler(input.getContext());
     }
 
     /**
@@ -881,7 +881,7 @@ public class PEG {
         };
     }
 
-    // function ::= 'def' ( 'pure' | 'recurs' )? function_header '=>' return_type block_statement ;
+    // function ::= 'def' 'pure'? 'recurs'? function_header '=>' return_type block_statement ;
     private FuncDecl function() {
         match(TokenType.DEF);
 
@@ -890,7 +890,7 @@ public class PEG {
             match(TokenType.PURE);
             mod.setPure();
         }
-        else if(nextLA(TokenType.RECURS)) {
+        if(nextLA(TokenType.RECURS)) {
             match(TokenType.RECURS);
             mod.setRecursive();
         }
@@ -1403,11 +1403,12 @@ public class PEG {
                 case PERIOD:
                 case ELVIS:
                     boolean nullCheck = false;
-                    if(nextLA(TokenType.PERIOD)) {
+                    if(nextLA(TokenType.PERIOD))
                         match(TokenType.PERIOD);
+                    else {
+                        match(TokenType.ELVIS);
                         nullCheck = true;
                     }
-                    else { match(TokenType.ELVIS); }
 
                     Expression access = postfixExpression();
                     primary = new FieldExpr(exprMetadata(),primary,access,nullCheck);
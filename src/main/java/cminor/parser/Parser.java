@@ -86,11 +86,6 @@ public class Parser {
      */
     private final MessageHandler handler;
 
-    /**
-     * Flag set when a user wants to see every token that is parsed.
-     */
-    private static boolean printTokens = false;
-
     /**
      * Flag set when the parser begins to parse an imported file.
      */
@@ -106,7 +101,7 @@ public class Parser {
         this.lookPos = 0;
         this.lookaheads = new Vector<>();
         this.tokenStack = new Vector<>();
-        this.handler = new MessageHandler();
+        this.handler = new MessageHandler(input.getContext());
         this.importMode = false;
         this.insideParen = false;
         this.insideIO = false;
@@ -118,8 +113,6 @@ public class Parser {
         }
     }
 
-    public static void setPrintTokens() { printTokens = !printTokens; }
-
     private String errorPosition(int start, int end) {
         return PrettyPrint.RED
                 + " ".repeat(Math.max(0, start + 2))
@@ -136,7 +129,7 @@ public class Parser {
         tokenStack.top().setEndLocation(currentLA().getEndPos());
 
         if(nextLA(expectedTok)) {
-            if(printTokens) { System.out.println(currentLA().toString()); }
+            if(input.getContext().isPrintingTokens()) { System.out.println(currentLA().toString()); }
             consume();
         }
         else {
@@ -289,7 +282,7 @@ public class Parser {
     }
 
     private Vector<AST> handleImports() {
-        ImportHandler importHandler = new ImportHandler(input.getFileName());
+        ImportHandler importHandler = new ImportHandler(input.getFileName(),input.getContext());
 
         while(nextLA(TokenType.INCLUDE))
             importHandler.enqueue(importStmt());
@@ -387,10 +380,12 @@ public class Parser {
             md = mainFunc();
 
         if(!nextLA(TokenType.EOF)) {
-            System.out.println(PrettyPrint.CYAN + "Syntax Error Detected! Unexpected End of File in " + input.getFileName() + ".");
-            System.exit(1);
+            handler.createErrorBuilder(SyntaxError.class)
+                   .addErrorNumber(MessageNumber.SYNTAX_ERROR_104)
+                   .addErrorArgs(input.getFileName())
+                   .generateError();
         }
-        else if(printTokens) { System.out.println(currentLA().toString()); }
+        else if(input.getContext().isPrintingTokens()) { System.out.println(currentLA().toString()); }
 
         return new CompilationUnit(nodeToken(),input.getFileName(),imports,enums,globals,classes,funcs,md);
     }
@@ -1159,7 +1154,7 @@ public class Parser {
     ____________________________________________________________
     */
 
-    // 32. function ::= 'def' ( 'pure' | 'recurs' )? function_header '=>' return_type block_statement
+    // 32. function ::= 'def' 'pure'? 'recurs'? function_header '=>' return_type block_statement
     private FuncDecl function() {
         tokenStack.add(currentLA());
         boolean isRecursive = false;
@@ -1170,7 +1165,7 @@ public class Parser {
             mod.setPure();
             match(TokenType.PURE);
         }
-        else if(nextLA(TokenType.RECURS)) {
+        if(nextLA(TokenType.RECURS)) {
             mod.setRecursive();
             match(TokenType.RECURS);
         }
@@ -25,6 +25,7 @@ import cminor.messages.MessageNumber;
 import cminor.messages.errors.ErrorBuilder;
 import cminor.messages.errors.scope.ScopeError;
 import cminor.messages.errors.type.TypeError;
+import cminor.utilities.CompilationContext;
 import cminor.utilities.SymbolTable;
 import cminor.utilities.Vector;
 import cminor.utilities.Visitor;
@@ -43,18 +44,20 @@ public class TypeChecker extends Visitor {
 
     /**
      * Creates the {@link TypeChecker} in compilation mode
+     * @param context The {@link CompilationContext} of the program.
      */
-    public TypeChecker() {
-        this.handler = new MessageHandler();
+    public TypeChecker(CompilationContext context) {
+        this.handler = new MessageHandler(context);
         this.helper = new TypeCheckerHelper();
     }
 
     /**
      * Creates the {@link TypeChecker} in interpretation mode
      * @param globalScope {@link SymbolTable} representing the VM's global scope.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public TypeChecker(SymbolTable globalScope) {
-        this();
+    public TypeChecker(SymbolTable globalScope, CompilationContext context) {
+        this(context);
         this.currentScope = globalScope;
     }
 
@@ -0,0 +1,162 @@
+package cminor.utilities;
+
+import cminor.ast.AST;
+
+/**
+ * A class that stores every setting and piece of shared state used while compiling a single program.
+ * <p>
+ *     Each {@link cminor.compiler.Compiler} and {@link cminor.interpreter.VM} creates its own context,
+ *     and it is passed to the {@link PhaseHandler}, the lexer, the parsers, and any phase that needs it.
+ *     Since no phase keeps any of this state in a static field, multiple programs can be compiled and
+ *     executed at the same time inside the same JVM as long as each one uses a different context.
+ * </p>
+ * @author Daniel Levy
+ */
+public class CompilationContext {
+
+    /**
+     * Flag set when every error should be thrown as soon as it is generated.
+     */
+    private boolean interpretationMode;
+
+    /**
+     * Flag set when a stack trace should be printed alongside every error.
+     */
+    private boolean debugMode;
+
+    /**
+     * Flag set when the parser should print every token it parses.
+     */
+    private boolean printTokens;
+
+    /**
+     * Flag set when the compiler should print the parse tree of every file.
+     */
+    private boolean printTree;
+
+    /**
+     * Flag set when an output statement is executed. See {@link cminor.interpreter.VM}.
+     */
+    private boolean outputFound;
+
+    /**
+     * Queue of import statements the {@link cminor.micropasses.ImportHandler} still needs to parse.
+     */
+    private final Vector<AST> importQueue;
+
+    /**
+     * Every file that was already imported, which prevents circular imports.
+     */
+    private final Vector<String> seenImports;
+
+    /**
+     * Every class instantiated from a template that the {@link cminor.micropasses.ConstructorGenerator}
+     * already created a constructor for.
+     */
+    private final Vector<String> instantiatedClasses;
+
+    /**
+     * Creates an empty {@link CompilationContext}.
+     */
+    public CompilationContext() {
+        this.interpretationMode = false;
+        this.debugMode = false;
+        this.printTokens = false;
+        this.printTree = false;
+        this.outputFound = false;
+        this.importQueue = new Vector<>();
+        this.seenImports = new Vector<>();
+        this.instantiatedClasses = new Vector<>();
+    }
+
+    /**
+     * Sets the context to work under interpretation mode.
+     */
+    public void setInterpretationMode() { interpretationMode = true; }
+
+    /**
+     * Checks if the context is in interpretation mode.
+     * @return Boolean
+     */
+    public boolean isInterpretationMode() { return interpretationMode; }
+
+    /**
+     * Enables or disables debug mode.
+     * @param debugMode Boolean
+     */
+    public void setDebugMode(boolean debugMode) { this.debugMode = debugMode; }
+
+    /**
+     * Checks if debug mode is enabled.
+     * @return Boolean
+     */
+    public boolean isDebugMode() { return debugMode; }
+
+    /**
+     * Enables or disables the printing of every parsed token.
+     * @param printTokens Boolean
+     */
+    public void setPrintTokens(boolean printTokens) { this.printTokens = printTokens; }
+
+    /**
+     * Checks if every parsed token should be printed.
+     * @return Boolean
+     */
+    public boolean isPrintingTokens() { return printTokens; }
+
+    /**
+     * Enables or disables the printing of the parse tree.
+     * @param printTree Boolean
+     */
+    public void setPrintTree(boolean printTree) { this.printTree = printTree; }
+
+    /**
+     * Checks if the parse tree should be printed.
+     * @return Boolean
+     */
+    public boolean isPrintingTree() { return printTree; }
+
+    /**
+     * Sets the {@link #outputFound} flag.
+     * @param outputFound Boolean
+     */
+    public void setOutputFound(boolean outputFound) { this.outputFound = outputFound; }
+
+    /**
+     * Checks if an output statement was executed since the flag was last cleared.
+     * @return Boolean
+     */
+    public boolean isOutputFound() { return outputFound; }
+
+    /**
+     * Getter for {@link #importQueue}.
+     * @return {@link Vector} of import statements
+     */
+    public Vector<AST> getImportQueue() { return importQueue; }
+
+    /**
+     * Getter for {@link #seenImports}.
+     * @return {@link Vector} of file names
+     */
+    public Vector<String> getSeenImports() { return seenImports; }
+
+    /**
+     * Getter for {@link #instantiatedClasses}.
+     * @return {@link Vector} of class names
+     */
+    public Vector<String> getInstantiatedClasses() { return instantiatedClasses; }
+
+    /**
+     * Removes everything that was stored for the program that was compiled.
+     * <p>
+     *     This is called whenever the global scope is cleared, so a user is able to reimport
+     *     a file and reinstantiate a template class. The settings of the context are kept.
+     * </p>
+     */
+    public void reset() {
+        importQueue.clear();
+        seenImports.clear();
+        instantiatedClasses.clear();
+        outputFound = false;
+    }
+}
@@ -0,0 +1,78 @@
+package cminor.utilities;
+
+import cminor.ast.expressions.Literal;
+import cminor.interpreter.value.RealMode;
+import cminor.interpreter.value.Value;
+import java.util.HashMap;
+
+/**
+ * A pool that stores the {@link Value} of every literal found in a program.
+ * <p>
+ *     Every literal used to be converted into a {@link Value} by each execution engine, which
+ *     meant its text had to be parsed again by {@link Integer#parseInt(String)} or by a
+ *     {@link java.math.BigDecimal}. The {@link cminor.micropasses.ConstantFolder} adds each literal
+ *     into this pool once the program is checked, and literals with the same kind, type, and text
+ *     will share the same {@link Value}. Since a {@code Real} literal depends on the current
+ *     {@link RealMode}, the pool is emptied whenever the mode changes.
+ * </p>
+ * @author Daniel Levy
+ */
+public class ConstantPool {
+
+    /**
+     * Every {@link Value} stored in the pool.
+     */
+    private final HashMap<String,Value> constants;
+
+    /**
+     * The {@link RealMode} used to create every {@code Real} constant.
+     */
+    private RealMode realMode;
+
+    /**
+     * Creates an empty {@link ConstantPool}.
+     */
+    public ConstantPool() {
+        this.constants = new HashMap<>();
+        this.realMode = RealMode.EXACT;
+    }
+
+    /**
+     * Sets the {@link RealMode} used to create every {@code Real} constant.
+     * <p>
+     *     Any value that was already created uses the previous mode, so the pool will be emptied.
+     * </p>
+     * @param realMode {@link RealMode}
+     */
+    public void setRealMode(RealMode realMode) {
+        if(this.realMode != realMode)
+            constants.clear();
+        this.realMode = realMode;
+    }
+
+    /**
+     * Retrieves the {@link Value} of a literal, creating it if the literal was not added to the pool yet.
+     * @param li {@link Literal}
+     * @return {@link Value}
+     */
+    public Value get(Literal li) {
+        String key = li.getConstantKind() + (li.type != null ? li.type.typeSignature() : "") + ":" + li.getText();
+        Value val = constants.get(key);
+        if(val == null) {
+            val = Value.fromLiteral(li,realMode);
+            constants.put(key,val);
+        }
+        return val;
+    }
+
+    /**
+     * Removes every value stored in the pool.
+     */
+    public void clear() { constants.clear(); }
+
+    /**
+     * Returns the number of values stored in the pool.
+     * @return Int
+     */
+    public int size() { return constants.size(); }
+}
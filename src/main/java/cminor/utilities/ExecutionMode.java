@@ -0,0 +1,38 @@
+package cminor.utilities;
+
+/**
+ * An enum that keeps track of which execution engine runs a C Minor program.
+ * <p>
+ *     By default, every program is executed by walking the {@link cminor.ast.AST} with the
+ *     {@link cminor.interpreter.Interpreter}. A user is able to select a different engine either
+ *     with the {@code --engine} compiler flag or the {@code #engine} command in the {@link cminor.interpreter.VM}.
+ *     <ol>
+ *         <li>{@link #INTERPRETER}: Tree-walking execution (see {@link cminor.interpreter.Interpreter}).</li>
+ *         <li>{@link #BYTECODE}: Register bytecode execution (see {@link cminor.bytecode.BytecodeEngine}).</li>
+ *     </ol>
+ * </p>
+ * @author Daniel Levy
+ */
+public enum ExecutionMode {
+    INTERPRETER,
+    BYTECODE;
+
+    /**
+     * Finds the {@link ExecutionMode} associated with a name.
+     * @param name The name of the mode (i.e. {@code interpreter} or {@code bytecode}).
+     * @return {@link ExecutionMode}, or {@code null} if the name does not correspond to any mode.
+     */
+    public static ExecutionMode fromName(String name) {
+        for(ExecutionMode mode : values()) {
+            if(mode.toString().equals(name))
+                return mode;
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() { return name().toLowerCase(); }
+}
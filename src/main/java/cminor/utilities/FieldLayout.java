@@ -0,0 +1,82 @@
+package cminor.utilities;
+
+import java.util.HashMap;
+
+/**
+ * The fixed layout of every object created from a class.
+ * <p>
+ *     Each field of a class is given a slot, and a {@link cminor.interpreter.value.RuntimeObject}
+ *     stores the value of each field inside an array at the field's slot. Fields inherited from
+ *     a base class always come first and keep the same slot they have in the base class's layout.
+ *     This means a field can be accessed with the same slot no matter which subclass an object
+ *     was created from. A layout is built for each class by the {@link cminor.micropasses.SlotResolver}.
+ * </p>
+ * @author Daniel Levy
+ */
+public class FieldLayout {
+
+    /**
+     * Name of the field stored at each slot.
+     */
+    private final Vector<String> fields;
+
+    /**
+     * Map storing the slot of each field.
+     */
+    private final HashMap<String,Integer> slots;
+
+    /**
+     * Creates an empty {@link FieldLayout}.
+     */
+    public FieldLayout() {
+        this.fields = new Vector<>();
+        this.slots = new HashMap<>();
+    }
+
+    /**
+     * Creates a {@link FieldLayout} that starts with every field of a base class.
+     * @param base {@link FieldLayout} of the base class
+     */
+    public FieldLayout(FieldLayout base) {
+        this();
+        for(String field : base.fields)
+            addField(field);
+    }
+
+    /**
+     * Gives a field the next available slot.
+     * <p>
+     *     If the field is already part of the layout, it will keep its current slot.
+     * </p>
+     * @param name Name of the field
+     */
+    public void addField(String name) {
+        if(slots.containsKey(name))
+            return;
+        slots.put(name,fields.size());
+        fields.add(name);
+    }
+
+    /**
+     * Finds the slot of a field.
+     * @param name Name of the field
+     * @return Int representing the slot, or -1 if the field is not a part of the layout
+     */
+    public int getSlot(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Finds the name of the field stored at a slot.
+     * @param slot Slot of the field
+     * @return String representing the field's name
+     */
+    public String getName(int slot) { return fields.get(slot); }
+
+    /**
+     * Returns the number of fields in the layout.
+     * @return Int
+     */
+    public int size() { return fields.size(); }
+}
@@ -0,0 +1,131 @@
+package cminor.utilities;
+
+import cminor.ast.classbody.MethodDecl;
+import cminor.ast.topleveldecls.FuncDecl;
+import cminor.ast.types.ClassType;
+
+/**
+ * A cache that remembers which declaration an {@link cminor.ast.expressions.Invocation} calls.
+ * <p>
+ *     Every invocation node stores its own cache. A function invocation always calls the same
+ *     {@link FuncDecl}, so the function only has to be looked up once. A method invocation may
+ *     call a different {@link MethodDecl} depending on the runtime class of the object, so we
+ *     will remember the method that was called for up to {@link #POLYMORPHIC_LIMIT} different
+ *     classes. Once a call site sees more classes than this, it becomes megamorphic and any
+ *     new class will be looked up in its virtual method table instead.
+ * </p>
+ * @author Daniel Levy
+ */
+public class InlineCache {
+
+    /**
+     * The maximum number of classes a method invocation will remember.
+     */
+    public static final int POLYMORPHIC_LIMIT = 4;
+
+    /**
+     * The {@link FuncDecl} a function invocation calls.
+     */
+    private FuncDecl function;
+
+    /**
+     * Runtime classes that were seen by the invocation.
+     */
+    private final ClassType[] classes;
+
+    /**
+     * Names of each class stored in {@link #classes}.
+     */
+    private final String[] classNames;
+
+    /**
+     * The {@link MethodDecl} that was called for each class stored in {@link #classes}.
+     */
+    private final MethodDecl[] methods;
+
+    /**
+     * Number of classes that are currently cached.
+     */
+    private int size;
+
+    /**
+     * Position of the invoked method inside the virtual method table of every receiver class.
+     */
+    private int vtableIndex;
+
+    /**
+     * Creates an empty {@link InlineCache}.
+     */
+    public InlineCache() {
+        this.classes = new ClassType[POLYMORPHIC_LIMIT];
+        this.classNames = new String[POLYMORPHIC_LIMIT];
+        this.methods = new MethodDecl[POLYMORPHIC_LIMIT];
+        this.size = 0;
+        this.vtableIndex = -1;
+    }
+
+    /**
+     * Getter method for {@link #function}.
+     * @return {@link FuncDecl}, or {@code null} if the function was not looked up yet
+     */
+    public FuncDecl getFunction() { return function; }
+
+    /**
+     * Setter method for {@link #function}.
+     * @param function {@link FuncDecl} the invocation calls
+     */
+    public void setFunction(FuncDecl function) { this.function = function; }
+
+    /**
+     * Retrieves the method that was called for a runtime class.
+     * <p>
+     *     Every object created by the same {@link cminor.ast.expressions.NewExpr} shares the
+     *     same {@link ClassType}, so we will first compare each class by reference. If this
+     *     fails, we will compare the class names and remember the new {@link ClassType}.
+     * </p>
+     * @param objType {@link ClassType} of the object the method is invoked on
+     * @return {@link MethodDecl}, or {@code null} if the class was not cached
+     */
+    public MethodDecl lookup(ClassType objType) {
+        for(int i = 0; i < size; i++) {
+            if(classes[i] == objType)
+                return methods[i];
+        }
+
+        String className = objType.getTypeName();
+        for(int i = 0; i < size; i++) {
+            if(classNames[i].equals(className)) {
+                classes[i] = objType;
+                return methods[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remembers the method that was called for a runtime class.
+     * <p>
+     *     If the cache is already full, then the method will not be stored.
+     * </p>
+     * @param objType {@link ClassType} of the object the method was invoked on
+     * @param md {@link MethodDecl} that was called
+     */
+    public void add(ClassType objType, MethodDecl md) {
+        if(vtableIndex == -1)
+            vtableIndex = md.getVTableIndex();
+
+        if(size == POLYMORPHIC_LIMIT)
+            return;
+
+        classes[size] = objType;
+        classNames[size] = objType.getTypeName();
+        methods[size] = md;
+        size++;
+    }
+
+    /**
+     * Getter method for {@link #vtableIndex}.
+     * @return Int representing the position of the invoked method in a virtual method table, or -1 if unknown
+     */
+    public int getVTableIndex() { return vtableIndex; }
+}
@@ -0,0 +1,166 @@
+package cminor.utilities;
+
+import cminor.interpreter.value.BoolValue;
+import cminor.interpreter.value.CharValue;
+import cminor.interpreter.value.IntValue;
+import cminor.interpreter.value.Value;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache that stores the results of calling a memoizable function.
+ * <p>
+ *     Every memoizable function (see {@link cminor.micropasses.PurityAnalyzer}) is given its
+ *     own cache by the {@link MemoTable}. The argument values of a call are used as the key,
+ *     and the value the function returned is stored as the result. Once the cache stores
+ *     {@link #capacity} results, the result that was used the least recently is evicted, so
+ *     a program that calls a function with many different arguments will not run out of memory.
+ * </p>
+ * @author Daniel Levy
+ */
+public class MemoCache {
+
+    /**
+     * Name of the function the cache belongs to.
+     */
+    private final String name;
+
+    /**
+     * The maximum number of results the cache will store.
+     */
+    private final int capacity;
+
+    /**
+     * Every stored result, ordered from the least to the most recently used.
+     */
+    private final LinkedHashMap<Object,Value> results;
+
+    /**
+     * Number of calls that were answered by the cache.
+     */
+    private long hits;
+
+    /**
+     * Number of calls that had to execute the function.
+     */
+    private long misses;
+
+    /**
+     * Creates a {@link MemoCache}.
+     * @param name Name of the function the cache belongs to
+     * @param capacity The maximum number of results to store
+     */
+    public MemoCache(String name, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16,0.75f,true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object,Value> eldest) { return size() > MemoCache.this.capacity; }
+        };
+    }
+
+    /**
+     * Creates the key for a call based on its argument values.
+     * <p>
+     *     A single argument is used as the key by itself, and multiple arguments are combined
+     *     into a list. Since every argument has to be a scalar, we convert each argument into
+     *     an equivalent Java object that can be hashed and compared.
+     * </p>
+     * @param args {@link Vector} of argument values
+     * @return Object representing the key
+     */
+    public static Object keyOf(Vector<Value> args) {
+        if(args.size() == 1)
+            return keyOf(args.get(0));
+
+        Object[] key = new Object[args.size()];
+        for(int i = 0; i < key.length; i++)
+            key[i] = keyOf(args.get(i));
+        return Arrays.asList(key);
+    }
+
+    /**
+     * See {@link #keyOf(Vector)}.
+     * @param args Array of argument values
+     * @param argc Number of arguments stored at the start of the array
+     * @return Object representing the key
+     */
+    public static Object keyOf(Value[] args, int argc) {
+        if(argc == 1)
+            return keyOf(args[0]);
+
+        Object[] key = new Object[argc];
+        for(int i = 0; i < argc; i++)
+            key[i] = keyOf(args[i]);
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Converts a scalar {@link Value} into an object that can be used as part of a key.
+     * @param val {@link Value}
+     * @return Object
+     */
+    private static Object keyOf(Value val) {
+        if(val instanceof IntValue)
+            return val.asInt();
+        else if(val instanceof CharValue)
+            return val.asChar();
+        else if(val instanceof BoolValue)
+            return val.asBool();
+        else if(val.getType().isReal())
+            return val.asReal().toBigDecimal().stripTrailingZeros();
+        return val.asString();
+    }
+
+    /**
+     * Retrieves the result stored for a key and updates the hit and miss counters.
+     * @param key Object created by {@link #keyOf(Vector)}
+     * @return {@link Value}, or {@code null} if no result was stored
+     */
+    public Value get(Object key) {
+        Value result = results.get(key);
+        if(result != null)
+            hits++;
+        else
+            misses++;
+        return result;
+    }
+
+    /**
+     * Stores the result of a call.
+     * @param key Object created by {@link #keyOf(Vector)}
+     * @param result {@link Value} returned by the function
+     */
+    public void put(Object key, Value result) {
+        if(result != null)
+            results.put(key,result);
+    }
+
+    /**
+     * Getter method for {@link #hits}.
+     * @return Long
+     */
+    public long getHits() { return hits; }
+
+    /**
+     * Getter method for {@link #misses}.
+     * @return Long
+     */
+    public long getMisses() { return misses; }
+
+    /**
+     * Returns the number of results currently stored.
+     * @return Int
+     */
+    public int size() { return results.size(); }
+
+    /**
+     * {@code toString} method.
+     * @return String containing the statistics of the cache
+     */
+    @Override
+    public String toString() {
+        return name + ": " + hits + " hits, " + misses + " misses, " + results.size() + "/" + capacity + " results stored";
+    }
+}
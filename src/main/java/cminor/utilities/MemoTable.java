@@ -0,0 +1,83 @@
+package cminor.utilities;
+
+import cminor.ast.topleveldecls.FuncDecl;
+import java.util.LinkedHashMap;
+
+/**
+ * A class that stores the {@link MemoCache} of every memoizable function.
+ * <p>
+ *     Memoization is disabled by default and can be enabled with the {@code --memoize} flag
+ *     or the {@code #memoize} command. When enabled, the execution engine will ask this table
+ *     for the cache of a function before it is called. Only the functions marked by the
+ *     {@link cminor.micropasses.PurityAnalyzer} will be given a cache.
+ * </p>
+ * @author Daniel Levy
+ */
+public class MemoTable {
+
+    /**
+     * The maximum number of results stored by each {@link MemoCache}.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * Flag that determines if function calls should be memoized.
+     */
+    private boolean isEnabled;
+
+    /**
+     * Cache created for each memoizable function.
+     */
+    private final LinkedHashMap<FuncDecl,MemoCache> caches;
+
+    /**
+     * Creates an empty {@link MemoTable}.
+     */
+    public MemoTable() {
+        this.isEnabled = false;
+        this.caches = new LinkedHashMap<>();
+    }
+
+    /**
+     * Checks if function calls should be memoized.
+     * @return Boolean
+     */
+    public boolean isEnabled() { return isEnabled; }
+
+    /**
+     * Enables or disables memoization. Any result that was stored is kept.
+     * @param isEnabled Boolean
+     */
+    public void setEnabled(boolean isEnabled) { this.isEnabled = isEnabled; }
+
+    /**
+     * Removes every stored result.
+     */
+    public void clear() { caches.clear(); }
+
+    /**
+     * Retrieves the {@link MemoCache} of a function.
+     * @param fd {@link FuncDecl}
+     * @return {@link MemoCache}, or {@code null} if memoization is disabled or the function can not be memoized
+     */
+    public MemoCache getCache(FuncDecl fd) {
+        if(!isEnabled || !fd.isMemoizable())
+            return null;
+        return caches.computeIfAbsent(fd,f -> new MemoCache(f.getSignature(),DEFAULT_CAPACITY));
+    }
+
+    /**
+     * {@code toString} method.
+     * @return String containing the statistics of every cache
+     */
+    @Override
+    public String toString() {
+        if(caches.isEmpty())
+            return "No function calls were memoized.";
+
+        StringBuilder sb = new StringBuilder();
+        for(MemoCache cache : caches.values())
+            sb.append(cache).append("\n");
+        return sb.toString();
+    }
+}
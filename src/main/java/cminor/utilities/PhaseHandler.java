@@ -1,9 +1,18 @@
 package cminor.utilities;
 
 import cminor.ast.AST;
+import cminor.bytecode.BytecodeEngine;
 import cminor.ast.topleveldecls.ClassDecl;
 import cminor.ast.types.ClassType;
 import cminor.interpreter.Interpreter;
+import cminor.interpreter.budget.ExecutionBudget;
+import cminor.interpreter.input.InputScanner;
+import cminor.interpreter.output.OutputSink;
+import cminor.interpreter.profiler.Profiler;
+import cminor.interpreter.profiler.ProfilingInterpreter;
+import cminor.interpreter.profiler.SamplingProfiler;
+import cminor.interpreter.output.StandardOutput;
+import cminor.interpreter.value.RealMode;
 import cminor.messages.CompilationMessage;
 import cminor.messages.MessageHandler;
 import cminor.messages.MessageNumber;
@@ -12,6 +21,9 @@ import cminor.micropasses.*;
 import cminor.modifierchecker.ModifierChecker;
 import cminor.namechecker.NameChecker;
 import cminor.typechecker.TypeChecker;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * A class designed to store and execute all compiler phases.
@@ -37,6 +49,11 @@ public class PhaseHandler {
 
     private SymbolTable globalScope;
 
+    /**
+     * {@link CompilationContext} passed to every phase that needs to access the shared state of the program.
+     */
+    private final CompilationContext context;
+
     /**
      * An optional number that denotes which phase the compilation process should stop at.
      * <p>
@@ -47,18 +64,81 @@ public class PhaseHandler {
      */
     private PhaseNumber finalPhase;
 
+    /**
+     * The {@link RealMode} the {@link Interpreter} will use to represent {@code Real} values.
+     */
+    private RealMode realMode;
+
+    /**
+     * The {@link ExecutionMode} that decides which engine will run the program.
+     */
+    private ExecutionMode executionMode;
+
+    /**
+     * {@link MemoTable} shared by every execution engine to memoize calls to {@code pure} functions.
+     */
+    private final MemoTable memoTable;
+
+    /**
+     * {@link ConstantPool} that stores the value of every literal for the execution engines.
+     */
+    private final ConstantPool constantPool;
+
+    /**
+     * {@link OutputSink} shared by every execution engine to print the output of a program.
+     */
+    private OutputSink output;
+
+    /**
+     * {@link InputScanner} shared by every execution engine to read the input of a program.
+     */
+    private InputScanner input;
+
+    /**
+     * {@link Profiler} that measures the execution of a program, or {@code null} if profiling is disabled.
+     */
+    private Profiler profiler;
+
+    /**
+     * {@link SamplingProfiler} that samples the call stack of a program, or {@code null} if sampling is disabled.
+     */
+    private SamplingProfiler sampler;
+
+    /**
+     * The file the collapsed call stacks of the {@link #sampler} are written to. If no file
+     * is given, the call stacks will be printed to the standard error stream.
+     */
+    private Path sampleFile;
+
+    /**
+     * {@link ExecutionBudget} every run of a program has to stay within, or {@code null} if programs are not limited.
+     */
+    private ExecutionBudget budget;
+
     /**
      * Default constructor for {@link PhaseHandler}.
+     * @param context The {@link CompilationContext} of the program.
      */
-    public PhaseHandler() {
+    public PhaseHandler(CompilationContext context) {
         this.phases = new Vector<>();
-        this.msgHandler = new MessageHandler();
+        this.context = context;
+        this.msgHandler = new MessageHandler(context);
         this.finalPhase = null;
+        this.realMode = RealMode.EXACT;
+        this.executionMode = ExecutionMode.INTERPRETER;
+        this.memoTable = new MemoTable();
+        this.constantPool = new ConstantPool();
+        this.output = new StandardOutput();
+        this.input = new InputScanner();
+        this.profiler = null;
+        this.sampler = null;
+        this.sampleFile = null;
+        this.budget = null;
         this.globalScope = null;
     }
 
-    public PhaseHandler(SymbolTable globalScope) {
-        this();
+    public PhaseHandler(SymbolTable globalScope, CompilationContext context) {
+        this(context);
         this.globalScope = globalScope;
         setup();
     }
@@ -79,6 +159,33 @@ public class PhaseHandler {
                 node.visit(v);
     }
 
+    /**
+     * Marks every global variable and function that a complete program never uses.
+     * <p>
+     *     This is only called by the {@link cminor.compiler.Compiler} once every construct of a
+     *     program was analyzed. Nothing will be marked if the {@link DeadCodeEliminator} was not executed.
+     * </p>
+     * @param program Every top level construct of the program
+     */
+    public void markUnusedDecls(Vector<? extends AST> program) {
+        if(finalPhase != null && finalPhase.ordinal() < PhaseNumber.DEAD_CODE_ELIMINATOR.ordinal())
+            return;
+
+        for(Visitor v : phases)
+            if(v instanceof DeadCodeEliminator)
+                ((DeadCodeEliminator) v).markUnusedDecls(program);
+    }
+
+    /**
+     * Executes only the execution engine.
+     * <p>
+     *     This is used by the {@link cminor.compiler.Compiler} once a program was already
+     *     analyzed by every other phase, but could not be compiled into class files.
+     * </p>
+     * @param node The {@link AST} node that will be executed.
+     */
+    public void executeEngine(AST node) { node.visit(phases.getLast()); }
+
     /**
      * Executes only a specified amount of {@link Visitor} based on the value of {@link #finalPhase}.
      * @param node The {@link AST} we would like to execute each {@link Visitor} with.
@@ -156,20 +263,422 @@ public class PhaseHandler {
      */
     public void setFinalPhase(PhaseNumber phase) { finalPhase = phase; }
 
-    private void reset() {
+    /**
+     * Sets the {@link #realMode} based on the {@code #real-mode} command.
+     * <p>
+     *     This method will also make sure we wrote the correct mode when using this command.
+     * </p>
+     * @param command A String representing the input command used in the {@link cminor.interpreter.VM}.
+     */
+    public void setRealMode(String command) throws CompilationMessage {
+        Vector<String> parts = new Vector<>(command.split(" "));
+
+        // ERROR CHECK #1: To use the "#real-mode" command, the user needs to write "#real-mode <mode>"
+        //                 where the mode is either exact, double, or fixed.
+        if(parts.size() != 2 || !parts.get(0).equals("#real-mode") || RealMode.fromName(parts.get(1)) == null) {
+            msgHandler.createErrorBuilder(SettingError.class)
+                      .addErrorNumber(MessageNumber.SETTING_ERROR_5)
+                      .generateError();
+        }
+
+        setRealMode(RealMode.fromName(parts.get(1)));
+    }
+
+    /**
+     * Sets the {@link #realMode} and passes it to the {@link Interpreter} (if applicable).
+     * @param realMode The {@link RealMode} that every {@code Real} value should be represented with.
+     */
+    public void setRealMode(RealMode realMode) {
+        this.realMode = realMode;
+        constantPool.setRealMode(realMode);
+        for(Visitor v : phases) {
+            if(v instanceof Interpreter)
+                ((Interpreter) v).setRealMode(realMode);
+            else if(v instanceof BytecodeEngine)
+                ((BytecodeEngine) v).setRealMode(realMode);
+        }
+    }
+
+    /**
+     * Getter method for {@link #realMode}.
+     * @return {@link RealMode}
+     */
+    public RealMode getRealMode() { return realMode; }
+
+    /**
+     * Sets the {@link #executionMode} based on the {@code #engine} command.
+     * <p>
+     *     This method will also make sure we wrote the correct engine when using this command.
+     * </p>
+     * @param command A String representing the input command used in the {@link cminor.interpreter.VM}.
+     */
+    public void setExecutionMode(String command) throws CompilationMessage {
+        Vector<String> parts = new Vector<>(command.split(" "));
+
+        // ERROR CHECK #1: To use the "#engine" command, the user needs to write "#engine <mode>"
+        //                 where the mode is either interpreter or bytecode.
+        if(parts.size() != 2 || !parts.get(0).equals("#engine") || ExecutionMode.fromName(parts.get(1)) == null) {
+            msgHandler.createErrorBuilder(SettingError.class)
+                      .addErrorNumber(MessageNumber.SETTING_ERROR_6)
+                      .generateError();
+        }
+
+        setExecutionMode(ExecutionMode.fromName(parts.get(1)));
+    }
+
+    /**
+     * Sets the {@link #executionMode} and replaces the final phase with the selected engine.
+     * <p>
+     *     The new engine starts with an empty global frame, so any global values computed
+     *     by the previous engine will not be carried over.
+     * </p>
+     * @param executionMode The {@link ExecutionMode} that should run the program.
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        if(this.executionMode == executionMode)
+            return;
+
+        this.executionMode = executionMode;
+        // The execution engine is always the last phase that is executed.
+        if(!phases.isEmpty()) {
+            phases.set(phases.size()-1,createEngine());
+            setRealMode(realMode);
+        }
+    }
+
+    /**
+     * Enables or disables memoization based on the {@code #memoize} command.
+     * <p>
+     *     This method will also make sure we wrote the correct setting when using this command.
+     * </p>
+     * @param command A String representing the input command used in the {@link cminor.interpreter.VM}.
+     */
+    public void setMemoization(String command) throws CompilationMessage {
+        Vector<String> parts = new Vector<>(command.split(" "));
+
+        // ERROR CHECK #1: To use the "#memoize" command, the user needs to write "#memoize <setting>"
+        //                 where the setting is either on, off, or stats.
+        if(parts.size() != 2 || !parts.get(0).equals("#memoize")
+                || !(parts.get(1).equals("on") || parts.get(1).equals("off") || parts.get(1).equals("stats"))) {
+            msgHandler.createErrorBuilder(SettingError.class)
+                      .addErrorNumber(MessageNumber.SETTING_ERROR_7)
+                      .generateError();
+        }
+
+        if(parts.get(1).equals("stats"))
+            System.out.print(memoTable);
+        else
+            setMemoization(parts.get(1).equals("on"));
+    }
+
+    /**
+     * Enables or disables the memoization of calls to {@code pure} functions.
+     * @param isEnabled Boolean
+     */
+    public void setMemoization(boolean isEnabled) { memoTable.setEnabled(isEnabled); }
+
+    /**
+     * Getter method for {@link #memoTable}.
+     * @return {@link MemoTable}
+     */
+    public MemoTable getMemoTable() { return memoTable; }
+
+    /**
+     * Sets the {@link #output} and passes it to the execution engine.
+     * <p>
+     *     Anything that was printed to the previous sink will be flushed first.
+     * </p>
+     * @param output The {@link OutputSink} every output statement should print to.
+     */
+    public void setOutputSink(OutputSink output) {
+        this.output.flush();
+        this.output = output;
+        for(Visitor v : phases) {
+            if(v instanceof Interpreter)
+                ((Interpreter) v).setOutputSink(output);
+            else if(v instanceof BytecodeEngine)
+                ((BytecodeEngine) v).setOutputSink(output);
+        }
+    }
+
+    /**
+     * Getter method for {@link #output}.
+     * @return {@link OutputSink}
+     */
+    public OutputSink getOutputSink() { return output; }
+
+    /**
+     * Writes any output that is still buffered by the {@link #output}.
+     * <p>
+     *     This needs to be called once a program finishes executing or before a runtime
+     *     error is printed, so the output of the program appears in the correct order.
+     * </p>
+     */
+    public void flushOutput() { output.flush(); }
+
+    /**
+     * Sets the {@link #input} and passes it to the execution engine.
+     * @param input The {@link InputScanner} every input statement should read from.
+     */
+    public void setInputScanner(InputScanner input) {
+        this.input = input;
+        for(Visitor v : phases) {
+            if(v instanceof Interpreter)
+                ((Interpreter) v).setInputScanner(input);
+            else if(v instanceof BytecodeEngine)
+                ((BytecodeEngine) v).setInputScanner(input);
+        }
+    }
+
+    /**
+     * Getter method for {@link #input}.
+     * @return {@link InputScanner}
+     */
+    public InputScanner getInputScanner() { return input; }
+
+    /**
+     * Enables or disables profiling based on the {@code #profile} command.
+     * <p>
+     *     This method will also make sure we wrote the correct setting when using this command.
+     * </p>
+     * @param command A String representing the input command used in the {@link cminor.interpreter.VM}.
+     */
+    public void setProfiling(String command) throws CompilationMessage {
+        Vector<String> parts = new Vector<>(command.split(" "));
+
+        // ERROR CHECK #1: To use the "#profile" command, the user needs to write "#profile <setting>"
+        //                 where the setting is either on or off.
+        if(parts.size() != 2 || !parts.get(0).equals("#profile")
+                || !(parts.get(1).equals("on") || parts.get(1).equals("off"))) {
+            msgHandler.createErrorBuilder(SettingError.class)
+                      .addErrorNumber(MessageNumber.SETTING_ERROR_8)
+                      .generateError();
+        }
+
+        setProfiling(parts.get(1).equals("on"));
+    }
+
+    /**
+     * Enables or disables the {@link #profiler}.
+     * <p>
+     *     A program is always profiled by the {@link ProfilingInterpreter}, so the execution engine
+     *     will be replaced. Just like {@link #setExecutionMode(ExecutionMode)}, any global values
+     *     computed by the previous engine will not be carried over.
+     * </p>
+     * @param isEnabled Boolean
+     */
+    public void setProfiling(boolean isEnabled) {
+        if(isEnabled == isProfiling())
+            return;
+
+        profiler = isEnabled ? new Profiler() : null;
+        if(!phases.isEmpty()) {
+            phases.set(phases.size()-1,createEngine());
+            setRealMode(realMode);
+        }
+    }
+
+    /**
+     * Checks if the program will be profiled.
+     * @return Boolean
+     */
+    public boolean isProfiling() { return profiler != null; }
+
+    /**
+     * Prints the hot-spot report of the {@link #profiler} and clears its statistics.
+     * <p>
+     *     The report is printed to the standard error stream, so it does not get mixed
+     *     with the output of the program. Nothing will be printed if profiling is disabled.
+     * </p>
+     */
+    public void printProfile() {
+        if(sampler != null) {
+            sampler.stop();
+            writeSamples();
+        }
+
+        if(profiler == null)
+            return;
+
+        profiler.finish();
+        output.flush();
+        System.err.print(profiler);
+        profiler.reset();
+    }
+
+    /**
+     * Enables or disables sampling based on the {@code #sample} command.
+     * <p>
+     *     This method will also make sure we wrote the correct setting when using this command.
+     * </p>
+     * @param command A String representing the input command used in the {@link cminor.interpreter.VM}.
+     */
+    public void setSampling(String command) throws CompilationMessage {
+        Vector<String> parts = new Vector<>(command.split(" "));
+
+        // ERROR CHECK #1: To use the "#sample" command, the user needs to write "#sample <setting>"
+        //                 where the setting is either on or off.
+        if(parts.size() != 2 || !parts.get(0).equals("#sample")
+                || !(parts.get(1).equals("on") || parts.get(1).equals("off"))) {
+            msgHandler.createErrorBuilder(SettingError.class)
+                      .addErrorNumber(MessageNumber.SETTING_ERROR_9)
+                      .generateError();
+        }
+
+        setSampling(parts.get(1).equals("on"));
+    }
+
+    /**
+     * Enables or disables the {@link #sampler} and passes it to the execution engine.
+     * <p>
+     *     Unlike {@link #setProfiling(boolean)}, the execution engine is kept, since
+     *     every engine is able to report its calls to the {@link SamplingProfiler}.
+     * </p>
+     * @param isEnabled Boolean
+     */
+    public void setSampling(boolean isEnabled) {
+        if(isEnabled == isSampling())
+            return;
+
+        sampler = isEnabled ? new SamplingProfiler() : null;
+        for(Visitor v : phases) {
+            if(v instanceof Interpreter)
+                ((Interpreter) v).setSampler(sampler);
+            else if(v instanceof BytecodeEngine)
+                ((BytecodeEngine) v).setSampler(sampler);
+        }
+    }
+
+    /**
+     * Checks if the call stack of the program will be sampled.
+     * @return Boolean
+     */
+    public boolean isSampling() { return sampler != null; }
+
+    /**
+     * Sets the {@link #sampleFile} the collapsed call stacks will be written to.
+     * @param sampleFile {@link Path} of the file
+     */
+    public void setSampleFile(Path sampleFile) { this.sampleFile = sampleFile; }
+
+    /**
+     * Sets the {@link #budget} and passes it to the execution engine.
+     * <p>
+     *     A budget without any limits is not passed to the execution engine,
+     *     so the engine does not have to charge anything while executing.
+     * </p>
+     * @param budget {@link ExecutionBudget}, or {@code null} if programs should not be limited
+     */
+    public void setExecutionBudget(ExecutionBudget budget) {
+        this.budget = (budget != null && budget.isLimited()) ? budget : null;
+        for(Visitor v : phases) {
+            if(v instanceof Interpreter)
+                ((Interpreter) v).setBudget(this.budget);
+            else if(v instanceof BytecodeEngine)
+                ((BytecodeEngine) v).setBudget(this.budget);
+        }
+    }
+
+    /**
+     * Getter method for {@link #budget}.
+     * @return {@link ExecutionBudget}, or {@code null} if programs are not limited
+     */
+    public ExecutionBudget getExecutionBudget() { return budget; }
+
+    /**
+     * Prepares everything that needs to run alongside the program.
+     * <p>
+     *     This starts the {@link #sampler} and restarts the {@link #budget}. It needs to be
+     *     called right before a program is executed, and {@link #printProfile()} needs to be
+     *     called once the program finishes.
+     * </p>
+     */
+    public void startExecution() {
+        if(budget != null)
+            budget.start();
+        if(sampler != null)
+            sampler.start();
+    }
+
+    /**
+     * Writes the collapsed call stacks of the {@link #sampler} and clears its samples.
+     */
+    private void writeSamples() {
+        if(sampleFile == null)
+            System.err.print(sampler);
+        else {
+            try { Files.writeString(sampleFile,sampler.toString()); }
+            catch(IOException e) {
+                System.out.print(PrettyPrint.RED + "Error! The samples could not be written to " + sampleFile + ".\n" + PrettyPrint.RESET);
+            }
+        }
+        sampler.reset();
+    }
+
+    /**
+     * Creates the execution engine based on the current {@link #executionMode}.
+     * <p>
+     *     If profiling is enabled, a {@link ProfilingInterpreter} will always be created.
+     * </p>
+     * @return {@link Visitor} that will execute the program.
+     */
+    private Visitor createEngine() {
+        if(profiler == null && executionMode == ExecutionMode.BYTECODE) {
+            BytecodeEngine engine = new BytecodeEngine(globalScope,context);
+            engine.setMemoTable(memoTable);
+            engine.setConstantPool(constantPool);
+            engine.setOutputSink(output);
+            engine.setInputScanner(input);
+            engine.setSampler(sampler);
+            engine.setBudget(budget);
+            return engine;
+        }
+
+        Interpreter interpreter = (profiler != null) ? new ProfilingInterpreter(globalScope,profiler,context)
+                                                     : new Interpreter(globalScope,context);
+        interpreter.setMemoTable(memoTable);
+        interpreter.setConstantPool(constantPool);
+        interpreter.setOutputSink(output);
+        interpreter.setInputScanner(input);
+        interpreter.setSampler(sampler);
+        interpreter.setBudget(budget);
+        return interpreter;
+    }
+
+    /**
+     * Resets the state of every program that was executed.
+     * <p>
+     *     Every phase and the execution engine are created again, and the memoized results
+     *     and stored constants are removed. The settings of the handler are kept.
+     * </p>
+     */
+    public void reset() {
+        context.reset();
+        memoTable.clear();
+        constantPool.clear();
         phases = new Vector<>();
         setup();
     }
 
     private void setup() {
-        phases.add(new SemanticAnalyzer());
+        phases.add(new SemanticAnalyzer(context));
         phases.add(new PropertyGenerator());
-        phases.add(new NameChecker(globalScope));
+        phases.add(new NameChecker(globalScope,context));
         phases.add(new FieldRewriter());
-        phases.add(new TypeValidator(globalScope));
-        phases.add(new TypeChecker(globalScope));
-        phases.add(new ConstructorGenerator());
-        phases.add(new ModifierChecker(globalScope));
-        phases.add(new Interpreter(globalScope));
+        phases.add(new TypeValidator(globalScope,context));
+        phases.add(new TypeChecker(globalScope,context));
+        phases.add(new ConstructorGenerator(context));
+        phases.add(new ModifierChecker(globalScope,context));
+        SlotResolver resolver = new SlotResolver();
+        phases.add(resolver);
+        phases.add(new Inliner(globalScope));
+        phases.add(new ConstantFolder(globalScope,constantPool));
+        phases.add(new DeadCodeEliminator(globalScope));
+        phases.add(new LoopOptimizer(resolver));
+        phases.add(new TailCallAnalyzer());
+        phases.add(new PurityAnalyzer());
+        phases.add(new SubexpressionEliminator(resolver,globalScope));
+        phases.add(createEngine());
+        setRealMode(realMode);
     }
 }
@@ -20,5 +20,13 @@ public enum PhaseNumber {
     TYPE_CHECKER,
     CONSTRUCTOR_GENERATOR,
     MOD_CHECKER,
+    SLOT_RESOLVER,
+    INLINER,
+    CONSTANT_FOLDER,
+    DEAD_CODE_ELIMINATOR,
+    LOOP_OPTIMIZER,
+    TAIL_CALL_ANALYZER,
+    PURITY_ANALYZER,
+    SUBEXPRESSION_ELIMINATOR,
     INTERPRETER;
 }
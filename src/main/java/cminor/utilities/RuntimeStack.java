@@ -1,116 +1,180 @@
 package cminor.utilities;
 
 import cminor.ast.AST;
+import cminor.interpreter.value.RuntimeObject;
 import cminor.interpreter.value.Value;
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
  * A class that mimics the behavior of a system stack.
  * <p><br>
  *     Since C Minor has an interpretation mode, we need to mimic the
  *     behavior of a real system stack when users execute programs through
- *     the {@link interpreter.VM}. This class is similar to the {@link SymbolTable}
- *     class, but it is designed to work with the {@link interpreter.Interpreter} in
- *     order to make it easier to access and save values during runtime.
+ *     the {@link cminor.interpreter.VM}. Every call frame is a flat array of
+ *     {@link Value} objects, and each variable is accessed through the
+ *     {@code (depth, slot)} pair that the {@link cminor.micropasses.SlotResolver}
+ *     assigned to it. A depth of {@link #GLOBAL_DEPTH} refers to the global frame
+ *     while a depth of {@link #LOCAL_DEPTH} refers to the current call frame.
  * </p>
  * @author Daniel Levy
  */
 public class RuntimeStack {
 
     /**
-     * Internal hash map that will act as our stack.
+     * Depth used to access a value stored in the global frame.
      */
-    private final HashMap<String, Value> stack;
+    public static final int GLOBAL_DEPTH = 0;
+
+    /**
+     * Depth used to access a value stored in the current call frame.
+     */
+    public static final int LOCAL_DEPTH = 1;
+
+    /**
+     * Internal array that will store every value of the call frame.
+     */
+    private Value[] slots;
 
     /**
      * Previous call frame that the current call frame originates from.
      */
-    private RuntimeStack parent;
+    private final RuntimeStack parent;
 
     /**
-     * Creates a default {@link RuntimeStack} object.
+     * The global frame of the program. The global frame will point to itself.
+     */
+    private final RuntimeStack global;
+
+    /**
+     * The object that a method was invoked on (if applicable).
+     */
+    private final RuntimeObject thisObject;
+
+    /**
+     * Creates a default {@link RuntimeStack} object representing the global frame.
+     * <p>
+     *     The global frame will grow as needed since the {@link cminor.interpreter.VM}
+     *     can keep declaring new variables at the top level.
+     * </p>
      */
     public RuntimeStack() {
-        this.stack = new HashMap<>();
+        this.slots = new Value[16];
         this.parent = null;
+        this.global = this;
+        this.thisObject = null;
     }
 
     /**
      * Creates a {@link RuntimeStack} object that acts as a new call frame.
      * @param parent {@link RuntimeStack} that the call frame points to
+     * @param size Number of slots the call frame needs
+     * @param thisObject {@link RuntimeObject} that {@code this} refers to inside the call frame
      */
-    public RuntimeStack(RuntimeStack parent) {
-        this();
+    private RuntimeStack(RuntimeStack parent, int size, RuntimeObject thisObject) {
+        this.slots = new Value[size];
         this.parent = parent;
+        this.global = parent.global;
+        this.thisObject = thisObject;
     }
 
     /**
-     * Checks if the stack is storing a variable.
-     * @param name Variable name
-     * @return Boolean
+     * Removes every value stored in the current call frame.
+     * <p>
+     *     This is used when a tail call reuses the call frame of the function or method that is executing.
+     * </p>
      */
-    private boolean hasValue(String name) {
-        if(stack.containsKey(name))
-            return true;
-        else if(parent != null)
-            return parent.hasValue(name);
-        else
-            return false;
-    }
+    public void clear() { Arrays.fill(slots,null); }
 
     /**
-     * Adds a new value to the stack based on a variable name.
-     * @param name Variable name
-     * @param val {@link Value}
+     * Finds the call frame associated with a depth.
+     * @param depth Either {@link #GLOBAL_DEPTH} or {@link #LOCAL_DEPTH}
+     * @return {@link RuntimeStack}
      */
-    public void addValue(String name, Value val) { stack.put(name,val); }
+    private RuntimeStack frame(int depth) { return depth == GLOBAL_DEPTH ? global : this; }
 
     /**
-     * See {@link #addValue(String,Value)}.
+     * Sets the value stored in a slot.
+     * @param depth Depth of the call frame the value is stored in
+     * @param slot Position inside the call frame
+     * @param value {@link Value} to save
      */
-    public void addValue(AST node, Value val) { addValue(node.toString(),val); }
+    public void setValue(int depth, int slot, Value value) {
+        RuntimeStack frame = frame(depth);
+        if(slot >= frame.slots.length)
+            frame.slots = Arrays.copyOf(frame.slots,Math.max(slot+1,frame.slots.length*2));
+        frame.slots[slot] = value;
+    }
 
     /**
      * Sets the value for a variable on the stack.
-     * @param name Variable name we want to set a new value for
+     * <p>
+     *     The node is expected to be a {@link cminor.ast.expressions.NameExpr} or a variable
+     *     declaration that was bound to a slot by the {@link cminor.micropasses.SlotResolver}.
+     * </p>
+     * @param node {@link AST} representing the variable
      * @param value {@link Value} to save
      */
-    public void setValue(String name, Value value) {
-        if(stack.containsKey(name))
-            stack.put(name,value);
-        else if(parent != null)
-            parent.setValue(name,value);
+    public void setValue(AST node, Value value) {
+        if(node.isExpression() && node.asExpression().isNameExpr()) {
+            if(node.asExpression().asNameExpr().isResolved())
+                setValue(node.asExpression().asNameExpr().getDepth(),node.asExpression().asNameExpr().getSlot(),value);
+        }
+        else if(node.isStatement() && node.asStatement().isLocalDecl())
+            setValue(node.asStatement().asLocalDecl().getDepth(),node.asStatement().asLocalDecl().getSlot(),value);
+        else if(node.isTopLevelDecl() && node.asTopLevelDecl().isGlobalDecl())
+            setValue(node.asTopLevelDecl().asGlobalDecl().getDepth(),node.asTopLevelDecl().asGlobalDecl().getSlot(),value);
+        else if(node.isSubNode() && node.asSubNode().isVar())
+            setValue(node.asSubNode().asVar().getDepth(),node.asSubNode().asVar().getSlot(),value);
     }
 
     /**
-     * See {@link #setValue(String, Value)}.
+     * Retrieves a value from the stack.
+     * @param depth Depth of the call frame the value is stored in
+     * @param slot Position inside the call frame
+     * @return {@link Value}
      */
-    public void setValue(AST node, Value value) { setValue(node.toString(),value); }
+    public Value getValue(int depth, int slot) {
+        RuntimeStack frame = frame(depth);
+        return slot < frame.slots.length ? frame.slots[slot] : null;
+    }
 
     /**
-     * Retrieves a value from the stack.
-     * @param name String representing the name we want to get a value from
-     * @return {@link Value}
+     * Retrieves the value a {@link cminor.ast.expressions.NameExpr} refers to.
+     * @param node {@link AST} representing the name
+     * @return {@link Value}, or {@code null} if the name was never bound to a slot
      */
-    public Value getValue(String name) {
-        if(stack.containsKey(name))
-            return stack.get(name);
-        else if(parent != null)
-            return parent.getValue(name);
-        else
-            return null;
+    public Value getValue(AST node) {
+        if(node.isExpression() && node.asExpression().isNameExpr() && node.asExpression().asNameExpr().isResolved())
+            return getValue(node.asExpression().asNameExpr().getDepth(),node.asExpression().asNameExpr().getSlot());
+        return null;
     }
 
     /**
-     * See {@link #getValue(String)}.
+     * Retrieves the object that {@code this} refers to in the current call frame.
+     * @return {@link RuntimeObject}, or {@code null} if we are not inside a method
      */
-    public Value getValue(AST node) { return this.getValue(node.toString()); }
+    public RuntimeObject getThis() { return thisObject; }
 
     /**
      * Creates a new stack call frame.
+     * <p>
+     *     The new call frame will keep the same {@code this} pointer as the
+     *     call frame it was created from.
+     * </p>
+     * @param size Number of slots the call frame needs
+     * @return {@link RuntimeStack}
+     */
+    public RuntimeStack createCallFrame(int size) { return new RuntimeStack(this,size,thisObject); }
+
+    /**
+     * Creates a new stack call frame for a method invocation.
+     * @param size Number of slots the call frame needs
+     * @param thisObject {@link RuntimeObject} that the method was invoked on
      * @return {@link RuntimeStack}
      */
-    public RuntimeStack createCallFrame() { return new RuntimeStack(this);}
+    public RuntimeStack createCallFrame(int size, RuntimeObject thisObject) {
+        return new RuntimeStack(this,size,thisObject);
+    }
 
     /**
      * Destroys the current stack call frame.
@@ -137,8 +201,10 @@ public class RuntimeStack {
             parent.generateStackFrame(sb);
 
         sb.append("---------------------------------\n");
-        for(String s : stack.keySet())
-            sb.append(s).append(": ").append(stack.get(s)).append("\n");
+        for(int i = 0; i < slots.length; i++) {
+            if(slots[i] != null)
+                sb.append(i).append(": ").append(slots[i]).append("\n");
+        }
         sb.append("---------------------------------\n");
     }
 }
@@ -1,6 +1,5 @@
 package cminor
 
-import cminor.messages.CompilationMessage
 import spock.lang.Shared
 import spock.lang.Specification
 
@@ -11,11 +10,13 @@ abstract class CompilationTest extends Specification {
     @Shared error
 
     def setupSpec() {
-        CompilationMessage.setDebugMode()
         input = ""
         error = null
     }
 
+    // Every test runs in debug mode, so the stack trace of an unexpected error is printed.
+    def setup() { vm.context.setDebugMode(true) }
+
     /*
     After each test, we are going to clear out the global scope. This will
     slow down our tests, but it allows for more flexibility when writing
@@ -0,0 +1,14 @@
+package cminor.bytecode
+
+import cminor.CompilationTest
+import cminor.interpreter.VM
+import cminor.utilities.ExecutionMode
+import cminor.utilities.PhaseNumber
+
+class BytecodeTest extends CompilationTest {
+
+    def setupSpec() {
+        vm = new VM(PhaseNumber.INTERPRETER)
+        vm.phaseHandler.setExecutionMode(ExecutionMode.BYTECODE)
+    }
+}
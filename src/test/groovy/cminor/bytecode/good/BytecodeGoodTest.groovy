@@ -0,0 +1,212 @@
+package cminor.bytecode.good
+
+import spock.lang.Shared
+import cminor.bytecode.BytecodeTest
+import cminor.interpreter.budget.ExecutionBudget
+import cminor.messages.CompilationMessage
+import cminor.utilities.ExecutionMode
+
+// NOTE: FORMATTING MATTERS FOR THE OUTPUT RESULTS!!!!
+class BytecodeGoodTest extends BytecodeTest {
+
+    @Shared os
+
+    def setupSpec() {
+        // We will have the bytecode VM write to a separate stream!
+        os = new ByteArrayOutputStream()
+        System.setOut(new PrintStream(os))
+    }
+
+    def "Bytecode - Counted Loops"() {
+        when: "A function uses nested for loops with both inclusive and exclusive ranges."
+            input = '''
+                        def sum() => Int {
+                            def total:Int = 0
+                            for(def i:Int in 1..10) {
+                                for(def j:Int in 1..<i) {
+                                    set total += j
+                                }
+                            }
+                            return total
+                        }
+
+                        cout << sum() << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The loops should execute the correct number of times."
+            os.toString().contains("165")
+    }
+
+    def "Bytecode - Counted Loop Ending at the Largest Int"() {
+        when: "A for loop ends at the largest Int value and is executed by both engines."
+            os.reset()
+            vm.phaseHandler.setExecutionMode(engine)
+            input = '''
+                        def count:Int = 0
+                        for(def i:Int in 2147483645..2147483647) {
+                            set count += 1
+                            if(count == 10) { break }
+                        }
+                        cout << 'count = ' << count << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The loop should stop after the last value instead of wrapping around."
+            os.toString().trim() == "count = 3"
+
+        cleanup:
+            vm.phaseHandler.setExecutionMode(ExecutionMode.BYTECODE)
+
+        where:
+            engine << [ExecutionMode.INTERPRETER, ExecutionMode.BYTECODE]
+    }
+
+    def "Bytecode - Statement Limit Stops Both Engines at the Same Point"() {
+        when: "A loop that never ends is executed by both engines with the same statement limit."
+            os.reset()
+            def budget = new ExecutionBudget()
+            budget.setStatementLimit(100)
+            vm.phaseHandler.setExecutionBudget(budget)
+            vm.phaseHandler.setExecutionMode(engine)
+            input = '''
+                        def next(in x:Int) => Int { return x + 1 }
+
+                        def count:Int = 0
+                        while(True) {
+                            set count = next(count)
+                            if(count % 2 == 0) { continue }
+                            cout << count << endl
+                        }
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every statement is charged the same way, so the last value printed is the same."
+            thrown CompilationMessage
+            os.toString().readLines().findAll { it ==~ /\d+/ }.last() == "33"
+
+        cleanup:
+            vm.phaseHandler.setExecutionBudget(null)
+            vm.phaseHandler.setExecutionMode(ExecutionMode.BYTECODE)
+
+        where:
+            engine << [ExecutionMode.INTERPRETER, ExecutionMode.BYTECODE]
+    }
+
+    def "Bytecode - Recursive Function With Local Variables"() {
+        when: "A recursive function uses local variables after each recursive call."
+            input = '''
+                        def recurs fib(in n:Int) => Int {
+                            def a:Int = 0
+                            def b:Int = 0
+                            if(n < 2) { return n }
+                            set a = fib(n-1)
+                            set b = fib(n-2)
+                            return a + b
+                        }
+
+                        cout << fib(20) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each call should use its own register file."
+            os.toString().contains("6765")
+    }
+
+    def "Bytecode - Inout Parameters"() {
+        when: "A function updates an inout argument."
+            input = '''
+                        def swap(inout a:Int, inout b:Int) => Void {
+                            def temp:Int = a
+                            set a = b
+                            set b = temp
+                        }
+
+                        def x:Int = 3
+                        def y:Int = 8
+                        swap(x,y)
+                        cout << x << ' ' << y << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The new values should be copied back into the variables."
+            os.toString().contains("8 3")
+    }
+
+    def "Bytecode - Arrays and Lists"() {
+        when: "A program updates an array and appends to a list inside of a loop."
+            input = '''
+                        def a:Array[Int] = Array(1,2,3,4,5)
+                        def lst:List[Int] = List()
+
+                        for(def i:Int in 1..5) {
+                            set a[i] *= 2
+                            append(lst,a[i])
+                        }
+
+                        cout << a[5] << ' ' << lst[1] << ' ' << lst[5] << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each element should be updated in place."
+            os.toString().contains("10 2 10")
+    }
+
+    def "Bytecode - Assign Rows of 2D Array"() {
+        when: "The rows of a 2D array are replaced by arrays of different sizes."
+            input = '''
+                        def a:Array[Array[Int]] = Array[2][3](Array(1,2,3),Array(4,5,6))
+                        def r:Array[Int] = Array(7,8,9,10)
+
+                        set a[1] = r
+                        set a[2] = Array(1,2)
+                        set r[1] = 99
+                        cout << a << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each row should be replaced and shared the same way as in the interpreter."
+            os.toString().contains("[[99, 8, 9, 10], [1, 2]]")
+    }
+
+    def "Bytecode - Choice Statement"() {
+        when: "A choice statement selects a case based on an integer range."
+            input = '''
+                        def grade(in score:Int) => Char {
+                            choice(score) {
+                                on 90..100 { return 'A' }
+                                on 80..89 { return 'B' }
+                                other { return 'C' }
+                            }
+                            return '?'
+                        }
+
+                        cout << grade(95) << grade(85) << grade(10) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The correct case should be executed."
+            os.toString().contains("ABC")
+    }
+
+    def "Bytecode - Fall Back to the Interpreter"() {
+        when: "A program mixes objects with constructs that can be compiled."
+            input = '''
+                        class A {
+                            public x:Int
+                        }
+
+                        def total:Int = 0
+                        def obj:A = new A(x=5)
+                        for(def i:Int in 1..3) {
+                            set total += i
+                        }
+
+                        cout << total + obj.x << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Both execution engines should share the same global variables."
+            os.toString().contains("11")
+    }
+}
@@ -0,0 +1,31 @@
+package cminor.jvm
+
+import cminor.CompilationTest
+import cminor.interpreter.VM
+import cminor.interpreter.value.RealMode
+import cminor.lexer.Lexer
+import cminor.parser.PEG
+import cminor.utilities.PhaseNumber
+import java.nio.file.Files
+
+class JvmTest extends CompilationTest {
+
+    def setupSpec() { vm = new VM(PhaseNumber.SLOT_RESOLVER) }
+
+    /*
+        Analyzes a program, writes its class files into a temporary directory,
+        and then executes the generated main class with a new class loader.
+    */
+    def compileAndRun(String program, RealMode realMode = RealMode.DOUBLE) {
+        def nodes = new PEG(new Lexer(program,vm.context)).parse()
+        for(node in nodes)
+            vm.phaseHandler.execute(node)
+
+        def dir = Files.createTempDirectory("cminor")
+        for(cw in new ClassGenerator(vm.globalUnit.getScope(),"Main","Main.cm",realMode).generate(nodes))
+            Files.write(dir.resolve(cw.getName() + ".class"),cw.toByteArray())
+
+        def loader = new URLClassLoader([dir.toUri().toURL()] as URL[])
+        loader.loadClass("Main").getMethod("main",String[]).invoke(null,[new String[0]] as Object[])
+    }
+}
@@ -0,0 +1,152 @@
+package cminor.jvm.good
+
+import spock.lang.Shared
+import cminor.interpreter.VM
+import cminor.interpreter.output.ChannelOutput
+import cminor.interpreter.value.RealMode
+import cminor.jvm.ClassGenerator
+import cminor.jvm.JvmTest
+import cminor.utilities.PhaseNumber
+import java.nio.channels.Channels
+
+// NOTE: FORMATTING MATTERS FOR THE OUTPUT RESULTS!!!!
+class JvmGoodTest extends JvmTest {
+
+    @Shared os
+
+    def setupSpec() {
+        // The generated classes will write to a separate stream!
+        os = new ByteArrayOutputStream()
+        System.setOut(new PrintStream(os))
+    }
+
+    def "JVM - Functions and Loops"() {
+        when: "A program calls a recursive function and a function with a counted loop."
+            input = '''
+                        def recurs fib(in n:Int) => Int {
+                            if(n < 2) { return n }
+                            return fib(n-1) + fib(n-2)
+                        }
+
+                        def sum() => Int {
+                            def total:Int = 0
+                            for(def i:Int in 1..10) {
+                                for(def j:Int in 1..<i) {
+                                    set total += j
+                                }
+                            }
+                            return total
+                        }
+
+                        cout << fib(20) << ' ' << sum() << endl
+                    '''
+            compileAndRun(input)
+
+        then: "Each function should be executed as a static method."
+            os.toString().contains("6765 165")
+    }
+
+    def "JVM - Global Variables and Control Flow"() {
+        when: "Top level statements update global variables inside of loops."
+            input = '''
+                        def k:Int = 0
+                        def word:String = 'ab'
+
+                        while(k < 5) {
+                            set k += 1
+                            if(k == 3) { continue }
+                            if(k == 5) { break }
+                            cout << k
+                        }
+                        do {
+                            set word += 'cd'
+                        } while(word != 'abcdcd')
+                        cout << ' ' << word << endl
+                    '''
+            compileAndRun(input)
+
+        then: "The global variables should be stored as static fields."
+            os.toString().contains("124 abcdcd")
+    }
+
+    def "JVM - Primitive Types"() {
+        when: "A program uses every primitive type."
+            input = '''
+                        def grade(in score:Int) => Char {
+                            choice(score) {
+                                on 90..100 { return 'A' }
+                                on 80..89 { return 'B' }
+                                other { return 'C' }
+                            }
+                            return '?'
+                        }
+
+                        def r:Real = 2.5
+                        def b:Bool = True
+
+                        cout << grade(95) << grade(85) << grade(10) << ' ' << r * 2.0 << ' ' << Int(7.9) << ' ' << not b << endl
+                    '''
+            compileAndRun(input)
+
+        then: "Each value should be printed the same way the interpreter prints it."
+            os.toString().contains("ABC 5.0 7 false")
+    }
+
+    def "JVM - Casts Are Printed Like the Interpreter"() {
+        when: "A program printing casts is compiled and also executed by the interpreter."
+            input = '''
+                        def c:Char = 'B'
+
+                        cout << Char(65) << ' ' << c << ' ' << Int(c) << ' ' << Int(7.9) << ' ' << Real(3) << endl
+                    '''
+            compileAndRun(input)
+
+            def engine = new VM(PhaseNumber.INTERPRETER)
+            def printed = new ByteArrayOutputStream()
+            engine.phaseHandler.setRealMode(RealMode.DOUBLE)
+            engine.phaseHandler.setOutputSink(new ChannelOutput(Channels.newChannel(printed)))
+            engine.runInterpreter(input)
+
+        then: "The generated class should print the same values as the interpreter."
+            printed.toString().contains("65 B 66 7 3.0")
+            os.toString().contains(printed.toString().trim())
+    }
+
+    def "JVM - Classes and Methods"() {
+        when: "A program creates objects of a class and its subclass."
+            input = '''
+                        class Point {
+                            public x:Int
+                            public y:Int
+                            public method sum() => Int { return x + y }
+                            public method scale(in k:Int) => Void { set x = x * k }
+                        }
+
+                        class Point3 inherits Point {
+                            public z:Int
+                            public override method sum() => Int { return x + y + z }
+                        }
+
+                        def p:Point = new Point(x=3,y=4)
+                        def q:Point3 = new Point3(x=1,y=2,z=3)
+
+                        p.scale(2)
+                        cout << p.sum() << ' ' << p.x << ' ' << q.sum() << endl
+                    '''
+            compileAndRun(input)
+
+        then: "Each class should become a JVM class with virtual methods."
+            os.toString().contains("10 6 6")
+    }
+
+    def "JVM - Reals Are Only Compiled in Double Mode"() {
+        when: "A program using Real values is compiled while Reals are represented exactly."
+            input = '''
+                        cout << 0.1 + 0.2 << endl
+                    '''
+            compileAndRun(input,RealMode.EXACT)
+
+        then: "The program can not be compiled, so the compiler will execute it instead."
+            thrown ClassGenerator.UnsupportedConstructException
+    }
+}
@@ -1,9 +1,171 @@
 package cminor.runtime.bad
 
+import cminor.interpreter.budget.ExecutionBudget
+import cminor.interpreter.output.ChannelOutput
+import cminor.interpreter.output.StandardOutput
+import cminor.interpreter.value.RealMode
 import cminor.messages.CompilationMessage
 import cminor.messages.MessageNumber
 import cminor.runtime.RuntimeTest
+import java.nio.channels.Channels
 
 class RuntimeBadTest extends RuntimeTest {
 
+    def "Array Expression - Index Past a Shorter Row"() {
+        when: "A row of a 2D array is replaced by a shorter array and an old position is accessed."
+            input = '''
+                        def a:Array[Array[Int]] = Array[2][3](Array(1,2,3),Array(4,5,6))
+
+                        set a[2] = Array(1,2)
+                        cout << a[2][3] << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "An error is thrown since the row no longer has a third element."
+            error = thrown CompilationMessage
+            error.msg.messageType == MessageNumber.RUNTIME_ERROR_603
+    }
+
+    def "Execution Budget - Infinite Loop Exceeds Statement Limit"() {
+        when: "A program that never stops is executed with a statement limit."
+            def budget = new ExecutionBudget()
+            budget.setStatementLimit(10000)
+            vm.phaseHandler.setExecutionBudget(budget)
+            input = '''
+                        def local i:Int = 0
+                        while(True) {
+                            set i += 1
+                        }
+                    '''
+            vm.runInterpreter(input)
+
+        then: "An error is thrown once the program executes too many statements."
+            error = thrown CompilationMessage
+            error.msg.messageType == MessageNumber.RUNTIME_ERROR_610
+
+        cleanup:
+            vm.phaseHandler.setExecutionBudget(null)
+    }
+
+    def "Execution Budget - Exponential Recursion Exceeds Time Limit"() {
+        when: "A program that makes too many calls is executed with a time limit."
+            def budget = new ExecutionBudget()
+            budget.setTimeLimit(100)
+            vm.phaseHandler.setExecutionBudget(budget)
+            input = '''
+                        def recurs count(in n:Int) => Int {
+                            if(n == 0) { return 1 }
+                            return count(n - 1) + count(n - 1)
+                        }
+
+                        cout << count(60) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "An error is thrown once the program runs for too long."
+            error = thrown CompilationMessage
+            error.msg.messageType == MessageNumber.RUNTIME_ERROR_611
+
+        cleanup:
+            vm.phaseHandler.setExecutionBudget(null)
+    }
+
+    def "Execution Budget - Growing List Exceeds Heap Limit"() {
+        when: "A program keeps appending to a list while a heap limit is set."
+            def budget = new ExecutionBudget()
+            budget.setHeapLimit(100000)
+            vm.phaseHandler.setExecutionBudget(budget)
+            input = '''
+                        def local lst:List[Int] = List(1)
+                        def local i:Int = 0
+                        while(i < 1000000) {
+                            append(lst, i)
+                            set i += 1
+                        }
+                    '''
+            vm.runInterpreter(input)
+
+        then: "An error is thrown once the list uses too much memory."
+            error = thrown CompilationMessage
+            error.msg.messageType == MessageNumber.RUNTIME_ERROR_612
+
+        cleanup:
+            vm.phaseHandler.setExecutionBudget(null)
+    }
+
+    def "Invocation - Inlined Method on an Uninitialized Object"() {
+        when: "A small final method that never reads this is invoked on an uninitialized object."
+            input = '''
+                        final class Box {
+                            protected v:Int
+                            public method two(in k:Int) => Int { return k * 2 }
+                        }
+
+                        def local b:Box = uninit
+                        cout << b.two(4) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "An error is thrown since the method can not be inlined without checking the object."
+            error = thrown CompilationMessage
+            error.msg.messageType == MessageNumber.RUNTIME_ERROR_607
+    }
+
+    def "Output - Printed Before a Runtime Error"() {
+        when: "A program prints a value before it accesses an array out of bounds."
+            def printed = new ByteArrayOutputStream()
+            vm.phaseHandler.setOutputSink(new ChannelOutput(Channels.newChannel(printed)))
+            input = '''
+                        def a:Array[Int] = Array(1,2,3)
+
+                        cout << 'before' << endl
+                        cout << a[4] << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The value printed before the error is still written out."
+            error = thrown CompilationMessage
+            printed.toString().contains("before")
+
+        cleanup:
+            vm.phaseHandler.setOutputSink(new StandardOutput())
+    }
+
+    def "Real Mode - Fixed Multiplication Overflows"() {
+        when: "A product that is too large for a fixed-scale Real is computed."
+            vm.phaseHandler.setRealMode(RealMode.FIXED)
+            input = '''
+                        cout << 10000000.0 * 10000000.0 * 10000000.0 << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "An error is thrown instead of an arithmetic exception."
+            error = thrown CompilationMessage
+            error.msg.messageType == MessageNumber.RUNTIME_ERROR_613
+
+        cleanup:
+            vm.phaseHandler.setRealMode(RealMode.EXACT)
+    }
+
+    def "Real Mode - Fixed Overflow in an Unused Value"() {
+        when: "A function stores a product that is too large for a fixed-scale Real into a variable that is never read."
+            vm.phaseHandler.setRealMode(RealMode.FIXED)
+            input = '''
+                        def g(in n:Real) => Int {
+                            def x:Real = 0.0
+                            set x = n*n*n
+                            return 1
+                        }
+
+                        cout << g(10000000.0) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The store is not removed, so the overflow is still reported."
+            error = thrown CompilationMessage
+            error.msg.messageType == MessageNumber.RUNTIME_ERROR_613
+
+        cleanup:
+            vm.phaseHandler.setRealMode(RealMode.EXACT)
+    }
 }
@@ -1,7 +1,16 @@
 package cminor.runtime.good
 
+import cminor.interpreter.VM
+import cminor.interpreter.input.InputScanner
+import cminor.interpreter.output.ChannelOutput
+import cminor.interpreter.value.RealMode
+import cminor.lexer.Lexer
+import cminor.parser.PEG
+import cminor.utilities.PhaseNumber
 import spock.lang.Shared
 import cminor.runtime.RuntimeTest
+import java.nio.channels.Channels
+import java.util.concurrent.Executors
 
 // NOTE: FORMATTING MATTERS FOR THE OUTPUT RESULTS!!!!
 class RuntimeGoodTest extends RuntimeTest {
@@ -117,6 +126,79 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Assignment Statement - Assign Row of 2D Array"() {
+        when: "A row in a 2D array is assigned a new array."
+            input = '''
+                        def a:Array[Array[Int]] = Array[2][3](Array(1,2,3),Array(4,5,6))
+
+                        set a[1] = Array(7,8,9)
+                        set a[2][3] = 60
+                        cout << a << endl
+                        cout << a[1][2] << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every element of the row should be replaced."
+            os.toString().contains(
+                "[[7, 8, 9], [4, 5, 60]]\n" +
+                "8"
+            )
+    }
+
+    def "Assignment Statement - Assign Rows of Different Sizes to 2D Array"() {
+        when: "The rows of a 2D array are assigned arrays that are longer and shorter than the old rows."
+            input = '''
+                        def a:Array[Array[Int]] = Array[2][3](Array(1,2,3),Array(4,5,6))
+
+                        set a[1] = Array(7,8,9,10)
+                        set a[2] = Array(1,2)
+                        set a[2][2] = 20
+                        cout << a << endl
+                        cout << a[1][4] << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each row should be replaced by the whole new array."
+            os.toString().contains(
+                "[[7, 8, 9, 10], [1, 20]]\n" +
+                "10"
+            )
+    }
+
+    def "Assignment Statement - Rows of 2D Array Are Shared"() {
+        when: "A row of a 2D array is read into a variable, and a variable is assigned as a row."
+            input = '''
+                        def a:Array[Array[Int]] = Array[2][3](Array(1,2,3),Array(4,5,6))
+                        def r:Array[Int] = Array(7,8,9,10)
+                        def b:Array[Int] = a[2]
+
+                        set a[1] = r
+                        set r[1] = 99
+                        set b[1] = 42
+                        cout << a << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Changes made through either variable should be seen through the 2D array."
+            os.toString().contains("[[99, 8, 9, 10], [42, 5, 6]]")
+    }
+
+    def "Assignment Statement - Assign Row of Jagged Array"() {
+        when: "A row of a jagged array is assigned a new array."
+            input = '''
+                        def a:Array[Array[Int]] = Array[2](Array(1,2,3),Array(4,5))
+                        def r:Array[Int] = Array(7,8,9,10)
+
+                        set a[2] = r
+                        set r[4] = 40
+                        cout << a << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The row should be replaced instead of receiving the new array as an element."
+            os.toString().contains("[[1, 2, 3], [7, 8, 9, 40]]")
+    }
+
     def "Assignment Statement - Assignment Operators (Int)"() {
         when: "An assignment operator is used on Int variables."
             input = '''
@@ -245,6 +327,36 @@ class RuntimeGoodTest extends RuntimeTest {
             os.toString().contains("hello world")
     }
 
+    def "Assignment Statement - String Concatenation in a Loop"() {
+        when: "A String is built by concatenating inside a loop, and is then compared and used by a choice statement."
+            input = '''
+                        def s:String = 'ab', t:String = 'ab'
+
+                        for(def i:Int in 1..5000) {
+                            set s += 'cd'
+                            set t = t + 'cd'
+                        }
+
+                        set s = 'xy' + s
+                        choice(s) {
+                            on 'xyab' { cout << 'short' << endl }
+                            other { cout << (s == 'xy' + t) << ' ' << (s == t) << endl }
+                        }
+
+                        set t = 'start'
+                        for(def i:Int in 1..3) { set t = t + ' and a piece of text that makes the string long' }
+                        cout << t << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every String should contain each concatenated part in order."
+            os.toString().contains(
+                "true false\n" +
+                "start and a piece of text that makes the string long and a piece of text that makes the string long" +
+                " and a piece of text that makes the string long"
+            )
+    }
+
     def "Binary Expression - Arithmetic Expressions (Int)"() {
         when: "A binary arithmetic expression is used for Int values."
             input = ''' 
@@ -346,6 +458,25 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Binary Expression - Constant Folding"() {
+        when: "Binary expressions only use literals and constants."
+            input = '''
+                        def const LIMIT:Int = 100
+                        def const NAME:String = 'abc'
+                        cout << 1 + 2 * 3 << ' ' << (1 + 2) * 3 << endl
+                        cout << LIMIT * 2 + 1 << ' ' << NAME + 'de' << endl
+                        cout << (LIMIT > 50 and True) << ' ' << ~5 << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every expression is evaluated in the correct order."
+            os.toString().contains(
+                "7 9\n" +
+                "201 abcde\n" +
+                "true -6"
+            )
+    }
+
     def "Binary Expression - Equality Operators (Bool)"() {
         when: "An equality expression is written for Bool literals."
             input = '''
@@ -498,6 +629,29 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Binary Expression - Reevaluated Expressions"() {
+        when: "The same expressions are evaluated in a loop and inside different call frames."
+            input = '''
+                        def total:Int = 0
+
+                        def recurs f(in n:Int) => Int {
+                            if(n <= 1) { return n }
+                            return f(n-1) + n * 2
+                        }
+
+                        for(def i:Int in 1..5) {
+                            def r:Real = Real(i) * 1.5
+                            set total += f(i) - Int(r) % 3
+                        }
+
+                        cout << total << ' ' << f(10) << ' ' << not (total > 40 and f(3) == 11) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every evaluation should use the values of the current iteration and call frame."
+            os.toString().contains("62 109 false")
+    }
+
     def "Binary Expression - String Concatenation"() {
         when: "Two Strings are used with the plus operator."
             input = '''
@@ -779,6 +933,66 @@ class RuntimeGoodTest extends RuntimeTest {
             os.toString().contains("5")
     }
 
+    def "Field Expression - Inherited Fields Accessed Through Base Class"() {
+        when: "Inherited fields of an object are accessed and updated by its class and its base class."
+            input = '''
+                        class A {
+                            public x:Int
+                            public method bump() => Void { set x += 5 }
+                        }
+                        class B inherits A { public y:Int }
+                        class C { public b:B }
+
+                        def c:C = new C(b=new B(x=3, y=4))
+
+                        set c.b.x = 10
+                        c.b.bump()
+                        set c.b.y *= 2
+                        cout << 'c.b.x = ' << c.b.x << ', c.b.y = ' << c.b.y << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every inherited field should be found in the same slot by both classes."
+            os.toString().contains("c.b.x = 15, c.b.y = 8")
+    }
+
+    def "Field Expression - Reuse Repeated Field and Array Accesses"() {
+        when: "Field and array accesses are repeated inside a block, and some of them are written in between."
+            input = '''
+                        class Point {
+                            public x:Int
+                            public y:Int
+                        }
+
+                        def dist(in p:Point, in q:Point) => Int {
+                            def d:Int = 0
+                            set d = (p.x - q.x) * (p.x - q.x) + (p.y - q.y) * (p.y - q.y)
+                            set p.x = p.x + 1
+                            return d + p.x * 2 + p.x * 2
+                        }
+
+                        def sums(in a:Array[Int], in i:Int) => Int {
+                            def s:Int = a[i] + a[i] * a[i]
+                            set s = s + a[i] * a[i]
+                            set a[i] = 10
+                            return s + a[i] + a[i]
+                        }
+
+                        def p:Point = new Point(x=3, y=4)
+                        def a:Array[Int] = Array(2,3,4)
+
+                        cout << dist(p,new Point(x=1, y=1)) << ' ' << p.x << endl
+                        cout << sums(a,2) << ' ' << a[2] << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each reused value should match the value the original expression would compute."
+            os.toString().contains(
+                "29 4\n" +
+                "41 10"
+            )
+    }
+
     def "Global Declaration - Accessing Bool Variable"() {
         when: "A Bool global variable is declared."
             input = '''
@@ -839,6 +1053,30 @@ class RuntimeGoodTest extends RuntimeTest {
             os.toString().contains("a = hello world")
     }
 
+    def "If Statement - Constant Conditions"() {
+        when: "An if statement inside a function has branches whose conditions are constant."
+            input = '''
+                        def const LOUD:Bool = False
+
+                        def pick(in a:Int) => Int {
+                            def unused:Int = a * 2
+                            if(LOUD) { cout << 'loud' << endl }
+                            else if(a > 1) { return 1 }
+                            else if(True) { return 2 }
+                            return 3
+                            cout << 'unreachable' << endl
+                        }
+
+                        cout << pick(5) << ' ' << pick(0) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Only the reachable branches should be executed."
+            os.toString().contains("1 2")
+            !os.toString().contains("loud")
+            !os.toString().contains("unreachable")
+    }
+
     def "If Statement - Execute Elif Branch"() {
         when: "The conditional expression evaluates to be true for some elif branch."
             input = '''
@@ -883,6 +1121,53 @@ class RuntimeGoodTest extends RuntimeTest {
             os.toString().contains("This is correct.")
     }
 
+    def "Input Statement - Read Values Across Lines"() {
+        when: "Input values are split across several lines and read by multiple input statements."
+            vm.phaseHandler.setInputScanner(new InputScanner("3\n4 -5\n  6\n2.5 q true word".getBytes()))
+            input = '''
+                        def local n:Int = 0
+                        def local x:Int = 0
+                        def local s:Int = 0
+                        def local r:Real = 0.0
+                        def local c:Char = 'a'
+                        def local b:Bool = False
+                        def local w:String = 'xx'
+
+                        cin >> n
+                        while(n > 0) {
+                            cin >> x
+                            set s += x
+                            set n -= 1
+                        }
+                        cin >> r >> c >> b >> w
+                        cout << s << ' ' << r << ' ' << c << ' ' << b << ' ' << w << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every value should be read in order, regardless of which line it was written on."
+            os.toString().contains("5 2.5 q true word")
+    }
+
+    def "Input Statement - Read UTF-8 From Standard Input"() {
+        when: "A word containing a non-ASCII character is read from the standard input stream."
+            def stdin = System.in
+            System.setIn(new ByteArrayInputStream("caf\u00e9".getBytes("UTF-8")))
+            vm.phaseHandler.setInputScanner(new InputScanner())
+            input = '''
+                        def local w:String = 'xx'
+
+                        cin >> w
+                        cout << 'read ' << w << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The character is decoded as UTF-8 regardless of the default charset."
+            os.toString().contains("read caf\u00e9")
+
+        cleanup:
+            System.setIn(stdin)
+    }
+
     def "Invocation - Chain Method Invocation"() {
         when: "An object invokes multiple methods in a row."
             input = '''
@@ -986,6 +1271,58 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Invocation - Inline Small Functions"() {
+        when: "Small functions and final methods are invoked with different parameter modes."
+            input = '''
+                        def isEven(in x:Int) => Bool { return x % 2 == 0 }
+                        def twice(in x:Int) => Int { return x + x }
+                        def first(in a:Int, in b:Int) => Int { return a }
+                        def bump(inout x:Int) => Int { return x + 1 }
+
+                        final class Box {
+                            protected v:Int
+                            public method scaled(in k:Int) => Int { return v * k }
+                        }
+
+                        def b:Box = new Box(v=3)
+                        def total:Int = 0
+                        def n:Int = 5
+
+                        for(def i:Int in 1..10) {
+                            if(isEven(i)) { set total = total + twice(i) }
+                        }
+
+                        cout << total << ' ' << first(n,twice(n)) << ' ' << bump(n) << ' ' << n << ' ' << b.scaled(twice(2)) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each inlined invocation produces the same value as a regular invocation."
+            os.toString().contains("60 5 6 5 12")
+    }
+
+    def "Invocation - Inlined Calls Are Replaced"() {
+        when: "A program calling a small function and a final method is analyzed up to the inliner."
+            def inliner = new VM(PhaseNumber.INLINER)
+            def nodes = new PEG(new Lexer('''
+                        def twice(in x:Int) => Int { return x + x }
+
+                        final class Box {
+                            protected v:Int
+                            public method scaled(in k:Int) => Int { return v * k }
+                        }
+
+                        def const b:Box = new Box(v=3)
+                        cout << twice(4) << ' ' << b.scaled(2) << endl
+                    ''',inliner.context)).parse()
+            for(node in nodes)
+                inliner.phaseHandler.execute(node)
+            def outputs = nodes.last().asStatement().asOutStmt().getOutExprs()
+
+        then: "Both invocations should be replaced by the body of what they call."
+            outputs[0].isBinaryExpr()
+            outputs[2].isBinaryExpr()
+    }
+
     def "Invocation - Out Mode Passing"() {
         when: "An invocation passes argument to a function with Out parameters."
             input = '''    
@@ -1010,6 +1347,27 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Invocation - Memoized Pure Function"() {
+        when: "Memoization is enabled and a pure recursive function is invoked."
+            input = '''
+                        def pure recurs fib(in n:Int) => Int {
+                            if(n < 2) { return n }
+                            return fib(n-1) + fib(n-2)
+                        }
+
+                        cout << 'fib(25) = ' << fib(25) << endl
+                    '''
+            vm.phaseHandler.setMemoization(true)
+            vm.runInterpreter(input)
+
+        then: "Every distinct call is only executed once, and the result is reused for any repeated call."
+            os.toString().contains("fib(25) = 75025")
+            vm.phaseHandler.getMemoTable().toString().contains("fib(I): 23 hits, 26 misses")
+
+        cleanup:
+            vm.phaseHandler.setMemoization(false)
+    }
+
     def "Invocation - Method Invocation"() {
         when: "A method is invoked through an object."
             input = '''
@@ -1097,6 +1455,33 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Invocation - Overridden Method Invoked From Base Class"() {
+        when: "A base class method invokes a method that is overridden by a child class."
+            input = '''
+                        class A {
+                            public method value() => Int { return 1 }
+                            public method twice() => Int { return value() * 2 }
+                        }
+
+                        class B inherits A {
+                            public override method value() => Int { return 5 }
+                        }
+
+                        def a:A = new A()
+                        def b:B = new B()
+                        def i:Int = 0
+
+                        while(i < 3) {
+                            cout << a.twice() << ' ' << b.twice() << ' '
+                            set i += 1
+                        }
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The method of the object's runtime class should be invoked every time."
+            os.toString().contains("2 10 2 10 2 10 ")
+    }
+
     def "Invocation - Parent Invocation From Child Class"() {
         when: "A method from the parent is invoked from a child class."
             input = '''              
@@ -1210,6 +1595,44 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Invocation - Recursive Function Invocation"() {
+        when: "A recursive function declares local variables that are used after each recursive call."
+            input = '''
+                        def recurs sum(in n:Int) => Int {
+                            def total:Int = n
+                            if(n > 0) {
+                                def rest:Int = sum(n-1)
+                                set total += rest
+                            }
+                            return total
+                        }
+
+                        def n:Int = 4
+                        cout << 'sum(4) = ' << sum(n) << ', n = ' << n << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each invocation should have its own copy of the local variables."
+            os.toString().contains("sum(4) = 10, n = 4")
+    }
+
+    def "Invocation - Tail Recursive Function Invocation"() {
+        when: "A recursive function returns the result of calling itself many times."
+            input = '''
+                        def recurs count(in n:Int, in acc:Int) => Int {
+                            def next:Int = acc + 1
+                            if(n == 0) { return acc }
+                            return count(n-1, next)
+                        }
+
+                        cout << 'count = ' << count(100000, 0) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each tail call reuses the current frame, so the stack does not overflow."
+            os.toString().contains("count = 100000")
+    }
+
     def "List Statement - Append"() {
         when: "A list is declared and elements are appended to the list."
             input = '''
@@ -1504,6 +1927,135 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Output Statement - Buffered Output of Mixed Values"() {
+        when: "A program prints more output than the output buffer is able to store at once."
+            input = '''
+                        def a:List[List[Int]] = List(List(1,2),List(3))
+                        def c:Char = 'z'
+                        def b:Bool = True
+                        def local i:Int = 0
+
+                        while(i < 3000) {
+                            cout << i % 10
+                            set i += 1
+                        }
+                        cout << endl
+                        cout << a << ' ' << c << ' ' << b << ' ' << -7 << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Every value should be printed in order once the program finishes."
+            os.toString().contains(
+                "0123456789".repeat(300) + "\n" +
+                "[[1, 2], [3]] z true -7"
+            )
+    }
+
+    def "Profiler - Hot-Spot Report"() {
+        when: "A program is executed while profiling is enabled."
+            def err = new ByteArrayOutputStream()
+            def realErr = System.err
+            System.setErr(new PrintStream(err))
+            vm.phaseHandler.setProfiling(true)
+            input = '''
+                        def recurs sum(in n:Int) => Int {
+                            if(n == 0) { return 0 }
+                            return n + sum(n-1)
+                        }
+
+                        def local i:Int = 0
+                        while(i < 10) {
+                            set i += 1
+                        }
+                        cout << sum(i) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The report should be printed separately from the output of the program."
+            err.toString().contains("loop      while(i < 10) {")
+            err.toString().contains("function  sum()")
+            os.toString().contains("55")
+
+        cleanup:
+            vm.phaseHandler.setProfiling(false)
+            System.setErr(realErr)
+    }
+
+    def "Profiler - Sampled Call Stacks"() {
+        when: "A program is executed while sampling is enabled."
+            def err = new ByteArrayOutputStream()
+            def realErr = System.err
+            System.setErr(new PrintStream(err))
+            vm.phaseHandler.setSampling(true)
+            input = '''
+                        def square(in x:Int) => Int {
+                            def local y:Int = x * x
+                            return y
+                        }
+
+                        def local i:Int = 0
+                        def local s:Int = 0
+                        while(i < 200000) {
+                            set s += square(i % 10)
+                            set i += 1
+                        }
+                        cout << s << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The call stacks should be printed in the collapsed stack format."
+            err.toString().contains("program;square ")
+            os.toString().contains("5700000")
+
+        cleanup:
+            vm.phaseHandler.setSampling(false)
+            System.setErr(realErr)
+    }
+
+    def "Real Mode - Double Arithmetic"() {
+        when: "Real values are represented as doubles."
+            vm.phaseHandler.setRealMode(RealMode.DOUBLE)
+            input = '''
+                        def a:Real = 0.1
+                        cout << a + 0.2 << endl
+                        cout << 1.5 ** 3.0 << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each operation should be rounded the same way as a Java double."
+            os.toString().contains(
+                "0.30000000000000004\n" +
+                "3.375"
+            )
+
+        cleanup:
+            vm.phaseHandler.setRealMode(RealMode.EXACT)
+    }
+
+    def "Real Mode - Fixed Arithmetic"() {
+        when: "Real values are represented with a fixed number of digits after the decimal point."
+            vm.phaseHandler.setRealMode(RealMode.FIXED)
+            input = '''
+                        def a:Real = 0.1
+                        cout << a + 0.2 << endl
+                        cout << 1.0 / 3.0 << endl
+                        cout << 2.0 ** 40.0 << endl
+                        cout << 2.0 ** -2.0 << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Additions should be exact, and any digits past the scale should be truncated."
+            os.toString().contains(
+                "0.3\n" +
+                "0.333333\n" +
+                "1099511627776.0\n" +
+                "0.25"
+            )
+
+        cleanup:
+            vm.phaseHandler.setRealMode(RealMode.EXACT)
+    }
+
     //TODO: Formatting is also off here...
 //    def "Output Statement - Correct Output"() {
 //        when: "Different output statements are written."
@@ -1888,6 +2440,20 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Stop Statement - Ends the Program"() {
+        when: "A stop statement is executed."
+            input = '''
+                        cout << 'before stop' << endl
+                        stop
+                        cout << 'after stop' << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Only the output written before the stop statement should be printed."
+            os.toString().contains("before stop")
+            !os.toString().contains("after stop")
+    }
+
     def "Template - Class Instantiation"() {
         when: "A template class is declared and instantiated."
             input = '''
@@ -2075,6 +2641,56 @@ class RuntimeGoodTest extends RuntimeTest {
             )
     }
 
+    def "Virtual Machine - Clear Resets the Program State"() {
+        when: "A memoized function is called before the VM is cleared, and a new program is executed after."
+            def other = new VM(PhaseNumber.INTERPRETER)
+            def printed = new ByteArrayOutputStream()
+            other.phaseHandler.setOutputSink(new ChannelOutput(Channels.newChannel(printed)))
+            other.phaseHandler.setInputScanner(new InputScanner('''#memoize on
+def pure recurs fib(in n:Int) => Int {
+if(n < 2) { return n }
+return fib(n-1) + fib(n-2)
+}
+cout << 'before ' << fib(15) << endl
+#clear
+def fib:Int = 7
+cout << 'after ' << fib << endl
+'''.getBytes()))
+            other.readUserInput()
+
+        then: "Nothing stored for the first program should be kept once the VM was cleared."
+            printed.toString().contains("before 610")
+            printed.toString().contains("after 7")
+            other.phaseHandler.getMemoTable().toString() == "No function calls were memoized."
+            other.phaseHandler.constantPool.size() == 2
+    }
+
+    def "Virtual Machine - Independent Programs on Virtual Threads"() {
+        when: "Several programs with the same names are executed at the same time by different VMs."
+            def executor = Executors.newVirtualThreadPerTaskExecutor()
+            def futures = (1..8).collect { n ->
+                executor.submit({
+                    def other = new VM(PhaseNumber.INTERPRETER)
+                    other.runInterpreter("""
+                        class Counter { public total:Int }
+
+                        def local c:Counter = new Counter(total=0)
+                        def local i:Int = 0
+                        while(i < 1000) {
+                            set c.total += ${n}
+                            set i += 1
+                        }
+                        cout << 'program ${n} = ' << c.total << endl
+                    """)
+                } as Runnable)
+            }
+            futures*.get()
+            executor.shutdown()
+
+        then: "Each program should only see its own declarations."
+            (1..8).every { n -> os.toString().contains("program ${n} = ${n*1000}") }
+    }
+
     def "While Statement - Execute While Loop"() {
         when: "A while loop is executed."
             input = '''
@@ -2123,4 +2739,55 @@ class RuntimeGoodTest extends RuntimeTest {
                     "1 2 3 4 "
             )
     }
+
+    def "While Statement - Loop Invariant Expressions"() {
+        when: "Loops contain expressions that do not change between iterations."
+            input = '''
+                       def n:Int = 4, m:Int = 3, s:Int = 0, k:Int = 0, j:Int = 10
+
+                       for(def i:Int in 1..5) {
+                           set s = s + i*n + i*n + (n - m)
+                       }
+
+                       do {
+                           set k = k + 1
+                       } while(k < n * 2)
+
+                       while(j < 5 * n) {
+                           set j = j + n
+                           set n = n + 1
+                       }
+
+                       cout << s << ' ' << k << ' ' << j << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "Each loop should produce the same values as if nothing was hoisted."
+            os.toString().contains("125 8 59")
+    }
+
+    def "While Statement - Loop Invariant Expressions in a Loop That Never Runs"() {
+        when: "A loop that never runs contains a Real product that overflows in fixed mode."
+            vm.phaseHandler.setRealMode(RealMode.FIXED)
+            input = '''
+                        def f(in n:Real, in k:Int) => Real {
+                            def s:Real = 0.0
+                            def i:Int = 0
+                            while(i < k) {
+                                set s = s + n * n * n
+                                set i = i + 1
+                            }
+                            return s
+                        }
+
+                        cout << 'r ' << f(10000000.0,0) << endl
+                    '''
+            vm.runInterpreter(input)
+
+        then: "The product is never computed, so no error is produced."
+            os.toString().contains("r 0.0")
+
+        cleanup:
+            vm.phaseHandler.setRealMode(RealMode.EXACT)
+    }
 }